@@ -0,0 +1,116 @@
+package org.abos.sc.bench;
+
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.abos.sc.core.Difficulty;
+import org.abos.sc.core.battle.AttackTask;
+import org.abos.sc.core.battle.Encounter;
+import org.abos.sc.core.battle.Formation;
+import org.abos.sc.core.battle.Tactic;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for the hot paths of a battle, i.e. a single attack, checking formations for defeat and resolving targets.
+ * The encounters are taken from the real stages.
+ * @author Sebastian Koch
+ * @version %I%
+ * @since 0.7
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BattleBenchmark {
+
+	/**
+	 * The attacking encounter.
+	 */
+	protected Encounter attackers;
+
+	/**
+	 * The defending encounter.
+	 */
+	protected Encounter defenders;
+
+	/**
+	 * The attack task of the first attacker.
+	 */
+	protected AttackTask attackTask;
+
+	/**
+	 * The tactic of the attack task.
+	 */
+	protected Tactic attackTactic;
+
+	/**
+	 * A tactic to resolve targets with.
+	 */
+	protected Tactic tactic;
+
+	/**
+	 * Parses the first and the last stage encounter and prepares an attack task between them.
+	 * The logger of the attack task is turned off, so only the simulation is measured.
+	 * @param data the loaded game data
+	 */
+	@Setup
+	public void setUp(GameDataState data) {
+		attackers = Encounter.parse(data.encounterStrings[0]);
+		defenders = Encounter.parse(data.encounterStrings[data.encounterStrings.length - 1]);
+		Logger logger = Logger.getAnonymousLogger();
+		logger.setUseParentHandlers(false);
+		logger.setLevel(Level.OFF);
+		Formation formation = attackers.getFormation();
+		int row = 0, col = 0;
+		outer: for (row = 0; row < Formation.ROW_NUMBER; row++)
+			for (col = 0; col < Formation.COL_NUMBER; col++)
+				if (formation.getCharacter(row, col) != null)
+					break outer;
+		attackTactic = attackers.getTactic(row, col);
+		attackTask = new AttackTask(formation.getCharacter(row, col), attackTactic,
+				defenders.getFormation(), null, logger, Difficulty.DEFAULT, true);
+		tactic = Tactic.createConcentratedAssault();
+	}
+
+	/**
+	 * Executes a single attack, restoring the defenders once they have been defeated.
+	 */
+	@Benchmark
+	public void attackTaskRun() {
+		if (defenders.isDefeated()) {
+			defenders.getFormation().restoreAll();
+			attackTactic.reset();
+		}
+		attackTask.run();
+	}
+
+	/**
+	 * Checks the defending formation for defeat.
+	 * @return if the defenders are defeated
+	 */
+	@Benchmark
+	public boolean formationIsDefeated() {
+		return defenders.getFormation().isDefeated();
+	}
+
+	/**
+	 * Walks a tactic through all of its targets and resets it.
+	 * @param blackhole the blackhole to consume the targets
+	 */
+	@Benchmark
+	public void tacticTargetResolution(Blackhole blackhole) {
+		tactic.reset();
+		while (tactic.hasTarget()) {
+			blackhole.consume(defenders.getFormation().isDefeated(tactic.getCurrentTargetRow(), tactic.getCurrentTargetCol()));
+			tactic.nextTarget();
+		}
+	}
+
+}
@@ -0,0 +1,58 @@
+package org.abos.sc.bench;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs all benchmarks of this package and saves the results as JSON, so they can be compared between releases.
+ * @author Sebastian Koch
+ * @version %I%
+ * @since 0.7
+ */
+public class BenchmarkRunner {
+
+	/**
+	 * The directory the results are saved to.
+	 */
+	public static final String RESULT_DIRECTORY = "bench-results";
+
+	/**
+	 * Private constructor to avoid instantiation.
+	 */
+	private BenchmarkRunner() {}
+
+	/**
+	 * Runs the benchmarks.
+	 * @param args Optionally the path of the JSON result file, defaults to a time stamped file in {@value #RESULT_DIRECTORY}.
+	 * Further arguments are used as regular expressions to select the benchmarks to run.
+	 * @throws Exception If the benchmarks couldn't be run.
+	 */
+	public static void main(String[] args) throws Exception {
+		Path result;
+		if (args.length > 0)
+			result = Path.of(args[0]);
+		else
+			result = Path.of(RESULT_DIRECTORY, String.format("jmh-%s.json", LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"))));
+		if (result.getParent() != null)
+			Files.createDirectories(result.getParent());
+		OptionsBuilder builder = new OptionsBuilder();
+		if (args.length > 1)
+			for (int i = 1; i < args.length; i++)
+				builder.include(args[i]);
+		else
+			builder.include(BenchmarkRunner.class.getPackageName() + ".*");
+		Options options = builder
+				.resultFormat(ResultFormatType.JSON)
+				.result(result.toString())
+				.build();
+		new Runner(options).run();
+	}
+
+}
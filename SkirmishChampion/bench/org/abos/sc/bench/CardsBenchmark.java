@@ -0,0 +1,84 @@
+package org.abos.sc.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.abos.sc.core.CharacterBase;
+import org.abos.sc.core.FandomBase;
+import org.abos.sc.core.cards.Booster;
+import org.abos.sc.core.cards.CardPlayerAi;
+import org.abos.sc.core.cards.FastQuartett;
+import org.abos.sc.core.cards.QuartettTournament;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks for opening booster packs and simulating quartett games with the real characters.
+ * @author Sebastian Koch
+ * @version %I%
+ * @since 0.7
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CardsBenchmark {
+
+	/**
+	 * A gold booster of the fandom with the most characters.
+	 */
+	protected Booster<CharacterBase> booster;
+
+	/**
+	 * A quartett game between the decks of the first two fandoms.
+	 */
+	protected FastQuartett<CharacterBase> quartett;
+
+	/**
+	 * The random number generator for the packs and games.
+	 */
+	protected SplittableRandom rng = new SplittableRandom(0L);
+
+	/**
+	 * Creates the booster and the quartett game.
+	 * @param data the loaded game data
+	 */
+	@Setup
+	public void setUp(GameDataState data) {
+		FandomBase largest = null;
+		for (FandomBase fandom : FandomBase.FANDOMS)
+			if (largest == null || fandom.collectAssociatedCharacters().size() > largest.collectAssociatedCharacters().size())
+				largest = fandom;
+		booster = Booster.createBoosterGold(largest);
+		List<CardPlayerAi<CharacterBase>> players = new ArrayList<>();
+		for (List<CharacterBase> deck : QuartettTournament.createFandomDecks().values())
+			if (players.size() < 2)
+				players.add(new CardPlayerAi<>(deck, 0, QuartettTournament.DEFAULT_TIE_ROUNDS));
+		quartett = new FastQuartett<>(players, QuartettTournament.createCharacterRules());
+	}
+
+	/**
+	 * Opens a single booster pack.
+	 * @return the opened cards
+	 */
+	@Benchmark
+	public List<CharacterBase> openPack() {
+		return booster.openPack(rng);
+	}
+
+	/**
+	 * Plays a single quartett game.
+	 * @return the seat of the winner
+	 */
+	@Benchmark
+	public int quartettGame() {
+		return quartett.play(rng);
+	}
+
+}
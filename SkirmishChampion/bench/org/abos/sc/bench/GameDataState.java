@@ -0,0 +1,65 @@
+package org.abos.sc.bench;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.abos.sc.core.CharacterBase;
+import org.abos.sc.core.ContentValidator;
+import org.abos.sc.core.FandomBase;
+import org.abos.sc.core.StageBase;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmark state that loads the real game data from the resources once per JVM.
+ * The resource directory is taken from the system property {@value #RESOURCES_PROPERTY},
+ * defaulting to <code>resources</code> relative to the working directory.
+ * @author Sebastian Koch
+ * @version %I%
+ * @since 0.7
+ */
+@State(Scope.Benchmark)
+public class GameDataState {
+
+	/**
+	 * The system property for the resource directory.
+	 */
+	public static final String RESOURCES_PROPERTY = "skirmishchampion.resources";
+
+	/**
+	 * All registered character bases.
+	 */
+	public CharacterBase[] characters;
+
+	/**
+	 * The IDs of all registered character bases.
+	 */
+	public String[] characterIds;
+
+	/**
+	 * The encounter strings of all registered stages.
+	 */
+	public String[] encounterStrings;
+
+	/**
+	 * Loads the game data if it hasn't been loaded yet and collects the fixtures.
+	 * @throws IOException If the game data couldn't be read.
+	 */
+	@Setup
+	public void loadGameData() throws IOException {
+		synchronized (FandomBase.FANDOMS) {
+			if (FandomBase.FANDOMS.isEmpty())
+				ContentValidator.loadGameData(Path.of(System.getProperty(RESOURCES_PROPERTY, ContentValidator.RESOURCES)), true);
+		}
+		characters = CharacterBase.CHARACTERS.toArray(new CharacterBase[0]);
+		characterIds = new String[characters.length];
+		for (int i = 0; i < characters.length; i++)
+			characterIds[i] = characters[i].getId();
+		StageBase[] stages = StageBase.STAGES.toArray(new StageBase[0]);
+		encounterStrings = new String[stages.length];
+		for (int i = 0; i < stages.length; i++)
+			encounterStrings[i] = stages[i].getEncounterString();
+	}
+
+}
@@ -0,0 +1,89 @@
+package org.abos.sc.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.abos.sc.core.battle.Encounter;
+import org.abos.sc.core.battle.Formation;
+import org.abos.sc.core.battle.Strategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks for parsing the encounter strings of the real stages. Every invocation parses the next
+ * encounter string, cycling through all of them.
+ * @author Sebastian Koch
+ * @version %I%
+ * @since 0.7
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ParseBenchmark {
+
+	/**
+	 * The encounter strings of all stages.
+	 */
+	protected String[] encounterStrings;
+
+	/**
+	 * The formation parts of the encounter strings.
+	 */
+	protected String[] formationStrings;
+
+	/**
+	 * The strategy parts of the encounter strings.
+	 */
+	protected String[] strategyStrings;
+
+	/**
+	 * The index of the next string to parse.
+	 */
+	protected int index = 0;
+
+	/**
+	 * Splits the encounter strings of the game data into their parts.
+	 * @param data the loaded game data
+	 */
+	@Setup
+	public void setUp(GameDataState data) {
+		encounterStrings = data.encounterStrings;
+		formationStrings = new String[encounterStrings.length];
+		strategyStrings = new String[encounterStrings.length];
+		for (int i = 0; i < encounterStrings.length; i++) {
+			String[] split = encounterStrings[i].split(Encounter.FIELD_SEPARATOR_REGEX);
+			formationStrings[i] = split[0];
+			strategyStrings[i] = split[1];
+		}
+	}
+
+	/**
+	 * Returns the next index to parse.
+	 * @return the next index to parse
+	 */
+	protected int next() {
+		if (++index >= encounterStrings.length)
+			index = 0;
+		return index;
+	}
+
+	@Benchmark
+	public Encounter encounterParse() {
+		return Encounter.parse(encounterStrings[next()]);
+	}
+
+	@Benchmark
+	public Formation formationParse() {
+		return Formation.parse(formationStrings[next()]);
+	}
+
+	@Benchmark
+	public Strategy strategyParse() {
+		return Strategy.parse(strategyStrings[next()]);
+	}
+
+}
@@ -0,0 +1,75 @@
+package org.abos.sc.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.abos.sc.core.CharacterBase;
+import org.abos.sc.core.Companion;
+import org.abos.sc.core.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Benchmarks for saving and loading a player that owns every character as a companion.
+ * @author Sebastian Koch
+ * @version %I%
+ * @since 0.7
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PersistenceBenchmark {
+
+	/**
+	 * The player to save.
+	 */
+	protected Player player;
+
+	/**
+	 * The save file to load.
+	 */
+	protected Path saveFile;
+
+	/**
+	 * Creates a validation player with all characters as companions and saves them to a temporary file.
+	 * @param data the loaded game data
+	 * @throws IOException If the temporary file couldn't be written.
+	 */
+	@Setup
+	public void setUp(GameDataState data) throws IOException {
+		player = Player.createValidationPlayer();
+		for (CharacterBase character : data.characters)
+			if (!player.getCompanions().containsId(character.getId()))
+				player.getCompanions().add(new Companion(character));
+		saveFile = Files.createTempFile("skirmishChampionBench", ".sav");
+		player.saveToFile(saveFile, true);
+	}
+
+	/**
+	 * Deletes the temporary save file.
+	 * @throws IOException If the file couldn't be deleted.
+	 */
+	@TearDown
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(saveFile);
+	}
+
+	@Benchmark
+	public String playerToSaveString() {
+		return player.toSaveString();
+	}
+
+	@Benchmark
+	public Player playerLoadFromFile() throws IOException {
+		return Player.loadFromFile(saveFile);
+	}
+
+}
@@ -0,0 +1,87 @@
+package org.abos.sc.bench;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.abos.sc.core.CharacterBase;
+import org.abos.sc.core.RosterStats;
+import org.abos.sc.core.StatsSecondary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks for the character stats and the registry lookups over all real characters.
+ * @author Sebastian Koch
+ * @version %I%
+ * @since 0.7
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class StatsBenchmark {
+
+	/**
+	 * All secondary stats.
+	 */
+	protected final StatsSecondary[] secondaryStats = StatsSecondary.values();
+
+	/**
+	 * Sums up all secondary stats of all characters.
+	 * @param data the loaded game data
+	 * @return the sum of all secondary stats
+	 */
+	@Benchmark
+	public int getSecondaryStat(GameDataState data) {
+		int sum = 0;
+		for (CharacterBase character : data.characters)
+			for (StatsSecondary stat : secondaryStats)
+				sum += character.getSecondaryStat(stat);
+		return sum;
+	}
+
+	/**
+	 * Computes the maximum of all secondary stats over all characters.
+	 * @param data the loaded game data
+	 * @return the maxima
+	 */
+	@Benchmark
+	public int[] getStatsMax(GameDataState data) {
+		return CharacterBase.getStatsMax(Arrays.asList(data.characters), false);
+	}
+
+	/**
+	 * Computes the minimum, maximum, mean and median of all stats over all characters.
+	 * @param data the loaded game data
+	 * @return the medians of the secondary stats
+	 */
+	@Benchmark
+	public int[] rosterStats(GameDataState data) {
+		RosterStats stats = new RosterStats(Arrays.asList(data.characters));
+		stats.getMin(true);
+		stats.getMax(true);
+		stats.getMean(true);
+		stats.getMin(false);
+		stats.getMax(false);
+		stats.getMean(false);
+		return stats.getMedian(false);
+	}
+
+	/**
+	 * Looks up all characters by their ID.
+	 * @param data the loaded game data
+	 * @return the number of found characters
+	 */
+	@Benchmark
+	public int registryLookup(GameDataState data) {
+		int found = 0;
+		for (String id : data.characterIds)
+			if (CharacterBase.CHARACTERS.lookup(id) != null)
+				found++;
+		return found;
+	}
+
+}
@@ -0,0 +1,295 @@
+package org.abos.sc.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+import org.abos.sc.core.battle.BattleSimulation;
+import org.abos.sc.core.battle.Encounter;
+import org.abos.util.ParseException;
+import org.abos.util.Utilities;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * A headless HTTP server for battle simulations, e.g. for balance and matchmaking checks on machines without a display.
+ * The game data is loaded once at startup. Battles are resolved in virtual time by {@link BattleSimulation} and
+ * the results are returned as JSON. The encounters are given in the format of {@link Encounter#parse(String)},
+ * either as the URL encoded query parameters <code>party1</code> and <code>party2</code> or as the first two lines
+ * of a POST body. The following endpoints are available:
+ * <ul>
+ * <li><code>/battle</code> simulates a battle between <code>party1</code> and <code>party2</code>.</li>
+ * <li><code>/stage?id=ID</code> simulates a battle between <code>party1</code> and the encounter of the stage.</li>
+ * <li><code>/health</code> reports the number of loaded characters and stages.</li>
+ * </ul>
+ * Requests are served by a thread per request, using virtual threads if the runtime supports them.
+ * @author Sebastian Koch
+ * @version %I%
+ * @since 0.7
+ * @see #main(String[])
+ */
+public class BattleServer {
+
+	/**
+	 * The default port of the server.
+	 */
+	public static final int DEFAULT_PORT = 8080;
+
+	/**
+	 * The underlying HTTP server.
+	 */
+	protected final HttpServer server;
+
+	/**
+	 * The executor serving the requests.
+	 */
+	protected final ExecutorService executor;
+
+	/**
+	 * Creates a new battle server for the already loaded game data. The server isn't started yet.
+	 * @param port the port to listen on, <code>0</code> for an ephemeral port
+	 * @throws IOException If the server can't be bound to the port.
+	 * @see ContentValidator#loadGameData(Path, boolean)
+	 * @see #start()
+	 */
+	public BattleServer(int port) throws IOException {
+		server = HttpServer.create(new InetSocketAddress(port), 0);
+		executor = Utilities.newThreadPerTaskExecutor();
+		server.setExecutor(executor);
+		server.createContext("/battle", exchange -> handle(exchange, this::battle));
+		server.createContext("/stage", exchange -> handle(exchange, this::stage));
+		server.createContext("/health", exchange -> handle(exchange, this::health));
+	}
+
+	/**
+	 * Starts the server in the background.
+	 */
+	public void start() {
+		server.start();
+	}
+
+	/**
+	 * Stops the server and the executor.
+	 * @param delay the maximum time in seconds to wait for running requests to finish
+	 */
+	public void stop(int delay) {
+		server.stop(delay);
+		executor.shutdown();
+	}
+
+	/**
+	 * Returns the port the server listens on.
+	 * @return the port the server listens on
+	 */
+	public int getPort() {
+		return server.getAddress().getPort();
+	}
+
+	/**
+	 * Answers to a request with the JSON computed by the handler. {@link ParseException}s and
+	 * {@link IllegalArgumentException}s are answered with status <code>400</code>, any other 
+	 * {@link RuntimeException} with status <code>500</code>. The exchange is closed in any case.
+	 * @param exchange the request to answer
+	 * @param handler computes the JSON answer from the request parameters
+	 * @throws IOException If an I/O error occurs.
+	 */
+	protected void handle(HttpExchange exchange, JsonHandler handler) throws IOException {
+		int status = 200;
+		StringBuilder s = new StringBuilder();
+		try {
+			if (!"GET".equals(exchange.getRequestMethod()) && !"POST".equals(exchange.getRequestMethod())) {
+				status = 405;
+				appendError("Only GET and POST are supported!", s);
+			}
+			else
+				handler.handle(readParameters(exchange), s);
+		}
+		catch (IllegalArgumentException | ParseException ex) {
+			status = 400;
+			s.setLength(0);
+			appendError(ex.getMessage(), s);
+		}
+		catch (RuntimeException ex) {
+			// e.g. a malformed encounter the parsers didn't catch, the client must not wait for a timeout
+			status = 500;
+			s.setLength(0);
+			appendError("Internal server error: "+ex, s);
+			ex.printStackTrace();
+		}
+		try {
+			byte[] response = s.toString().getBytes(Utilities.ENCODING);
+			exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+			exchange.sendResponseHeaders(status, response.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(response);
+			}
+		}
+		finally {
+			exchange.close();
+		}
+	}
+
+	/**
+	 * Simulates a battle between the parameters <code>party1</code> and <code>party2</code>.
+	 * @param parameters the request parameters
+	 * @param s the string builder to append the JSON result to
+	 * @throws IllegalArgumentException If a parameter is missing.
+	 * @throws ParseException If an encounter is invalid.
+	 */
+	protected void battle(Map<String, String> parameters, StringBuilder s) {
+		appendSimulation(new BattleSimulation(parseParameter(parameters, "party1"), parseParameter(parameters, "party2")), s);
+	}
+
+	/**
+	 * Simulates a battle between the parameter <code>party1</code> and the stage with the ID given by the parameter <code>id</code>.
+	 * @param parameters the request parameters
+	 * @param s the string builder to append the JSON result to
+	 * @throws IllegalArgumentException If a parameter is missing or the stage is unknown.
+	 * @throws ParseException If an encounter is invalid.
+	 */
+	protected void stage(Map<String, String> parameters, StringBuilder s) {
+		String id = parameters.get("id");
+		if (id == null)
+			throw new IllegalArgumentException("Parameter id is missing!");
+		StageBase stage = StageBase.STAGES.lookup(id);
+		if (stage == null)
+			throw new IllegalArgumentException("Unknown stage "+id+"!");
+		appendSimulation(new BattleSimulation(parseParameter(parameters, "party1"), stage.createEncounter()), s);
+	}
+
+	/**
+	 * Reports the number of loaded characters and stages.
+	 * @param parameters the request parameters, ignored
+	 * @param s the string builder to append the JSON result to
+	 */
+	protected void health(Map<String, String> parameters, StringBuilder s) {
+		s.append(String.format("{\"status\":\"ok\",\"characters\":%d,\"stages\":%d}",
+				CharacterBase.CHARACTERS.size(), StageBase.STAGES.size()));
+	}
+
+	/**
+	 * Simulates the battle and appends the result as JSON.
+	 * @param simulation the battle to simulate
+	 * @param s the string builder to append to
+	 */
+	protected static void appendSimulation(BattleSimulation simulation, StringBuilder s) {
+		s.append("{\"conclusion\":");
+		Utilities.appendJsonString(simulation.simulate().name(), s);
+		s.append(",\"durationMs\":");
+		s.append(simulation.getDuration());
+		s.append(",\"party1\":");
+		appendParty(simulation, true, s);
+		s.append(",\"party2\":");
+		appendParty(simulation, false, s);
+		s.append('}');
+	}
+
+	/**
+	 * Appends the stats of one party of a simulated battle as JSON.
+	 * @param simulation the simulated battle
+	 * @param firstParty if the first or the second party should be appended
+	 * @param s the string builder to append to
+	 */
+	protected static void appendParty(BattleSimulation simulation, boolean firstParty, StringBuilder s) {
+		s.append(String.format("{\"challengeRating\":%d,\"size\":%d,\"survivors\":%d,\"attacks\":%d,\"damageTaken\":%d}",
+				simulation.getParty(firstParty).getChallengeRating(), simulation.getParty(firstParty).getSize(),
+				simulation.getSurvivors(firstParty), simulation.getAttacks(firstParty), simulation.getDamageTaken(firstParty)));
+	}
+
+	/**
+	 * Appends an error message as JSON.
+	 * @param message the error message
+	 * @param s the string builder to append to
+	 */
+	protected static void appendError(String message, StringBuilder s) {
+		s.append("{\"error\":");
+		Utilities.appendJsonString(message, s);
+		s.append('}');
+	}
+
+	/**
+	 * Parses the specified parameter as encounter.
+	 * @param parameters the request parameters
+	 * @param name the name of the parameter
+	 * @return the parsed encounter
+	 * @throws IllegalArgumentException If the parameter is missing.
+	 * @throws ParseException If the encounter is invalid.
+	 */
+	protected static Encounter parseParameter(Map<String, String> parameters, String name) {
+		String encounter = parameters.get(name);
+		if (encounter == null)
+			throw new IllegalArgumentException("Parameter "+name+" is missing!");
+		return Encounter.parse(encounter);
+	}
+
+	/**
+	 * Reads the parameters of a request. The query parameters are URL decoded. The first two non blank lines
+	 * of the body are taken as <code>party1</code> and <code>party2</code> unless given in the query.
+	 * @param exchange the request
+	 * @return a map from the parameter names to their values
+	 * @throws IOException If an I/O error occurs.
+	 */
+	protected static Map<String, String> readParameters(HttpExchange exchange) throws IOException {
+		Map<String, String> parameters = new HashMap<>();
+		String query = exchange.getRequestURI().getRawQuery();
+		if (query != null)
+			for (String pair : query.split("&")) {
+				int index = pair.indexOf('=');
+				if (index > 0)
+					parameters.put(URLDecoder.decode(pair.substring(0, index), Utilities.ENCODING),
+							URLDecoder.decode(pair.substring(index + 1), Utilities.ENCODING));
+			}
+		String body;
+		try (InputStream in = exchange.getRequestBody()) {
+			body = new String(in.readAllBytes(), Utilities.ENCODING);
+		}
+		int party = 1;
+		for (String line : body.split("\\R")) {
+			if (party > 2)
+				break;
+			if (!line.isBlank())
+				parameters.putIfAbsent("party"+party++, line.strip());
+		}
+		return parameters;
+	}
+
+	/**
+	 * Computes the JSON answer of a request.
+	 */
+	@FunctionalInterface
+	protected interface JsonHandler {
+
+		/**
+		 * Computes the JSON answer of a request.
+		 * @param parameters the request parameters
+		 * @param s the string builder to append the JSON answer to
+		 */
+		void handle(Map<String, String> parameters, StringBuilder s);
+
+	}
+
+	/**
+	 * Loads the game data and starts a battle server.
+	 * @param args Optionally the port, defaults to {@value #DEFAULT_PORT}, and the resource directory,
+	 * defaults to the resources in the application directory.
+	 * @throws IOException If the game data can't be loaded or the server can't be bound to the port.
+	 */
+	public static void main(String[] args) throws IOException {
+		int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+		Path resourceDirectory = args.length > 1 ? Path.of(args[1]) : Utilities.loadApplicationDirectory().resolve(ContentValidator.RESOURCES);
+		ContentValidator.loadGameData(resourceDirectory, true);
+		BattleServer server = new BattleServer(port);
+		server.start();
+		System.out.println(String.format("Battle server listening on port %d with %d characters and %d stages.",
+				server.getPort(), CharacterBase.CHARACTERS.size(), StageBase.STAGES.size()));
+	}
+
+}
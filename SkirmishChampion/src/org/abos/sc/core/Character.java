@@ -2,6 +2,7 @@ package org.abos.sc.core;
 
 import java.util.Arrays;
 
+import org.abos.sc.core.battle.BattleMetrics;
 import org.abos.util.Utilities;
 
 /**
@@ -25,6 +26,12 @@ public class Character extends CharacterBase {
 	 */
 	protected Long lastDamageMoment = null;
 	
+	/**
+	 * Counts the changes of {@link #damages}, so displays can cheaply check if they are outdated.
+	 * @see #getDamageVersion()
+	 */
+	protected volatile int damageVersion = 0;
+	
 	/**
 	 * A flag to remember if the character had been defeated.
 	 * @see #isDefeated()
@@ -85,6 +92,19 @@ public class Character extends CharacterBase {
 		Utilities.requireNonNull(type, "type");
 		this.damages[type.ordinal()] += damage; 
 		lastDamageMoment = System.currentTimeMillis();
+		damageVersion++;
+		BattleMetrics.METRICS.damageDealt();
+	}
+	
+	/**
+	 * Returns the number of changes of the damages of this character. The number only serves to compare if the damages
+	 * have changed in between two calls, reading it is much cheaper than {@link #healthToString()}.
+	 * @return the current damage version of this character
+	 * @see #dealDamage(int, StatsSecondary)
+	 * @see #restore()
+	 */
+	public int getDamageVersion() {
+		return damageVersion;
 	}
 	
 	/**
@@ -149,6 +169,7 @@ public class Character extends CharacterBase {
 			damages[i] = 0;
 		lastDamageMoment = null;
 		defeated = false;
+		damageVersion++;
 	}
 	
 	/**
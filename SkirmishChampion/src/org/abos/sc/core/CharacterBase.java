@@ -2,7 +2,7 @@ package org.abos.sc.core;
 
 import java.nio.file.Path;
 import java.util.Arrays;
-import java.util.function.BinaryOperator;
+import java.util.function.IntBinaryOperator;
 
 import org.abos.sc.core.cards.Card;
 import org.abos.sc.core.cards.Rarity;
@@ -654,8 +654,9 @@ public class CharacterBase implements IdCloneable, Name, ChallengeRatable, Card,
 	 * @see #getStatsMax(Iterable, boolean)
 	 * @see #getStatsMin(Iterable, boolean)
 	 * @see #getStatsAverage(Iterable, int, boolean)
+	 * @see RosterStats
 	 */
-	public static int[] getStatsEval(Iterable<? extends CharacterBase> chars, BinaryOperator<Integer> op, int[] startVals, boolean primary) {
+	public static int[] getStatsEval(Iterable<? extends CharacterBase> chars, IntBinaryOperator op, int[] startVals, boolean primary) {
 		Utilities.requireNonNull(chars, "chars");
 		Utilities.requireNonNull(op, "op");
 		Utilities.requireNonNull(startVals, "startVals");
@@ -674,11 +675,11 @@ public class CharacterBase implements IdCloneable, Name, ChallengeRatable, Card,
 				continue;
 			if (primary) {
 				for (int i = 0; i < StatsPrimary.SIZE; i++)
-					result[i] = op.apply(result[i], base.getPrimaryStat(i));
+					result[i] = op.applyAsInt(result[i], base.getPrimaryStat(i));
 			}
 			else {
 				for (int i = 0; i < StatsSecondary.SIZE; i++)
-					result[i] = op.apply(result[i], base.getSecondaryStat(i));
+					result[i] = op.applyAsInt(result[i], base.getSecondaryStat(i));
 			}
 		}
 		return result;
@@ -691,14 +692,14 @@ public class CharacterBase implements IdCloneable, Name, ChallengeRatable, Card,
 	 * @return An integer array containing the maximum of all the characters' stats seperately. The order matches the order of the corresponding stats enum.
 	 * If <code>chars</code> doesn't contain non <code>null</code> entries, an array full of {@link Integer#MIN_VALUE} will be returned.
 	 * @throws NullPointerException If <code>chars</code> refers to <code>null</code>.
-	 * @see #getStatsEval(Iterable, BinaryOperator, int[], boolean)
+	 * @see #getStatsEval(Iterable, IntBinaryOperator, int[], boolean)
 	 * @see #getStatsMin(Iterable, boolean)
 	 * @see #getStatsAverage(Iterable, int, boolean)
 	 */
 	public static int[] getStatsMax(Iterable<? extends CharacterBase> chars, boolean primary) {
 		int[] startVals = new int[primary ? StatsPrimary.SIZE : StatsSecondary.SIZE];
 		Arrays.fill(startVals, Integer.MIN_VALUE);
-		return getStatsEval(chars, (a, b) -> Math.max(a, b), startVals, primary);
+		return getStatsEval(chars, Math::max, startVals, primary);
 	}
 	
 	/**
@@ -708,14 +709,14 @@ public class CharacterBase implements IdCloneable, Name, ChallengeRatable, Card,
 	 * @return An integer array containing the minimum of all the characters' stats seperately. The order matches the order of the corresponding stats enum.
 	 * If <code>chars</code> doesn't contain non <code>null</code> entries, an array full of {@link Integer#MAX_VALUE} will be returned.
 	 * @throws NullPointerException If <code>chars</code> refers to <code>null</code>.
-	 * @see #getStatsEval(Iterable, BinaryOperator, int[], boolean)
+	 * @see #getStatsEval(Iterable, IntBinaryOperator, int[], boolean)
 	 * @see #getStatsMax(Iterable, boolean)
 	 * @see #getStatsAverage(Iterable, int, boolean)
 	 */
 	public static int[] getStatsMin(Iterable<? extends CharacterBase> chars, boolean primary) {
 		int[] startVals = new int[primary ? StatsPrimary.SIZE : StatsSecondary.SIZE];
 		Arrays.fill(startVals, Integer.MAX_VALUE);
-		return getStatsEval(chars, (a, b) -> Math.min(a, b), startVals, primary);
+		return getStatsEval(chars, Math::min, startVals, primary);
 	}
 	
 	/**
@@ -727,7 +728,7 @@ public class CharacterBase implements IdCloneable, Name, ChallengeRatable, Card,
 	 * If <code>chars</code> doesn't contain non <code>null</code> entries, an array full of <code>0</code> will be returned.
 	 * @throws NullPointerException If <code>chars</code> refers to <code>null</code>.
 	 * @throws IllegalArgumentException If <code>size</code> is smaller than or equal to <code>0</code>.
-	 * @see #getStatsEval(Iterable, BinaryOperator, int[], boolean)
+	 * @see #getStatsEval(Iterable, IntBinaryOperator, int[], boolean)
 	 * @see #getStatsMax(Iterable, boolean)
 	 * @see #getStatsMin(Iterable, boolean)
 	 */
@@ -738,7 +739,7 @@ public class CharacterBase implements IdCloneable, Name, ChallengeRatable, Card,
 		int statsSize = primary ? StatsPrimary.SIZE : StatsSecondary.SIZE;
 		int[] startVals = new int[statsSize];
 		// Arrays.fill(startVals, 0); // done automatically
-		startVals = getStatsEval(chars, (a, b) -> a + b, startVals, primary);
+		startVals = getStatsEval(chars, Integer::sum, startVals, primary);
 		for (int i = 0; i < statsSize; i++) {
 			startVals[i] /= size;
 		}
@@ -27,6 +27,12 @@ public class Companion extends Character {
 	public static final Duration[] LEVEL_UP_DURATION = new Duration[]
 			{Duration.ZERO, Duration.ofHours(1L), Duration.ofDays(1L), Duration.ofDays(3L), Duration.ofDays(7L)};
 	
+	/**
+	 * The highest level a companion can reach by training.
+	 * @see #train(Duration)
+	 */
+	public static final int MAX_LEVEL = LEVEL_UP_DURATION.length;
+	
 	/**
 	 * The level of this companion.
 	 * @see #getLevel()
@@ -39,6 +45,13 @@ public class Companion extends Character {
 	 */
 	protected int extraPoints;
 	
+	/**
+	 * The time this companion has trained towards its next level in milliseconds.
+	 * @see #getTraining()
+	 * @see #train(Duration)
+	 */
+	protected long training = 0L;
+	
 	/**
 	 * Creates a new companion from a specified character base with the given level and heals the companion
 	 * if <code>healUp</code> was set to <code>true</code>. 
@@ -83,6 +96,7 @@ public class Companion extends Character {
 	 */
 	public Companion(Companion companion) {
 		this(companion, companion.level, companion.extraPoints, false);
+		this.training = companion.training;
 	}
 	
 	/**
@@ -120,6 +134,51 @@ public class Companion extends Character {
 		extraPoints += amount;
 	}
 	
+	/**
+	 * Returns the time this companion has trained towards its next level.
+	 * @return the time trained since the last level up, {@link Duration#ZERO} at {@link #MAX_LEVEL}
+	 * @see #train(Duration)
+	 */
+	public Duration getTraining() {
+		return Duration.ofMillis(training);
+	}
+	
+	/**
+	 * Lets this companion train for the specified time. Every time the training reaches 
+	 * <code>LEVEL_UP_DURATION[level]</code> the level is increased, until {@link #MAX_LEVEL} is reached.
+	 * The time is applied at once, so the runtime only depends on the number of level ups.
+	 * @param duration the time to train, not negative
+	 * @return the number of level ups
+	 * @throws NullPointerException If <code>duration</code> refers to <code>null</code>.
+	 * @throws IllegalArgumentException If <code>duration</code> is negative.
+	 * @see #LEVEL_UP_DURATION
+	 */
+	public int train(Duration duration) {
+		Utilities.requireNonNull(duration, "duration");
+		if (duration.isNegative())
+			throw new IllegalArgumentException("Companions can't train for a negative duration!");
+		long remaining;
+		try {
+			remaining = duration.toMillis();
+		}
+		catch (ArithmeticException ex) {
+			remaining = Long.MAX_VALUE;
+		}
+		int levelUps = 0;
+		while (level >= 0 && level < MAX_LEVEL) {
+			long needed = LEVEL_UP_DURATION[level].toMillis() - training;
+			if (remaining < needed) {
+				training += remaining;
+				return levelUps;
+			}
+			remaining -= needed;
+			training = 0L;
+			level++;
+			levelUps++;
+		}
+		return levelUps;
+	}
+	
 	/**
 	 * Returns a deep copy of this companion by calling the copy constructor.
 	 * @see #Companion(Companion)
@@ -143,6 +202,7 @@ public class Companion extends Character {
 		int result = super.hashCode();
 		result = prime * result + level;
 		result = prime * result + extraPoints;
+		result = prime * result + Long.hashCode(training);
 		return result;
 	}
 
@@ -170,6 +230,8 @@ public class Companion extends Character {
 			return false;
 		if (extraPoints != other.extraPoints)
 			return false;
+		if (training != other.training)
+			return false;
 		return true;
 	}
 	
@@ -192,6 +254,8 @@ public class Companion extends Character {
 		s.append(level);
 		s.append(',');
 		s.append(extraPoints);
+		s.append(',');
+		s.append(training);
 	}
 	
 	/**
@@ -224,14 +288,14 @@ public class Companion extends Character {
 	
 	/**
 	 * Parses a string representation of a companion into a object.
-	 * The format is "<code>ID,level,extraPoints</code>".
+	 * The format is "<code>ID,level,extraPoints,training</code>", where training is given in milliseconds.
 	 * @param s the string to parse
 	 * @param player the player this companion should be added to, if any.
 	 * @return a companion matching the string
 	 * @throws NullPointerException If <code>s</code> refers to <code>null</code>.
 	 * @throws IllegalNumberOfArgumentsException If the number of arguments in the string separated by <code>,</code> is wrong.
 	 * @throws ParsedIdNotFoundException If the parsed ID cannot be found in {@link CharacterBase#CHARACTERS}.
-	 * @throws IllegalArgumentTypeException If the level or extra points is not a number.
+	 * @throws IllegalArgumentTypeException If the level, extra points or training is not a number.
 	 * @throws ParsedIdFoundException If <code>player</code> is not <code>null</code> and the string is parsed successfully, but the ID is already registered in {@link Player#getCompanions()}.
 	 * @see #CharacterBase(String, String, String, String[], int[], StatsPrimary, StatsSecondary, boolean)
 	 * @see #toSaveString()
@@ -239,9 +303,9 @@ public class Companion extends Character {
 	public static Companion parse(String s, Player player) {
 		Utilities.requireNonNull(s, "s");
 		String[] params = s.split(",");
-		final int PARAM_NUMBER = 3;
-		// compatibility for version 0.6
-		if (params.length != PARAM_NUMBER && params.length + 1 != PARAM_NUMBER)
+		final int PARAM_NUMBER = 4;
+		// compatibility for saves without extra points or training
+		if (params.length > PARAM_NUMBER || params.length + 2 < PARAM_NUMBER)
 			throw new IllegalNumberOfArgumentsException(String.format("Companion has %d parameters instead of %d!", params.length, PARAM_NUMBER));
 		CharacterBase base = CharacterBase.CHARACTERS.lookup(params[0]);
 		if (base == null)
@@ -255,14 +319,24 @@ public class Companion extends Character {
 		}
 		int xp = 0;
 		// compatibility for version 0.6
-		if (params.length == PARAM_NUMBER)
+		if (params.length >= PARAM_NUMBER - 1)
 			try {
 				xp = Integer.valueOf(params[2]); // throws NFE
 			}
 			catch (NumberFormatException ex) {
 				throw new IllegalArgumentTypeException(String.format("Extra points of %s are invalid: %s!", params[0], params[2]), ex);
 			}
+		long training = 0L;
+		// compatibility for saves without training
+		if (params.length == PARAM_NUMBER)
+			try {
+				training = Long.valueOf(params[3]); // throws NFE
+			}
+			catch (NumberFormatException ex) {
+				throw new IllegalArgumentTypeException(String.format("Training of %s is invalid: %s!", params[0], params[3]), ex);
+			}
 		Companion companion = new Companion(base, level, xp);
+		companion.training = training;
 		if (player != null) {
 			if (player.getCompanions().containsId(companion.getId()))
 				throw new ParsedIdFoundException("Companion "+companion.getId()+" already registered with this player!");
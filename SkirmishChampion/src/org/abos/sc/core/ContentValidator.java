@@ -0,0 +1,285 @@
+package org.abos.sc.core;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import org.abos.sc.core.UnlockGraph.NodeType;
+import org.abos.sc.core.battle.Encounter;
+import org.abos.util.ParseException;
+import org.abos.util.Utilities;
+
+/**
+ * Validates the game data without any GUI, e.g. for checking content packs in a continuous integration.
+ * The encounter strings, the character images, the ID references and the reachability are validated in parallel.
+ * Running this class prints a JSON report to the standard output and exits with status <code>0</code> if the
+ * content is valid, <code>1</code> if it has errors and <code>2</code> if it couldn't be loaded at all.
+ * Missing images and unreachable content are reported as warnings, not errors.
+ * @author Sebastian Koch
+ * @version %I%
+ * @since 0.7
+ * @see #main(String[])
+ */
+public class ContentValidator {
+
+	/**
+	 * Path to the resources relative to the application directory.
+	 */
+	public static final String RESOURCES = "resources";
+
+	/**
+	 * The directory with the game data.
+	 */
+	protected final Path resourceDirectory;
+
+	/**
+	 * Stage IDs with invalid encounter strings, together with the error.
+	 */
+	protected List<String> invalidEncounters = Collections.emptyList();
+
+	/**
+	 * Characters without an image.
+	 */
+	protected List<String> missingImages = Collections.emptyList();
+
+	/**
+	 * References to unknown IDs.
+	 */
+	protected List<String> unresolvedReferences = Collections.emptyList();
+
+	/**
+	 * The reachability analysis.
+	 */
+	protected UnlockGraph.Analysis analysis = null;
+
+	/**
+	 * How long the validation took in milliseconds.
+	 */
+	protected long duration = 0L;
+
+	/**
+	 * Creates a new content validator for the already loaded game data.
+	 * @param resourceDirectory the directory with the game data, used for the images
+	 * @throws NullPointerException If <code>resourceDirectory</code> refers to <code>null</code>.
+	 * @see #loadGameData(Path, boolean)
+	 */
+	public ContentValidator(Path resourceDirectory) {
+		Utilities.requireNonNull(resourceDirectory, "resourceDirectory");
+		this.resourceDirectory = resourceDirectory;
+	}
+
+	/**
+	 * Validates the loaded game data. Can be called multiple times, the previous results are overwritten.
+	 * @return <code>true</code> if there were no errors, else <code>false</code>
+	 * @see #hasErrors()
+	 */
+	public boolean validate() {
+		long start = System.nanoTime();
+		CompletableFuture<List<String>> encounters = CompletableFuture.supplyAsync(ContentValidator::validateEncounters);
+		CompletableFuture<List<String>> images = CompletableFuture.supplyAsync(() -> findMissingImages(resourceDirectory.resolve("images").resolve("characters")));
+		CompletableFuture<List<String>> references = CompletableFuture.supplyAsync(ContentValidator::findUnresolvedReferences);
+		CompletableFuture<UnlockGraph> graph = CompletableFuture.supplyAsync(UnlockGraph::build);
+		UnlockGraph unlockGraph = graph.join();
+		analysis = unlockGraph.analyse();
+		List<String> unresolved = new ArrayList<>(references.join());
+		unresolved.addAll(unlockGraph.getUnresolvedReferences());
+		unresolvedReferences = unresolved;
+		invalidEncounters = encounters.join();
+		missingImages = images.join();
+		duration = (System.nanoTime() - start) / 1_000_000;
+		return !hasErrors();
+	}
+
+	/**
+	 * Tells if the last validation found errors, i.e. invalid encounters or unresolved references.
+	 * @return <code>true</code> if there are errors, else <code>false</code>
+	 */
+	public boolean hasErrors() {
+		return !invalidEncounters.isEmpty() || !unresolvedReferences.isEmpty();
+	}
+
+	/**
+	 * Returns the report of the last validation as JSON.
+	 * @return the report of the last validation
+	 */
+	public String toJson() {
+		StringBuilder s = new StringBuilder();
+		s.append("{\"valid\":");
+		s.append(!hasErrors());
+		s.append(",\"counts\":{");
+		s.append(String.format("\"fandoms\":%d,\"regions\":%d,\"stages\":%d,\"characters\":%d",
+				FandomBase.FANDOMS.size(), RegionBase.REGIONS.size(), StageBase.STAGES.size(), CharacterBase.CHARACTERS.size()));
+		s.append("},\"errors\":{\"invalidEncounters\":");
+		Utilities.iterableToJson(invalidEncounters, s);
+		s.append(",\"unresolvedReferences\":");
+		Utilities.iterableToJson(unresolvedReferences, s);
+		s.append("},\"warnings\":{\"missingImages\":");
+		Utilities.iterableToJson(missingImages, s);
+		if (analysis != null) {
+			s.append(",\"unreachableCharacters\":");
+			Utilities.iterableToJson(analysis.getUnreachable(NodeType.CHARACTER), s);
+			s.append(",\"unreachableRegions\":");
+			Utilities.iterableToJson(analysis.getUnreachable(NodeType.REGION), s);
+			s.append(",\"unreachableStages\":");
+			Utilities.iterableToJson(analysis.getUnreachable(NodeType.STAGE), s);
+			s.append("},\"stageCycles\":");
+			s.append(analysis.getStageCycles().size());
+		}
+		else
+			s.append('}');
+		s.append(",\"durationMs\":");
+		s.append(duration);
+		s.append('}');
+		return s.toString();
+	}
+
+	/**
+	 * Parses the encounter strings of all stages in {@link StageBase#STAGES} in parallel. Unlike
+	 * {@link StageBase#validateEncouterStrings()} this doesn't stop at the first invalid encounter string.
+	 * @return a list of entries "<code>stageID: error</code>" for every invalid encounter string
+	 */
+	public static List<String> validateEncounters() {
+		return StageBase.STAGES.parallelStream()
+				.map(stage -> {
+					try {
+						Encounter.parse(stage.encounterString);
+						return null;
+					}
+					catch (ParseException ex) {
+						return stage.getId() + ": " + ex.getMessage();
+					}
+				})
+				.filter(error -> error != null)
+				.sorted()
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * Returns the path to the image of the specified character.
+	 * @param imageDirectory the directory of the character images
+	 * @param character the character to get the image path for
+	 * @return the path to the image of the character
+	 * @throws NullPointerException If any parameter refers to <code>null</code>.
+	 */
+	public static Path getCharacterImagePath(Path imageDirectory, CharacterBase character) {
+		Utilities.requireNonNull(imageDirectory, "imageDirectory");
+		Utilities.requireNonNull(character, "character");
+		return imageDirectory.resolve(character.getFandomId()).resolve(character.getId()+".png");
+	}
+
+	/**
+	 * Checks in parallel which characters in {@link CharacterBase#CHARACTERS} don't have an image.
+	 * @param imageDirectory the directory of the character images
+	 * @return a sorted list of the IDs of the characters without image
+	 * @throws NullPointerException If <code>imageDirectory</code> refers to <code>null</code>.
+	 * @see #getCharacterImagePath(Path, CharacterBase)
+	 */
+	public static List<String> findMissingImages(Path imageDirectory) {
+		Utilities.requireNonNull(imageDirectory, "imageDirectory");
+		return CharacterBase.CHARACTERS.parallelStream()
+				.filter(character -> Files.notExists(getCharacterImagePath(imageDirectory, character)))
+				.map(character -> character.getId())
+				.sorted()
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * Checks the references of the game data that aren't part of the {@link UnlockGraph}, namely the regions of stages,
+	 * the fandoms and start stages of regions and the fandoms of characters.
+	 * @return a sorted list of entries "<code>ID -> TYPE:ID</code>" for every unknown reference
+	 * @see UnlockGraph#getUnresolvedReferences()
+	 */
+	public static List<String> findUnresolvedReferences() {
+		List<String> unresolved = Collections.synchronizedList(new ArrayList<>());
+		StageBase.STAGES.parallelStream()
+				.filter(stage -> !RegionBase.REGIONS.containsId(stage.getRegionId()))
+				.forEach(stage -> unresolved.add(String.format("%s -> %s:%s", stage.getId(), NodeType.REGION, stage.getRegionId())));
+		RegionBase.REGIONS.parallelStream().forEach(region -> {
+			if (!FandomBase.FANDOMS.containsId(region.getFandomId()))
+				unresolved.add(String.format("%s -> %s:%s", region.getId(), NodeType.FANDOM, region.getFandomId()));
+			if (!StageBase.STAGES.containsId(region.getStartStageId()))
+				unresolved.add(String.format("%s -> %s:%s", region.getId(), NodeType.STAGE, region.getStartStageId()));
+		});
+		CharacterBase.CHARACTERS.parallelStream()
+				.filter(character -> !FandomBase.FANDOMS.containsId(character.getFandomId()))
+				.forEach(character -> unresolved.add(String.format("%s -> %s:%s", character.getId(), NodeType.FANDOM, character.getFandomId())));
+		Collections.sort(unresolved);
+		return unresolved;
+	}
+
+	/**
+	 * Loads all files of a subdirectory of the resources in alphabetical order.
+	 * @param directory the directory to load the files from
+	 * @param lineParser the parser for a single line
+	 * @throws IOException If an I/O error occurs.
+	 * @throws ParseException If a file is invalid, with the file name in the message.
+	 */
+	private static void loadDirectory(Path directory, Consumer<String> lineParser) throws IOException {
+		List<Path> files = new ArrayList<>();
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+			for (Path file : stream)
+				files.add(file);
+		}
+		Collections.sort(files);
+		for (Path file : files) {
+			try {
+				Utilities.loadFromFile(file, lineParser);
+			}
+			catch (ParseException ex) {
+				throw new ParseException(String.format("File %s seems to be invalid!", file), ex);
+			}
+		}
+	}
+
+	/**
+	 * Loads the fandoms, characters, stages and regions from the specified resource directory into the global registries.
+	 * @param resourceDirectory the directory with the game data
+	 * @param checkEncounters if the encounter strings should be parsed while loading the stages
+	 * @throws NullPointerException If <code>resourceDirectory</code> refers to <code>null</code>.
+	 * @throws IOException If an I/O error occurs.
+	 * @throws ParseException If a file is invalid.
+	 */
+	public static void loadGameData(Path resourceDirectory, boolean checkEncounters) throws IOException {
+		Utilities.requireNonNull(resourceDirectory, "resourceDirectory");
+		// order of the following is important
+		loadDirectory(resourceDirectory.resolve("fandoms"), FandomBase::parse);
+		loadDirectory(resourceDirectory.resolve("characters"), CharacterBase::parse);
+		loadDirectory(resourceDirectory.resolve("stages"), s -> StageBase.parse(s, true, checkEncounters));
+		loadDirectory(resourceDirectory.resolve("regions"), RegionBase::parse);
+	}
+
+	/**
+	 * Loads and validates the game data headlessly and prints a JSON report.
+	 * @param args Optionally the resource directory to validate, defaults to the resources in the application directory.
+	 */
+	public static void main(String[] args) {
+		Path resourceDirectory;
+		try {
+			if (args.length > 0)
+				resourceDirectory = Path.of(args[0]);
+			else
+				resourceDirectory = Utilities.loadApplicationDirectory().resolve(RESOURCES);
+			loadGameData(resourceDirectory, false);
+		}
+		catch (IOException | ParseException ex) {
+			StringBuilder s = new StringBuilder("{\"valid\":false,\"loadError\":");
+			Utilities.appendJsonString(ex.getCause() == null ? ex.getMessage() : ex.getMessage() + " " + ex.getCause().getMessage(), s);
+			s.append('}');
+			System.out.println(s);
+			System.exit(2);
+			return;
+		}
+		ContentValidator validator = new ContentValidator(resourceDirectory);
+		boolean valid = validator.validate();
+		System.out.println(validator.toJson());
+		System.exit(valid ? 0 : 1);
+	}
+
+}
@@ -0,0 +1,446 @@
+package org.abos.sc.core;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.IntStream;
+
+import org.abos.sc.core.battle.BattleSimulation;
+import org.abos.sc.core.battle.Conclusion;
+import org.abos.sc.core.battle.Encounter;
+import org.abos.sc.core.battle.Formation;
+import org.abos.sc.core.battle.Strategy;
+import org.abos.util.ParseException;
+import org.abos.util.Utilities;
+
+/**
+ * Compares the heuristic challenge ratings of the stages with their measured difficulty. Every stage is fought by the same
+ * random reference parties in virtual time with {@link BattleSimulation}. A logistic curve is fitted to the outcomes by the
+ * challenge rating of the reference parties, and the challenge rating at which a party wins half of the time is taken as the
+ * empirical challenge rating of the stage. The stages are measured in parallel and stages with the same encounter string
+ * are only measured once.
+ * <br>
+ * Running this class prints the calibration report as CSV to the standard output.
+ * @author Sebastian Koch
+ * @version %I%
+ * @since 0.7
+ * @see #main(String[])
+ * @see ChallengeRatable
+ */
+public class DifficultyCalibration {
+
+	/**
+	 * The default number of reference parties.
+	 */
+	public static final int DEFAULT_PARTIES = 200;
+
+	/**
+	 * The header line of the CSV report.
+	 * @see #toCsv(Collection)
+	 */
+	public static final String CSV_HEADER = "stage,name,heuristicCR,empiricalCR,ratio,winRate,winRateAtHeuristicCR,battles";
+
+	/**
+	 * The maximum number of Newton iterations when fitting the logistic curve.
+	 */
+	protected static final int MAX_ITERATIONS = 50;
+
+	/**
+	 * The regularization of the fit, which keeps it finite if wins and losses are perfectly separated by the challenge rating.
+	 */
+	protected static final double RIDGE = 1e-3;
+
+	/**
+	 * The measured difficulty of an encounter.
+	 * @author Sebastian Koch
+	 * @version %I%
+	 * @since 0.7
+	 */
+	public static class Measurement {
+
+		/**
+		 * The heuristic challenge rating of the encounter.
+		 */
+		protected final int heuristicChallengeRating;
+
+		/**
+		 * The number of battles fought.
+		 */
+		protected final int battles;
+
+		/**
+		 * The number of battles won by the reference parties.
+		 */
+		protected final int wins;
+
+		/**
+		 * The challenge rating at which a party wins half of the time, {@link Double#NaN} if it can't be estimated.
+		 */
+		protected final double empiricalChallengeRating;
+
+		/**
+		 * The estimated win probability of a party with the heuristic challenge rating, {@link Double#NaN} if it can't be estimated.
+		 */
+		protected final double winRateAtHeuristicChallengeRating;
+
+		/**
+		 * Creates a new measurement.
+		 * @param heuristicChallengeRating the heuristic challenge rating of the encounter
+		 * @param battles the number of battles fought
+		 * @param wins the number of battles won by the reference parties
+		 * @param empiricalChallengeRating the challenge rating at which a party wins half of the time
+		 * @param winRateAtHeuristicChallengeRating the estimated win probability of a party with the heuristic challenge rating
+		 */
+		protected Measurement(int heuristicChallengeRating, int battles, int wins, double empiricalChallengeRating,
+				double winRateAtHeuristicChallengeRating) {
+			this.heuristicChallengeRating = heuristicChallengeRating;
+			this.battles = battles;
+			this.wins = wins;
+			this.empiricalChallengeRating = empiricalChallengeRating;
+			this.winRateAtHeuristicChallengeRating = winRateAtHeuristicChallengeRating;
+		}
+
+		/**
+		 * @return the heuristic challenge rating of the encounter
+		 */
+		public int getHeuristicChallengeRating() {
+			return heuristicChallengeRating;
+		}
+
+		/**
+		 * @return the number of battles fought
+		 */
+		public int getBattles() {
+			return battles;
+		}
+
+		/**
+		 * @return the number of battles won by the reference parties
+		 */
+		public int getWins() {
+			return wins;
+		}
+
+		/**
+		 * Returns the share of battles won by the reference parties.
+		 * @return the share of won battles, between <code>0</code> and <code>1</code>
+		 */
+		public double getWinRate() {
+			return wins / (double)battles;
+		}
+
+		/**
+		 * Returns the challenge rating at which a party wins half of the time. It can't be estimated if the reference parties
+		 * won all or none of the battles, or if the fit puts it outside the challenge ratings of the reference parties.
+		 * @return the empirical challenge rating OR {@link Double#NaN} if it can't be estimated
+		 */
+		public double getEmpiricalChallengeRating() {
+			return empiricalChallengeRating;
+		}
+
+		/**
+		 * Returns the estimated win probability of a party with the heuristic challenge rating of the encounter.
+		 * Values far from <code>0.5</code> mean the heuristic misjudges the encounter.
+		 * @return the estimated win probability OR {@link Double#NaN} if it can't be estimated
+		 */
+		public double getWinRateAtHeuristicChallengeRating() {
+			return winRateAtHeuristicChallengeRating;
+		}
+
+		/**
+		 * Returns the ratio of the empirical to the heuristic challenge rating.
+		 * @return the ratio OR {@link Double#NaN} if the empirical challenge rating can't be estimated
+		 */
+		public double getRatio() {
+			return empiricalChallengeRating / heuristicChallengeRating;
+		}
+
+	}
+
+	/**
+	 * The reference parties, all with a predefined strategy.
+	 */
+	protected final List<Encounter> referenceParties;
+
+	/**
+	 * The challenge ratings of {@link #referenceParties}.
+	 */
+	protected final int[] ratings;
+
+	/**
+	 * The lowest challenge rating of a reference party.
+	 */
+	protected final int minRating;
+
+	/**
+	 * The highest challenge rating of a reference party.
+	 */
+	protected final int maxRating;
+
+	/**
+	 * The scale of the challenge ratings for the fit, the highest rating of a reference party.
+	 */
+	protected final double scale;
+
+	/**
+	 * All encounters measured so far, by their encounter string.
+	 */
+	protected final ConcurrentMap<String, Measurement> measurements = new ConcurrentHashMap<>();
+
+	/**
+	 * Creates a new calibration with the specified reference parties.
+	 * @param referenceParties the parties to fight every stage with
+	 * @throws NullPointerException If <code>referenceParties</code> or any of its entries refers to <code>null</code>.
+	 * @throws IllegalArgumentException If <code>referenceParties</code> is empty.
+	 */
+	public DifficultyCalibration(Collection<? extends Encounter> referenceParties) {
+		Utilities.requireNonNull(referenceParties, "referenceParties");
+		Utilities.requireNonNullEntries(referenceParties, "referenceParties");
+		if (referenceParties.isEmpty())
+			throw new IllegalArgumentException("At least one reference party must be given!");
+		this.referenceParties = new ArrayList<>(referenceParties);
+		ratings = new int[this.referenceParties.size()];
+		int min = Integer.MAX_VALUE, max = Integer.MIN_VALUE;
+		for (int i = 0; i < ratings.length; i++) {
+			ratings[i] = this.referenceParties.get(i).getChallengeRating();
+			min = Math.min(min, ratings[i]);
+			max = Math.max(max, ratings[i]);
+		}
+		minRating = min;
+		maxRating = max;
+		scale = Math.max(1, max);
+	}
+
+	/**
+	 * Creates random reference parties of one to {@link Formation#MAX_CHAR_NUMBER} distinct characters
+	 * at random positions, each with a random predefined strategy. The parties only depend on the seed and the order of the pool.
+	 * @param pool the characters to choose from
+	 * @param parties the number of parties to create
+	 * @param seed the seed for the parties
+	 * @return a list of <code>parties</code> reference parties
+	 * @throws NullPointerException If <code>pool</code> refers to <code>null</code>.
+	 * @throws IllegalArgumentException If <code>pool</code> is empty or <code>parties</code> isn't positive.
+	 */
+	public static List<Encounter> createReferenceParties(Collection<? extends CharacterBase> pool, int parties, long seed) {
+		Utilities.requireNonNull(pool, "pool");
+		if (pool.isEmpty())
+			throw new IllegalArgumentException("The pool must contain at least one character!");
+		if (parties <= 0)
+			throw new IllegalArgumentException("At least one reference party must be created!");
+		List<CharacterBase> characters = new ArrayList<>(pool);
+		SplittableRandom random = new SplittableRandom(seed);
+		List<Encounter> result = new ArrayList<>(parties);
+		for (int i = 0; i < parties; i++) {
+			Collections.shuffle(characters, new Random(random.nextLong()));
+			List<Integer> positions = new ArrayList<>(Formation.MAX_CHAR_NUMBER);
+			for (int pos = 0; pos < Formation.MAX_CHAR_NUMBER; pos++)
+				positions.add(pos);
+			Collections.shuffle(positions, new Random(random.nextLong()));
+			Character[][] formation = new Character[Formation.ROW_NUMBER][Formation.COL_NUMBER];
+			int size = 1 + random.nextInt(Math.min(Formation.MAX_CHAR_NUMBER, characters.size()));
+			for (int j = 0; j < size; j++)
+				formation[positions.get(j) / Formation.COL_NUMBER][positions.get(j) % Formation.COL_NUMBER] = new Character(characters.get(j));
+			Strategy strategy;
+			switch (random.nextInt(3)) {
+			case 0: strategy = Strategy.createRowAssault(); break;
+			case 1: strategy = Strategy.createColAssault(); break;
+			default: strategy = Strategy.createConcentratedAssault();
+			}
+			result.add(new Encounter(new Formation(formation), strategy));
+		}
+		return result;
+	}
+
+	/**
+	 * Measures the specified stage, using the cached measurement of a stage with the same encounter string.
+	 * @param stage the stage to measure
+	 * @return the measurement of the stage
+	 * @throws NullPointerException If <code>stage</code> refers to <code>null</code>.
+	 * @throws ParseException If the encounter string of the stage is invalid.
+	 */
+	public Measurement measure(StageBase stage) {
+		Utilities.requireNonNull(stage, "stage");
+		return Utilities.getOrCompute(measurements, stage.getEncounterString(), key -> measure(stage.createEncounter()));
+	}
+
+	/**
+	 * Measures all specified stages in parallel.
+	 * @param stages the stages to measure
+	 * @return the measurements in the order of <code>stages</code>
+	 * @throws NullPointerException If <code>stages</code> or any of its entries refers to <code>null</code>.
+	 * @throws ParseException If the encounter string of a stage is invalid.
+	 */
+	public List<Measurement> measureAll(Collection<? extends StageBase> stages) {
+		Utilities.requireNonNull(stages, "stages");
+		Utilities.requireNonNullEntries(stages, "stages");
+		List<StageBase> list = new ArrayList<>(stages);
+		Measurement[] result = new Measurement[list.size()];
+		IntStream.range(0, result.length).parallel().forEach(i -> result[i] = measure(list.get(i)));
+		return Arrays.asList(result);
+	}
+
+	/**
+	 * Fights the encounter with all reference parties and fits the logistic curve to the outcomes.
+	 * @param encounter the encounter to measure
+	 * @return the measurement of the encounter
+	 * @see #measure(int, boolean[])
+	 */
+	protected Measurement measure(Encounter encounter) {
+		boolean[] won = new boolean[ratings.length];
+		for (int i = 0; i < won.length; i++)
+			won[i] = BattleSimulation.simulate(referenceParties.get(i), encounter) == Conclusion.WON;
+		return measure(encounter.getChallengeRating(), won);
+	}
+
+	/**
+	 * Fits the logistic curve to the outcomes of the reference parties. The empirical challenge rating is only read off 
+	 * within the challenge ratings of the reference parties, since the fit says nothing about the ratings beyond.
+	 * @param rating the heuristic challenge rating of the encounter
+	 * @param won the outcomes of the reference parties
+	 * @return the measurement of the encounter
+	 */
+	protected Measurement measure(int rating, boolean[] won) {
+		int wins = 0;
+		for (boolean outcome : won)
+			if (outcome)
+				wins++;
+		if (wins == 0 || wins == won.length)
+			return new Measurement(rating, won.length, wins, Double.NaN, Double.NaN);
+		double[] fit = fitLogistic(won);
+		double empirical = -fit[0] / fit[1] * scale;
+		if (fit[1] <= 0d) // stronger parties don't win more often, so no rating can be read off
+			empirical = Double.NaN;
+		else if (empirical < minRating || empirical > maxRating) // extrapolated, e.g. negative if most parties win
+			empirical = Double.NaN;
+		double atRating = 1d / (1d + Math.exp(-(fit[0] + fit[1] * rating / scale)));
+		return new Measurement(rating, won.length, wins, empirical, atRating);
+	}
+
+	/**
+	 * Fits <code>P(won) = 1 / (1 + exp(-(a + b*rating/scale)))</code> by Newton's method with a small ridge on <code>b</code>.
+	 * @param won the outcomes of the reference parties
+	 * @return the parameters <code>{a, b}</code>
+	 */
+	protected double[] fitLogistic(boolean[] won) {
+		double a = 0d, b = 0d;
+		for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+			double ga = 0d, gb = -RIDGE * b, haa = 0d, hab = 0d, hbb = RIDGE;
+			for (int i = 0; i < won.length; i++) {
+				double x = ratings[i] / scale;
+				double p = 1d / (1d + Math.exp(-(a + b * x)));
+				double residual = (won[i] ? 1d : 0d) - p;
+				double weight = p * (1d - p);
+				ga += residual;
+				gb += residual * x;
+				haa += weight;
+				hab += weight * x;
+				hbb += weight * x * x;
+			}
+			double determinant = haa * hbb - hab * hab;
+			if (determinant <= 0d)
+				break;
+			double da = (hbb * ga - hab * gb) / determinant;
+			double db = (haa * gb - hab * ga) / determinant;
+			a += da;
+			b += db;
+			if (Math.abs(da) < 1e-9 && Math.abs(db) < 1e-9)
+				break;
+		}
+		return new double[] {a, b};
+	}
+
+	/**
+	 * Measures the specified stages and returns the report as CSV with the header {@value #CSV_HEADER}.
+	 * Values that can't be estimated are left empty.
+	 * @param stages the stages to report
+	 * @return the CSV report, one line per stage
+	 * @throws NullPointerException If <code>stages</code> or any of its entries refers to <code>null</code>.
+	 * @throws ParseException If the encounter string of a stage is invalid.
+	 */
+	public String toCsv(Collection<? extends StageBase> stages) {
+		List<Measurement> measurements = measureAll(stages); // throws NPE
+		StringBuilder s = new StringBuilder(CSV_HEADER);
+		int index = 0;
+		for (StageBase stage : stages) {
+			Measurement measurement = measurements.get(index++);
+			s.append(System.lineSeparator());
+			appendCsvField(stage.getId(), s);
+			s.append(',');
+			appendCsvField(stage.getName(), s);
+			s.append(',');
+			s.append(measurement.getHeuristicChallengeRating());
+			s.append(',');
+			appendCsvNumber(measurement.getEmpiricalChallengeRating(), "%.1f", s);
+			s.append(',');
+			appendCsvNumber(measurement.getRatio(), "%.3f", s);
+			s.append(',');
+			appendCsvNumber(measurement.getWinRate(), "%.3f", s);
+			s.append(',');
+			appendCsvNumber(measurement.getWinRateAtHeuristicChallengeRating(), "%.3f", s);
+			s.append(',');
+			s.append(measurement.getBattles());
+		}
+		return s.toString();
+	}
+
+	/**
+	 * Appends a CSV field, quoted if it contains commas, quotes or line breaks.
+	 * @param field the field to append
+	 * @param s the string builder to append to
+	 */
+	protected static void appendCsvField(String field, StringBuilder s) {
+		if (field.indexOf(',') == -1 && field.indexOf('"') == -1 && field.indexOf('\n') == -1 && field.indexOf('\r') == -1) {
+			s.append(field);
+			return;
+		}
+		s.append('"');
+		s.append(field.replace("\"", "\"\""));
+		s.append('"');
+	}
+
+	/**
+	 * Appends a number to a CSV line, nothing if it is {@link Double#NaN} or infinite.
+	 * @param number the number to append
+	 * @param format the format of the number
+	 * @param s the string builder to append to
+	 */
+	protected static void appendCsvNumber(double number, String format, StringBuilder s) {
+		if (Double.isFinite(number))
+			s.append(String.format(Locale.ROOT, format, number));
+	}
+
+	/**
+	 * Loads the game data headlessly and prints the calibration report of all stages as CSV.
+	 * @param args Optionally the resource directory, defaults to the resources in the application directory,
+	 * followed by the number of reference parties and the seed.
+	 */
+	public static void main(String[] args) {
+		try {
+			Path resourceDirectory;
+			if (args.length > 0)
+				resourceDirectory = Path.of(args[0]);
+			else
+				resourceDirectory = Utilities.loadApplicationDirectory().resolve(ContentValidator.RESOURCES);
+			ContentValidator.loadGameData(resourceDirectory, false);
+		}
+		catch (IOException | ParseException ex) {
+			System.err.println(ex.getCause() == null ? ex.getMessage() : ex.getMessage() + " " + ex.getCause().getMessage());
+			System.exit(2);
+			return;
+		}
+		int parties = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_PARTIES;
+		long seed = args.length > 2 ? Long.parseLong(args[2]) : 0L;
+		DifficultyCalibration calibration = new DifficultyCalibration(createReferenceParties(CharacterBase.CHARACTERS, parties, seed));
+		System.out.println(calibration.toCsv(StageBase.STAGES));
+	}
+
+}
@@ -17,6 +17,13 @@ public class Fandom extends FandomBase {
 	 */
 	protected final int allRegionsCount;
 	
+	/**
+	 * The number of cleared regions in {@link #regions}, kept up to date by {@link #addRegion(Region)}
+	 * and {@link #regionCleared(Region)}.
+	 * @see #checkCleared()
+	 */
+	protected int clearedRegionsCount;
+	
 	/**
 	 * If this fandom has been cleared.
 	 * @see #isCleared()
@@ -41,6 +48,9 @@ public class Fandom extends FandomBase {
 		Utilities.requireNonNull(regions, "regions");
 		this.regions = regions;
 		allRegionsCount = collectAssociatedRegionIds().size();
+		for (Region region : regions)
+			if (region.isCleared())
+				clearedRegionsCount++;
 	}
 	
 	public Fandom(FandomBase base) {
@@ -82,19 +92,60 @@ public class Fandom extends FandomBase {
 	 */
 	public boolean checkCleared() {
 		boolean oldCleared = cleared;
-		if (allRegionsCount != regions.size()) {
-			cleared = false;
-		}
-		else {
-			boolean check = true;
-			for (Region region : regions)
-				check &= region.isCleared();
-			cleared = check;
-		}
+		clearedRegionsCount = 0;
+		for (Region region : regions)
+			if (region.isCleared())
+				clearedRegionsCount++;
+		updateCleared();
 		clearedFlag = oldCleared != cleared;
 		return cleared;
 	}
 	
+	/**
+	 * Recomputes the cleared state from the counters without looking at the regions.
+	 * @return <code>true</code> if this fandom has just become cleared, else <code>false</code>
+	 */
+	protected boolean updateCleared() {
+		boolean oldCleared = cleared;
+		cleared = allRegionsCount == regions.size() && clearedRegionsCount == allRegionsCount;
+		return cleared && !oldCleared;
+	}
+	
+	/**
+	 * Adds the specified region to this fandom if it belongs here and isn't known yet.
+	 * This doesn't scan the other regions of this fandom.
+	 * @param region the region to add
+	 * @return <code>true</code> if the region has been added, else <code>false</code>
+	 * @throws NullPointerException If <code>region</code> refers to <code>null</code>.
+	 * @see #regionCleared(Region)
+	 */
+	public boolean addRegion(Region region) {
+		Utilities.requireNonNull(region, "region");
+		if (!region.getFandomId().equals(id) || regions.containsId(region.getId()))
+			return false;
+		regions.add(region);
+		if (region.isCleared()) {
+			clearedRegionsCount++;
+			updateCleared();
+		}
+		return true;
+	}
+	
+	/**
+	 * Notifies this fandom that one of its regions has just been cleared. Only the counters are updated,
+	 * so this method must be called exactly once per region and only after {@link Region#isCleared()} turned <code>true</code>.
+	 * @param region the region that has been cleared
+	 * @return <code>true</code> if this fandom has been completed by this region, else <code>false</code>
+	 * @throws NullPointerException If <code>region</code> refers to <code>null</code>.
+	 */
+	public boolean regionCleared(Region region) {
+		Utilities.requireNonNull(region, "region");
+		if (regions.lookup(region.getId()) != region || !region.isCleared())
+			return false;
+		clearedRegionsCount++;
+		return updateCleared();
+	}
+	
 	/**
 	 * @return the regions
 	 */
@@ -0,0 +1,562 @@
+package org.abos.sc.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.IntStream;
+
+import org.abos.sc.core.battle.BattleSimulation;
+import org.abos.sc.core.battle.Conclusion;
+import org.abos.sc.core.battle.Encounter;
+import org.abos.sc.core.battle.Formation;
+import org.abos.sc.core.battle.Strategy;
+import org.abos.util.Utilities;
+
+/**
+ * Searches a roster of companions for the parties that fare best against an opponent. A party consists of the
+ * companions, their positions in the {@link Formation} and a {@link Strategy}. The search is a genetic one:
+ * a population of parties is recombined and mutated for a number of generations, keeping the best parties. Every
+ * party is scored by resolving the battle in virtual time with {@link BattleSimulation}, in parallel and only once per party.
+ * Parties exceeding the challenge rating cap are never considered.
+ * @author Sebastian Koch
+ * @version %I%
+ * @since 0.7
+ * @see Difficulty#getChallengeRatingCap(int)
+ */
+public class FormationOptimizer {
+
+	/**
+	 * The default number of parties per generation.
+	 * @see #setPopulationSize(int)
+	 */
+	public static final int DEFAULT_POPULATION_SIZE = 64;
+
+	/**
+	 * The default number of generations.
+	 * @see #setGenerations(int)
+	 */
+	public static final int DEFAULT_GENERATIONS = 40;
+
+	/**
+	 * Marks an empty position in a genome.
+	 */
+	protected static final int EMPTY = -1;
+
+	/**
+	 * A scored party.
+	 * @author Sebastian Koch
+	 * @version %I%
+	 * @since 0.7
+	 */
+	public static class Result implements Comparable<Result> {
+
+		/**
+		 * The party formation.
+		 */
+		protected final Formation formation;
+
+		/**
+		 * The strategy of the party.
+		 */
+		protected final Strategy strategy;
+
+		/**
+		 * The conclusion of the battle from the point of view of the party.
+		 */
+		protected final Conclusion conclusion;
+
+		/**
+		 * The number of undefeated party members.
+		 */
+		protected final int survivors;
+
+		/**
+		 * The damage the party has dealt.
+		 */
+		protected final long damageDealt;
+
+		/**
+		 * The damage the party has taken.
+		 */
+		protected final long damageTaken;
+
+		/**
+		 * The virtual duration of the battle in milliseconds.
+		 */
+		protected final long duration;
+
+		/**
+		 * Creates a new result from a finished simulation.
+		 * @param formation the party formation
+		 * @param strategy the strategy of the party
+		 * @param simulation the finished simulation with the party as first party
+		 */
+		protected Result(Formation formation, Strategy strategy, BattleSimulation simulation) {
+			this.formation = formation;
+			this.strategy = strategy;
+			conclusion = simulation.getConclusion();
+			survivors = simulation.getSurvivors(true);
+			damageDealt = simulation.getDamageTaken(false);
+			damageTaken = simulation.getDamageTaken(true);
+			duration = simulation.getDuration();
+		}
+
+		/**
+		 * @return the party formation
+		 */
+		public Formation getFormation() {
+			return formation;
+		}
+
+		/**
+		 * @return the strategy of the party
+		 */
+		public Strategy getStrategy() {
+			return strategy;
+		}
+
+		/**
+		 * Returns a new encounter of the party, ready for battle.
+		 * @return a new encounter of the party
+		 */
+		public Encounter createEncounter() {
+			return new Encounter((Formation)formation.clone(), (Strategy)strategy.clone());
+		}
+
+		/**
+		 * @return the conclusion of the battle from the point of view of the party
+		 */
+		public Conclusion getConclusion() {
+			return conclusion;
+		}
+
+		/**
+		 * @return the number of undefeated party members
+		 */
+		public int getSurvivors() {
+			return survivors;
+		}
+
+		/**
+		 * @return the damage the party has dealt
+		 */
+		public long getDamageDealt() {
+			return damageDealt;
+		}
+
+		/**
+		 * @return the damage the party has taken
+		 */
+		public long getDamageTaken() {
+			return damageTaken;
+		}
+
+		/**
+		 * @return the virtual duration of the battle in milliseconds
+		 */
+		public long getDuration() {
+			return duration;
+		}
+
+		/**
+		 * Compares the results so that better results come first: Won before tied before lost battles,
+		 * then more survivors, less damage taken, more damage dealt, shorter battles and a lower challenge rating.
+		 */
+		@Override
+		public int compareTo(Result other) {
+			int result = Integer.compare(rank(other.conclusion), rank(conclusion));
+			if (result == 0)
+				result = Integer.compare(other.survivors, survivors);
+			if (result == 0)
+				result = Long.compare(damageTaken, other.damageTaken);
+			if (result == 0)
+				result = Long.compare(other.damageDealt, damageDealt);
+			if (result == 0)
+				result = Long.compare(duration, other.duration);
+			if (result == 0)
+				result = Integer.compare(formation.getChallengeRating(), other.formation.getChallengeRating());
+			return result;
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder s = new StringBuilder();
+			s.append(conclusion);
+			s.append(": ");
+			boolean first = true;
+			for (Character character : formation) {
+				if (!first)
+					s.append(", ");
+				s.append(character.getName());
+				first = false;
+			}
+			s.append(" with ");
+			s.append(strategy.getType().getName());
+			s.append(String.format(" (CR %d, %d survivors, %d damage taken, %.1fs)",
+					formation.getChallengeRating(), survivors, damageTaken, duration / 1000d));
+			return s.toString();
+		}
+
+		/**
+		 * Ranks conclusions with higher values being better.
+		 * @param conclusion the conclusion to rank
+		 * @return the rank of the conclusion
+		 */
+		protected static int rank(Conclusion conclusion) {
+			switch (conclusion) {
+			case WON: return 2;
+			case TIE: return 1;
+			default: return 0;
+			}
+		}
+
+	}
+
+	/**
+	 * The companions that fit under the challenge rating cap on their own.
+	 */
+	protected final List<Companion> roster;
+
+	/**
+	 * The challenge ratings of {@link #roster}.
+	 */
+	protected final int[] ratings;
+
+	/**
+	 * The opponent to optimize against.
+	 */
+	protected final Encounter opponent;
+
+	/**
+	 * The maximum challenge rating of a party.
+	 */
+	protected final int challengeRatingCap;
+
+	/**
+	 * The strategies to choose from.
+	 * @see #setStrategies(List)
+	 */
+	protected List<Strategy> strategies = Arrays.asList(Strategy.createRowAssault(),
+			Strategy.createColAssault(), Strategy.createConcentratedAssault());
+
+	/**
+	 * The number of parties per generation.
+	 * @see #setPopulationSize(int)
+	 */
+	protected int populationSize = DEFAULT_POPULATION_SIZE;
+
+	/**
+	 * The number of generations.
+	 * @see #setGenerations(int)
+	 */
+	protected int generations = DEFAULT_GENERATIONS;
+
+	/**
+	 * All parties scored so far, by their genome.
+	 */
+	protected final ConcurrentMap<String, Result> results = new ConcurrentHashMap<>();
+
+	/**
+	 * Creates a new optimizer.
+	 * @param roster the companions to choose from
+	 * @param opponent the opponent to optimize against
+	 * @param challengeRatingCap the maximum challenge rating of a party
+	 * @throws NullPointerException If <code>roster</code> or <code>opponent</code> refers to <code>null</code>.
+	 */
+	public FormationOptimizer(Collection<? extends Companion> roster, Encounter opponent, int challengeRatingCap) {
+		Utilities.requireNonNull(roster, "roster");
+		Utilities.requireNonNull(opponent, "opponent");
+		this.opponent = opponent;
+		this.challengeRatingCap = challengeRatingCap;
+		this.roster = new ArrayList<>(roster.size());
+		for (Companion companion : roster)
+			if (companion.getChallengeRating() <= challengeRatingCap)
+				this.roster.add(companion);
+		ratings = new int[this.roster.size()];
+		for (int i = 0; i < ratings.length; i++)
+			ratings[i] = this.roster.get(i).getChallengeRating();
+	}
+
+	/**
+	 * Creates a new optimizer for the companions of the player against the specified stage, respecting
+	 * the challenge rating cap of the player's difficulty.
+	 * @param player the player whose companions to choose from
+	 * @param stage the stage to optimize against
+	 * @return a new optimizer
+	 * @throws NullPointerException If <code>player</code> or <code>stage</code> refers to <code>null</code>.
+	 */
+	public static FormationOptimizer forStage(Player player, StageBase stage) {
+		Utilities.requireNonNull(player, "player");
+		Utilities.requireNonNull(stage, "stage");
+		Encounter opponent = stage.createEncounter();
+		int cap = Integer.MAX_VALUE;
+		if (player.getDifficulty().stopSteamrolling())
+			cap = player.getDifficulty().getChallengeRatingCap(opponent.getChallengeRating());
+		return new FormationOptimizer(player.getCompanions(), opponent, cap);
+	}
+
+	/**
+	 * @return the maximum challenge rating of a party
+	 */
+	public int getChallengeRatingCap() {
+		return challengeRatingCap;
+	}
+
+	/**
+	 * @return an unmodifiable view of the strategies to choose from
+	 */
+	public List<Strategy> getStrategies() {
+		return Collections.unmodifiableList(strategies);
+	}
+
+	/**
+	 * Sets the strategies to choose from.
+	 * @param strategies the strategies to choose from, at least one
+	 * @throws NullPointerException If <code>strategies</code> or any of its entries refers to <code>null</code>.
+	 * @throws IllegalArgumentException If <code>strategies</code> is empty.
+	 */
+	public void setStrategies(List<Strategy> strategies) {
+		Utilities.requireNonNull(strategies, "strategies");
+		if (strategies.isEmpty())
+			throw new IllegalArgumentException("At least one strategy must be given!");
+		for (Strategy strategy : strategies)
+			Utilities.requireNonNull(strategy, "All strategies");
+		this.strategies = new ArrayList<>(strategies);
+		results.clear();
+	}
+
+	/**
+	 * @param populationSize the number of parties per generation, at least 2
+	 * @throws IllegalArgumentException If <code>populationSize</code> is less than 2.
+	 */
+	public void setPopulationSize(int populationSize) {
+		if (populationSize < 2)
+			throw new IllegalArgumentException("The population size must be at least 2!");
+		this.populationSize = populationSize;
+	}
+
+	/**
+	 * @param generations the number of generations, not negative
+	 * @throws IllegalArgumentException If <code>generations</code> is negative.
+	 */
+	public void setGenerations(int generations) {
+		if (generations < 0)
+			throw new IllegalArgumentException("The number of generations must be nonnegative!");
+		this.generations = generations;
+	}
+
+	/**
+	 * Searches for the best parties. The search is deterministic for a given seed.
+	 * @param k the maximum number of parties to return
+	 * @param seed the seed for the search
+	 * @return up to <code>k</code> distinct parties under the challenge rating cap, the best first;
+	 * empty if no companion fits under the cap
+	 * @throws IllegalArgumentException If <code>k</code> isn't positive.
+	 */
+	public List<Result> optimize(int k, long seed) {
+		if (k <= 0)
+			throw new IllegalArgumentException("At least one party must be requested!");
+		if (roster.isEmpty())
+			return Collections.emptyList();
+		SplittableRandom random = new SplittableRandom(seed);
+		int[][] population = new int[populationSize][];
+		for (int i = 0; i < populationSize; i++)
+			population[i] = i == 0 ? createGreedyGenome() : createRandomGenome(random);
+		Result[] scores = evaluate(population);
+		for (int generation = 0; generation < generations; generation++) {
+			Integer[] order = sortedIndices(scores);
+			int[][] next = new int[populationSize][];
+			int elite = Math.max(1, populationSize / 8);
+			for (int i = 0; i < elite; i++)
+				next[i] = population[order[i]];
+			for (int i = elite; i < populationSize; i++) {
+				int[] parent1 = population[order[select(random)]];
+				int[] parent2 = population[order[select(random)]];
+				next[i] = mutate(crossover(parent1, parent2, random), random);
+			}
+			population = next;
+			scores = evaluate(population);
+		}
+		List<Result> best = new ArrayList<>(results.values());
+		Collections.sort(best);
+		return new ArrayList<>(best.subList(0, Math.min(k, best.size())));
+	}
+
+	/**
+	 * Scores all genomes of the population in parallel, using the cached result of already scored genomes.
+	 * @param population the genomes to score
+	 * @return the scores of the genomes
+	 */
+	protected Result[] evaluate(int[][] population) {
+		Result[] scores = new Result[population.length];
+		IntStream.range(0, population.length).parallel()
+				.forEach(i -> scores[i] = Utilities.getOrCompute(results, Arrays.toString(population[i]), key -> simulate(population[i])));
+		return scores;
+	}
+
+	/**
+	 * Fights the opponent with the party of the specified genome in virtual time.
+	 * @param genome the genome of the party
+	 * @return the result of the battle
+	 */
+	protected Result simulate(int[] genome) {
+		Character[][] characters = new Character[Formation.ROW_NUMBER][Formation.COL_NUMBER];
+		for (int pos = 0; pos < Formation.MAX_CHAR_NUMBER; pos++)
+			if (genome[pos] != EMPTY)
+				characters[pos / Formation.COL_NUMBER][pos % Formation.COL_NUMBER] = roster.get(genome[pos]);
+		Formation formation = new Formation(characters);
+		Strategy strategy = strategies.get(genome[Formation.MAX_CHAR_NUMBER]);
+		BattleSimulation simulation = new BattleSimulation(new Encounter(formation, strategy), opponent);
+		simulation.simulate();
+		return new Result(formation, strategy, simulation);
+	}
+
+	/**
+	 * Creates the genome of a party made of the strongest companions fitting under the cap, using the last strategy.
+	 * @return a genome within the cap
+	 */
+	protected int[] createGreedyGenome() {
+		Integer[] byRating = new Integer[roster.size()];
+		for (int i = 0; i < byRating.length; i++)
+			byRating[i] = i;
+		Arrays.sort(byRating, (i, j) -> Integer.compare(ratings[j], ratings[i]));
+		int[] genome = emptyGenome();
+		genome[Formation.MAX_CHAR_NUMBER] = strategies.size() - 1;
+		long sum = 0;
+		int pos = 0;
+		for (int i = 0; i < byRating.length && pos < Formation.MAX_CHAR_NUMBER; i++) {
+			if (sum + ratings[byRating[i]] <= challengeRatingCap) {
+				sum += ratings[byRating[i]];
+				genome[pos++] = byRating[i];
+			}
+		}
+		return genome;
+	}
+
+	/**
+	 * Creates the genome of a random party within the cap.
+	 * @param random the source of randomness
+	 * @return a genome within the cap
+	 */
+	protected int[] createRandomGenome(SplittableRandom random) {
+		int[] genome = emptyGenome();
+		int size = 1 + random.nextInt(Math.min(Formation.MAX_CHAR_NUMBER, roster.size()));
+		for (int i = 0; i < size; i++)
+			genome[random.nextInt(Formation.MAX_CHAR_NUMBER)] = random.nextInt(roster.size());
+		genome[Formation.MAX_CHAR_NUMBER] = random.nextInt(strategies.size());
+		return repair(genome, random);
+	}
+
+	/**
+	 * Creates a genome with all positions empty and the first strategy.
+	 * @return an empty genome
+	 */
+	protected static int[] emptyGenome() {
+		int[] genome = new int[Formation.MAX_CHAR_NUMBER + 1];
+		Arrays.fill(genome, 0, Formation.MAX_CHAR_NUMBER, EMPTY);
+		genome[Formation.MAX_CHAR_NUMBER] = 0;
+		return genome;
+	}
+
+	/**
+	 * Takes each position and the strategy from either parent.
+	 * @param parent1 the first parent
+	 * @param parent2 the second parent
+	 * @param random the source of randomness
+	 * @return a new genome within the cap
+	 */
+	protected int[] crossover(int[] parent1, int[] parent2, SplittableRandom random) {
+		int[] child = new int[parent1.length];
+		for (int i = 0; i < child.length; i++)
+			child[i] = random.nextBoolean() ? parent1[i] : parent2[i];
+		return repair(child, random);
+	}
+
+	/**
+	 * Applies one random change: recruiting a companion to a position, clearing a position, swapping two positions or changing the strategy.
+	 * @param genome the genome to change, which is modified
+	 * @param random the source of randomness
+	 * @return the changed genome within the cap
+	 */
+	protected int[] mutate(int[] genome, SplittableRandom random) {
+		int pos = random.nextInt(Formation.MAX_CHAR_NUMBER);
+		switch (random.nextInt(4)) {
+		case 0:
+			genome[pos] = random.nextInt(roster.size());
+			break;
+		case 1:
+			genome[pos] = EMPTY;
+			break;
+		case 2:
+			int other = random.nextInt(Formation.MAX_CHAR_NUMBER);
+			int swap = genome[pos];
+			genome[pos] = genome[other];
+			genome[other] = swap;
+			break;
+		default:
+			genome[Formation.MAX_CHAR_NUMBER] = random.nextInt(strategies.size());
+		}
+		return repair(genome, random);
+	}
+
+	/**
+	 * Removes duplicate companions and then the highest rated companions until the party fits under the cap.
+	 * If the party is empty afterwards, a random companion is placed, which fits under the cap on its own.
+	 * @param genome the genome to repair, which is modified
+	 * @param random the source of randomness
+	 * @return the repaired genome
+	 */
+	protected int[] repair(int[] genome, SplittableRandom random) {
+		long sum = 0;
+		for (int pos = 0; pos < Formation.MAX_CHAR_NUMBER; pos++) {
+			if (genome[pos] == EMPTY)
+				continue;
+			for (int other = 0; other < pos; other++)
+				if (genome[other] == genome[pos]) {
+					genome[pos] = EMPTY;
+					break;
+				}
+			if (genome[pos] != EMPTY)
+				sum += ratings[genome[pos]];
+		}
+		while (sum > challengeRatingCap) {
+			int highest = EMPTY;
+			for (int pos = 0; pos < Formation.MAX_CHAR_NUMBER; pos++)
+				if (genome[pos] != EMPTY && (highest == EMPTY || ratings[genome[pos]] > ratings[genome[highest]]))
+					highest = pos;
+			sum -= ratings[genome[highest]];
+			genome[highest] = EMPTY;
+		}
+		if (Arrays.stream(genome, 0, Formation.MAX_CHAR_NUMBER).allMatch(index -> index == EMPTY))
+			genome[random.nextInt(Formation.MAX_CHAR_NUMBER)] = random.nextInt(roster.size());
+		return genome;
+	}
+
+	/**
+	 * Selects the better of two random ranks.
+	 * @param random the source of randomness
+	 * @return a rank favouring the better ranks
+	 */
+	protected int select(SplittableRandom random) {
+		return Math.min(random.nextInt(populationSize), random.nextInt(populationSize));
+	}
+
+	/**
+	 * Returns the indices of the scores from best to worst.
+	 * @param scores the scores to sort
+	 * @return the sorted indices
+	 */
+	protected static Integer[] sortedIndices(Result[] scores) {
+		Integer[] order = new Integer[scores.length];
+		for (int i = 0; i < order.length; i++)
+			order[i] = i;
+		Arrays.sort(order, (i, j) -> scores[i].compareTo(scores[j]));
+		return order;
+	}
+
+}
@@ -0,0 +1,165 @@
+package org.abos.sc.core;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.abos.sc.core.battle.Conclusion;
+import org.abos.util.Utilities;
+
+/**
+ * Catches up on the progress a player makes while the game is closed. The companions in the party train
+ * towards their next level (see {@link Companion#LEVEL_UP_DURATION}) and, if an idle stage is set, the party
+ * farms it as long as it wins there. Everything is resolved at once without replaying any battles in real time,
+ * so even weeks of idle time are caught up in a few milliseconds.
+ * @author Sebastian Koch
+ * @version %I%
+ * @since 0.7
+ * @see Player#getLastSaveTime()
+ * @see Player#getIdleStageId()
+ */
+public class IdleProgression {
+
+	/**
+	 * The player to catch up.
+	 */
+	protected final Player player;
+
+	/**
+	 * The time the player has been idle.
+	 * @see #getElapsed()
+	 */
+	protected final Duration elapsed;
+
+	/**
+	 * The number of level ups of all party members.
+	 * @see #getLevelUps()
+	 */
+	protected int levelUps = 0;
+
+	/**
+	 * The farm of the idle stage, <code>null</code> if none has been farmed.
+	 * @see #getFarm()
+	 */
+	protected StageFarm farm = null;
+
+	/**
+	 * If the progress has already been applied.
+	 * @see #apply()
+	 */
+	protected boolean applied = false;
+
+	/**
+	 * Creates a new idle progression for the specified player. Call {@link #apply()} to change the player.
+	 * @param player the player to catch up
+	 * @param elapsed the time the player has been idle, not negative
+	 * @throws NullPointerException If <code>player</code> or <code>elapsed</code> refers to <code>null</code>.
+	 * @throws IllegalArgumentException If <code>elapsed</code> is negative.
+	 */
+	public IdleProgression(Player player, Duration elapsed) {
+		Utilities.requireNonNull(player, "player");
+		Utilities.requireNonNull(elapsed, "elapsed");
+		if (elapsed.isNegative())
+			throw new IllegalArgumentException("The idle time must be nonnegative!");
+		this.player = player;
+		this.elapsed = elapsed;
+	}
+
+	/**
+	 * Applies the idle progress to the player: Every party member trains for the elapsed time and the idle stage
+	 * is farmed for the elapsed time if the party wins there without exceeding the challenge rating cap. 
+	 * This method can only be called once.
+	 * @throws IllegalStateException If the progress has already been applied.
+	 * @see Companion#train(Duration)
+	 * @see StageFarm#farmFor(Duration)
+	 * @see StageFarm#exceedsChallengeRatingCap(Player, Stage)
+	 */
+	public void apply() {
+		if (applied)
+			throw new IllegalStateException("Idle progress has already been applied!");
+		applied = true;
+		// farm first, so the extra points are calculated with the party at the time of the save
+		String stageId = player.getIdleStageId();
+		Stage stage = stageId == null ? null : player.getStages().lookup(stageId);
+		if (stage != null && stage.isCleared() && !StageFarm.exceedsChallengeRatingCap(player, stage)) {
+			StageFarm farm = new StageFarm(player, stage);
+			if (farm.getConclusion() == Conclusion.WON) {
+				farm.farmFor(elapsed);
+				this.farm = farm;
+			}
+		}
+		for (Character companion : player.getParty()) {
+			assert companion instanceof Companion;
+			levelUps += ((Companion)companion).train(elapsed);
+		}
+	}
+
+	/**
+	 * Returns the time the player has been idle.
+	 * @return the time the player has been idle
+	 */
+	public Duration getElapsed() {
+		return elapsed;
+	}
+
+	/**
+	 * Returns the number of level ups of all party members.
+	 * @return the number of level ups of all party members
+	 */
+	public int getLevelUps() {
+		return levelUps;
+	}
+
+	/**
+	 * Returns the farm of the idle stage.
+	 * @return the farm of the idle stage OR <code>null</code> if no stage has been farmed.
+	 */
+	public StageFarm getFarm() {
+		return farm;
+	}
+
+	/**
+	 * Returns a message for the player summarising the idle progress.
+	 */
+	@Override
+	public String toString() {
+		StringBuilder s = new StringBuilder();
+		s.append("You have been away for ");
+		s.append(elapsed.toHours());
+		s.append("h ");
+		s.append(elapsed.toMinutesPart());
+		s.append("min.");
+		if (levelUps > 0) {
+			s.append(System.lineSeparator());
+			s.append("Your party gained ");
+			s.append(levelUps);
+			s.append(levelUps == 1 ? " level!" : " levels!");
+		}
+		if (farm != null && farm.getBattles() > 0) {
+			s.append(System.lineSeparator());
+			s.append(farm.toString());
+		}
+		return s.toString();
+	}
+
+	/**
+	 * Catches up on the progress since the last save of the specified player.
+	 * @param player the loaded player
+	 * @param now the current time
+	 * @return the applied idle progression OR <code>null</code> if the player has never been saved.
+	 * @throws NullPointerException If <code>player</code> or <code>now</code> refers to <code>null</code>.
+	 * @see Player#getLastSaveTime()
+	 */
+	public static IdleProgression catchUp(Player player, Instant now) {
+		Utilities.requireNonNull(player, "player");
+		Utilities.requireNonNull(now, "now");
+		if (player.getLastSaveTime() == null)
+			return null;
+		Duration elapsed = Duration.between(player.getLastSaveTime(), now);
+		if (elapsed.isNegative()) // the clock has been turned back
+			elapsed = Duration.ZERO;
+		IdleProgression progression = new IdleProgression(player, elapsed);
+		progression.apply();
+		return progression;
+	}
+
+}
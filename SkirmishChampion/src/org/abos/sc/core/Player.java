@@ -4,12 +4,15 @@ import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Duration;
 import java.time.Instant;
 
 import org.abos.sc.core.battle.Conclusion;
+import org.abos.sc.core.battle.Encounter;
 import org.abos.sc.core.battle.Formation;
+import org.abos.sc.core.battle.Strategy;
 import org.abos.util.IllegalArgumentTypeException;
 import org.abos.util.ParseException;
 import org.abos.util.ParsedIdNotFoundException;
@@ -80,6 +83,13 @@ public class Player implements SaveString {
 	 */
 	protected Formation party;
 	
+	/**
+	 * The strategy of the party.
+	 * @see #getStrategy()
+	 * @see #setStrategy(Strategy)
+	 */
+	protected Strategy strategy = Strategy.createConcentratedAssault();
+	
 	/**
 	 * The money this player has.
 	 * @see #getMoney()
@@ -96,6 +106,20 @@ public class Player implements SaveString {
 	 */
 	protected int diamonds = 0;
 	
+	/**
+	 * When this game state has been saved the last time, <code>null</code> if it hasn't been saved yet.
+	 * @see #getLastSaveTime()
+	 * @see IdleProgression#catchUp(Player, Instant)
+	 */
+	protected Instant lastSaveTime = null;
+	
+	/**
+	 * The ID of the stage the party farms while the game is closed, <code>null</code> if none.
+	 * @see #getIdleStageId()
+	 * @see #setIdleStageId(String)
+	 */
+	protected String idleStageId = null;
+	
 	/**
 	 * Private constructor for loading purposes.
 	 * @see #loadFromFile(Path)
@@ -233,6 +257,7 @@ public class Player implements SaveString {
 	
 	/**
 	 * Updates the stages of every region of this player. Call this method before {@link #updateFandomRegions(boolean)}.
+	 * This rebuilds all regions from scratch and is meant for loading, during play use {@link #clearStage(Stage, ProgressListener)}.
 	 * @param removeClearedFlags if the cleared flag should be removed
 	 * @see #updateFandomRegions(boolean)
 	 * @see Region#updateStages(Iterable)
@@ -270,6 +295,134 @@ public class Player implements SaveString {
 		}
 	}
 	
+	/**
+	 * Adds the specified stage to this player and to its region if the player already has access to it.
+	 * Unlike {@link #updateRegionStages(boolean)}, no other stages or regions are looked at.
+	 * @param stage the stage to add
+	 * @return <code>true</code> if the stage has been added, <code>false</code> if a stage with the same ID was already accessable
+	 * @throws NullPointerException If <code>stage</code> refers to <code>null</code>.
+	 * @see #addStage(Stage, ProgressListener)
+	 */
+	public boolean addStage(Stage stage) {
+		return addStage(stage, null);
+	}
+	
+	/**
+	 * Adds the specified stage to this player and to its region if the player already has access to it.
+	 * Unlike {@link #updateRegionStages(boolean)}, no other stages or regions are looked at.
+	 * If an already cleared stage completes its region, this is reported to the listener like in {@link #clearStage(Stage, ProgressListener)}.
+	 * @param stage the stage to add
+	 * @param listener the listener to notify about completed regions and fandoms, may be <code>null</code>
+	 * @return <code>true</code> if the stage has been added, <code>false</code> if a stage with the same ID was already accessable
+	 * @throws NullPointerException If <code>stage</code> refers to <code>null</code>.
+	 */
+	public boolean addStage(Stage stage, ProgressListener listener) {
+		Utilities.requireNonNull(stage, "stage");
+		if (stages.containsId(stage.getId()))
+			return false;
+		stages.add(stage);
+		Region region = regions.lookup(stage.getRegionId());
+		if (region != null) {
+			boolean wasCleared = region.isCleared();
+			region.addStage(stage);
+			if (!wasCleared && region.isCleared())
+				regionCompleted(region, listener);
+		}
+		return true;
+	}
+	
+	/**
+	 * Adds the specified region to this player and to its fandom if the player already has access to it.
+	 * The already accessable stages of the region are collected once.
+	 * @param region the region to add
+	 * @return <code>true</code> if the region has been added, <code>false</code> if a region with the same ID was already accessable
+	 * @throws NullPointerException If <code>region</code> refers to <code>null</code>.
+	 * @see #addRegion(Region, ProgressListener)
+	 */
+	public boolean addRegion(Region region) {
+		return addRegion(region, null);
+	}
+	
+	/**
+	 * Adds the specified region to this player and to its fandom if the player already has access to it.
+	 * The already accessable stages of the region are collected once. If they have all been cleared already,
+	 * the region and possibly its fandom are reported as completed to the listener like in {@link #clearStage(Stage, ProgressListener)}.
+	 * @param region the region to add
+	 * @param listener the listener to notify about completed regions and fandoms, may be <code>null</code>
+	 * @return <code>true</code> if the region has been added, <code>false</code> if a region with the same ID was already accessable
+	 * @throws NullPointerException If <code>region</code> refers to <code>null</code>.
+	 */
+	public boolean addRegion(Region region, ProgressListener listener) {
+		Utilities.requireNonNull(region, "region");
+		if (regions.containsId(region.getId()))
+			return false;
+		regions.add(region);
+		region.updateStages(stages);
+		region.hasBeenCleared();
+		Fandom fandom = fandoms.lookup(region.getFandomId());
+		boolean fandomWasCleared = fandom != null && fandom.isCleared();
+		if (fandom != null)
+			fandom.addRegion(region);
+		if (region.isCleared() && listener != null)
+			listener.regionCompleted(region);
+		if (fandom != null && !fandomWasCleared && fandom.isCleared() && listener != null)
+			listener.fandomCompleted(fandom);
+		return true;
+	}
+	
+	/**
+	 * Adds the specified fandom to this player. The already accessable regions of the fandom are collected once.
+	 * @param fandom the fandom to add
+	 * @return <code>true</code> if the fandom has been added, <code>false</code> if a fandom with the same ID was already accessable
+	 * @throws NullPointerException If <code>fandom</code> refers to <code>null</code>.
+	 */
+	public boolean addFandom(Fandom fandom) {
+		Utilities.requireNonNull(fandom, "fandom");
+		if (fandoms.containsId(fandom.getId()))
+			return false;
+		fandoms.add(fandom);
+		fandom.updateRegions(regions);
+		fandom.hasBeenCleared();
+		return true;
+	}
+	
+	/**
+	 * Marks the specified stage as cleared and updates the progress of its region and fandom in constant time.
+	 * Completions are reported to the listener directly. Clearing a stage a second time has no further effect.
+	 * @param stage the stage that has been cleared
+	 * @param listener the listener to notify about completed regions and fandoms, may be <code>null</code>
+	 * @throws NullPointerException If <code>stage</code> refers to <code>null</code>.
+	 * @see Region#stageCleared(Stage)
+	 * @see Fandom#regionCleared(Region)
+	 */
+	public void clearStage(Stage stage, ProgressListener listener) {
+		Utilities.requireNonNull(stage, "stage");
+		Stage registered = stages.lookup(stage.getId());
+		boolean alreadyCleared = registered != null && registered.isCleared();
+		stage.setCleared(true);
+		if (registered == null || alreadyCleared)
+			return;
+		registered.setCleared(true); // in case the specified stage is a copy
+		Region region = regions.lookup(registered.getRegionId());
+		if (region != null && region.stageCleared(registered))
+			regionCompleted(region, listener);
+	}
+	
+	/**
+	 * Reports a region that has just been completed to its fandom and to the listener,
+	 * and the fandom as well if the region completes it.
+	 * @param region the region that has just been completed
+	 * @param listener the listener to notify, may be <code>null</code>
+	 * @see Fandom#regionCleared(Region)
+	 */
+	private void regionCompleted(Region region, ProgressListener listener) {
+		if (listener != null)
+			listener.regionCompleted(region);
+		Fandom fandom = fandoms.lookup(region.getFandomId());
+		if (fandom != null && fandom.regionCleared(region) && listener != null)
+			listener.fandomCompleted(fandom);
+	}
+	
 	/**
 	 * Returns the party of this player.
 	 * @return the party of this player, made up of accessable companions
@@ -305,6 +458,36 @@ public class Player implements SaveString {
 		this.party = new Formation(partySelection);
 	}
 	
+	/**
+	 * Returns the strategy of this player's party.
+	 * @return the strategy of this player's party
+	 * @see #setStrategy(Strategy)
+	 */
+	public Strategy getStrategy() {
+		return strategy;
+	}
+	
+	/**
+	 * Sets the strategy of this player's party.
+	 * @param strategy the strategy to set
+	 * @throws NullPointerException If <code>strategy</code> refers to <code>null</code>.
+	 * @see #getStrategy()
+	 */
+	public void setStrategy(Strategy strategy) {
+		Utilities.requireNonNull(strategy, "strategy");
+		this.strategy = strategy;
+	}
+	
+	/**
+	 * Creates an encounter of copies of the party and strategy of this player, ready for battle.
+	 * @return a new encounter of this player's party
+	 * @see #getParty()
+	 * @see #getStrategy()
+	 */
+	public Encounter createPartyEncounter() {
+		return new Encounter((Formation)party.clone(), (Strategy)strategy.clone());
+	}
+	
 	/**
 	 * Adds the specified amount of extra points to each companion in this player's party.
 	 * @param amount the amount of extra points to add (can be negative)
@@ -377,6 +560,39 @@ public class Player implements SaveString {
 		this.diamonds = Utilities.addWithoutOverflow(this.diamonds, amount);
 	}
 	
+	/**
+	 * Returns when this game state has been saved the last time.
+	 * @return the time of the last save OR <code>null</code> if this game state has never been saved.
+	 * @see #saveToFile(Path, boolean)
+	 */
+	public Instant getLastSaveTime() {
+		return lastSaveTime;
+	}
+	
+	/**
+	 * Returns the ID of the stage the party farms while the game is closed.
+	 * @return the ID of the stage to farm while idle OR <code>null</code> if none is set.
+	 * @see #setIdleStageId(String)
+	 */
+	public String getIdleStageId() {
+		return idleStageId;
+	}
+	
+	/**
+	 * Sets the stage the party farms while the game is closed.
+	 * @param idleStageId the ID of an accessable and cleared stage, or <code>null</code> to stop farming while idle
+	 * @throws IllegalArgumentException If the stage with the specified ID isn't accessable or hasn't been cleared.
+	 * @see #getIdleStageId()
+	 */
+	public void setIdleStageId(String idleStageId) {
+		if (idleStageId != null) {
+			Stage stage = stages.lookup(idleStageId);
+			if (stage == null || !stage.isCleared())
+				throw new IllegalArgumentException(String.format("Stage %s is not an accessable cleared stage!", idleStageId));
+		}
+		this.idleStageId = idleStageId;
+	}
+	
 	/**
 	 * Saves the player / game state to a string builder.
 	 * @param s the string builder to append to
@@ -406,6 +622,14 @@ public class Player implements SaveString {
 		s.append(System.lineSeparator());
 		party.toSaveString(s);
 		s.append(System.lineSeparator());
+		if (lastSaveTime != null)
+			s.append(lastSaveTime.toEpochMilli());
+		s.append(System.lineSeparator());
+		if (idleStageId != null)
+			s.append(idleStageId);
+		s.append(System.lineSeparator());
+		strategy.toSaveString(s);
+		s.append(System.lineSeparator());
 	}
 	
 	/**
@@ -419,9 +643,20 @@ public class Player implements SaveString {
 		if (path.toFile().isFile() && !overwrite)
 			return false;
 		FileWriter fw = null;
+		PlayerSavedEvent event = new PlayerSavedEvent();
+		event.begin();
 		try {
 			fw = new FileWriter(path.toFile(), Utilities.ENCODING, !overwrite);
-			fw.append(toSaveString());
+			lastSaveTime = Instant.now();
+			String content = toSaveString();
+			fw.append(content);
+			fw.flush();
+			event.end();
+			if (event.shouldCommit()) {
+				event.file = path.toString();
+				event.bytes = content.getBytes(Utilities.ENCODING).length;
+				event.commit();
+			}
 			return true;
 		}
 		finally {
@@ -441,6 +676,8 @@ public class Player implements SaveString {
 		FileReader fr = null;
 		BufferedReader br = null;
 		String eofMsg = "Unexpected end of save file in line %d";
+		PlayerLoadedEvent event = new PlayerLoadedEvent();
+		event.begin();
 		// if changed, also change the parse function
 		try {
 			fr = new FileReader(path.toFile());
@@ -495,10 +732,36 @@ public class Player implements SaveString {
 			catch (IllegalStateException ex) {
 				throw new ParsedIdNotFoundException(String.format("At least one party member was inaccessable for the player: %s", line),ex);
 			}
+			// compatibility for saves without idle progression
+			if ((line = br.readLine()) != null && !line.isEmpty()) {
+				try {
+					player.lastSaveTime = Instant.ofEpochMilli(Long.parseLong(line));
+				}
+				catch (NumberFormatException ex) {
+					throw new IllegalArgumentTypeException(String.format("Save time of player was invalid: %s", line),ex);
+				}
+			}
+			if ((line = br.readLine()) != null && !line.isEmpty()) {
+				try {
+					player.setIdleStageId(line);
+				}
+				catch (IllegalArgumentException ex) {
+					throw new ParsedIdNotFoundException(String.format("Idle stage was invalid for the player: %s", line),ex);
+				}
+			}
+			// compatibility for saves without party strategy
+			if ((line = br.readLine()) != null && !line.isEmpty())
+				player.setStrategy(Strategy.parse(line));
 			
 			// make loaded save states illegal for speedruns
 			player.creationTime = null;
 			
+			event.end();
+			if (event.shouldCommit()) {
+				event.file = path.toString();
+				event.bytes = Files.size(path);
+				event.commit();
+			}
 			return player;
 		}
 		finally {
@@ -531,75 +794,13 @@ public class Player implements SaveString {
 	}
 	
 	/**
-	 * Checks for accessability of characters, stages and regions and for which characters images are missing.
+	 * Checks for accessability of characters, stages and regions by analysing the {@link UnlockGraph} 
+	 * of the currently registered game data.
 	 * @return The evaluation as a string.
+	 * @see UnlockGraph#analyse()
 	 */
 	public static String validateGameData() {
-		Player player = createValidationPlayer();
-		Registry<Companion> companions = new Registry<>(player.companions);
-//		Registry<Fandom> fandoms = new Registry<>(player.fandoms);
-		Registry<Region> regions = new Registry<>(player.regions);
-		Registry<Stage> uncheckedStages = new Registry<>();
-		Registry<Stage> checkedStages = new Registry<>();
-		for (Stage stage : player.stages)
-			uncheckedStages.add((Stage)stage.clone());
-		// collect all theoretically reachable stages etc via their IDs
-		Stage currentStage = null;
-		while (!uncheckedStages.isEmpty()) {
-			currentStage = uncheckedStages.iterator().next();
-			currentStage.engageStage();
-			for (Companion companion : currentStage.rewardCompanions(Conclusion.WON)) {
-				if (!companions.containsId(companion.getId()))
-					companions.add(companion);
-			}
-//			for (Fandom fandom : currentStage.rewardFandoms(Conclusion.WON)) {
-//				if (!fandoms.containsId(fandom.getId()))
-//					fandoms.add(fandom);
-//			}
-			for (Region region : currentStage.rewardRegions(Conclusion.WON)) {
-				if (!regions.containsId(region.getId()))
-					regions.add(region);
-			}
-			for (Stage stage : currentStage.rewardStages(Conclusion.WON, player.getDifficulty().showChallengeRatings())) {
-				if (!uncheckedStages.containsId(stage.getId()) && !checkedStages.containsId(stage.getId()))
-					uncheckedStages.add(stage);
-			}
-			currentStage.disengageStage();
-			uncheckedStages.removeById(currentStage.getId());
-			checkedStages.add(currentStage);
-		}
-		// get the remaining entries 
-		Registry<CharacterBase> unreachableCharacters = new Registry<>();
-//		Registry<FandomBase> unreachableFandoms = new Registry<>();
-		Registry<RegionBase> unreachableRegions = new Registry<>();
-		Registry<StageBase> unreachableStages = new Registry<>();
-		for (CharacterBase character : CharacterBase.CHARACTERS)
-			if (!companions.containsId(character.getId()))
-				unreachableCharacters.add(character);
-//		for (FandomBase fandom : FandomBase.FANDOMS)
-//			if (!fandoms.containsId(fandom.getId()))
-//				unreachableFandoms.add(fandom);
-		for (RegionBase region : RegionBase.REGIONS)
-			if (!regions.containsId(region.getId()))
-				unreachableRegions.add(region);
-		for (StageBase stage : StageBase.STAGES)
-			if (!checkedStages.containsId(stage.getId()))
-				unreachableStages.add(stage);
-		// put it in a string
-		StringBuilder s = new StringBuilder();
-		s.append(String.format("%d characters out of %d unreachable: %s", 
-				unreachableCharacters.size(), CharacterBase.CHARACTERS.size(), unreachableCharacters));
-		s.append(System.lineSeparator());
-//		s.append(String.format("%d fandoms out of %d unreachable: %s", 
-//				unreachableFandoms.size(), FandomBase.FANDOMS.size(), unreachableFandoms));
-		s.append(System.lineSeparator());
-		s.append(String.format("%d regions out of %d unreachable: %s", 
-				unreachableRegions.size(), RegionBase.REGIONS.size(), unreachableRegions));
-		s.append(System.lineSeparator());
-		s.append(String.format("%d stages out of %d unreachable: %s", 
-				unreachableStages.size(), StageBase.STAGES.size(), unreachableStages));
-		s.append(System.lineSeparator());
-		return s.toString();
+		return UnlockGraph.build().analyse().toString();
 	}
 
 }
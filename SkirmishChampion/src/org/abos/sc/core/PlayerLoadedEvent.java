@@ -0,0 +1,36 @@
+package org.abos.sc.core;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A flight recorder event spanning the loading of a player.
+ * @author Sebastian Koch
+ * @version %I%
+ * @since 0.7
+ * @see Player#loadFromFile(java.nio.file.Path)
+ */
+@Name("org.abos.sc.PlayerLoaded")
+@Label("Player Loaded")
+@Category({"Skirmish Champion", "Persistence"})
+@Description("A player has been loaded from a file")
+public class PlayerLoadedEvent extends Event {
+
+	/**
+	 * The path of the save file.
+	 */
+	@Label("File")
+	public String file;
+
+	/**
+	 * The size of the save file.
+	 */
+	@Label("Bytes")
+	@DataAmount
+	public long bytes;
+
+}
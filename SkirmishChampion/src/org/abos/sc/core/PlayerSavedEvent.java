@@ -0,0 +1,36 @@
+package org.abos.sc.core;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A flight recorder event spanning the saving of a player.
+ * @author Sebastian Koch
+ * @version %I%
+ * @since 0.7
+ * @see Player#saveToFile(java.nio.file.Path, boolean)
+ */
+@Name("org.abos.sc.PlayerSaved")
+@Label("Player Saved")
+@Category({"Skirmish Champion", "Persistence"})
+@Description("A player has been saved to a file")
+public class PlayerSavedEvent extends Event {
+
+	/**
+	 * The path of the save file.
+	 */
+	@Label("File")
+	public String file;
+
+	/**
+	 * The number of bytes written.
+	 */
+	@Label("Bytes")
+	@DataAmount
+	public long bytes;
+
+}
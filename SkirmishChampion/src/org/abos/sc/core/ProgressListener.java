@@ -0,0 +1,26 @@
+package org.abos.sc.core;
+
+/**
+ * A listener that is notified as soon as the progress of a {@link Player} completes a region or a fandom.
+ * Both methods do nothing by default.
+ * @author Sebastian Koch
+ * @version %I%
+ * @since 0.7
+ * @see Player#clearStage(Stage, ProgressListener)
+ */
+public interface ProgressListener {
+
+	/**
+	 * Called when the last stage of the specified region has been cleared.
+	 * @param region the completed region
+	 */
+	public default void regionCompleted(Region region) {}
+
+	/**
+	 * Called when the last region of the specified fandom has been completed.
+	 * This is always called after {@link #regionCompleted(Region)} for the completing region.
+	 * @param fandom the completed fandom
+	 */
+	public default void fandomCompleted(Fandom fandom) {}
+
+}
@@ -19,6 +19,13 @@ public class Region extends RegionBase {
 	 */
 	protected final int allStagesCount;
 	
+	/**
+	 * The number of cleared stages in {@link #stages}, kept up to date by {@link #addStage(Stage)}
+	 * and {@link #stageCleared(Stage)}.
+	 * @see #checkCleared()
+	 */
+	protected int clearedStagesCount;
+	
 	/**
 	 * If this region has been cleared.
 	 * @see #isCleared()
@@ -44,6 +51,9 @@ public class Region extends RegionBase {
 		this.cleared = cleared;
 		this.stages = stages;
 		allStagesCount = collectAssociatedStageIds().size();
+		for (Stage stage : stages)
+			if (stage.isCleared())
+				clearedStagesCount++;
 	}
 	
 	public Region(RegionBase base) {
@@ -85,19 +95,60 @@ public class Region extends RegionBase {
 	 */
 	public boolean checkCleared() {
 		boolean oldCleared = cleared;
-		if (allStagesCount != stages.size()) {
-			cleared = false;
-		}
-		else {
-			boolean check = true;
-			for (Stage stage : stages)
-				check &= stage.isCleared();
-			cleared = check;
-		}
+		clearedStagesCount = 0;
+		for (Stage stage : stages)
+			if (stage.isCleared())
+				clearedStagesCount++;
+		updateCleared();
 		clearedFlag = oldCleared != cleared;
 		return cleared;
 	}
 	
+	/**
+	 * Recomputes the cleared state from the counters without looking at the stages.
+	 * @return <code>true</code> if this region has just become cleared, else <code>false</code>
+	 */
+	protected boolean updateCleared() {
+		boolean oldCleared = cleared;
+		cleared = allStagesCount == stages.size() && clearedStagesCount == allStagesCount;
+		return cleared && !oldCleared;
+	}
+	
+	/**
+	 * Adds the specified stage to this region if it belongs here and isn't known yet.
+	 * This doesn't scan the other stages of this region.
+	 * @param stage the stage to add
+	 * @return <code>true</code> if the stage has been added, else <code>false</code>
+	 * @throws NullPointerException If <code>stage</code> refers to <code>null</code>.
+	 * @see #stageCleared(Stage)
+	 */
+	public boolean addStage(Stage stage) {
+		Utilities.requireNonNull(stage, "stage");
+		if (!stage.getRegionId().equals(id) || stages.containsId(stage.getId()))
+			return false;
+		stages.add(stage);
+		if (stage.isCleared()) {
+			clearedStagesCount++;
+			updateCleared();
+		}
+		return true;
+	}
+	
+	/**
+	 * Notifies this region that one of its stages has just been cleared. Only the counters are updated,
+	 * so this method must be called exactly once per stage and only after {@link Stage#isCleared()} turned <code>true</code>.
+	 * @param stage the stage that has been cleared
+	 * @return <code>true</code> if this region has been completed by this stage, else <code>false</code>
+	 * @throws NullPointerException If <code>stage</code> refers to <code>null</code>.
+	 */
+	public boolean stageCleared(Stage stage) {
+		Utilities.requireNonNull(stage, "stage");
+		if (stages.lookup(stage.getId()) != stage || !stage.isCleared())
+			return false;
+		clearedStagesCount++;
+		return updateCleared();
+	}
+	
 	/**
 	 * @return the stages
 	 */
@@ -0,0 +1,251 @@
+package org.abos.sc.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntBinaryOperator;
+
+import org.abos.util.Utilities;
+
+/**
+ * Statistics over the primary and secondary stats of a roster of characters. The stats are read once and kept
+ * column by column in <code>int</code> arrays, so folds and reductions run over primitives without boxing and
+ * the JIT can vectorize the loops. Each stat is summed and sorted when first needed, after which minimum, maximum,
+ * sum and percentiles are lookups. The columns of large rosters are sorted in parallel.
+ * @author Sebastian Koch
+ * @version %I%
+ * @since 0.7
+ * @see CharacterBase#getStatsEval(Iterable, IntBinaryOperator, int[], boolean)
+ */
+public class RosterStats {
+
+	/**
+	 * The roster size from which the columns are sorted in parallel.
+	 * @see Arrays#parallelSort(int[])
+	 */
+	public static final int PARALLEL_THRESHOLD = 1 << 14;
+
+	/**
+	 * The primary stats, indexed by stat and then by character.
+	 */
+	protected final int[][] primary;
+
+	/**
+	 * The secondary stats, indexed by stat and then by character.
+	 */
+	protected final int[][] secondary;
+
+	/**
+	 * The number of characters.
+	 */
+	protected final int size;
+
+	/**
+	 * The sorted copies of {@link #primary}, <code>null</code> until computed.
+	 */
+	private volatile int[][] sortedPrimary = null;
+
+	/**
+	 * The sorted copies of {@link #secondary}, <code>null</code> until computed.
+	 */
+	private volatile int[][] sortedSecondary = null;
+
+	/**
+	 * The sums of {@link #primary}, <code>null</code> until computed.
+	 */
+	private volatile long[] sumsPrimary = null;
+
+	/**
+	 * The sums of {@link #secondary}, <code>null</code> until computed.
+	 */
+	private volatile long[] sumsSecondary = null;
+
+	/**
+	 * Reads the stats of the specified characters. Later changes of the characters are not reflected.
+	 * @param chars The characters to read. <code>null</code> entries will be ignored.
+	 * @throws NullPointerException If <code>chars</code> refers to <code>null</code>.
+	 */
+	public RosterStats(Iterable<? extends CharacterBase> chars) {
+		Utilities.requireNonNull(chars, "chars");
+		List<CharacterBase> list = new ArrayList<>();
+		for (CharacterBase base : chars)
+			if (base != null)
+				list.add(base);
+		size = list.size();
+		primary = new int[StatsPrimary.SIZE][size];
+		secondary = new int[StatsSecondary.SIZE][size];
+		for (int c = 0; c < size; c++) {
+			CharacterBase base = list.get(c);
+			for (int i = 0; i < StatsPrimary.SIZE; i++)
+				primary[i][c] = base.getPrimaryStat(i);
+			for (int i = 0; i < StatsSecondary.SIZE; i++)
+				secondary[i][c] = base.getSecondaryStat(i);
+		}
+	}
+
+	/**
+	 * Returns the number of characters.
+	 * @return the number of non <code>null</code> characters given to the constructor
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the stats of all characters for the specified stat.
+	 * @param index the index of the stat in the corresponding stats enum
+	 * @param primary if the primary or the secondary stats should be used
+	 * @return the stat values in the order of the characters, which must not be modified
+	 */
+	protected int[] column(int index, boolean primary) {
+		return primary ? this.primary[index] : secondary[index];
+	}
+
+	/**
+	 * Applies a binary operation on all values of each stat separately.
+	 * @param op the binary operation to apply
+	 * @param startVals The start values for the binary operation. Length must match the corresponding number of stats.
+	 * @param primary if <code>true</code> the operation will be done over the primary stats, else over the secondary stats
+	 * @return An integer array containing the end results of the operation. The order matches the order of the corresponding stats enum.
+	 * @throws NullPointerException If <code>op</code> or <code>startVals</code> refers to <code>null</code>.
+	 * @throws IllegalArgumentException If <code>startsVals.length</code> doesn't match the corresponding number of stats.
+	 */
+	public int[] fold(IntBinaryOperator op, int[] startVals, boolean primary) {
+		Utilities.requireNonNull(op, "op");
+		Utilities.requireNonNull(startVals, "startVals");
+		if (startVals.length != (primary ? StatsPrimary.SIZE : StatsSecondary.SIZE))
+			throw new IllegalArgumentException("startVals has wrong number of arguments, must match number of "+(primary ? "primary" : "secondary")+" stats!");
+		int[] result = Arrays.copyOf(startVals, startVals.length);
+		for (int i = 0; i < result.length; i++) {
+			int[] values = column(i, primary);
+			int value = result[i];
+			for (int c = 0; c < values.length; c++)
+				value = op.applyAsInt(value, values[c]);
+			result[i] = value;
+		}
+		return result;
+	}
+
+	/**
+	 * Sums up all stats and sorts copies of them, the columns of large rosters in parallel.
+	 */
+	private void compute() {
+		if (sortedSecondary != null)
+			return;
+		synchronized (this) {
+			if (sortedSecondary != null)
+				return;
+			final int columns = StatsPrimary.SIZE + StatsSecondary.SIZE;
+			int[][] sorted = new int[columns][];
+			long[] sums = new long[columns];
+			for (int i = 0; i < columns; i++) {
+				int[] values = i < StatsPrimary.SIZE ? primary[i] : secondary[i - StatsPrimary.SIZE];
+				long sum = 0L;
+				for (int c = 0; c < values.length; c++)
+					sum += values[c];
+				sums[i] = sum;
+				sorted[i] = Arrays.copyOf(values, values.length);
+				// a parallel stream over the columns would use at most one thread per stat
+				if (size >= PARALLEL_THRESHOLD)
+					Arrays.parallelSort(sorted[i]);
+				else
+					Arrays.sort(sorted[i]);
+			}
+			sortedPrimary = Arrays.copyOfRange(sorted, 0, StatsPrimary.SIZE);
+			sumsPrimary = Arrays.copyOfRange(sums, 0, StatsPrimary.SIZE);
+			sumsSecondary = Arrays.copyOfRange(sums, StatsPrimary.SIZE, columns);
+			sortedSecondary = Arrays.copyOfRange(sorted, StatsPrimary.SIZE, columns); // published last, as compute() checks it
+		}
+	}
+
+	/**
+	 * Returns the minimum of each stat.
+	 * @param primary if the primary or the secondary stats should be used
+	 * @return An integer array containing the minimum of all the characters' stats seperately. The order matches the order of the corresponding stats enum.
+	 * If there are no characters, an array full of {@link Integer#MAX_VALUE} will be returned.
+	 */
+	public int[] getMin(boolean primary) {
+		return getPercentile(0d, primary, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Returns the maximum of each stat.
+	 * @param primary if the primary or the secondary stats should be used
+	 * @return An integer array containing the maximum of all the characters' stats seperately. The order matches the order of the corresponding stats enum.
+	 * If there are no characters, an array full of {@link Integer#MIN_VALUE} will be returned.
+	 */
+	public int[] getMax(boolean primary) {
+		return getPercentile(1d, primary, Integer.MIN_VALUE);
+	}
+
+	/**
+	 * Returns the sum of each stat.
+	 * @param primary if the primary or the secondary stats should be used
+	 * @return A long array containing the sum of all the characters' stats seperately. The order matches the order of the corresponding stats enum.
+	 */
+	public long[] getSum(boolean primary) {
+		compute();
+		return Arrays.copyOf(primary ? sumsPrimary : sumsSecondary, primary ? StatsPrimary.SIZE : StatsSecondary.SIZE);
+	}
+
+	/**
+	 * Returns the mean of each stat.
+	 * @param primary if the primary or the secondary stats should be used
+	 * @return A double array containing the mean of all the characters' stats seperately. The order matches the order of the corresponding stats enum.
+	 * If there are no characters, an array full of {@link Double#NaN} will be returned.
+	 */
+	public double[] getMean(boolean primary) {
+		long[] sums = getSum(primary);
+		double[] mean = new double[sums.length];
+		for (int i = 0; i < mean.length; i++)
+			mean[i] = sums[i] / (double)size;
+		return mean;
+	}
+
+	/**
+	 * Returns a percentile of each stat using the nearest-rank method, i.e. the smallest value such that at least
+	 * the specified fraction of the characters has a value smaller than or equal to it.
+	 * @param fraction the fraction of the characters, between <code>0</code> (the minimum) and <code>1</code> (the maximum)
+	 * @param primary if the primary or the secondary stats should be used
+	 * @return An integer array containing the percentile of all the characters' stats seperately. The order matches the order of the corresponding stats enum.
+	 * If there are no characters, an array full of <code>0</code> will be returned.
+	 * @throws IllegalArgumentException If <code>fraction</code> isn't between <code>0</code> and <code>1</code>.
+	 */
+	public int[] getPercentile(double fraction, boolean primary) {
+		return getPercentile(fraction, primary, 0);
+	}
+
+	/**
+	 * Returns the median of each stat.
+	 * @param primary if the primary or the secondary stats should be used
+	 * @return An integer array containing the median of all the characters' stats seperately, see {@link #getPercentile(double, boolean)}.
+	 */
+	public int[] getMedian(boolean primary) {
+		return getPercentile(0.5d, primary);
+	}
+
+	/**
+	 * Returns a percentile of each stat using the nearest-rank method.
+	 * @param fraction the fraction of the characters, between <code>0</code> and <code>1</code>
+	 * @param primary if the primary or the secondary stats should be used
+	 * @param empty the value to return for each stat if there are no characters
+	 * @return the percentile of each stat
+	 * @throws IllegalArgumentException If <code>fraction</code> isn't between <code>0</code> and <code>1</code>.
+	 */
+	protected int[] getPercentile(double fraction, boolean primary, int empty) {
+		if (!(0d <= fraction && fraction <= 1d))
+			throw new IllegalArgumentException("The fraction must be between 0 and 1!");
+		int[] result = new int[primary ? StatsPrimary.SIZE : StatsSecondary.SIZE];
+		if (size == 0) {
+			Arrays.fill(result, empty);
+			return result;
+		}
+		compute();
+		int[][] sorted = primary ? sortedPrimary : sortedSecondary;
+		int rank = Math.max(0, (int)Math.ceil(fraction * size) - 1);
+		for (int i = 0; i < result.length; i++)
+			result[i] = sorted[i][rank];
+		return result;
+	}
+
+}
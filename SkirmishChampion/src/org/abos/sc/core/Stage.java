@@ -5,6 +5,7 @@ import java.time.temporal.TemporalUnit;
 import java.util.Arrays;
 import java.util.Comparator;
 
+import org.abos.sc.core.battle.BattleMetrics;
 import org.abos.sc.core.battle.Conclusion;
 import org.abos.sc.core.battle.Encounter;
 import org.abos.sc.core.battle.Formation;
@@ -120,6 +121,29 @@ public class Stage extends StageBase {
 		}
 	}
 	
+	/**
+	 * Returns the extra points each member of the specified party earns with the specified conclusion.
+	 * The base amount is the challenge rating of this stage plus the difference to the challenge rating of the party.
+	 * @param conclusion the conclusion of the battle
+	 * @param party the party that fought this stage
+	 * @return the nonnegative extra points for each party member
+	 * @throws NullPointerException If <code>conclusion</code> or <code>party</code> refers to <code>null</code>.
+	 */
+	public int rewardExtraPoints(Conclusion conclusion, Formation party) {
+		Utilities.requireNonNull(conclusion, "conclusion");
+		Utilities.requireNonNull(party, "party");
+		// base amount is stage CR + difference of stage CR - party CR
+		int amount = Utilities.addWithoutOverflow(Utilities.multWithoutOverflow(2, getChallengeRating()), -party.getChallengeRating());
+		amount = Math.max(0, amount); // ensure nonnegative
+		if (conclusion != Conclusion.WON) { // if WON no division will happen
+			if (conclusion == Conclusion.TIE)
+				amount /= 2;
+			else
+				amount /= 100; // unexpected cases will be interpreted as loss
+		}
+		return amount;
+	}
+	
 	public Companion[] rewardCompanions(Conclusion conclusion) {
 		Utilities.requireNonNull(conclusion, "conclusion");
 		if (encounter == null) 
@@ -205,15 +229,7 @@ public class Stage extends StageBase {
 		Utilities.requireNonNull(conclusion, "conclusion");
 		if (player == null)
 			return;
-		// base amount is stage CR + difference of stage CR - party CR
-		int amount = Utilities.addWithoutOverflow(Utilities.multWithoutOverflow(2, getChallengeRating()), -player.getParty().getChallengeRating());
-		amount = Math.max(0, amount); // ensure nonnegative
-		if (conclusion != Conclusion.WON) { // if WON no division will happen
-			if (conclusion == Conclusion.TIE)
-				amount /= 2;
-			else
-				amount /= 100; // unexpected cases will be interpreted as loss
-		}
+		int amount = rewardExtraPoints(conclusion, player.getParty());
 		if (amount > 0) {
 			player.addExtraPointsToParty(amount);
 			message.append(System.lineSeparator());
@@ -242,7 +258,7 @@ public class Stage extends StageBase {
 		}
 	}
 	
-	protected void acknowledgeStageChange(StringBuilder message, Conclusion conclusion, Player player) {
+	protected void acknowledgeStageChange(StringBuilder message, Conclusion conclusion, Player player, ProgressListener listener) {
 		Utilities.requireNonNull(message, "message");
 		Utilities.requireNonNull(conclusion, "conclusion");
 		Stage[] rewardStages = rewardStages(conclusion, Difficulty.of(player).showChallengeRatings());
@@ -250,8 +266,7 @@ public class Stage extends StageBase {
 			return;
 		if (rewardStages.length > 0) {
 			for (Stage stage : rewardStages) {
-				if (!player.getStages().contains(stage)) {
-					player.getStages().add(stage);
+				if (player.addStage(stage, listener)) {
 					message.append(System.lineSeparator());
 					message.append("Stage ");
 					message.append(stage.getName());
@@ -261,7 +276,7 @@ public class Stage extends StageBase {
 		}
 	}
 	
-	protected void acknowledgeRegionChange(StringBuilder message, Conclusion conclusion, Player player) {
+	protected void acknowledgeRegionChange(StringBuilder message, Conclusion conclusion, Player player, ProgressListener listener) {
 		Utilities.requireNonNull(message, "message");
 		Utilities.requireNonNull(conclusion, "conclusion");
 		Region[] rewardRegions = rewardRegions(conclusion);
@@ -269,8 +284,7 @@ public class Stage extends StageBase {
 			return;
 		if (rewardRegions.length > 0) {
 			for (Region region : rewardRegions) {
-				if (!player.getRegions().contains(region)) {
-					player.getRegions().add(region);
+				if (player.addRegion(region, listener)) {
 					message.append(System.lineSeparator());
 					message.append("Region ");
 					message.append(region.getName());
@@ -288,8 +302,7 @@ public class Stage extends StageBase {
 			return;
 		if (rewardFandoms.length > 0) {
 			for (Fandom fandom : rewardFandoms) {
-				if (!player.getFandoms().contains(fandom)) {
-					player.getFandoms().add(fandom);
+				if (player.addFandom(fandom)) {
 					message.append(System.lineSeparator());
 					message.append("Region ");
 					message.append(fandom.getName());
@@ -299,32 +312,22 @@ public class Stage extends StageBase {
 		}
 	}
 	
-	protected void acknowledgeRegionCompletion(StringBuilder message, Player player) {
+	protected void acknowledgeRegionCompletion(StringBuilder message, Region region) {
 		Utilities.requireNonNull(message, "message");
-		if (player == null)
-			return;
-		for (Region region : player.getRegions()) {
-			if (region.hasBeenCleared()) {
-				message.append(System.lineSeparator());
-				message.append("Region ");
-				message.append(region.getName());
-				message.append(" completed!");
-			}
-		}
+		Utilities.requireNonNull(region, "region");
+		message.append(System.lineSeparator());
+		message.append("Region ");
+		message.append(region.getName());
+		message.append(" completed!");
 	}
 	
-	protected void acknowledgeFandomCompletion(StringBuilder message, Player player) {
+	protected void acknowledgeFandomCompletion(StringBuilder message, Fandom fandom) {
 		Utilities.requireNonNull(message, "message");
-		if (player == null)
-			return;
-		for (Fandom fandom : player.getFandoms()) {
-			if (fandom.hasBeenCleared()) {
-				message.append(System.lineSeparator());
-				message.append("Fandom ");
-				message.append(fandom.getName());
-				message.append(" completed!");
-			}
-		}
+		Utilities.requireNonNull(fandom, "fandom");
+		message.append(System.lineSeparator());
+		message.append("Fandom ");
+		message.append(fandom.getName());
+		message.append(" completed!");
 	}
 	
 	protected void acknowledgeRuntimeAndDiff(StringBuilder message, Player player) {
@@ -349,24 +352,32 @@ public class Stage extends StageBase {
 	 * acknowledging string.
 	 */
 	public void acknowledgeBattleResult(StringBuilder message, Conclusion conclusion, Player player) {
+		BattleMetrics.METRICS.concluded(getId(), conclusion, 1L);
 		if (conclusion == Conclusion.WON)
 			message.append("You have won this battle!");
 		else // not having won is interpreted as a loss, even for ties
 			message.append("You have lost this battle...");
 		acknowledgeMoneyChange(message, conclusion, player);
 		acknowledgeExtraPointChange(message, conclusion, player);
+		// unlocking an already cleared stage or region can complete progress as well
+		ProgressListener listener = new ProgressListener() {
+			@Override public void regionCompleted(Region region) {
+				acknowledgeRegionCompletion(message, region);
+			}
+			@Override public void fandomCompleted(Fandom fandom) {
+				acknowledgeFandomCompletion(message, fandom);
+			}
+		};
 		acknowledgeCompanionChange(message, conclusion, player);
-		acknowledgeStageChange(message, conclusion, player);
-		acknowledgeRegionChange(message, conclusion, player);
+		acknowledgeStageChange(message, conclusion, player, listener);
+		acknowledgeRegionChange(message, conclusion, player, listener);
 		acknowledgeFandomChange(message, conclusion, player);
-		if (conclusion == Conclusion.WON)
-			setCleared(true);
-		if (player != null) { // update and remember which ones have been cleared
-			player.updateRegionStages(false); 
-			player.updateFandomRegions(false);
+		if (conclusion == Conclusion.WON) {
+			if (player == null)
+				setCleared(true);
+			else // only touches the region and fandom of this stage
+				player.clearStage(this, listener);
 		}
-		acknowledgeRegionCompletion(message, player);
-		acknowledgeFandomCompletion(message, player);
 		acknowledgeRuntimeAndDiff(message, player);
 	}
 	
@@ -1,8 +1,8 @@
 package org.abos.sc.core;
 
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.abos.sc.core.battle.Encounter;
 import org.abos.util.IdCloneable;
@@ -39,7 +39,7 @@ public class StageBase implements IdCloneable, Name, ChallengeRatable, SaveStrin
 	 * A collection of challenge ratings associated to their stage IDs.
 	 */
 	// stage ratings should be accessed via the stages and not directly via RATINGS, that's why this field is protected
-	protected static final Map<String, Integer> RATINGS = new HashMap<>();
+	protected static final Map<String, Integer> RATINGS = new ConcurrentHashMap<>();
 	
 	/**
 	 * The ID of this stage.
@@ -169,6 +169,15 @@ public class StageBase implements IdCloneable, Name, ChallengeRatable, SaveStrin
 		return RegionBase.REGIONS.lookup(regionId);
 	}
 	
+	/**
+	 * Returns the encoded encounter of this stage.
+	 * @return the encoded encounter of this stage
+	 * @see #createEncounter()
+	 */
+	public String getEncounterString() {
+		return encounterString;
+	}
+	
 	/**
 	 * Returns the encounter of this stage by parsing its encounter string. Also stores the challenge rating of the encounter internally.
 	 * @return the encounter of this stage
@@ -378,16 +387,14 @@ public class StageBase implements IdCloneable, Name, ChallengeRatable, SaveStrin
 	}
 	
 	/**
-	 * Calls {@link #createEncounter()} on all stages in {@link #STAGES}, causing a {@link ParseException} whenever an invalid encounter string is encountered. 
-	 * Since a lot of instances are created by this call, {@link System#gc()} is called afterwards.
+	 * Calls {@link #createEncounter()} on all stages in {@link #STAGES} in parallel, causing a {@link ParseException} whenever an invalid encounter string is encountered. 
 	 * @throws ParseException If any registered stage has an invalid encounter string.
 	 * @see #createEncounter()
 	 * @see Encounter#parse(String)
+	 * @see ContentValidator#validateEncounters()
 	 */
 	public static void validateEncouterStrings() {
-		for (StageBase stage : STAGES)
-			stage.createEncounter();
-		System.gc();
+		STAGES.parallelStream().forEach(StageBase::createEncounter);
 	}
 	
 }
@@ -0,0 +1,266 @@
+package org.abos.sc.core;
+
+import java.time.Duration;
+
+import org.abos.sc.core.battle.BattleMetrics;
+import org.abos.sc.core.battle.BattleSimulation;
+import org.abos.sc.core.battle.Conclusion;
+import org.abos.sc.core.battle.Encounter;
+import org.abos.util.Utilities;
+
+/**
+ * Repeats a cleared stage with the party of a player without a live battle. Since battles are deterministic,
+ * the stage is fought once in virtual time via {@link BattleSimulation} and the rewards of any number of repetitions
+ * are applied in bulk with {@link Player#addMoney(int)} and {@link Player#addExtraPointsToParty(int)}.
+ * Companions are not rewarded, since they have already been recruited when the stage was cleared.
+ * @author Sebastian Koch
+ * @version %I%
+ * @since 0.7
+ * @see IdleProgression
+ */
+public class StageFarm {
+
+	/**
+	 * The player whose party farms the stage.
+	 */
+	protected final Player player;
+
+	/**
+	 * An engaged copy of the farmed stage.
+	 */
+	protected final Stage stage;
+
+	/**
+	 * The conclusion of every battle from the point of view of the party.
+	 * @see #getConclusion()
+	 */
+	protected final Conclusion conclusion;
+
+	/**
+	 * The virtual duration of a single battle in milliseconds, at least <code>1</code>.
+	 * @see #getBattleDuration()
+	 */
+	protected final long battleDuration;
+
+	/**
+	 * The money rewarded for a single battle.
+	 * @see #getMoneyPerBattle()
+	 */
+	protected final int moneyPerBattle;
+
+	/**
+	 * The extra points rewarded to each party member for a single battle.
+	 * @see #getExtraPointsPerBattle()
+	 */
+	protected final int extraPointsPerBattle;
+
+	/**
+	 * The number of battles farmed so far.
+	 * @see #getBattles()
+	 */
+	protected int battles = 0;
+
+	/**
+	 * The money rewarded so far.
+	 * @see #getMoney()
+	 */
+	protected int money = 0;
+
+	/**
+	 * The extra points rewarded to each party member so far.
+	 * @see #getExtraPoints()
+	 */
+	protected int extraPoints = 0;
+
+	/**
+	 * Creates a farm for the specified stage and fights it once in virtual time with the current party of the player.
+	 * Changes of the party afterwards are not taken into account.
+	 * @param player the player whose party farms the stage
+	 * @param stage the stage to farm, must be cleared
+	 * @throws NullPointerException If <code>player</code> or <code>stage</code> refers to <code>null</code>.
+	 * @throws IllegalArgumentException If <code>stage</code> hasn't been cleared yet or the party
+	 * exceeds the challenge rating cap of the player's difficulty for it.
+	 * @see #exceedsChallengeRatingCap(Player, Stage)
+	 */
+	public StageFarm(Player player, Stage stage) {
+		Utilities.requireNonNull(player, "player");
+		Utilities.requireNonNull(stage, "stage");
+		if (!stage.isCleared())
+			throw new IllegalArgumentException(String.format("Stage %s hasn't been cleared yet!", stage.getId()));
+		this.player = player;
+		this.stage = (Stage)stage.clone();
+		if (!this.stage.isEngaged())
+			this.stage.engageStage();
+		Encounter party = player.createPartyEncounter();
+		if (exceedsChallengeRatingCap(Difficulty.of(player), party.getChallengeRating(), this.stage.getChallengeRating()))
+			throw new IllegalArgumentException(String.format("The party is too strong to farm stage %s!", stage.getId()));
+		BattleSimulation simulation = new BattleSimulation(party, this.stage.getEncounter());
+		conclusion = simulation.simulate();
+		battleDuration = Math.max(1L, simulation.getDuration());
+		moneyPerBattle = this.stage.rewardMoney(conclusion);
+		extraPointsPerBattle = this.stage.rewardExtraPoints(conclusion, player.getParty());
+	}
+
+	/**
+	 * Checks if the current party of the player is too strong for the specified stage, the same way
+	 * a live battle is refused if the player's difficulty stops steamrolling.
+	 * @param player the player whose party to check
+	 * @param stage the stage to check against
+	 * @return <code>true</code> if the party may not farm <code>stage</code>, else <code>false</code>
+	 * @throws NullPointerException If <code>player</code> or <code>stage</code> refers to <code>null</code>.
+	 * @see Difficulty#stopSteamrolling()
+	 * @see Difficulty#getChallengeRatingCap(int)
+	 */
+	public static boolean exceedsChallengeRatingCap(Player player, Stage stage) {
+		Utilities.requireNonNull(player, "player");
+		Utilities.requireNonNull(stage, "stage");
+		return exceedsChallengeRatingCap(Difficulty.of(player), player.createPartyEncounter().getChallengeRating(), stage.getChallengeRating());
+	}
+
+	/**
+	 * @param difficulty the difficulty to check with
+	 * @param partyRating the challenge rating of the party
+	 * @param stageRating the challenge rating of the stage
+	 * @return <code>true</code> if <code>partyRating</code> exceeds the challenge rating cap for <code>stageRating</code>
+	 */
+	private static boolean exceedsChallengeRatingCap(Difficulty difficulty, int partyRating, int stageRating) {
+		return difficulty.stopSteamrolling() && partyRating > difficulty.getChallengeRatingCap(stageRating);
+	}
+
+	/**
+	 * Returns the farmed stage.
+	 * @return an engaged copy of the farmed stage
+	 */
+	public Stage getStage() {
+		return stage;
+	}
+
+	/**
+	 * Returns the conclusion of every battle from the point of view of the party.
+	 * @return the conclusion of every battle
+	 */
+	public Conclusion getConclusion() {
+		return conclusion;
+	}
+
+	/**
+	 * Returns the virtual duration of a single battle.
+	 * @return the virtual duration of a single battle in milliseconds, at least <code>1</code>
+	 */
+	public long getBattleDuration() {
+		return battleDuration;
+	}
+
+	/**
+	 * Returns the money rewarded for a single battle.
+	 * @return the money rewarded for a single battle, negative for lost battles
+	 */
+	public int getMoneyPerBattle() {
+		return moneyPerBattle;
+	}
+
+	/**
+	 * Returns the extra points rewarded to each party member for a single battle.
+	 * @return the extra points rewarded to each party member for a single battle
+	 */
+	public int getExtraPointsPerBattle() {
+		return extraPointsPerBattle;
+	}
+
+	/**
+	 * Returns how many battles fit into the specified time.
+	 * @param duration the time to farm
+	 * @return the number of battles that can be finished within <code>duration</code>, capped at {@link Integer#MAX_VALUE}
+	 * @throws NullPointerException If <code>duration</code> refers to <code>null</code>.
+	 */
+	public int battlesWithin(Duration duration) {
+		Utilities.requireNonNull(duration, "duration");
+		if (duration.isNegative())
+			return 0;
+		long battles = duration.dividedBy(Duration.ofMillis(battleDuration));
+		return (int)Math.min(Integer.MAX_VALUE, battles);
+	}
+
+	/**
+	 * Farms the stage the specified number of times and rewards the player at once.
+	 * @param battles the number of battles to farm, not negative
+	 * @throws IllegalArgumentException If <code>battles</code> is negative.
+	 * @see #getBattles()
+	 */
+	public void farm(int battles) {
+		if (battles < 0)
+			throw new IllegalArgumentException("The number of battles must be nonnegative!");
+		if (battles == 0)
+			return;
+		int money = Utilities.multWithoutOverflow(battles, moneyPerBattle);
+		int extraPoints = Utilities.multWithoutOverflow(battles, extraPointsPerBattle);
+		player.addMoney(money);
+		if (extraPoints > 0)
+			player.addExtraPointsToParty(extraPoints);
+		this.battles = Utilities.addWithoutOverflow(this.battles, battles);
+		this.money = Utilities.addWithoutOverflow(this.money, money);
+		this.extraPoints = Utilities.addWithoutOverflow(this.extraPoints, extraPoints);
+		BattleMetrics.METRICS.farmed(stage.getId(), conclusion, battles);
+	}
+
+	/**
+	 * Farms the stage for as many battles as fit into the specified time.
+	 * @param duration the time to farm
+	 * @return the number of farmed battles
+	 * @throws NullPointerException If <code>duration</code> refers to <code>null</code>.
+	 * @see #battlesWithin(Duration)
+	 */
+	public int farmFor(Duration duration) {
+		int battles = battlesWithin(duration); // throws NPE
+		farm(battles);
+		return battles;
+	}
+
+	/**
+	 * Returns the number of battles farmed so far.
+	 * @return the number of battles farmed so far
+	 */
+	public int getBattles() {
+		return battles;
+	}
+
+	/**
+	 * Returns the money rewarded so far.
+	 * @return the money rewarded so far
+	 */
+	public int getMoney() {
+		return money;
+	}
+
+	/**
+	 * Returns the extra points rewarded to each party member so far.
+	 * @return the extra points rewarded to each party member so far
+	 */
+	public int getExtraPoints() {
+		return extraPoints;
+	}
+
+	/**
+	 * Returns the virtual time the farmed battles took.
+	 * @return the virtual time the farmed battles took
+	 */
+	public Duration getDuration() {
+		return Duration.ofMillis(battleDuration).multipliedBy(battles);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder s = new StringBuilder();
+		s.append(stage.getName());
+		s.append(": ");
+		s.append(battles);
+		s.append(conclusion == Conclusion.WON ? " battles won" : " battles not won");
+		s.append(", ");
+		s.append(money);
+		s.append(" gold, ");
+		s.append(extraPoints);
+		s.append(" extra points");
+		return s.toString();
+	}
+
+}
@@ -0,0 +1,414 @@
+package org.abos.sc.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.abos.sc.core.battle.BattleSimulation;
+import org.abos.sc.core.battle.Conclusion;
+import org.abos.sc.core.battle.Encounter;
+import org.abos.sc.core.battle.Formation;
+import org.abos.sc.core.battle.Strategy;
+import org.abos.sc.core.battle.Tactic;
+import org.abos.util.Utilities;
+
+/**
+ * Searches a custom {@link Strategy} for a party formation against one or more opponents. Each attacker of the party
+ * may follow any of the 720 attack orders, so the combinations across a strategy can't be enumerated. Instead, the search
+ * starts from the best of the predefined strategies and improves one attacker at a time: All attack orders of that attacker
+ * are tried with the other tactics fixed, the best one is kept, and the rounds repeat until no attacker improves anymore.
+ * <br>
+ * Attack orders that can't make a difference are pruned: Empty positions are skipped by the attacks, so only the orders of the
+ * positions occupied in any opponent are enumerated, followed by the empty positions in ascending order. Positions of the party
+ * without a character never attack and keep their tactic. Every strategy is scored by resolving the battles in virtual time with
+ * {@link BattleSimulation}, in parallel and only once per strategy.
+ * @author Sebastian Koch
+ * @version %I%
+ * @since 0.7
+ * @see FormationOptimizer
+ */
+public class TacticSearch {
+
+	/**
+	 * The default maximum number of improvement rounds.
+	 * @see #setRounds(int)
+	 */
+	public static final int DEFAULT_ROUNDS = 3;
+
+	/**
+	 * A strategy scored against all opponents.
+	 * @author Sebastian Koch
+	 * @version %I%
+	 * @since 0.7
+	 */
+	public static class Result implements Comparable<Result> {
+
+		/**
+		 * The scored strategy.
+		 */
+		protected final Strategy strategy;
+
+		/**
+		 * The number of opponents.
+		 */
+		protected final int battles;
+
+		/**
+		 * The number of won battles.
+		 */
+		protected int wins = 0;
+
+		/**
+		 * The number of tied battles.
+		 */
+		protected int ties = 0;
+
+		/**
+		 * The number of undefeated party members, summed over all battles.
+		 */
+		protected int survivors = 0;
+
+		/**
+		 * The damage the party has taken, summed over all battles.
+		 */
+		protected long damageTaken = 0L;
+
+		/**
+		 * The damage the party has dealt, summed over all battles.
+		 */
+		protected long damageDealt = 0L;
+
+		/**
+		 * The virtual duration of all battles in milliseconds.
+		 */
+		protected long duration = 0L;
+
+		/**
+		 * Creates a new empty result.
+		 * @param strategy the scored strategy
+		 * @param battles the number of opponents
+		 */
+		protected Result(Strategy strategy, int battles) {
+			this.strategy = strategy;
+			this.battles = battles;
+		}
+
+		/**
+		 * Adds a finished simulation to this result.
+		 * @param simulation the finished simulation with the party as first party
+		 */
+		protected void add(BattleSimulation simulation) {
+			if (simulation.getConclusion() == Conclusion.WON)
+				wins++;
+			else if (simulation.getConclusion() == Conclusion.TIE)
+				ties++;
+			survivors += simulation.getSurvivors(true);
+			damageTaken += simulation.getDamageTaken(true);
+			damageDealt += simulation.getDamageTaken(false);
+			duration += simulation.getDuration();
+		}
+
+		/**
+		 * @return the scored strategy
+		 */
+		public Strategy getStrategy() {
+			return strategy;
+		}
+
+		/**
+		 * @return the number of opponents
+		 */
+		public int getBattles() {
+			return battles;
+		}
+
+		/**
+		 * @return the number of won battles
+		 */
+		public int getWins() {
+			return wins;
+		}
+
+		/**
+		 * Returns the share of won battles.
+		 * @return the share of won battles, between <code>0</code> and <code>1</code>
+		 */
+		public double getWinRate() {
+			return wins / (double)battles;
+		}
+
+		/**
+		 * @return the number of undefeated party members, summed over all battles
+		 */
+		public int getSurvivors() {
+			return survivors;
+		}
+
+		/**
+		 * @return the damage the party has taken, summed over all battles
+		 */
+		public long getDamageTaken() {
+			return damageTaken;
+		}
+
+		/**
+		 * @return the damage the party has dealt, summed over all battles
+		 */
+		public long getDamageDealt() {
+			return damageDealt;
+		}
+
+		/**
+		 * @return the virtual duration of all battles in milliseconds
+		 */
+		public long getDuration() {
+			return duration;
+		}
+
+		/**
+		 * Compares the results so that better results come first: More won battles, more tied battles,
+		 * more survivors, less damage taken, more damage dealt and shorter battles.
+		 */
+		@Override
+		public int compareTo(Result other) {
+			int result = Integer.compare(other.wins, wins);
+			if (result == 0)
+				result = Integer.compare(other.ties, ties);
+			if (result == 0)
+				result = Integer.compare(other.survivors, survivors);
+			if (result == 0)
+				result = Long.compare(damageTaken, other.damageTaken);
+			if (result == 0)
+				result = Long.compare(other.damageDealt, damageDealt);
+			if (result == 0)
+				result = Long.compare(duration, other.duration);
+			return result;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%s: %.0f%% won (%d survivors, %d damage taken, %.1fs)", strategy.getType().getName(),
+					100 * getWinRate(), survivors, damageTaken, duration / 1000d);
+		}
+
+	}
+
+	/**
+	 * The party formation to search a strategy for.
+	 */
+	protected final Formation party;
+
+	/**
+	 * The opponents to search a strategy against.
+	 */
+	protected final List<Encounter> opponents;
+
+	/**
+	 * The positions occupied in any opponent, ascending.
+	 */
+	protected final int[] targets;
+
+	/**
+	 * The maximum number of improvement rounds.
+	 * @see #setRounds(int)
+	 */
+	protected int rounds = DEFAULT_ROUNDS;
+
+	/**
+	 * All strategies scored so far, by their save string.
+	 */
+	protected final ConcurrentMap<String, Result> results = new ConcurrentHashMap<>();
+
+	/**
+	 * Creates a new search against a single opponent.
+	 * @param party the party formation to search a strategy for
+	 * @param opponent the opponent to search a strategy against
+	 * @throws NullPointerException If <code>party</code> or <code>opponent</code> refers to <code>null</code>.
+	 */
+	public TacticSearch(Formation party, Encounter opponent) {
+		this(party, Collections.singletonList(opponent));
+	}
+
+	/**
+	 * Creates a new search against several opponents, e.g. all stages of a region.
+	 * @param party the party formation to search a strategy for
+	 * @param opponents the opponents to search a strategy against
+	 * @throws NullPointerException If <code>party</code>, <code>opponents</code> or any of its entries refers to <code>null</code>.
+	 * @throws IllegalArgumentException If <code>opponents</code> is empty.
+	 */
+	public TacticSearch(Formation party, Collection<? extends Encounter> opponents) {
+		Utilities.requireNonNull(party, "party");
+		Utilities.requireNonNull(opponents, "opponents");
+		Utilities.requireNonNullEntries(opponents, "opponents");
+		if (opponents.isEmpty())
+			throw new IllegalArgumentException("At least one opponent must be given!");
+		this.party = party;
+		this.opponents = new ArrayList<>(opponents.size());
+		boolean[] occupied = new boolean[Formation.MAX_CHAR_NUMBER];
+		for (Encounter opponent : opponents) {
+			this.opponents.add(opponent);
+			for (int pos = 0; pos < Formation.MAX_CHAR_NUMBER; pos++)
+				occupied[pos] |= opponent.getCharacter(pos / Formation.COL_NUMBER, pos % Formation.COL_NUMBER) != null;
+		}
+		int size = 0;
+		for (boolean o : occupied)
+			if (o)
+				size++;
+		targets = new int[size];
+		size = 0;
+		for (int pos = 0; pos < Formation.MAX_CHAR_NUMBER; pos++)
+			if (occupied[pos])
+				targets[size++] = pos;
+	}
+
+	/**
+	 * @param rounds the maximum number of improvement rounds, not negative
+	 * @throws IllegalArgumentException If <code>rounds</code> is negative.
+	 */
+	public void setRounds(int rounds) {
+		if (rounds < 0)
+			throw new IllegalArgumentException("The number of rounds must be nonnegative!");
+		this.rounds = rounds;
+	}
+
+	/**
+	 * Returns the number of strategies scored so far.
+	 * @return the number of strategies scored so far
+	 */
+	public int getEvaluations() {
+		return results.size();
+	}
+
+	/**
+	 * Searches for the best strategy. The search is deterministic.
+	 * @return the best strategy found, a custom one unless no change to a predefined strategy improved it
+	 */
+	public Result search() {
+		Result best = null;
+		for (Strategy strategy : Arrays.asList(Strategy.createRowAssault(), Strategy.createColAssault(), Strategy.createConcentratedAssault())) {
+			Result result = evaluate(strategy);
+			if (best == null || result.compareTo(best) < 0)
+				best = result;
+		}
+		List<int[]> orders = createAttackOrders();
+		for (int round = 0; round < rounds; round++) {
+			boolean improved = false;
+			for (int row = 0; row < Formation.ROW_NUMBER; row++)
+				for (int col = 0; col < Formation.COL_NUMBER; col++) {
+					if (party.getCharacter(row, col) == null)
+						continue;
+					Result candidate = improve(best.getStrategy(), row, col, orders);
+					if (candidate.compareTo(best) < 0) {
+						best = candidate;
+						improved = true;
+					}
+				}
+			if (!improved)
+				break;
+		}
+		return best;
+	}
+
+	/**
+	 * Tries all attack orders for the attacker at the specified position in parallel, with the other tactics fixed.
+	 * @param strategy the strategy to improve
+	 * @param row the row of the attacker
+	 * @param col the column of the attacker
+	 * @param orders the attack orders to try
+	 * @return the best of the tried strategies
+	 */
+	protected Result improve(Strategy strategy, int row, int col, List<int[]> orders) {
+		Tactic current = strategy.getTactic(row, col);
+		return orders.parallelStream()
+				.map(Tactic::new)
+				.filter(tactic -> !tactic.equals(current))
+				.map(tactic -> evaluate(replaceTactic(strategy, row, col, tactic)))
+				.min(Result::compareTo)
+				.orElseGet(() -> evaluate(strategy));
+	}
+
+	/**
+	 * Scores the strategy against all opponents, using the cached result of an already scored strategy.
+	 * @param strategy the strategy to score
+	 * @return the result of the strategy
+	 */
+	protected Result evaluate(Strategy strategy) {
+		return Utilities.getOrCompute(results, strategy.toSaveString(), key -> {
+			Result result = new Result(strategy, opponents.size());
+			Encounter encounter = new Encounter(party, strategy);
+			for (Encounter opponent : opponents) {
+				BattleSimulation simulation = new BattleSimulation(encounter, opponent);
+				simulation.simulate();
+				result.add(simulation);
+			}
+			return result;
+		});
+	}
+
+	/**
+	 * Creates all attack orders that can make a difference: The permutations of the {@link #targets},
+	 * followed by the positions no opponent occupies in ascending order.
+	 * @return the attack orders, <code>targets.length!</code> many
+	 */
+	protected List<int[]> createAttackOrders() {
+		int[] order = new int[Formation.MAX_CHAR_NUMBER];
+		System.arraycopy(targets, 0, order, 0, targets.length);
+		int index = targets.length;
+		for (int pos = 0; pos < Formation.MAX_CHAR_NUMBER; pos++)
+			if (Arrays.binarySearch(targets, pos) < 0)
+				order[index++] = pos;
+		List<int[]> orders = new ArrayList<>();
+		do {
+			orders.add(Arrays.copyOf(order, order.length));
+		} while (nextPermutation(order, targets.length));
+		return orders;
+	}
+
+	/**
+	 * Returns a copy of the strategy with the tactic at the specified position replaced.
+	 * @param strategy the strategy to copy
+	 * @param row the row of the replaced tactic
+	 * @param col the column of the replaced tactic
+	 * @param tactic the new tactic
+	 * @return a new custom strategy
+	 */
+	protected static Strategy replaceTactic(Strategy strategy, int row, int col, Tactic tactic) {
+		Tactic[][] tactics = new Tactic[Formation.ROW_NUMBER][Formation.COL_NUMBER];
+		for (int r = 0; r < Formation.ROW_NUMBER; r++)
+			for (int c = 0; c < Formation.COL_NUMBER; c++)
+				tactics[r][c] = strategy.getTactic(r, c);
+		tactics[row][col] = tactic;
+		return new Strategy(tactics);
+	}
+
+	/**
+	 * Rearranges the first elements of the array into the lexicographically next permutation.
+	 * @param array the array to rearrange
+	 * @param length the number of elements to permute
+	 * @return <code>false</code> if the elements were in descending order, i.e. there is no next permutation
+	 */
+	protected static boolean nextPermutation(int[] array, int length) {
+		int i = length - 2;
+		while (i >= 0 && array[i] >= array[i+1])
+			i--;
+		if (i < 0)
+			return false;
+		int j = length - 1;
+		while (array[j] <= array[i])
+			j--;
+		int swap = array[i];
+		array[i] = array[j];
+		array[j] = swap;
+		for (int l = i+1, r = length-1; l < r; l++, r--) {
+			swap = array[l];
+			array[l] = array[r];
+			array[r] = swap;
+		}
+		return true;
+	}
+
+}
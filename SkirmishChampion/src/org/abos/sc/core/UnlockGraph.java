@@ -0,0 +1,496 @@
+package org.abos.sc.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import org.abos.sc.core.battle.Encounter;
+import org.abos.sc.core.battle.Formation;
+import org.abos.util.Id;
+import org.abos.util.Utilities;
+
+/**
+ * A precomputed graph of what unlocks what in the game data, built once from the global registries
+ * {@link FandomBase#FANDOMS}, {@link RegionBase#REGIONS}, {@link StageBase#STAGES} and {@link CharacterBase#CHARACTERS}.
+ * Every fandom, region, stage and character is mapped to an <code>int</code> node, so analysing the graph
+ * needs neither parsed encounters nor any {@link org.abos.util.Registry} lookups.<br>
+ * The edges mirror the rewards of the game: a fandom unlocks its start region, the start stage of that region
+ * and its start companion, while a stage unlocks its next stages, regions and fandoms as well as the characters
+ * of its encounter. Regions and characters don't unlock anything.
+ * @author Sebastian Koch
+ * @version %I%
+ * @since 0.7
+ * @see #build()
+ * @see #analyse()
+ */
+public class UnlockGraph {
+
+	/**
+	 * The different kinds of nodes in an unlock graph.
+	 */
+	public enum NodeType {
+		FANDOM, REGION, STAGE, CHARACTER;
+	}
+
+	/**
+	 * The result of {@link UnlockGraph#analyse()}.
+	 */
+	public class Analysis {
+
+		/**
+		 * The number of unlock steps needed to reach each node, <code>-1</code> for unreachable nodes.
+		 */
+		protected final int[] depth;
+
+		/**
+		 * The node each node has been unlocked by on a shortest path, <code>-1</code> for roots and unreachable nodes.
+		 */
+		protected final int[] parent;
+
+		/**
+		 * The stage cycles of the graph, each given by the IDs of its stages.
+		 */
+		protected final List<List<String>> stageCycles;
+
+		/**
+		 * How long the analysis took in milliseconds.
+		 */
+		protected final long duration;
+
+		/**
+		 * Creates a new analysis.
+		 * @param depth the number of unlock steps per node
+		 * @param parent the unlocking node per node
+		 * @param stageCycles the stage cycles
+		 * @param duration the duration of the analysis in milliseconds
+		 */
+		protected Analysis(int[] depth, int[] parent, List<List<String>> stageCycles, long duration) {
+			this.depth = depth;
+			this.parent = parent;
+			this.stageCycles = Collections.unmodifiableList(stageCycles);
+			this.duration = duration;
+		}
+
+		/**
+		 * Returns the IDs of all unreachable items of the specified type.
+		 * @param type the type of the items
+		 * @return a list of the IDs of all unreachable items of the specified type
+		 * @throws NullPointerException If <code>type</code> refers to <code>null</code>.
+		 */
+		public List<String> getUnreachable(NodeType type) {
+			Utilities.requireNonNull(type, "type");
+			List<String> unreachable = new ArrayList<>();
+			for (int node = offset(type); node < offset(type) + count(type); node++)
+				if (depth[node] == -1)
+					unreachable.add(ids[node]);
+			return unreachable;
+		}
+
+		/**
+		 * Returns the number of unlock steps needed to reach the specified item, where the fandoms
+		 * themselves need 0 steps.
+		 * @param type the type of the item
+		 * @param id the ID of the item
+		 * @return the number of unlock steps, or <code>-1</code> if the item is unknown or unreachable
+		 * @throws NullPointerException If <code>type</code> or <code>id</code> refers to <code>null</code>.
+		 */
+		public int getUnlockDepth(NodeType type, String id) {
+			int node = nodeOf(type, id);
+			return node == -1 ? -1 : depth[node];
+		}
+
+		/**
+		 * Returns a shortest unlock path to the specified item, starting with the fandom it can be reached
+		 * from and ending with the item itself. The entries are of the form "<code>TYPE:ID</code>".
+		 * @param type the type of the item
+		 * @param id the ID of the item
+		 * @return a shortest unlock path to the item, empty if the item is unknown or unreachable
+		 * @throws NullPointerException If <code>type</code> or <code>id</code> refers to <code>null</code>.
+		 */
+		public List<String> getUnlockPath(NodeType type, String id) {
+			int node = nodeOf(type, id);
+			LinkedList<String> path = new LinkedList<>();
+			if (node == -1 || depth[node] == -1)
+				return path;
+			for (; node != -1; node = parent[node])
+				path.addFirst(typeOf(node) + ":" + ids[node]);
+			return path;
+		}
+
+		/**
+		 * Returns the stage cycles of the graph, i.e. the strongly connected sets of stages that can unlock each other.
+		 * @return an unmodifiable list of the stage cycles, each given by the IDs of its stages
+		 */
+		public List<List<String>> getStageCycles() {
+			return stageCycles;
+		}
+
+		/**
+		 * Returns how long the analysis took.
+		 * @return the duration of the analysis in milliseconds
+		 */
+		public long getDuration() {
+			return duration;
+		}
+
+		/**
+		 * Returns the deepest of the shortest unlock paths over all reachable items.
+		 * @return the deepest shortest unlock path, empty if nothing is reachable
+		 * @see #getUnlockPath(NodeType, String)
+		 */
+		public List<String> getDeepestUnlockPath() {
+			int deepest = -1;
+			for (int node = 0; node < depth.length; node++)
+				if (depth[node] != -1 && (deepest == -1 || depth[node] > depth[deepest]))
+					deepest = node;
+			if (deepest == -1)
+				return new LinkedList<>();
+			return getUnlockPath(typeOf(deepest), ids[deepest]);
+		}
+
+		/**
+		 * Returns the report of this analysis, one finding per line.
+		 * @return a string representation of this analysis
+		 */
+		@Override
+		public String toString() {
+			StringBuilder s = new StringBuilder();
+			appendUnreachable(s, NodeType.CHARACTER, "characters");
+			appendUnreachable(s, NodeType.REGION, "regions");
+			appendUnreachable(s, NodeType.STAGE, "stages");
+			s.append(String.format("%d stage cycles: %s", stageCycles.size(), stageCycles));
+			s.append(System.lineSeparator());
+			s.append(String.format("deepest unlock path: %s", getDeepestUnlockPath()));
+			s.append(System.lineSeparator());
+			if (!unresolved.isEmpty()) {
+				s.append(String.format("%d unresolved references: %s", unresolved.size(), unresolved));
+				s.append(System.lineSeparator());
+			}
+			s.append(String.format("analysed %d items in %d ms", ids.length, duration));
+			s.append(System.lineSeparator());
+			return s.toString();
+		}
+
+		/**
+		 * Appends the unreachable items of the specified type to the string builder, followed by a line separator.
+		 * @param s the string builder to append to
+		 * @param type the type of the items
+		 * @param plural the display name of multiple items of that type
+		 */
+		protected void appendUnreachable(StringBuilder s, NodeType type, String plural) {
+			List<String> unreachable = getUnreachable(type);
+			s.append(String.format("%d %s out of %d unreachable: %s", unreachable.size(), plural, count(type), unreachable));
+			s.append(System.lineSeparator());
+		}
+
+	}
+
+	/**
+	 * The IDs of all nodes, ordered by type.
+	 */
+	protected final String[] ids;
+
+	/**
+	 * The first node of each type, indexed by the ordinal of the {@link NodeType}, followed by the number of nodes.
+	 */
+	protected final int[] offsets;
+
+	/**
+	 * The node indices of the IDs, one map per type.
+	 */
+	protected final List<Map<String, Integer>> nodes;
+
+	/**
+	 * The nodes each node unlocks.
+	 */
+	protected final int[][] successors;
+
+	/**
+	 * References in the game data that couldn't be resolved, of the form "<code>ID -> TYPE:ID</code>".
+	 */
+	protected final List<String> unresolved;
+
+	/**
+	 * Creates a new unlock graph from the global registries. Not thread-safe with respect to changes to these registries.
+	 * @see #build()
+	 */
+	protected UnlockGraph() {
+		offsets = new int[NodeType.values().length + 1];
+		offsets[NodeType.REGION.ordinal()] = FandomBase.FANDOMS.size();
+		offsets[NodeType.STAGE.ordinal()] = offsets[NodeType.REGION.ordinal()] + RegionBase.REGIONS.size();
+		offsets[NodeType.CHARACTER.ordinal()] = offsets[NodeType.STAGE.ordinal()] + StageBase.STAGES.size();
+		offsets[NodeType.values().length] = offsets[NodeType.CHARACTER.ordinal()] + CharacterBase.CHARACTERS.size();
+		ids = new String[offsets[NodeType.values().length]];
+		nodes = new ArrayList<>(NodeType.values().length);
+		for (int i = 0; i < NodeType.values().length; i++)
+			nodes.add(new HashMap<>());
+		addNodes(NodeType.FANDOM, FandomBase.FANDOMS);
+		addNodes(NodeType.REGION, RegionBase.REGIONS);
+		addNodes(NodeType.STAGE, StageBase.STAGES);
+		addNodes(NodeType.CHARACTER, CharacterBase.CHARACTERS);
+		successors = new int[ids.length][];
+		unresolved = new ArrayList<>();
+		for (FandomBase fandom : FandomBase.FANDOMS) {
+			List<Integer> next = new ArrayList<>(3);
+			int region = resolve(fandom, NodeType.REGION, fandom.getStartRegionId(), next);
+			if (region != -1)
+				resolve(fandom, NodeType.STAGE, RegionBase.REGIONS.lookup(fandom.getStartRegionId()).getStartStageId(), next);
+			resolve(fandom, NodeType.CHARACTER, fandom.getStartCompanionId(), next);
+			successors[nodeOf(NodeType.FANDOM, fandom.getId())] = toArray(next);
+		}
+		for (StageBase stage : StageBase.STAGES) {
+			List<Integer> next = new ArrayList<>();
+			for (String id : stage.nextStages)
+				resolve(stage, NodeType.STAGE, id, next);
+			for (String id : stage.nextRegions)
+				resolve(stage, NodeType.REGION, id, next);
+			for (String id : stage.nextFandoms)
+				resolve(stage, NodeType.FANDOM, id, next);
+			for (String id : parseEncounterCharacterIds(stage.encounterString))
+				resolve(stage, NodeType.CHARACTER, id, next);
+			successors[nodeOf(NodeType.STAGE, stage.getId())] = toArray(next);
+		}
+		for (int node = 0; node < successors.length; node++)
+			if (successors[node] == null)
+				successors[node] = new int[0];
+	}
+
+	/**
+	 * Assigns the next free nodes to the specified items.
+	 * @param type the type of the items
+	 * @param items the items to add
+	 */
+	private void addNodes(NodeType type, Iterable<? extends Id> items) {
+		int node = offset(type);
+		for (Id item : items) {
+			ids[node] = item.getId();
+			nodes.get(type.ordinal()).put(item.getId(), node);
+			node++;
+		}
+	}
+
+	/**
+	 * Looks up the node of the specified ID and adds it to <code>next</code>, or records the ID as unresolved.
+	 * @param source the item referencing the ID
+	 * @param type the type of the referenced item
+	 * @param id the referenced ID
+	 * @param next the list to add the node to
+	 * @return the node of the ID or <code>-1</code> if it couldn't be resolved
+	 */
+	private int resolve(Id source, NodeType type, String id, List<Integer> next) {
+		int node = nodeOf(type, id);
+		if (node == -1)
+			unresolved.add(String.format("%s -> %s:%s", source.getId(), type, id));
+		else if (!next.contains(node))
+			next.add(node);
+		return node;
+	}
+
+	/**
+	 * Converts a list of nodes into an array.
+	 * @param list the list to convert
+	 * @return an array with the same nodes
+	 */
+	private static int[] toArray(List<Integer> list) {
+		return list.stream().mapToInt(Integer::intValue).toArray();
+	}
+
+	/**
+	 * Extracts the character IDs of an encounter string without parsing the encounter itself.
+	 * @param encounterString the encounter string to extract the IDs from
+	 * @return the non-empty character IDs of the formation part of the encounter string
+	 * @see Encounter#parse(String)
+	 * @see Formation#parse(String)
+	 */
+	protected static List<String> parseEncounterCharacterIds(String encounterString) {
+		String formation = encounterString.split(Encounter.FIELD_SEPARATOR_REGEX, 2)[0];
+		List<String> characterIds = new ArrayList<>(Formation.MAX_CHAR_NUMBER);
+		for (String id : formation.split(String.valueOf(Formation.CHARACTER_SEPARATOR)))
+			if (!id.isEmpty())
+				characterIds.add(id);
+		return characterIds;
+	}
+
+	/**
+	 * Returns the first node of the specified type.
+	 * @param type the type of the nodes
+	 * @return the first node of the type
+	 */
+	protected int offset(NodeType type) {
+		return offsets[type.ordinal()];
+	}
+
+	/**
+	 * Returns the number of nodes of the specified type.
+	 * @param type the type of the nodes
+	 * @return the number of nodes of the type
+	 */
+	public int count(NodeType type) {
+		Utilities.requireNonNull(type, "type");
+		return offsets[type.ordinal() + 1] - offsets[type.ordinal()];
+	}
+
+	/**
+	 * Returns the type of the specified node.
+	 * @param node the node
+	 * @return the type of the node
+	 */
+	protected NodeType typeOf(int node) {
+		NodeType result = NodeType.FANDOM;
+		for (NodeType type : NodeType.values())
+			if (node >= offset(type))
+				result = type;
+		return result;
+	}
+
+	/**
+	 * Returns the node of the specified item.
+	 * @param type the type of the item
+	 * @param id the ID of the item
+	 * @return the node of the item or <code>-1</code> if it is unknown
+	 * @throws NullPointerException If <code>type</code> or <code>id</code> refers to <code>null</code>.
+	 */
+	protected int nodeOf(NodeType type, String id) {
+		Utilities.requireNonNull(type, "type");
+		Utilities.requireNonNull(id, "id");
+		Integer node = nodes.get(type.ordinal()).get(id);
+		return node == null ? -1 : node;
+	}
+
+	/**
+	 * Returns the references in the game data that couldn't be resolved when building this graph.
+	 * @return an unmodifiable list of the unresolved references, of the form "<code>ID -> TYPE:ID</code>"
+	 */
+	public List<String> getUnresolvedReferences() {
+		return Collections.unmodifiableList(unresolved);
+	}
+
+	/**
+	 * Does a breadth-first search starting from the specified node.
+	 * @param root the node to start from
+	 * @return the depth of each node in the first half and the parent of each node in the second half
+	 */
+	protected int[] breadthFirstSearch(int root) {
+		int[] result = new int[2 * ids.length];
+		Arrays.fill(result, -1);
+		int[] queue = new int[ids.length];
+		int head = 0, tail = 0;
+		result[root] = 0;
+		queue[tail++] = root;
+		while (head < tail) {
+			int node = queue[head++];
+			for (int next : successors[node])
+				if (result[next] == -1) {
+					result[next] = result[node] + 1;
+					result[ids.length + next] = node;
+					queue[tail++] = next;
+				}
+		}
+		return result;
+	}
+
+	/**
+	 * Finds all stage cycles with Tarjan's algorithm for strongly connected components,
+	 * restricted to the edges between stages.
+	 * @return a list of stage cycles, each given by the IDs of its stages
+	 */
+	protected List<List<String>> findStageCycles() {
+		final int first = offset(NodeType.STAGE), size = count(NodeType.STAGE);
+		int[] index = new int[size];
+		int[] lowLink = new int[size];
+		boolean[] onStack = new boolean[size];
+		int[] stack = new int[size];
+		int[] callStack = new int[size];
+		int[] edge = new int[size];
+		Arrays.fill(index, -1);
+		int counter = 0, stackSize = 0;
+		List<List<String>> cycles = new ArrayList<>();
+		for (int start = 0; start < size; start++) {
+			if (index[start] != -1)
+				continue;
+			int depth = 0;
+			callStack[depth] = start;
+			edge[start] = 0;
+			index[start] = lowLink[start] = counter++;
+			stack[stackSize++] = start;
+			onStack[start] = true;
+			while (depth >= 0) {
+				int v = callStack[depth];
+				int[] next = successors[first + v];
+				if (edge[v] < next.length) {
+					int w = next[edge[v]++] - first;
+					if (w < 0 || w >= size) // not a stage
+						continue;
+					if (index[w] == -1) {
+						index[w] = lowLink[w] = counter++;
+						stack[stackSize++] = w;
+						onStack[w] = true;
+						edge[w] = 0;
+						callStack[++depth] = w;
+					}
+					else if (onStack[w])
+						lowLink[v] = Math.min(lowLink[v], index[w]);
+					continue;
+				}
+				if (lowLink[v] == index[v]) {
+					List<String> component = new ArrayList<>();
+					int w;
+					do {
+						w = stack[--stackSize];
+						onStack[w] = false;
+						component.add(ids[first + w]);
+					} while (w != v);
+					boolean selfLoop = false;
+					for (int n : next)
+						selfLoop |= n == first + v;
+					if (component.size() > 1 || selfLoop) {
+						Collections.reverse(component);
+						cycles.add(component);
+					}
+				}
+				depth--;
+				if (depth >= 0)
+					lowLink[callStack[depth]] = Math.min(lowLink[callStack[depth]], lowLink[v]);
+			}
+		}
+		return cycles;
+	}
+
+	/**
+	 * Analyses this graph. A breadth-first search is started from every fandom in parallel, the results
+	 * are merged by keeping the shortest unlock path for each item. The stage cycles are searched in the meantime.
+	 * @return the analysis of this graph
+	 */
+	public Analysis analyse() {
+		long start = System.nanoTime();
+		final int fandomCount = count(NodeType.FANDOM);
+		int[][] searches = IntStream.range(offset(NodeType.FANDOM), offset(NodeType.FANDOM) + fandomCount)
+				.parallel().mapToObj(this::breadthFirstSearch).toArray(int[][]::new);
+		List<List<String>> cycles = findStageCycles();
+		int[] depth = new int[ids.length];
+		int[] parent = new int[ids.length];
+		Arrays.fill(depth, -1);
+		Arrays.fill(parent, -1);
+		for (int[] search : searches)
+			for (int node = 0; node < ids.length; node++)
+				if (search[node] != -1 && (depth[node] == -1 || search[node] < depth[node])) {
+					depth[node] = search[node];
+					parent[node] = search[ids.length + node];
+				}
+		return new Analysis(depth, parent, cycles, (System.nanoTime() - start) / 1_000_000);
+	}
+
+	/**
+	 * Builds the unlock graph of the currently registered game data.
+	 * @return a new unlock graph
+	 */
+	public static UnlockGraph build() {
+		return new UnlockGraph();
+	}
+
+}
@@ -0,0 +1,49 @@
+package org.abos.sc.core.battle;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * A flight recorder event for an attack, only recorded if it took longer than the threshold. 
+ * Attacks of simulated battles are sampled in addition, see {@link AttackTask#SIMULATION_SAMPLE_PERIOD}.
+ * @author Sebastian Koch
+ * @version %I%
+ * @since 0.7
+ * @see AttackTask#run()
+ */
+@Name("org.abos.sc.AttackExecuted")
+@Label("Attack Executed")
+@Category({"Skirmish Champion", "Battle"})
+@Description("A character has attacked, including logging the attack")
+@Threshold("1 ms")
+public class AttackExecutedEvent extends Event {
+
+	/**
+	 * The ID of the attacking character.
+	 */
+	@Label("Attacker")
+	public String attacker;
+
+	/**
+	 * The ID of the attacked character.
+	 */
+	@Label("Target")
+	public String target;
+
+	/**
+	 * The damage dealt.
+	 */
+	@Label("Damage")
+	public int damage;
+
+	/**
+	 * If the attack happened in a simulated battle.
+	 */
+	@Label("Simulated")
+	public boolean simulated;
+
+}
@@ -1,6 +1,5 @@
 package org.abos.sc.core.battle;
 
-import java.util.Timer;
 import java.util.TimerTask;
 import java.util.logging.Logger;
 
@@ -18,6 +17,12 @@ import org.abos.util.Utilities;
  */
 public class AttackTask extends TimerTask {
 	
+	/**
+	 * Only every this many attacks of a task without battle, i.e. in a simulated battle, 
+	 * is considered for an {@link AttackExecutedEvent}, so simulations don't flood the recording.
+	 */
+	public static final int SIMULATION_SAMPLE_PERIOD = 1024;
+	
 	/**
 	 * The character which attacks.
 	 */
@@ -34,10 +39,10 @@ public class AttackTask extends TimerTask {
 	protected Formation enemies;
 	
 	/**
-	 * The associated timer to stop once this character runs out of targets/enemies.
+	 * The associated battle to stop once this character runs out of targets/enemies.
 	 * @see #run()
 	 */
-	protected Timer timer;
+	protected Battle battle;
 	
 	/**
 	 * A logger to record the attacks occuring here.
@@ -50,18 +55,30 @@ public class AttackTask extends TimerTask {
 	protected Difficulty difficulty;
 	
 	protected boolean challenger;
+	
+	/**
+	 * If this task has been cancelled.
+	 * @see #isCancelled()
+	 */
+	protected volatile boolean cancelled = false;
+	
+	/**
+	 * The number of attacks of this task, to sample the attacks of simulated battles.
+	 * @see #SIMULATION_SAMPLE_PERIOD
+	 */
+	private int attacks = 0;
 
 	/**
 	 * Creates a new attack task with the given specifications.
 	 * @param character the character which attacks, not <code>null</code>
 	 * @param tactic the tactic the character employs, not <code>null</code>
 	 * @param enemies the group of enemies to attack, not <code>null</code>
-	 * @param timer The associated timer to stop once this character runs out of targets/enemies. If <code>null</code>, this task will not stop by itself.
+	 * @param battle The associated battle to stop once this character runs out of targets/enemies. If <code>null</code>, this task will not stop by itself.
 	 * @param attackLogger a logger to record the attacks occuring here, not <code>null</code>
 	 * @param difficulty the difficulty setting for this task
-	 * @throws NullPointerException If any parameter except <code>timer</code> refers to <code>null</code>.
+	 * @throws NullPointerException If any parameter except <code>battle</code> refers to <code>null</code>.
 	 */
-	public AttackTask(Character character, Tactic tactic, Formation enemies, Timer timer, Logger attackLogger, Difficulty difficulty, boolean challenger) {
+	public AttackTask(Character character, Tactic tactic, Formation enemies, Battle battle, Logger attackLogger, Difficulty difficulty, boolean challenger) {
 		Utilities.requireNonNull(character, "character");
 		Utilities.requireNonNull(tactic, "tactic");
 		Utilities.requireNonNull(enemies, "enemies");
@@ -70,7 +87,7 @@ public class AttackTask extends TimerTask {
 		this.character = character;
 		this.tactic = tactic;
 		this.enemies = enemies;
-		this.timer = timer;
+		this.battle = battle;
 		this.attackLogger = attackLogger;
 		this.difficulty = difficulty;
 		this.challenger = challenger;
@@ -84,11 +101,32 @@ public class AttackTask extends TimerTask {
 	public String getLineColorDefeat() {
 		return challenger ? "#006400" : "#8B0000";
 	}
+	
+	/**
+	 * Cancels this task, so it won't run anymore.
+	 * @see #isCancelled()
+	 * @see TimerTask#cancel()
+	 */
+	@Override
+	public boolean cancel() {
+		cancelled = true;
+		return super.cancel();
+	}
+	
+	/**
+	 * Returns <code>true</code> if this task has been cancelled, e.g. because the attacking character has been defeated.
+	 * @return <code>true</code> if this task has been cancelled
+	 * @see #cancel()
+	 */
+	public boolean isCancelled() {
+		return cancelled;
+	}
 
 	/**
 	 * Executes one attack. If the attacking character is defeated or no valid targets are left, returns without dealing damage.
-	 * If no targets are left, the associated timer is stopped as well, if one was provided.
-	 * @see #timer
+	 * If no targets are left, the associated battle is stopped as well, if one was provided.
+	 * Attacks taking longer than its threshold are recorded as {@link AttackExecutedEvent}, those of simulated battles only sampled.
+	 * @see #battle
 	 * @see Character#getAttackPower()
 	 * @see Character#getDamageStat()
 	 * @see Character#dealDamage(int, StatsSecondary)
@@ -103,10 +141,15 @@ public class AttackTask extends TimerTask {
 			tactic.nextTarget();
 		}
 		if (!tactic.hasTarget()) {
-			if (timer != null)
-				timer.cancel();
+			if (battle != null)
+				battle.cancel();
 			return;
 		}
+		AttackExecutedEvent event = null;
+		if (battle != null || ++attacks % SIMULATION_SAMPLE_PERIOD == 0) {
+			event = new AttackExecutedEvent();
+			event.begin();
+		}
 		Character enemy = enemies.getCharacter(tactic.getCurrentTargetRow(), tactic.getCurrentTargetCol());
 		enemy.dealDamage(character.getAttackPower(), character.getDamageStat());
 		// TODO put the style somewhere else
@@ -118,6 +161,16 @@ public class AttackTask extends TimerTask {
 		if (enemy.isDefeated())
 			attackLogger.info(() -> String.format("<span style=\"color:%s;text-decoration:underline\">%s was defeated!</span>", 
 				getLineColorDefeat(), enemy.getName()));
+		if (event != null) {
+			event.end();
+			if (event.shouldCommit()) {
+				event.attacker = character.getId();
+				event.target = enemy.getId();
+				event.damage = character.getAttackPower();
+				event.simulated = battle == null;
+				event.commit();
+			}
+		}
 	}
 
 }
@@ -1,28 +1,95 @@
 package org.abos.sc.core.battle;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
 import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntPredicate;
 import java.util.logging.Handler;
 import java.util.logging.Logger;
 
+import org.abos.sc.core.Character;
 import org.abos.sc.core.Difficulty;
+import org.abos.util.Histogram;
 import org.abos.util.Utilities;
 
 /**
- * Simulates a battle. Note that the underlying timer will be started immediatly upon creation. 
+ * Simulates a battle. The attack tasks are started with {@link #run()}, how they are executed depends on the {@link ExecutionMode}. 
  * @author Sebastian Koch
  * @version %I%
  * @since 0.1
  * @see #Battle(Encounter, Encounter, Handler)
  * @see #run()
  */
-public class Battle extends Timer implements Runnable {
+public class Battle implements Runnable {
 	
 	/**
-	 * If the timer has been cancelled. Usually means the battle has concluded.
+	 * The executor for the attack loops of battles in {@link ExecutionMode#THREAD_PER_CHARACTER}.
+	 */
+	private static final ExecutorService ATTACKERS = Utilities.newThreadPerTaskExecutor();
+	
+	/**
+	 * If the battle has been cancelled. Usually means the battle has concluded.
 	 * @see #isCancelled()
 	 */
-	protected boolean cancelled = false;
+	protected volatile boolean cancelled = false;
+	
+	/**
+	 * How the attack tasks are executed.
+	 */
+	protected final ExecutionMode mode;
+	
+	/**
+	 * The timer running the attack tasks in {@link ExecutionMode#TIMER}, <code>null</code> in the other modes or before {@link #run()}.
+	 */
+	private Timer timer = null;
+	
+	/**
+	 * The threads currently running attack loops, to wake them up on {@link #cancel()}.
+	 */
+	private final Set<Thread> attackers = ConcurrentHashMap.newKeySet();
+	
+	/**
+	 * The attack tasks waiting for {@link #runScheduled(List)} in {@link ExecutionMode#SCHEDULER}.
+	 */
+	private final List<AttackTask> scheduled = new ArrayList<>();
+	
+	/**
+	 * How late the attacks happened, in nanoseconds.
+	 * @see #getLateness()
+	 */
+	protected final Histogram lateness = new Histogram();
+	
+	/**
+	 * How much the time between two attacks of a character deviated from their attack speed, in nanoseconds.
+	 * @see #getJitter()
+	 */
+	protected final Histogram jitter = new Histogram();
+	
+	/**
+	 * The start of this battle as of {@link System#nanoTime()}, <code>-1</code> if it hasn't started yet.
+	 * @see #run()
+	 */
+	private volatile long startNanos = -1L;
+	
+	/**
+	 * The flight recorder event spanning this battle, <code>null</code> if it hasn't started yet.
+	 * @see #run()
+	 * @see #cancel()
+	 */
+	private BattleEndedEvent endedEvent = null;
+	
+	/**
+	 * The ID of the stage this battle is fought at, only used for monitoring.
+	 * @see #setStageId(String)
+	 */
+	protected volatile String stageId = null;
 
 	/**
 	 * First party, usually the player's.
@@ -55,8 +122,7 @@ public class Battle extends Timer implements Runnable {
 	protected Handler battleHandler;
 
 	/**
-	 * Creates a new battle. The underlying timer will be started as a daemon immediatly upon creation, 
-	 * but the attack tasks need to be sheduled seperately with {@link #run()}. 
+	 * Creates a new battle. The attack tasks need to be sheduled seperately with {@link #run()}. 
 	 * @param party1 the first party, usually the player's
 	 * @param party2 the second party, usually the computer's
 	 * @param difficulty the difficulty for this battle
@@ -65,10 +131,26 @@ public class Battle extends Timer implements Runnable {
 	 * @see #run()
 	 */
 	public Battle(Encounter party1, Encounter party2, Difficulty difficulty, Handler battleHandler) {
-		super("Battle created "+Instant.now().toString(), true); // run as daemon
+		this(party1, party2, difficulty, battleHandler, ExecutionMode.SCHEDULER);
+	}
+	
+	/**
+	 * Creates a new battle with the specified execution mode. Only in {@link ExecutionMode#TIMER} a timer thread 
+	 * is started, and only once {@link #run()} is called.
+	 * @param party1 the first party, usually the player's
+	 * @param party2 the second party, usually the computer's
+	 * @param difficulty the difficulty for this battle
+	 * @param battleHandler the primary handler for this battle's logger
+	 * @param mode how the attack tasks are executed
+	 * @throws NullPointerException If <code>party1</code>, <code>party2</code>, <code>difficulty</code> or <code>mode</code> refers to <code>null</code>.
+	 * @see #run()
+	 */
+	public Battle(Encounter party1, Encounter party2, Difficulty difficulty, Handler battleHandler, ExecutionMode mode) {
 		Utilities.requireNonNull(party1, "party1");
 		Utilities.requireNonNull(party2, "party2");
 		Utilities.requireNonNull(difficulty, "difficulty");
+		Utilities.requireNonNull(mode, "mode");
+		this.mode = mode;
 		this.party1 = party1;
 		this.party2 = party2;
 		this.difficulty = difficulty;
@@ -79,45 +161,257 @@ public class Battle extends Timer implements Runnable {
 			battleLogger.addHandler(battleHandler);
 	}
 	
+	/**
+	 * Returns how the attack tasks of this battle are executed.
+	 * @return the execution mode of this battle
+	 */
+	public ExecutionMode getExecutionMode() {
+		return mode;
+	}
+	
+	/**
+	 * Returns the ID of the stage this battle is fought at.
+	 * @return the stage ID, <code>null</code> if unknown
+	 */
+	public String getStageId() {
+		return stageId;
+	}
+	
+	/**
+	 * Sets the ID of the stage this battle is fought at. It is only used for monitoring, 
+	 * e.g. for the {@link BattleStartedEvent} and {@link BattleEndedEvent}, so it should be set before {@link #run()}.
+	 * @param stageId the stage ID, <code>null</code> if unknown
+	 */
+	public void setStageId(String stageId) {
+		this.stageId = stageId;
+	}
+	
+	/**
+	 * Returns how late the attacks of this battle happened compared to their schedule, in nanoseconds.
+	 * @return the histogram of the lateness of the attacks
+	 */
+	public Histogram getLateness() {
+		return lateness;
+	}
+	
+	/**
+	 * Returns how much the time between two consecutive attacks of a character deviated from their attack speed, in nanoseconds.
+	 * @return the histogram of the jitter of the attacks
+	 */
+	public Histogram getJitter() {
+		return jitter;
+	}
+	
+	/**
+	 * Records the timing of an attack.
+	 * @param late how late the attack happened
+	 * @param interval the time since the last attack of the character, or since the start for the first attack
+	 * @param period the attack speed of the character
+	 */
+	protected void recordTiming(long late, long interval, long period) {
+		lateness.record(late);
+		jitter.record(Math.abs(interval - period));
+	}
+	
 	/**
 	 * Creates the attack tasks and shedules them. 
 	 * 
 	 * The order is: First the first's party, their first row and then the first column.
 	 * @see AttackTask
+	 * @see BattleStartedEvent
 	 * @see #cancel()
 	 * @see #waitForEnd()
 	 */
 	@Override
 	public void run() {
+		BattleMetrics.register();
+		BattleMetrics.METRICS.battleStarted();
+		BattleStartedEvent started = new BattleStartedEvent();
+		if (started.shouldCommit()) {
+			started.stageId = stageId;
+			started.party1ChallengeRating = party1.getChallengeRating();
+			started.party2ChallengeRating = party2.getChallengeRating();
+			started.mode = mode.name();
+			started.commit();
+		}
+		BattleEndedEvent ended = new BattleEndedEvent();
+		ended.begin();
+		synchronized (this) {
+			endedEvent = ended;
+		}
+		if (mode == ExecutionMode.TIMER) {
+			Timer timer = new Timer("Battle started "+Instant.now().toString(), true); // run as daemon
+			synchronized (this) {
+				this.timer = timer;
+			}
+		}
+		startNanos = System.nanoTime();
 		for (int row = 0; row < Formation.ROW_NUMBER; row++)
 			for (int col = 0; col < Formation.COL_NUMBER; col++)
 				if (party1.getCharacter(row, col) != null)
-					scheduleAtFixedRate(new AttackTask(party1.getCharacter(row, col), party1.getTactic(row, col), party2.getFormation(), this, battleLogger, difficulty, true), 
-							party1.getCharacter(row, col).getAttackSpeed(), party1.getCharacter(row, col).getAttackSpeed());
+					schedule(new AttackTask(party1.getCharacter(row, col), party1.getTactic(row, col), party2.getFormation(), this, battleLogger, difficulty, true), 
+							party1.getCharacter(row, col));
 		for (int row = 0; row < Formation.ROW_NUMBER; row++)
 			for (int col = 0; col < Formation.COL_NUMBER; col++)
 				if (party2.getCharacter(row, col) != null)
-					scheduleAtFixedRate(new AttackTask(party2.getCharacter(row, col), party2.getTactic(row, col), party1.getFormation(), this, battleLogger, difficulty, false), 
-							party2.getCharacter(row, col).getAttackSpeed(), party2.getCharacter(row, col).getAttackSpeed());
+					schedule(new AttackTask(party2.getCharacter(row, col), party2.getTactic(row, col), party1.getFormation(), this, battleLogger, difficulty, false), 
+							party2.getCharacter(row, col));
+		if (mode == ExecutionMode.SCHEDULER) {
+			final List<AttackTask> tasks = new ArrayList<>(scheduled);
+			scheduled.clear();
+			ATTACKERS.execute(() -> runScheduled(tasks));
+		}
+	}
+	
+	/**
+	 * Schedules an attack task at the fixed rate of the attack speed of its character, depending on the execution mode.
+	 * @param task the task to schedule
+	 * @param character the attacking character
+	 * @see #runScheduled(List)
+	 * @see #runAttacks(AttackTask, long)
+	 */
+	protected void schedule(AttackTask task, Character character) {
+		final long period = character.getAttackSpeed();
+		switch (mode) {
+		case TIMER:
+			timer.scheduleAtFixedRate(new MeasuredTask(task, period), period, period);
+			break;
+		case SCHEDULER:
+			scheduled.add(task);
+			break;
+		default:
+			ATTACKERS.execute(() -> runAttacks(task, period));
+		}
+	}
+	
+	/**
+	 * Runs an attack task once and measures it.
+	 * @param task the task to run
+	 * @see BattleMetrics#attacked(long)
+	 */
+	protected void attack(AttackTask task) {
+		long start = System.nanoTime();
+		task.run();
+		BattleMetrics.METRICS.attacked(System.nanoTime() - start);
+	}
+	
+	/**
+	 * Runs all attack tasks on the current thread, each at the fixed rate of the attack speed of its character, 
+	 * until all tasks or this battle are cancelled. The deadlines are kept on the monotonic clock and never drift.
+	 * The earliest deadline runs first, ties in the order of the tasks, just like in {@link BattleSimulation#simulate()}.
+	 * @see BattleSimulation#earliest(long[], IntPredicate)
+	 * @param tasks the tasks to run
+	 */
+	protected void runScheduled(List<AttackTask> tasks) {
+		final Thread current = Thread.currentThread();
+		attackers.add(current);
+		try {
+			final int size = tasks.size();
+			final long[] periods = new long[size];
+			final long[] next = new long[size];
+			final long[] last = new long[size];
+			final long start = System.nanoTime();
+			for (int i = 0; i < size; i++) {
+				periods[i] = TimeUnit.MILLISECONDS.toNanos(tasks.get(i).character.getAttackSpeed());
+				next[i] = start + periods[i];
+				last[i] = start;
+			}
+			final IntPredicate active = i -> !tasks.get(i).isCancelled();
+			while (!isCancelled()) {
+				int task = BattleSimulation.earliest(next, active);
+				if (task == -1)
+					return;
+				long remaining;
+				while (!isCancelled() && (remaining = next[task] - System.nanoTime()) > 0)
+					LockSupport.parkNanos(this, remaining); // woken up by cancel()
+				if (isCancelled())
+					return;
+				long now = System.nanoTime();
+				recordTiming(now - next[task], now - last[task], periods[task]);
+				last[task] = now;
+				attack(tasks.get(task));
+				next[task] += periods[task];
+			}
+		}
+		finally {
+			attackers.remove(current);
+		}
+	}
+	
+	/**
+	 * Runs the attack task repeatedly at a fixed rate on the current thread, until the task or this battle is cancelled.
+	 * Like {@link Timer#scheduleAtFixedRate(java.util.TimerTask, long, long)}, the first attack happens after one period
+	 * and late attacks are caught up on.
+	 * @param task the task to run
+	 * @param period the time between two attacks in milliseconds
+	 */
+	protected void runAttacks(AttackTask task, long period) {
+		final Thread current = Thread.currentThread();
+		attackers.add(current);
+		try {
+			final long periodNanos = TimeUnit.MILLISECONDS.toNanos(period);
+			long last = System.nanoTime();
+			long next = last + periodNanos;
+			while (true) {
+				long remaining;
+				while (!isCancelled() && (remaining = next - System.nanoTime()) > 0)
+					LockSupport.parkNanos(this, remaining); // woken up by cancel()
+				if (isCancelled() || task.isCancelled())
+					return;
+				long now = System.nanoTime();
+				recordTiming(now - next, now - last, periodNanos);
+				last = now;
+				attack(task);
+				next += periodNanos;
+			}
+		}
+		finally {
+			attackers.remove(current);
+		}
 	}
 	
 	/**
-	 * Cancels this timer, causing all attack tasks to be discarded and thereby ends the battle. 
+	 * Cancels this battle and its timer, if any, causing all attack tasks to be discarded and thereby ends the battle. 
+	 * Attack tasks that are currently running are completed, but not started again.
 	 * This method is usually called by the attack tasks when there are no valid targets left, i.e. when the battle is over.
+	 * The first call after {@link #run()} commits the {@link BattleEndedEvent}.
 	 * @see #isCancelled()
 	 * @see #waitForEnd()
 	 * @see Timer#cancel()
 	 * @see AttackTask#run()
 	 */
-	@Override
 	public void cancel() {
-		super.cancel();
-		cancelled = true;
+		boolean finished;
+		BattleEndedEvent ended;
+		Timer timer;
+		synchronized (this) {
+			finished = !cancelled && startNanos != -1L;
+			cancelled = true;
+			ended = endedEvent;
+			endedEvent = null;
+			timer = this.timer;
+		}
+		if (timer != null)
+			timer.cancel();
+		if (finished)
+			BattleMetrics.METRICS.battleFinished(System.nanoTime() - startNanos);
+		if (ended != null) {
+			ended.end();
+			if (ended.shouldCommit()) {
+				ended.stageId = stageId;
+				ended.party1ChallengeRating = party1.getChallengeRating();
+				ended.party2ChallengeRating = party2.getChallengeRating();
+				ended.conclusion = getConclusion().name();
+				ended.commit();
+			}
+		}
+		for (Thread attacker : attackers)
+			LockSupport.unpark(attacker);
 	}
 	
 	/**
-	 * Returns <code>true</code> if the timer has been cancelled.
-	 * @return <code>true</code> if the timer has been cancelled
+	 * Returns <code>true</code> if this battle has been cancelled.
+	 * @return <code>true</code> if this battle has been cancelled
 	 * @see #cancel()
 	 */
 	public boolean isCancelled() {
@@ -125,7 +419,7 @@ public class Battle extends Timer implements Runnable {
 	}
 	
 	/**
-	 * Waits for the battle to end, i.e. uses {@link Thread#onSpinWait()} in a loop until the timer has been cancelled.
+	 * Waits for the battle to end, i.e. uses {@link Thread#onSpinWait()} in a loop until this battle has been cancelled.
 	 * @see #run()
 	 * @see #cancel()
 	 * @see #isCancelled()
@@ -199,6 +493,19 @@ public class Battle extends Timer implements Runnable {
 		return party1.isDefeated() && party2.isDefeated();
 	}
 	
+	/**
+	 * Returns the conclusion of this battle for the first party. A battle that was cancelled before either party
+	 * was defeated counts as tie.
+	 * @return {@link Conclusion#WON} if {@link #party1Won()}, {@link Conclusion#LOST} if {@link #party1Lost()}, else {@link Conclusion#TIE}
+	 */
+	public Conclusion getConclusion() {
+		if (party1Won())
+			return Conclusion.WON;
+		if (party1Lost())
+			return Conclusion.LOST;
+		return Conclusion.TIE;
+	}
+	
 	/**
 	 * Restores the formations and resets the strategies.
 	 * @see Formation#restoreAll()
@@ -211,4 +518,49 @@ public class Battle extends Timer implements Runnable {
 		party2.getStrategy().reset();
 	}
 	
+	/**
+	 * Runs an attack task on the timer and records its timing.
+	 * @see ExecutionMode#TIMER
+	 */
+	private class MeasuredTask extends TimerTask {
+		
+		/**
+		 * The attack task to run.
+		 */
+		private final AttackTask task;
+		
+		/**
+		 * The attack speed of the attacking character in milliseconds.
+		 */
+		private final long period;
+		
+		/**
+		 * The moment of the last attack in milliseconds, <code>-1</code> before the first attack.
+		 */
+		private long last = -1L;
+		
+		/**
+		 * Creates a new measured task.
+		 * @param task the attack task to run
+		 * @param period the attack speed of the attacking character in milliseconds
+		 */
+		MeasuredTask(AttackTask task, long period) {
+			this.task = task;
+			this.period = period;
+		}
+		
+		@Override
+		public void run() {
+			long now = System.currentTimeMillis();
+			long scheduled = scheduledExecutionTime();
+			recordTiming(TimeUnit.MILLISECONDS.toNanos(now - scheduled), 
+					TimeUnit.MILLISECONDS.toNanos(now - (last == -1L ? scheduled - period : last)), TimeUnit.MILLISECONDS.toNanos(period));
+			last = now;
+			attack(task);
+			if (task.isCancelled())
+				cancel();
+		}
+		
+	}
+	
 }
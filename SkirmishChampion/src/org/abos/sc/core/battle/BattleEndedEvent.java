@@ -0,0 +1,47 @@
+package org.abos.sc.core.battle;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A flight recorder event spanning a live battle from its start to its end.
+ * @author Sebastian Koch
+ * @version %I%
+ * @since 0.7
+ * @see Battle#cancel()
+ */
+@Name("org.abos.sc.BattleEnded")
+@Label("Battle Ended")
+@Category({"Skirmish Champion", "Battle"})
+@Description("A live battle has ended, the duration of the event is the duration of the battle")
+public class BattleEndedEvent extends Event {
+
+	/**
+	 * The ID of the stage the battle was fought at, <code>null</code> if unknown.
+	 */
+	@Label("Stage")
+	public String stageId;
+
+	/**
+	 * The challenge rating of the first party.
+	 */
+	@Label("First Party CR")
+	public int party1ChallengeRating;
+
+	/**
+	 * The challenge rating of the second party.
+	 */
+	@Label("Second Party CR")
+	public int party2ChallengeRating;
+
+	/**
+	 * The conclusion of the battle for the first party.
+	 * @see Conclusion
+	 */
+	@Label("Conclusion")
+	public String conclusion;
+
+}
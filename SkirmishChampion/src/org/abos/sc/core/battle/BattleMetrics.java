@@ -0,0 +1,442 @@
+package org.abos.sc.core.battle;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.abos.util.Utilities;
+
+/**
+ * Counters of the runtime behaviour of battles, shared by all battles. All counters are {@link LongAdder}s, so the hot paths
+ * only pay for an uncontended increment. The metrics can be read with {@link #snapshot()} or via JMX after {@link #register()}.
+ * @author Sebastian Koch
+ * @version %I%
+ * @since 0.7
+ * @see #METRICS
+ */
+public class BattleMetrics implements BattleMetricsMXBean {
+
+	/**
+	 * The name of the MBean.
+	 * @see #register()
+	 */
+	public static final String OBJECT_NAME = "org.abos.sc:type=BattleMetrics";
+
+	/**
+	 * The metrics of all battles.
+	 */
+	public static final BattleMetrics METRICS = new BattleMetrics();
+
+	/**
+	 * If {@link #METRICS} has been registered.
+	 */
+	private static boolean registered = false;
+
+	/**
+	 * The number of live battles started.
+	 */
+	private final LongAdder battlesStarted = new LongAdder();
+
+	/**
+	 * The number of live battles finished.
+	 */
+	private final LongAdder battlesFinished = new LongAdder();
+
+	/**
+	 * The total duration of the finished live battles in nanoseconds.
+	 */
+	private final LongAdder battleNanos = new LongAdder();
+
+	/**
+	 * The number of attacks in live battles.
+	 */
+	private final LongAdder attacks = new LongAdder();
+
+	/**
+	 * The total time spent in attacks of live battles in nanoseconds.
+	 */
+	private final LongAdder attackNanos = new LongAdder();
+
+	/**
+	 * The number of times damage was dealt.
+	 */
+	private final LongAdder damageEvents = new LongAdder();
+
+	/**
+	 * The number of formatted battle log records.
+	 */
+	private final LongAdder logRecords = new LongAdder();
+
+	/**
+	 * The total time spent formatting battle log records in nanoseconds.
+	 */
+	private final LongAdder logFormatNanos = new LongAdder();
+
+	/**
+	 * The number of battle view updates on the event dispatch thread.
+	 */
+	private final LongAdder edtUpdates = new LongAdder();
+
+	/**
+	 * The total latency of the battle view updates in nanoseconds.
+	 */
+	private final LongAdder edtLatencyNanos = new LongAdder();
+
+	/**
+	 * The live battle results by stage ID and conclusion.
+	 */
+	private final Map<String, LongAdder> conclusions = new ConcurrentHashMap<>();
+
+	/**
+	 * The farmed battles by stage ID and conclusion.
+	 */
+	private final Map<String, LongAdder> farmedBattles = new ConcurrentHashMap<>();
+
+	/**
+	 * The start of the measurement as of {@link System#nanoTime()}.
+	 */
+	private volatile long since = System.nanoTime();
+
+	/**
+	 * Registers {@link #METRICS} at the platform MBean server, if that hasn't happened yet.
+	 * @return <code>true</code> if the metrics are registered, <code>false</code> if the registration failed
+	 */
+	public static synchronized boolean register() {
+		if (registered)
+			return true;
+		try {
+			ManagementFactory.getPlatformMBeanServer().registerMBean(METRICS, new ObjectName(OBJECT_NAME));
+			registered = true;
+		}
+		catch (JMException | SecurityException ex) {
+			// the snapshots still work
+		}
+		return registered;
+	}
+
+	/**
+	 * Counts a started live battle.
+	 */
+	public void battleStarted() {
+		battlesStarted.increment();
+	}
+
+	/**
+	 * Counts a finished live battle.
+	 * @param nanos the duration of the battle in nanoseconds
+	 */
+	public void battleFinished(long nanos) {
+		battlesFinished.increment();
+		battleNanos.add(nanos);
+	}
+
+	/**
+	 * Counts an attack of a live battle.
+	 * @param nanos the time spent in {@link AttackTask#run()} in nanoseconds
+	 */
+	public void attacked(long nanos) {
+		attacks.increment();
+		attackNanos.add(nanos);
+	}
+
+	/**
+	 * Counts dealt damage.
+	 * @see org.abos.sc.core.Character#dealDamage(int, org.abos.sc.core.StatsSecondary)
+	 */
+	public void damageDealt() {
+		damageEvents.increment();
+	}
+
+	/**
+	 * Counts a formatted battle log record.
+	 * @param nanos the time spent formatting in nanoseconds
+	 */
+	public void logFormatted(long nanos) {
+		logRecords.increment();
+		logFormatNanos.add(nanos);
+	}
+
+	/**
+	 * Counts an update of the battle view on the event dispatch thread.
+	 * @param nanos the time from requesting the update until it ran in nanoseconds
+	 */
+	public void edtUpdated(long nanos) {
+		edtUpdates.increment();
+		edtLatencyNanos.add(nanos);
+	}
+
+	/**
+	 * Counts live battle results of a stage.
+	 * @param stageId the ID of the stage
+	 * @param conclusion the conclusion of the battles
+	 * @param battles the number of battles
+	 * @throws NullPointerException If <code>stageId</code> or <code>conclusion</code> refers to <code>null</code>.
+	 * @see #farmed(String, Conclusion, long)
+	 */
+	public void concluded(String stageId, Conclusion conclusion, long battles) {
+		count(conclusions, stageId, conclusion, battles);
+	}
+
+	/**
+	 * Counts battles of a stage resolved in bulk by a stage farm. They are kept apart from the live results,
+	 * so a long idle time doesn't drown them.
+	 * @param stageId the ID of the stage
+	 * @param conclusion the conclusion of the battles
+	 * @param battles the number of battles
+	 * @throws NullPointerException If <code>stageId</code> or <code>conclusion</code> refers to <code>null</code>.
+	 * @see org.abos.sc.core.StageFarm
+	 */
+	public void farmed(String stageId, Conclusion conclusion, long battles) {
+		count(farmedBattles, stageId, conclusion, battles);
+	}
+
+	/**
+	 * Adds battles to the counter for the stage and conclusion.
+	 * @param counters the counters by "<code>STAGE:CONCLUSION</code>"
+	 * @param stageId the ID of the stage
+	 * @param conclusion the conclusion of the battles
+	 * @param battles the number of battles
+	 * @throws NullPointerException If <code>stageId</code> or <code>conclusion</code> refers to <code>null</code>.
+	 */
+	private static void count(Map<String, LongAdder> counters, String stageId, Conclusion conclusion, long battles) {
+		Utilities.requireNonNull(stageId, "stageId");
+		Utilities.requireNonNull(conclusion, "conclusion");
+		counters.computeIfAbsent(stageId+":"+conclusion, key -> new LongAdder()).add(battles);
+	}
+
+	/**
+	 * Sums the specified counters.
+	 * @param counters the counters to sum
+	 * @return a new sorted map of the sums
+	 */
+	private static Map<String, Long> sums(Map<String, LongAdder> counters) {
+		Map<String, Long> result = new TreeMap<>();
+		for (Map.Entry<String, LongAdder> entry : counters.entrySet())
+			result.put(entry.getKey(), entry.getValue().sum());
+		return result;
+	}
+
+	/**
+	 * Returns the mean of a sum in the specified unit.
+	 * @param sum the sum in nanoseconds
+	 * @param count the number of summands
+	 * @param nanosPerUnit the nanoseconds per unit
+	 * @return the mean, <code>0</code> if there are no summands
+	 */
+	private static double mean(long sum, long count, double nanosPerUnit) {
+		return count == 0 ? 0d : sum / nanosPerUnit / count;
+	}
+
+	@Override
+	public long getBattlesStarted() {
+		return battlesStarted.sum();
+	}
+
+	@Override
+	public long getBattlesFinished() {
+		return battlesFinished.sum();
+	}
+
+	@Override
+	public long getAttacks() {
+		return attacks.sum();
+	}
+
+	@Override
+	public double getAttacksPerSecond() {
+		return attacks.sum() * 1e9 / Math.max(1L, System.nanoTime() - since);
+	}
+
+	@Override
+	public double getAverageBattleMillis() {
+		return mean(battleNanos.sum(), battlesFinished.sum(), 1e6);
+	}
+
+	@Override
+	public double getAverageAttackMicros() {
+		return mean(attackNanos.sum(), attacks.sum(), 1e3);
+	}
+
+	@Override
+	public long getDamageEvents() {
+		return damageEvents.sum();
+	}
+
+	@Override
+	public double getAverageLogFormatMicros() {
+		return mean(logFormatNanos.sum(), logRecords.sum(), 1e3);
+	}
+
+	@Override
+	public double getAverageEdtLatencyMicros() {
+		return mean(edtLatencyNanos.sum(), edtUpdates.sum(), 1e3);
+	}
+
+	@Override
+	public Map<String, Long> getConclusions() {
+		return sums(conclusions);
+	}
+
+	@Override
+	public Map<String, Long> getFarmedBattles() {
+		return sums(farmedBattles);
+	}
+
+	@Override
+	public void reset() {
+		for (LongAdder adder : new LongAdder[] {battlesStarted, battlesFinished, battleNanos, attacks, attackNanos, damageEvents,
+				logRecords, logFormatNanos, edtUpdates, edtLatencyNanos})
+			adder.reset();
+		conclusions.clear();
+		farmedBattles.clear();
+		since = System.nanoTime();
+	}
+
+	/**
+	 * Reads all metrics at once.
+	 * @return a new snapshot of the metrics
+	 */
+	public Snapshot snapshot() {
+		return new Snapshot(this);
+	}
+
+	/**
+	 * The values of the battle metrics at one moment.
+	 * @see BattleMetrics#snapshot()
+	 */
+	public static class Snapshot {
+
+		private final long battlesStarted;
+
+		private final long battlesFinished;
+
+		private final long attacks;
+
+		private final double attacksPerSecond;
+
+		private final double averageBattleMillis;
+
+		private final double averageAttackMicros;
+
+		private final long damageEvents;
+
+		private final double averageLogFormatMicros;
+
+		private final double averageEdtLatencyMicros;
+
+		private final Map<String, Long> conclusions;
+
+		private final Map<String, Long> farmedBattles;
+
+		/**
+		 * Reads the values of the specified metrics.
+		 * @param metrics the metrics to read
+		 */
+		protected Snapshot(BattleMetrics metrics) {
+			battlesStarted = metrics.getBattlesStarted();
+			battlesFinished = metrics.getBattlesFinished();
+			attacks = metrics.getAttacks();
+			attacksPerSecond = metrics.getAttacksPerSecond();
+			averageBattleMillis = metrics.getAverageBattleMillis();
+			averageAttackMicros = metrics.getAverageAttackMicros();
+			damageEvents = metrics.getDamageEvents();
+			averageLogFormatMicros = metrics.getAverageLogFormatMicros();
+			averageEdtLatencyMicros = metrics.getAverageEdtLatencyMicros();
+			conclusions = Collections.unmodifiableMap(metrics.getConclusions());
+			farmedBattles = Collections.unmodifiableMap(metrics.getFarmedBattles());
+		}
+
+		/**
+		 * @return the number of live battles started
+		 */
+		public long getBattlesStarted() {
+			return battlesStarted;
+		}
+
+		/**
+		 * @return the number of live battles finished
+		 */
+		public long getBattlesFinished() {
+			return battlesFinished;
+		}
+
+		/**
+		 * @return the number of attacks in live battles
+		 */
+		public long getAttacks() {
+			return attacks;
+		}
+
+		/**
+		 * @return the attacks in live battles per second
+		 */
+		public double getAttacksPerSecond() {
+			return attacksPerSecond;
+		}
+
+		/**
+		 * @return the average duration of the finished live battles in milliseconds
+		 */
+		public double getAverageBattleMillis() {
+			return averageBattleMillis;
+		}
+
+		/**
+		 * @return the average time spent in {@link AttackTask#run()} during live battles in microseconds
+		 */
+		public double getAverageAttackMicros() {
+			return averageAttackMicros;
+		}
+
+		/**
+		 * @return the number of times damage was dealt, including simulated battles
+		 */
+		public long getDamageEvents() {
+			return damageEvents;
+		}
+
+		/**
+		 * @return the average time to format a battle log record in microseconds
+		 */
+		public double getAverageLogFormatMicros() {
+			return averageLogFormatMicros;
+		}
+
+		/**
+		 * @return the average latency of battle view updates on the event dispatch thread in microseconds
+		 */
+		public double getAverageEdtLatencyMicros() {
+			return averageEdtLatencyMicros;
+		}
+
+		/**
+		 * @return an unmodifiable sorted map of the number of live battle results by "<code>STAGE:CONCLUSION</code>"
+		 */
+		public Map<String, Long> getConclusions() {
+			return conclusions;
+		}
+
+		/**
+		 * @return an unmodifiable sorted map of the number of farmed battles by "<code>STAGE:CONCLUSION</code>"
+		 */
+		public Map<String, Long> getFarmedBattles() {
+			return farmedBattles;
+		}
+
+		@Override
+		public String toString() {
+			return String.format(Locale.ROOT, "battles started=%d finished=%d avg=%.1fms, attacks=%d (%.1f/s, avg %.1fus), damage events=%d, "
+					+ "log format avg=%.1fus, EDT latency avg=%.1fus, conclusions=%s, farmed=%s", battlesStarted, battlesFinished, averageBattleMillis, 
+					attacks, attacksPerSecond, averageAttackMicros, damageEvents, averageLogFormatMicros, averageEdtLatencyMicros, conclusions, farmedBattles);
+		}
+
+	}
+
+}
@@ -0,0 +1,73 @@
+package org.abos.sc.core.battle;
+
+import java.util.Map;
+
+/**
+ * The management interface of {@link BattleMetrics}, registered as {@link BattleMetrics#OBJECT_NAME}.
+ * @author Sebastian Koch
+ * @version %I%
+ * @since 0.7
+ */
+public interface BattleMetricsMXBean {
+
+	/**
+	 * @return the number of live battles started
+	 */
+	long getBattlesStarted();
+
+	/**
+	 * @return the number of live battles finished
+	 */
+	long getBattlesFinished();
+
+	/**
+	 * @return the number of attacks in live battles
+	 */
+	long getAttacks();
+
+	/**
+	 * @return the attacks in live battles per second since the start or the last reset
+	 */
+	double getAttacksPerSecond();
+
+	/**
+	 * @return the average duration of the finished live battles in milliseconds
+	 */
+	double getAverageBattleMillis();
+
+	/**
+	 * @return the average time spent in {@link AttackTask#run()} during live battles in microseconds
+	 */
+	double getAverageAttackMicros();
+
+	/**
+	 * @return the number of times damage was dealt, including simulated battles
+	 */
+	long getDamageEvents();
+
+	/**
+	 * @return the average time to format a battle log record in microseconds
+	 */
+	double getAverageLogFormatMicros();
+
+	/**
+	 * @return the average time from a battle view update being requested until the event dispatch thread ran it, in microseconds
+	 */
+	double getAverageEdtLatencyMicros();
+
+	/**
+	 * @return the number of live battle results by "<code>STAGE:CONCLUSION</code>"
+	 */
+	Map<String, Long> getConclusions();
+
+	/**
+	 * @return the number of battles resolved in bulk by a stage farm, by "<code>STAGE:CONCLUSION</code>"
+	 */
+	Map<String, Long> getFarmedBattles();
+
+	/**
+	 * Sets all metrics back to zero.
+	 */
+	void reset();
+
+}
@@ -0,0 +1,261 @@
+package org.abos.sc.core.battle;
+
+import java.util.function.IntPredicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.abos.sc.core.Character;
+import org.abos.sc.core.Difficulty;
+import org.abos.sc.core.StatsSecondary;
+import org.abos.util.Utilities;
+
+/**
+ * Resolves a battle in virtual time, i.e. without the wall-clock {@link java.util.Timer} of {@link Battle}.
+ * The attacks are executed by the same {@link AttackTask}s, but in the order of their virtual execution times:
+ * Every character attacks at multiples of its {@link Character#getAttackSpeed() attack speed}. Attacks at the same
+ * moment are executed in the order {@link Battle#run()} schedules them, i.e. first the first party, their first row
+ * and then the first column. The battle ends as soon as one party is defeated or the time limit is reached.
+ * @author Sebastian Koch
+ * @version %I%
+ * @since 0.7
+ * @see #simulate()
+ */
+public class BattleSimulation {
+
+	/**
+	 * The default limit for the virtual duration of a battle in milliseconds, namely one hour.
+	 * @see #BattleSimulation(Encounter, Encounter)
+	 */
+	public static final long DEFAULT_TIME_LIMIT = 60L * 60L * 1000L;
+
+	/**
+	 * A logger that discards all attack messages.
+	 */
+	private static final Logger SILENT_LOGGER = Logger.getAnonymousLogger();
+
+	static {
+		SILENT_LOGGER.setUseParentHandlers(false);
+		SILENT_LOGGER.setLevel(Level.OFF);
+	}
+
+	/**
+	 * First party, usually the player's. A copy of the encounter given to the constructor.
+	 */
+	protected final Encounter party1;
+
+	/**
+	 * Second party, usually the computer's. A copy of the encounter given to the constructor.
+	 */
+	protected final Encounter party2;
+
+	/**
+	 * The limit for the virtual duration of the battle in milliseconds.
+	 */
+	protected final long timeLimit;
+
+	/**
+	 * The conclusion from the point of view of the first party, <code>null</code> until simulated.
+	 */
+	protected Conclusion conclusion = null;
+
+	/**
+	 * The virtual duration of the battle in milliseconds.
+	 */
+	protected long duration = 0L;
+
+	/**
+	 * The number of attacks of the first party.
+	 */
+	protected int attacks1 = 0;
+
+	/**
+	 * The number of attacks of the second party.
+	 */
+	protected int attacks2 = 0;
+
+	/**
+	 * Creates a new battle simulation. The encounters are cloned, so they are not modified by the simulation.
+	 * @param party1 the first party, usually the player's
+	 * @param party2 the second party, usually the computer's
+	 * @param timeLimit the limit for the virtual duration of the battle in milliseconds, after which a tie is declared
+	 * @throws NullPointerException If <code>party1</code> or <code>party2</code> refers to <code>null</code>.
+	 * @throws IllegalArgumentException If <code>timeLimit</code> isn't positive.
+	 * @see #simulate()
+	 */
+	public BattleSimulation(Encounter party1, Encounter party2, long timeLimit) {
+		Utilities.requireNonNull(party1, "party1");
+		Utilities.requireNonNull(party2, "party2");
+		if (timeLimit <= 0)
+			throw new IllegalArgumentException("The time limit must be positive!");
+		this.party1 = (Encounter)party1.clone();
+		this.party2 = (Encounter)party2.clone();
+		this.party1.getFormation().restoreAll();
+		this.party2.getFormation().restoreAll();
+		this.timeLimit = timeLimit;
+	}
+
+	/**
+	 * Creates a new battle simulation with the {@link #DEFAULT_TIME_LIMIT}.
+	 * The encounters are cloned, so they are not modified by the simulation.
+	 * @param party1 the first party, usually the player's
+	 * @param party2 the second party, usually the computer's
+	 * @throws NullPointerException If <code>party1</code> or <code>party2</code> refers to <code>null</code>.
+	 * @see #simulate()
+	 */
+	public BattleSimulation(Encounter party1, Encounter party2) {
+		this(party1, party2, DEFAULT_TIME_LIMIT);
+	}
+
+	/**
+	 * Simulates the battle. Subsequent calls return the conclusion of the first call.
+	 * @return the conclusion from the point of view of the first party
+	 * @see #getConclusion()
+	 */
+	public Conclusion simulate() {
+		if (conclusion != null)
+			return conclusion;
+		final int size1 = party1.getSize();
+		final int size = size1 + party2.getSize();
+		AttackTask[] tasks = new AttackTask[size];
+		Character[] attackers = new Character[size];
+		Tactic[] tactics = new Tactic[size];
+		long[] periods = new long[size];
+		long[] next = new long[size];
+		int index = 0;
+		for (int party = 0; party < 2; party++) {
+			Encounter own = party == 0 ? party1 : party2;
+			Encounter other = party == 0 ? party2 : party1;
+			for (int row = 0; row < Formation.ROW_NUMBER; row++)
+				for (int col = 0; col < Formation.COL_NUMBER; col++)
+					if (own.getCharacter(row, col) != null) {
+						attackers[index] = own.getCharacter(row, col);
+						tactics[index] = own.getTactic(row, col);
+						tactics[index].reset();
+						tasks[index] = new AttackTask(attackers[index], tactics[index], other.getFormation(), null, SILENT_LOGGER, Difficulty.DEFAULT, party == 0);
+						periods[index] = attackers[index].getAttackSpeed();
+						next[index] = periods[index];
+						index++;
+					}
+		}
+		final IntPredicate waiting = i -> next[i] != Long.MAX_VALUE;
+		while (!party1.isDefeated() && !party2.isDefeated()) {
+			int current = earliest(next, waiting);
+			if (current == -1 || next[current] > timeLimit) {
+				duration = timeLimit;
+				break;
+			}
+			duration = next[current];
+			if (attackers[current].isDefeated()) {
+				next[current] = Long.MAX_VALUE;
+				continue;
+			}
+			tasks[current].run();
+			if (!tactics[current].hasTarget())
+				break;
+			if (current < size1)
+				attacks1++;
+			else
+				attacks2++;
+			next[current] += periods[current];
+		}
+		if (party2.isDefeated() && !party1.isDefeated())
+			conclusion = Conclusion.WON;
+		else if (party1.isDefeated() && !party2.isDefeated())
+			conclusion = Conclusion.LOST;
+		else
+			conclusion = Conclusion.TIE;
+		return conclusion;
+	}
+
+	/**
+	 * Returns the attacker with the earliest deadline, ties in the order of the attackers. This is shared with 
+	 * {@link Battle#runScheduled(java.util.List)}, so live and simulated battles attack in the same order. 
+	 * There are at most 2*{@link Formation#MAX_CHAR_NUMBER} attackers, so a linear search is cheaper than a heap.
+	 * The deadlines are compared by their difference, so they may stem from {@link System#nanoTime()}.
+	 * @param next the deadlines of the attackers
+	 * @param active which attackers to consider
+	 * @return the index of the active attacker with the earliest deadline, <code>-1</code> if no attacker is active
+	 */
+	static int earliest(long[] next, IntPredicate active) {
+		int earliest = -1;
+		for (int i = 0; i < next.length; i++)
+			if (active.test(i) && (earliest == -1 || next[i] - next[earliest] < 0))
+				earliest = i;
+		return earliest;
+	}
+
+	/**
+	 * Returns the conclusion from the point of view of the first party.
+	 * @return the conclusion, <code>null</code> if the battle hasn't been simulated yet
+	 * @see #simulate()
+	 */
+	public Conclusion getConclusion() {
+		return conclusion;
+	}
+
+	/**
+	 * Returns the virtual duration of the battle in milliseconds, i.e. the moment of the last attack
+	 * or the time limit if it was reached.
+	 * @return the virtual duration of the battle
+	 */
+	public long getDuration() {
+		return duration;
+	}
+
+	/**
+	 * Returns the number of attacks of the specified party.
+	 * @param firstParty if the attacks of the first or the second party should be returned
+	 * @return the number of attacks of the specified party
+	 */
+	public int getAttacks(boolean firstParty) {
+		return firstParty ? attacks1 : attacks2;
+	}
+
+	/**
+	 * Returns the simulated copy of the specified party, e.g. to inspect the damage of the characters.
+	 * @param firstParty if the first or the second party should be returned
+	 * @return the simulated copy of the specified party
+	 */
+	public Encounter getParty(boolean firstParty) {
+		return firstParty ? party1 : party2;
+	}
+
+	/**
+	 * Returns the number of characters of the specified party that aren't defeated.
+	 * @param firstParty if the survivors of the first or the second party should be counted
+	 * @return the number of survivors of the specified party
+	 */
+	public int getSurvivors(boolean firstParty) {
+		int survivors = 0;
+		for (Character character : getParty(firstParty).getFormation())
+			if (!character.isDefeated())
+				survivors++;
+		return survivors;
+	}
+
+	/**
+	 * Returns the damage the specified party has taken in total, summed up over all characters and secondary stats.
+	 * @param firstParty if the damage of the first or the second party should be returned
+	 * @return the damage the specified party has taken
+	 * @see Character#getDamage(StatsSecondary)
+	 */
+	public long getDamageTaken(boolean firstParty) {
+		long damage = 0L;
+		for (Character character : getParty(firstParty).getFormation())
+			for (StatsSecondary stat : StatsSecondary.values())
+				damage += character.getDamage(stat);
+		return damage;
+	}
+
+	/**
+	 * Simulates a battle between two encounters with the {@link #DEFAULT_TIME_LIMIT}.
+	 * @param party1 the first party, usually the player's
+	 * @param party2 the second party, usually the computer's
+	 * @return the conclusion from the point of view of the first party
+	 * @throws NullPointerException If <code>party1</code> or <code>party2</code> refers to <code>null</code>.
+	 */
+	public static Conclusion simulate(Encounter party1, Encounter party2) {
+		return new BattleSimulation(party1, party2).simulate();
+	}
+
+}
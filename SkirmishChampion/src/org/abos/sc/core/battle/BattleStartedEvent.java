@@ -0,0 +1,46 @@
+package org.abos.sc.core.battle;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A flight recorder event for the start of a live battle.
+ * @author Sebastian Koch
+ * @version %I%
+ * @since 0.7
+ * @see Battle#run()
+ */
+@Name("org.abos.sc.BattleStarted")
+@Label("Battle Started")
+@Category({"Skirmish Champion", "Battle"})
+@Description("A live battle has started")
+public class BattleStartedEvent extends Event {
+
+	/**
+	 * The ID of the stage the battle is fought at, <code>null</code> if unknown.
+	 */
+	@Label("Stage")
+	public String stageId;
+
+	/**
+	 * The challenge rating of the first party.
+	 */
+	@Label("First Party CR")
+	public int party1ChallengeRating;
+
+	/**
+	 * The challenge rating of the second party.
+	 */
+	@Label("Second Party CR")
+	public int party2ChallengeRating;
+
+	/**
+	 * The execution mode of the battle.
+	 */
+	@Label("Execution Mode")
+	public String mode;
+
+}
@@ -0,0 +1,34 @@
+package org.abos.sc.core.battle;
+
+/**
+ * An enumeration for how the attack tasks of a live {@link Battle} are executed.
+ * @author Sebastian Koch
+ * @version %I%
+ * @since 0.7
+ * @see #TIMER
+ * @see #SCHEDULER
+ * @see #THREAD_PER_CHARACTER
+ */
+public enum ExecutionMode {
+	
+	/**
+	 * All attack tasks run on the single thread of the battle's timer, so a slow task delays all others.
+	 * The timer uses the wall clock and catches up on late tasks in no particular order.
+	 */
+	TIMER,
+	
+	/**
+	 * All attack tasks run on a single thread in the order of their deadlines on the monotonic clock, 
+	 * with ties in the order of scheduling. Late attacks are caught up on in this order as well, 
+	 * so the battle takes the same course as its {@link BattleSimulation}.
+	 */
+	SCHEDULER,
+	
+	/**
+	 * Each attack task runs in a loop on its own thread, which sleeps for the attack speed in between.
+	 * The threads are virtual if the runtime supports them.
+	 * @see org.abos.util.Utilities#newThreadPerTaskExecutor()
+	 */
+	THREAD_PER_CHARACTER;
+
+}
@@ -49,7 +49,7 @@ public class Strategy implements Iterable<Tactic>, Cloneable, SaveString {
 		
 		@Override
 		public boolean hasNext() {
-			return row+1 < Formation.ROW_NUMBER && col < Formation.COL_NUMBER;
+			return col < Formation.COL_NUMBER || row+1 < Formation.ROW_NUMBER;
 		}
 	}
 	
@@ -115,12 +115,20 @@ public class Strategy implements Iterable<Tactic>, Cloneable, SaveString {
 				throw new IllegalArgumentException("Each column must have same number of tactics, but column "+i+" doesn't!");
 
 		type = StrategyType.CUSTOM;
-		battleTactics = new Tactic[Formation.ROW_NUMBER][Formation.COL_NUMBER];
+		this.battleTactics = new Tactic[Formation.ROW_NUMBER][Formation.COL_NUMBER];
 		for (int row = 0; row < Formation.ROW_NUMBER; row++) 
 			for (int col = 0; col < Formation.COL_NUMBER; col++)
 				this.battleTactics[row][col] = new Tactic(battleTactics[row][col]); // throws NPE
 	}
 	
+	/**
+	 * Returns the type of this strategy.
+	 * @return the type of this strategy, {@link StrategyType#CUSTOM} for strategies created by the constructor
+	 */
+	public StrategyType getType() {
+		return type;
+	}
+	
 	@Override
 	public Iterator<Tactic> iterator() {
 		return new BattleStrategyIterator();
@@ -189,7 +197,7 @@ public class Strategy implements Iterable<Tactic>, Cloneable, SaveString {
 		it.next().toSaveString(s);
 		while(it.hasNext()) {
 			s.append(TACTIC_SEPARATOR);
-			it.next().toSaveString();
+			it.next().toSaveString(s);
 		}
 	}
 
@@ -4,11 +4,11 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumMap;
-import java.util.LinkedList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 import org.abos.sc.core.CharacterBase;
 import org.abos.sc.core.FandomBase;
@@ -44,21 +44,153 @@ public class Booster<T extends Card> implements Id, Name, Valuable {
 	
 	protected final Collection<Map<Rarity, Integer>> distributions;
 	
+	/**
+	 * The cards available in this booster as lists, indexed by the rarity ordinal and with the union of all cards at the last index.
+	 * @see #outcomeIndex(Rarity)
+	 */
+	protected final List<List<T>> pools;
+	
+	/**
+	 * The alias table thresholds for each place in a booster pack, compared to a random number below {@link #weightSums}.
+	 * @see #drawCard(int, SplittableRandom)
+	 */
+	protected final long[][] thresholds;
+	
+	/**
+	 * The alias table aliases for each place in a booster pack, as pool indices.
+	 * @see #drawCard(int, SplittableRandom)
+	 */
+	protected final int[][] aliases;
+	
+	/**
+	 * The sums of the weights for each place in a booster pack, multiplied with the number of pools.
+	 */
+	protected final long[] weightSums;
+	
+	/**
+	 * Creates a new booster. The distributions are compiled into alias tables, so every card of a pack is drawn in constant time.
+	 * @param id the ID of this booster
+	 * @param name the name of this booster
+	 * @param valueGold the gold value of this booster
+	 * @param valueDiamonds the diamond value of this booster
+	 * @param availableCards A mapping from a rarity to the booster cards of that rarity. 
+	 * <code>null</code> is a valid key and should be the union of all the other collections.
+	 * @param distributions The weights of the rarities for each place in a booster pack. <code>null</code> is a valid key
+	 * for drawing from all cards, <code>null</code> values are treated as zero.
+	 * @throws NullPointerException If any parameter except the values of a distribution refers to <code>null</code>.
+	 * @throws IllegalArgumentException If there are no distributions, if a distribution has a negative weight or only zero weights
+	 * or if a rarity with a positive weight has no cards.
+	 */
 	public Booster(String id, String name, int valueGold, int valueDiamonds, 
 			Map<Rarity, Collection<T>> availableCards, Collection<Map<Rarity, Integer>> distributions) {
-		// TODO exceptions
+		Utilities.requireNonNull(id, "id");
+		Utilities.requireNonNull(name, "name");
+		Utilities.requireNonNull(availableCards, "availableCards");
+		Utilities.requireNonNull(distributions, "distributions");
+		Utilities.requireNonNullEntries(distributions, "distributions");
+		if (distributions.isEmpty())
+			throw new IllegalArgumentException("There must be at least one distribution!");
 		this.id = id;
 		this.name = name;
 		this.valueGold = valueGold;
 		this.valueDiamonds = valueDiamonds;
-		Map<Rarity, Collection<T>> acCopy = new EnumMap<>(Rarity.class);
-		for (Entry<Rarity, Collection<T>> entry : availableCards.entrySet())
-			acCopy.put(entry.getKey(), Collections.unmodifiableCollection(entry.getValue()));
+		Map<Rarity, Collection<T>> acCopy = new HashMap<>(); // EnumMap doesn't permit the null key
+		List<List<T>> pools = new ArrayList<>(Rarity.values().length + 1);
+		for (int index = 0; index <= Rarity.values().length; index++)
+			pools.add(Collections.emptyList());
+		for (Entry<Rarity, Collection<T>> entry : availableCards.entrySet()) {
+			Utilities.requireNonNull(entry.getValue(), "availableCards entry");
+			Utilities.requireNonNullEntries(entry.getValue(), "availableCards entry");
+			List<T> pool = Collections.unmodifiableList(new ArrayList<>(entry.getValue()));
+			acCopy.put(entry.getKey(), pool);
+			pools.set(outcomeIndex(entry.getKey()), pool);
+		}
 		this.availableCards = Collections.unmodifiableMap(acCopy);
-		Collection<Map<Rarity, Integer>> dCopy = new LinkedList<>();
+		this.pools = Collections.unmodifiableList(pools);
+		Collection<Map<Rarity, Integer>> dCopy = new ArrayList<>(distributions.size());
 		for (Map<Rarity, Integer> distribution : distributions)
 			dCopy.add(Collections.unmodifiableMap(distribution));
 		this.distributions = Collections.unmodifiableCollection(dCopy);
+		// compile the alias tables
+		thresholds = new long[dCopy.size()][];
+		aliases = new int[dCopy.size()][];
+		weightSums = new long[dCopy.size()];
+		int slot = 0;
+		for (Map<Rarity, Integer> distribution : dCopy) {
+			long[] weights = new long[pools.size()];
+			for (Entry<Rarity, Integer> entry : distribution.entrySet()) {
+				int weight = entry.getValue() == null ? 0 : entry.getValue();
+				if (weight < 0)
+					throw new IllegalArgumentException("No weight can be negative!");
+				if (weight > 0 && pools.get(outcomeIndex(entry.getKey())).isEmpty())
+					throw new IllegalArgumentException(String.format("Booster %s has no cards of rarity %s!", id, entry.getKey()));
+				weights[outcomeIndex(entry.getKey())] += weight;
+			}
+			compileAliasTable(slot++, weights);
+		}
+	}
+	
+	/**
+	 * Returns the index of the pool and alias table outcome for a rarity.
+	 * @param rarity the rarity, <code>null</code> for all cards
+	 * @return the index of the pool for the rarity
+	 */
+	protected static int outcomeIndex(Rarity rarity) {
+		return rarity == null ? Rarity.values().length : rarity.ordinal();
+	}
+	
+	/**
+	 * Compiles the weights of a place in a booster pack into an alias table by Vose's method.
+	 * Integer arithmetic is used, so the drawn distribution is exactly the one given by the weights.
+	 * @param slot the place in the booster pack
+	 * @param weights the weights of the pools
+	 * @throws IllegalArgumentException If all weights are zero.
+	 */
+	protected void compileAliasTable(int slot, long[] weights) {
+		final int n = weights.length;
+		long sum = 0;
+		for (long weight : weights)
+			sum += weight;
+		if (sum == 0)
+			throw new IllegalArgumentException("At least one weight must be positive!");
+		// every column holds sum, scaled weights are weight * n
+		long[] scaled = new long[n];
+		int[] small = new int[n], large = new int[n];
+		int smallCount = 0, largeCount = 0;
+		for (int index = 0; index < n; index++) {
+			scaled[index] = weights[index] * n;
+			if (scaled[index] < sum)
+				small[smallCount++] = index;
+			else
+				large[largeCount++] = index;
+		}
+		long[] threshold = new long[n];
+		int[] alias = new int[n];
+		while (smallCount > 0 && largeCount > 0) {
+			int less = small[--smallCount];
+			int more = large[--largeCount];
+			threshold[less] = scaled[less];
+			alias[less] = more;
+			scaled[more] -= sum - scaled[less];
+			if (scaled[more] < sum)
+				small[smallCount++] = more;
+			else
+				large[largeCount++] = more;
+		}
+		while (largeCount > 0) {
+			int index = large[--largeCount];
+			threshold[index] = sum;
+			alias[index] = index;
+		}
+		// only reachable through rounding in floating point implementations, kept for safety
+		while (smallCount > 0) {
+			int index = small[--smallCount];
+			threshold[index] = sum;
+			alias[index] = index;
+		}
+		thresholds[slot] = threshold;
+		aliases[slot] = alias;
+		weightSums[slot] = sum;
 	}
 	
 	@Override
@@ -116,16 +248,52 @@ public class Booster<T extends Card> implements Id, Name, Valuable {
 	 * @return a list of the cards within a booster pack, not empty and not containing <code>null</code>.
 	 * @see #packSize()
 	 * @see #getAvailableCards()
+	 * @see #openPack(SplittableRandom)
 	 */
 	public List<T> openPack() {
+		return openPack(new SplittableRandom());
+	}
+	
+	/**
+	 * Opens a booster pack with the specified random number generator and returns a list of the cards within. 
+	 * Each card is drawn in constant time. The size of the list is always {@link #packSize()}.
+	 * @param rng the random number generator to use, e.g. seeded for reproducible simulations
+	 * @return a list of the cards within a booster pack, not empty and not containing <code>null</code>.
+	 * @throws NullPointerException If <code>rng</code> refers to <code>null</code>.
+	 * @see #openPack()
+	 */
+	public List<T> openPack(SplittableRandom rng) {
+		Utilities.requireNonNull(rng, "rng");
 		ArrayList<T> result = new ArrayList<>(packSize());
-		Random rng = new Random();
-		for (Map<Rarity, Integer> distribution : getDistributions()) {
-			result.add(Utilities.randomlyChoose(getAvailableCards().get(Utilities.randomlyChoose(distribution, rng)), rng));
-		}
+		for (int slot = 0; slot < weightSums.length; slot++)
+			result.add(drawCard(slot, rng));
 		return result;
 	}
 	
+	/**
+	 * Draws the card for a place in a booster pack in constant time, using the alias table of the place.
+	 * @param slot the place in the booster pack
+	 * @param rng the random number generator to use
+	 * @return the drawn card
+	 * @throws ArrayIndexOutOfBoundsException If <code>slot</code> is out of bounds.
+	 */
+	public T drawCard(int slot, SplittableRandom rng) {
+		List<T> pool = pools.get(drawPool(slot, rng));
+		return pool.get(rng.nextInt(pool.size()));
+	}
+	
+	/**
+	 * Draws the pool for a place in a booster pack in constant time, using the alias table of the place.
+	 * @param slot the place in the booster pack
+	 * @param rng the random number generator to use
+	 * @return the index of the drawn pool, the ordinal of its rarity or {@link Rarity#values()}<code>.length</code> for all cards
+	 * @throws ArrayIndexOutOfBoundsException If <code>slot</code> is out of bounds.
+	 */
+	protected int drawPool(int slot, SplittableRandom rng) {
+		int column = rng.nextInt(thresholds[slot].length);
+		return rng.nextLong(weightSums[slot]) < thresholds[slot][column] ? column : aliases[slot][column];
+	}
+	
 	public static Collection<Map<Rarity, Integer>> createSingletonDistribution(int packSize, Map<Rarity, Integer> rareDistribution) {
 		// TODO exceptions
 		Collection<Map<Rarity, Integer>> distributions = new ArrayList<>(packSize);
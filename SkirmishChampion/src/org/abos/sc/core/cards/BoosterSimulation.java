@@ -0,0 +1,480 @@
+package org.abos.sc.core.cards;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.abos.sc.core.CharacterBase;
+import org.abos.sc.core.FandomBase;
+import org.abos.util.Utilities;
+
+/**
+ * Simulates opening packs of a {@link Booster} until the collection of all cards obtainable from it is complete.
+ * The trials run in parallel and are seeded on their own, so the results only depend on the seed. Only a few numbers
+ * are kept per trial, never the opened cards, so even millions of trials need little memory.
+ * @author Sebastian Koch
+ * @version %I%
+ * @param <T> the card type of the booster
+ * @since 0.7
+ * @see #simulate(int, long)
+ * @see #trials(int, long)
+ */
+public class BoosterSimulation<T extends Card> {
+
+	/**
+	 * The default maximum number of packs per trial.
+	 */
+	public static final int DEFAULT_MAX_PACKS = 100_000;
+
+	/**
+	 * The number of rarities.
+	 */
+	protected static final int RARITIES = Rarity.values().length;
+
+	/**
+	 * The result of a single trial.
+	 */
+	public static class Trial {
+
+		protected final int packs;
+
+		protected final int cards;
+
+		protected final int duplicates;
+
+		protected final boolean complete;
+
+		protected final int[] rarityPacks;
+
+		/**
+		 * Creates a new trial result.
+		 * @param packs the number of opened packs
+		 * @param cards the number of opened cards
+		 * @param duplicates the number of opened cards that were already collected
+		 * @param complete if the collection was completed
+		 * @param rarityPacks the number of packs after which each rarity was complete, indexed by ordinal
+		 */
+		protected Trial(int packs, int cards, int duplicates, boolean complete, int[] rarityPacks) {
+			this.packs = packs;
+			this.cards = cards;
+			this.duplicates = duplicates;
+			this.complete = complete;
+			this.rarityPacks = rarityPacks;
+		}
+
+		/**
+		 * Returns the number of packs opened until the collection was complete or the maximum was reached.
+		 * @return the number of opened packs
+		 */
+		public int getPacks() {
+			return packs;
+		}
+
+		/**
+		 * Returns the number of cards opened.
+		 * @return the number of opened cards
+		 */
+		public int getCards() {
+			return cards;
+		}
+
+		/**
+		 * Returns the number of opened cards that were already collected.
+		 * @return the number of duplicates
+		 */
+		public int getDuplicates() {
+			return duplicates;
+		}
+
+		/**
+		 * Returns if the collection was completed within the maximum number of packs.
+		 * @return <code>true</code> if the collection was completed, else <code>false</code>
+		 */
+		public boolean isComplete() {
+			return complete;
+		}
+
+		/**
+		 * Returns the number of packs after which all obtainable cards of a rarity were collected.
+		 * @param rarity the rarity
+		 * @return the number of packs, <code>0</code> if there are no obtainable cards of this rarity
+		 * and <code>-1</code> if the rarity wasn't completed
+		 */
+		public int getPacks(Rarity rarity) {
+			return rarityPacks[rarity.ordinal()];
+		}
+
+	}
+
+	/**
+	 * The summary of many trials. The percentiles are computed by the nearest rank method.
+	 */
+	public class Summary {
+
+		protected int trials = 0;
+
+		protected int completed = 0;
+
+		protected long packs = 0L;
+
+		protected long duplicates = 0L;
+
+		/**
+		 * The packs of every trial, only the first {@link #trials} entries are valid.
+		 */
+		protected int[] trialPacks = new int[16];
+
+		/**
+		 * The packs per rarity of every trial, only the first {@link #trials} entries are valid.
+		 */
+		protected int[][] trialRarityPacks = new int[RARITIES][16];
+
+		protected boolean sorted = true;
+
+		/**
+		 * Adds a trial to this summary.
+		 * @param trial the trial to add
+		 */
+		protected void add(Trial trial) {
+			if (trials == trialPacks.length) {
+				trialPacks = Arrays.copyOf(trialPacks, 2 * trials);
+				for (int rarity = 0; rarity < RARITIES; rarity++)
+					trialRarityPacks[rarity] = Arrays.copyOf(trialRarityPacks[rarity], 2 * trials);
+			}
+			trialPacks[trials] = trial.packs;
+			for (int rarity = 0; rarity < RARITIES; rarity++)
+				trialRarityPacks[rarity][trials] = trial.rarityPacks[rarity];
+			trials++;
+			packs += trial.packs;
+			duplicates += trial.duplicates;
+			if (trial.complete)
+				completed++;
+			sorted = false;
+		}
+
+		/**
+		 * Adds all trials of another summary to this summary.
+		 * @param other the summary to add
+		 */
+		protected void combine(Summary other) {
+			int size = trials + other.trials;
+			trialPacks = Arrays.copyOf(trialPacks, Math.max(size, trialPacks.length));
+			System.arraycopy(other.trialPacks, 0, trialPacks, trials, other.trials);
+			for (int rarity = 0; rarity < RARITIES; rarity++) {
+				trialRarityPacks[rarity] = Arrays.copyOf(trialRarityPacks[rarity], Math.max(size, trialRarityPacks[rarity].length));
+				System.arraycopy(other.trialRarityPacks[rarity], 0, trialRarityPacks[rarity], trials, other.trials);
+			}
+			trials = size;
+			completed += other.completed;
+			packs += other.packs;
+			duplicates += other.duplicates;
+			sorted = false;
+		}
+
+		/**
+		 * Sorts the trial data for the percentiles if necessary.
+		 */
+		protected void sort() {
+			if (sorted)
+				return;
+			Arrays.sort(trialPacks, 0, trials);
+			for (int rarity = 0; rarity < RARITIES; rarity++)
+				Arrays.sort(trialRarityPacks[rarity], 0, trials);
+			sorted = true;
+		}
+
+		/**
+		 * Returns the entry at the nearest rank of the percentile.
+		 * @param values the sorted values
+		 * @param percentile the percentile between 0 and 100
+		 * @return the entry at the nearest rank
+		 */
+		protected int percentile(int[] values, double percentile) {
+			if (percentile < 0 || percentile > 100)
+				throw new IllegalArgumentException("The percentile must be between 0 and 100!");
+			if (trials == 0)
+				return 0;
+			sort();
+			int rank = (int)Math.ceil(percentile / 100d * trials);
+			return values[Math.max(0, rank - 1)];
+		}
+
+		/**
+		 * Returns the booster this summary is for.
+		 * @return the booster this summary is for
+		 */
+		public Booster<T> getBooster() {
+			return booster;
+		}
+
+		public int getTrials() {
+			return trials;
+		}
+
+		/**
+		 * Returns the fraction of trials that completed the collection within the maximum number of packs.
+		 * @return the fraction of complete trials
+		 */
+		public double getCompletionRate() {
+			return completed / (double)trials;
+		}
+
+		/**
+		 * Returns the average number of packs until the collection is complete.
+		 * @return the expected number of packs
+		 */
+		public double getExpectedPacks() {
+			return packs / (double)trials;
+		}
+
+		/**
+		 * Returns the average gold cost until the collection is complete.
+		 * @return the expected gold cost
+		 * @see Booster#getValueGold()
+		 */
+		public double getExpectedGold() {
+			return getExpectedPacks() * booster.getValueGold();
+		}
+
+		/**
+		 * Returns the average number of duplicate cards until the collection is complete.
+		 * @return the expected number of duplicates
+		 */
+		public double getExpectedDuplicates() {
+			return duplicates / (double)trials;
+		}
+
+		/**
+		 * Returns the number of packs needed to complete the collection in the specified percentile of trials.
+		 * Incomplete trials count with the maximum number of packs.
+		 * @param percentile the percentile between 0 and 100
+		 * @return the number of packs at this percentile
+		 * @throws IllegalArgumentException If <code>percentile</code> isn't between 0 and 100.
+		 */
+		public int getPacksPercentile(double percentile) {
+			return percentile(trialPacks, percentile);
+		}
+
+		/**
+		 * Returns the number of packs needed to collect all cards of a rarity in the specified percentile of trials.
+		 * @param rarity the rarity
+		 * @param percentile the percentile between 0 and 100
+		 * @return the number of packs at this percentile, <code>-1</code> if the rarity wasn't completed in this percentile
+		 * @throws NullPointerException If <code>rarity</code> refers to <code>null</code>.
+		 * @throws IllegalArgumentException If <code>percentile</code> isn't between 0 and 100.
+		 */
+		public int getRarityPercentile(Rarity rarity, double percentile) {
+			Utilities.requireNonNull(rarity, "rarity");
+			if (percentile < 0 || percentile > 100)
+				throw new IllegalArgumentException("The percentile must be between 0 and 100!");
+			if (trials == 0)
+				return 0;
+			sort();
+			int[] values = trialRarityPacks[rarity.ordinal()];
+			// incomplete trials are sorted to the front as -1, but belong to the back
+			int incomplete = 0;
+			while (incomplete < trials && values[incomplete] == -1)
+				incomplete++;
+			int rank = Math.max(1, (int)Math.ceil(percentile / 100d * trials));
+			return rank > trials - incomplete ? -1 : values[incomplete + rank - 1];
+		}
+
+		/**
+		 * Returns a report of this summary with the median and the 90th and 99th percentile.
+		 * @return a report of this summary
+		 */
+		@Override
+		public String toString() {
+			StringBuilder s = new StringBuilder();
+			s.append(String.format("%s: %d obtainable cards, %d trials, %.1f%% complete, %.1f packs (%.0f gold) and %.1f duplicates expected, packs p50/p90/p99 %d/%d/%d",
+					booster.getId(), obtainable.size(), trials, 100d * getCompletionRate(), getExpectedPacks(), getExpectedGold(), getExpectedDuplicates(),
+					getPacksPercentile(50), getPacksPercentile(90), getPacksPercentile(99)));
+			for (Rarity rarity : Rarity.values())
+				if (rarityCounts[rarity.ordinal()] > 0)
+					s.append(String.format(", %s %d/%d/%d", rarity.getName(),
+							getRarityPercentile(rarity, 50), getRarityPercentile(rarity, 90), getRarityPercentile(rarity, 99)));
+			return s.toString();
+		}
+
+	}
+
+	protected final Booster<T> booster;
+
+	protected final int maxPacks;
+
+	/**
+	 * The cards obtainable from the booster, i.e. in a pool with a positive weight in any distribution.
+	 */
+	protected final List<T> obtainable;
+
+	/**
+	 * The rarity ordinal of each obtainable card, <code>-1</code> for none.
+	 */
+	protected final int[] cardRarities;
+
+	/**
+	 * The number of obtainable cards per rarity ordinal.
+	 */
+	protected final int[] rarityCounts;
+
+	/**
+	 * Maps the cards of each pool of the booster to their index in {@link #obtainable}, <code>-1</code> if the pool is never drawn.
+	 */
+	protected final int[][] poolIndices;
+
+	/**
+	 * Creates a new booster simulation.
+	 * @param booster the booster to open
+	 * @param maxPacks the maximum number of packs per trial
+	 * @throws NullPointerException If <code>booster</code> refers to <code>null</code>.
+	 * @throws IllegalArgumentException If <code>maxPacks</code> isn't positive.
+	 */
+	public BoosterSimulation(Booster<T> booster, int maxPacks) {
+		Utilities.requireNonNull(booster, "booster");
+		if (maxPacks <= 0)
+			throw new IllegalArgumentException("maxPacks must be positive!");
+		this.booster = booster;
+		this.maxPacks = maxPacks;
+		boolean[] drawn = new boolean[RARITIES + 1];
+		for (Map<Rarity, Integer> distribution : booster.getDistributions())
+			for (Entry<Rarity, Integer> entry : distribution.entrySet())
+				if (entry.getValue() != null && entry.getValue() > 0)
+					drawn[Booster.outcomeIndex(entry.getKey())] = true;
+		Map<T, Integer> indices = new IdentityHashMap<>();
+		List<T> obtainable = new ArrayList<>();
+		poolIndices = new int[RARITIES + 1][];
+		for (int pool = 0; pool <= RARITIES; pool++) {
+			List<T> cards = booster.pools.get(pool);
+			poolIndices[pool] = new int[cards.size()];
+			for (int index = 0; index < cards.size(); index++) {
+				if (!drawn[pool]) {
+					poolIndices[pool][index] = -1;
+					continue;
+				}
+				Integer cardIndex = indices.get(cards.get(index));
+				if (cardIndex == null) {
+					cardIndex = obtainable.size();
+					indices.put(cards.get(index), cardIndex);
+					obtainable.add(cards.get(index));
+				}
+				poolIndices[pool][index] = cardIndex;
+			}
+		}
+		this.obtainable = obtainable;
+		cardRarities = new int[obtainable.size()];
+		rarityCounts = new int[RARITIES];
+		for (int index = 0; index < cardRarities.length; index++) {
+			Rarity rarity = obtainable.get(index).getRarity();
+			cardRarities[index] = rarity == null ? -1 : rarity.ordinal();
+			if (rarity != null)
+				rarityCounts[rarity.ordinal()]++;
+		}
+	}
+
+	/**
+	 * Creates a new booster simulation with the {@link #DEFAULT_MAX_PACKS}.
+	 * @param booster the booster to open
+	 * @throws NullPointerException If <code>booster</code> refers to <code>null</code>.
+	 */
+	public BoosterSimulation(Booster<T> booster) {
+		this(booster, DEFAULT_MAX_PACKS);
+	}
+
+	/**
+	 * Returns the number of cards obtainable from the booster.
+	 * @return the number of obtainable cards
+	 */
+	public int getObtainableCount() {
+		return obtainable.size();
+	}
+
+	/**
+	 * Opens packs until all obtainable cards are collected or the maximum number of packs is reached.
+	 * @param rng the random number generator for opening the packs
+	 * @return the result of this trial
+	 * @throws NullPointerException If <code>rng</code> refers to <code>null</code>.
+	 */
+	public Trial runTrial(SplittableRandom rng) {
+		Utilities.requireNonNull(rng, "rng");
+		final int slots = booster.packSize();
+		boolean[] owned = new boolean[obtainable.size()];
+		int[] missing = Arrays.copyOf(rarityCounts, RARITIES);
+		int[] rarityPacks = new int[RARITIES];
+		for (int rarity = 0; rarity < RARITIES; rarity++)
+			rarityPacks[rarity] = missing[rarity] == 0 ? 0 : -1;
+		int missingTotal = owned.length;
+		int packs = 0;
+		int cards = 0;
+		while (missingTotal > 0 && packs < maxPacks) {
+			packs++;
+			for (int slot = 0; slot < slots; slot++) {
+				int pool = booster.drawPool(slot, rng);
+				int[] indices = poolIndices[pool];
+				int card = indices[rng.nextInt(indices.length)];
+				cards++;
+				if (owned[card])
+					continue;
+				owned[card] = true;
+				missingTotal--;
+				int rarity = cardRarities[card];
+				if (rarity != -1 && --missing[rarity] == 0)
+					rarityPacks[rarity] = packs;
+			}
+		}
+		return new Trial(packs, cards, cards - (owned.length - missingTotal), missingTotal == 0, rarityPacks);
+	}
+
+	/**
+	 * Returns a parallel stream of trials. Trial <code>i</code> is seeded with <code>seed + i</code>.
+	 * @param count the number of trials
+	 * @param seed the seed the random number generators of the trials are derived from
+	 * @return a parallel stream of <code>count</code> trials
+	 * @throws IllegalArgumentException If <code>count</code> is negative.
+	 */
+	public Stream<Trial> trials(int count, long seed) {
+		if (count < 0)
+			throw new IllegalArgumentException("count cannot be negative!");
+		return IntStream.range(0, count).parallel().mapToObj(trial -> runTrial(new SplittableRandom(seed + trial)));
+	}
+
+	/**
+	 * Runs the specified number of trials in parallel and summarises them. The same seed always leads to the same summary.
+	 * @param count the number of trials
+	 * @param seed the seed the random number generators of the trials are derived from
+	 * @return the summary of the trials
+	 * @throws IllegalArgumentException If <code>count</code> is negative.
+	 * @see #trials(int, long)
+	 */
+	public Summary simulate(int count, long seed) {
+		return trials(count, seed).collect(Summary::new, Summary::add, Summary::combine);
+	}
+
+	/**
+	 * Simulates the basic, gold and diamond booster of every fandom in {@link FandomBase#FANDOMS} with at least one character.
+	 * @param count the number of trials per booster
+	 * @param seed the seed the random number generators of the trials are derived from
+	 * @return a mapping from the booster IDs to the summaries
+	 * @throws IllegalArgumentException If <code>count</code> is negative.
+	 */
+	public static Map<String, BoosterSimulation<CharacterBase>.Summary> simulateFandoms(int count, long seed) {
+		Map<String, BoosterSimulation<CharacterBase>.Summary> summaries = new LinkedHashMap<>();
+		FandomBase.FANDOMS.stream()
+				.filter(fandom -> !fandom.collectAssociatedCharacters().isEmpty())
+				.sorted((fandom1, fandom2) -> fandom1.getId().compareTo(fandom2.getId()))
+				.forEach(fandom -> {
+					List<Booster<CharacterBase>> boosters = Arrays.asList(Booster.createBoosterBasic(fandom),
+							Booster.createBoosterGold(fandom), Booster.createBoosterDiamond(fandom));
+					for (Booster<CharacterBase> booster : boosters)
+						summaries.put(booster.getId(), new BoosterSimulation<>(booster).simulate(count, seed));
+				});
+		return summaries;
+	}
+
+}
@@ -1,10 +1,10 @@
 package org.abos.sc.core.cards;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 
@@ -90,10 +90,10 @@ public interface Card extends Id, Name, Valuable {
 	
 	public static <T extends Card> Map<Rarity, Collection<T>> toRarityMap(Iterable<T> cards) {
 		Utilities.requireNonNull(cards, "cards");
-		Map<Rarity, Collection<T>> map = new EnumMap<>(Rarity.class);
-		map.put(null, new LinkedList<>());
+		Map<Rarity, Collection<T>> map = new HashMap<>(); // EnumMap doesn't permit the null key
+		map.put(null, new ArrayList<>());
 		for (Rarity rarity : Rarity.values()) {
-			map.put(rarity, new LinkedList<>());
+			map.put(rarity, new ArrayList<>());
 		}
 		// add all cards
 		Iterator<T> it = cards.iterator();
@@ -1,6 +1,5 @@
 package org.abos.sc.core.cards;
 
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
@@ -12,12 +11,13 @@ import org.abos.sc.core.CharacterBase;
 import org.abos.util.AbstractNamedComparator;
 
 /**
- * A player AI for card games
+ * A player AI for card games. It can either be used by a threaded {@link Quartett}, where each decision is delayed by the wait time,
+ * or by a {@link FastQuartett}, where it decides immediately.
  * @author Sebastian Koch
  * @version %I%
  * @since 0.7
  */
-public class CardPlayerAi<T extends Card> extends AbstractCardPlayer<T> {
+public class CardPlayerAi<T extends Card> extends AbstractCardPlayer<T> implements SynchronousQuartettPlayer<T> {
 	
 	protected final static ExecutorService EXECUTOR = Executors.newSingleThreadExecutor();
 	
@@ -29,31 +29,46 @@ public class CardPlayerAi<T extends Card> extends AbstractCardPlayer<T> {
 		super(initialDeck);
 		if (waitTime < 0)
 			throw new IllegalArgumentException("waitTime cannot be negative!");
+		this.waitTime = waitTime;
 		this.tieRounds = tieRounds;
 	}
 	
+	/**
+	 * Returns the index of the first comparator with the specified name.
+	 * @param comparators the comparators to search
+	 * @param name the name to search for
+	 * @return the index of the comparator or <code>-1</code> if there is none with this name
+	 */
+	protected static int indexOf(List<? extends AbstractNamedComparator<?>> comparators, String name) {
+		for (int index = 0; index < comparators.size(); index++)
+			if (comparators.get(index).getName().equals(name))
+				return index;
+		return -1;
+	}
+	
+	@Override
 	public int chooseImmediately(T card, List<AbstractNamedComparator<T>> comparators) {
-		List<String> comparatorNames = new ArrayList<>(comparators.size());
-		for (AbstractNamedComparator<T> comp : comparators)
-			comparatorNames.add(comp.getName());
-		if (card.getRarity() == Rarity.LEGENDARY && comparatorNames.contains(Rarity.DISPLAY_NAME))
-			return comparatorNames.indexOf(Rarity.DISPLAY_NAME);
+		int index;
+		if (card.getRarity() == Rarity.LEGENDARY && (index = indexOf(comparators, Rarity.DISPLAY_NAME)) != -1)
+			return index;
 		if (!(card instanceof CharacterBase)) {
 			return 0; // because we don't know how to handle it
 		}
-		CharacterBase character = (CharacterBase)card;
-		
-		
-		if (comparatorNames.contains(ChallengeRatable.DISPLAY_NAME))
-			return comparatorNames.indexOf(ChallengeRatable.DISPLAY_NAME);
+		if ((index = indexOf(comparators, ChallengeRatable.DISPLAY_NAME)) != -1)
+			return index;
 		return 0; // because we are out of ideas of how to handle it
 	}
 	
+	@Override
+	public boolean offerTieImmediately(int rounds) {
+		return tieRounds <= rounds;
+	}
+	
 	@Override
 	public Future<Boolean> offerTie(int rounds) {
 		return EXECUTOR.submit(() -> {
 			Thread.sleep(waitTime);
-			return tieRounds <= rounds;
+			return offerTieImmediately(rounds);
 		});
 	}
 	
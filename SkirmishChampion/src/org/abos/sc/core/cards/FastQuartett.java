@@ -0,0 +1,438 @@
+package org.abos.sc.core.cards;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import org.abos.util.AbstractNamedComparator;
+import org.abos.util.Utilities;
+
+/**
+ * A synchronous quartett engine for simulations, e.g. for AI tuning and deck statistics. Unlike {@link Quartett} it
+ * doesn't need a thread of its own: The players are {@link SynchronousQuartettPlayer}s and decide inline, the stacks
+ * are ring buffers of card ordinals and the comparators are evaluated once per card on creation. The rounds are played
+ * as in {@link Quartett}: The start player chooses the comparator, the player with the unique highest card wins all cards
+ * of the round as well as the tie pile and starts the next round. If there is no unique highest card, the cards go to the tie pile.
+ * <p>
+ * Unlike {@link Quartett}, a game can also end in a {@link #TIE}, so results are not comparable to {@link Quartett} games:
+ * <ul>
+ * <li>After every round ending in a tie, all remaining players are asked via 
+ * {@link SynchronousQuartettPlayer#offerTieImmediately(int)} if they agree to end the game in a tie.</li>
+ * <li>A game that isn't decided after the maximum number of rounds given on creation,
+ * {@link #DEFAULT_MAX_ROUNDS} by default, ends in a tie, while {@link Quartett} plays on until
+ * a single player is left.</li>
+ * </ul>
+ * The game can be {@link #play(SplittableRandom) played} many times, statistics about the rules and cards are accumulated.
+ * @author Sebastian Koch
+ * @version %I%
+ * @param <T> the type of the cards being played with
+ * @since 0.7
+ * @see #play(SplittableRandom)
+ */
+public class FastQuartett<T extends Card> {
+
+	/**
+	 * The default maximum number of rounds of a single game, after which it ends in a tie.
+	 */
+	public static final int DEFAULT_MAX_ROUNDS = 1_000;
+
+	/**
+	 * Indicates that a game ended in a tie.
+	 * @see #play(SplittableRandom)
+	 */
+	public static final int TIE = -1;
+
+	protected final List<SynchronousQuartettPlayer<T>> players;
+
+	protected final List<AbstractNamedComparator<T>> immutableRules;
+
+	/**
+	 * The distinct cards of all players, the index of a card is its ordinal.
+	 */
+	protected final List<T> cards;
+
+	/**
+	 * The initial deck of each player as card ordinals.
+	 */
+	protected final int[][] decks;
+
+	/**
+	 * The rank of each card ordinal for each rule. A card beats another card under a rule if and only if its rank is higher.
+	 */
+	protected final int[][] ranks;
+
+	/**
+	 * The maximum number of rounds of a single game.
+	 */
+	protected final int maxRounds;
+
+	/**
+	 * The ring buffers of the players, their capacity is a power of two.
+	 */
+	protected final int[][] stacks;
+
+	protected final int[] heads;
+
+	protected final int[] sizes;
+
+	protected final int[] tiePile;
+
+	protected int tiePileSize = 0;
+
+	/**
+	 * The seats of the players still in the game, in seating order.
+	 */
+	protected final int[] activePlayers;
+
+	protected int activeCount;
+
+	protected int rounds = 0;
+
+	protected int ties = 0;
+
+	protected long games = 0L;
+
+	protected final long[] wins;
+
+	protected long draws = 0L;
+
+	protected final long[] ruleChosen;
+
+	protected final long[] ruleWon;
+
+	protected final long[] cardPlayed;
+
+	protected final long[] cardWon;
+
+	/**
+	 * Creates a new quartett engine with the specified players and rules.
+	 * @param players The players for this game, must be non empty and not contain <code>null</code>. The entries are copied by reference, the list is not.
+	 * @param rules The rules for this game, must be non empty and not contain <code>null</code>. The entries are copied by reference, the iterable is not.
+	 * @param maxRounds the maximum number of rounds of a single game, after which it ends in a tie
+	 * @throws NullPointerException If any parameter or entry refers to <code>null</code>.
+	 * @throws IllegalArgumentException If any parameter contains duplicate entries, if there is no rule,
+	 * if there is no player with a non empty deck or if <code>maxRounds</code> isn't positive.
+	 */
+	public FastQuartett(List<? extends SynchronousQuartettPlayer<T>> players, Collection<AbstractNamedComparator<T>> rules, int maxRounds) {
+		Utilities.requireNonNull(players, "players");
+		Utilities.requireNonNullEntries(players, "players");
+		Utilities.requireNonNull(rules, "rules");
+		Utilities.requireNonNullEntries(rules, "rules");
+		Utilities.requireDifferentEntries(players, "players");
+		Utilities.requireDifferentEntries(rules, "rules");
+		if (rules.isEmpty())
+			throw new IllegalArgumentException("There must be at least one rule!");
+		if (maxRounds <= 0)
+			throw new IllegalArgumentException("maxRounds must be positive!");
+		this.players = Collections.unmodifiableList(new ArrayList<>(players));
+		this.immutableRules = Collections.unmodifiableList(new ArrayList<>(rules));
+		this.maxRounds = maxRounds;
+		// assign the ordinals
+		Map<T, Integer> ordinals = new HashMap<>();
+		List<T> cards = new ArrayList<>();
+		decks = new int[this.players.size()][];
+		int total = 0;
+		for (int seat = 0; seat < decks.length; seat++) {
+			Collection<T> deck = this.players.get(seat).getInitialDeck();
+			Utilities.requireNonNullEntries(deck, "deck");
+			decks[seat] = new int[deck.size()];
+			int index = 0;
+			for (T card : deck) {
+				Integer ordinal = ordinals.get(card);
+				if (ordinal == null) {
+					ordinal = cards.size();
+					ordinals.put(card, ordinal);
+					cards.add(card);
+				}
+				decks[seat][index++] = ordinal;
+			}
+			total += index;
+		}
+		if (total == 0)
+			throw new IllegalArgumentException("There must be at least one player with at least one card!");
+		this.cards = Collections.unmodifiableList(cards);
+		// evaluate the rules once per card
+		ranks = new int[immutableRules.size()][];
+		Integer[] sorted = new Integer[cards.size()];
+		for (int rule = 0; rule < ranks.length; rule++) {
+			AbstractNamedComparator<T> comparator = immutableRules.get(rule);
+			for (int ordinal = 0; ordinal < sorted.length; ordinal++)
+				sorted[ordinal] = ordinal;
+			Arrays.sort(sorted, (o1, o2) -> comparator.compare(cards.get(o1), cards.get(o2)));
+			ranks[rule] = new int[sorted.length];
+			for (int index = 1; index < sorted.length; index++)
+				ranks[rule][sorted[index]] = ranks[rule][sorted[index-1]]
+						+ (comparator.compare(cards.get(sorted[index-1]), cards.get(sorted[index])) < 0 ? 1 : 0);
+		}
+		int capacity = Integer.highestOneBit(Math.max(1, total - 1)) << 1;
+		stacks = new int[decks.length][capacity];
+		heads = new int[decks.length];
+		sizes = new int[decks.length];
+		tiePile = new int[total];
+		activePlayers = new int[decks.length];
+		wins = new long[decks.length];
+		ruleChosen = new long[ranks.length];
+		ruleWon = new long[ranks.length];
+		cardPlayed = new long[cards.size()];
+		cardWon = new long[cards.size()];
+	}
+
+	/**
+	 * Creates a new quartett engine with the specified players and rules and the {@link #DEFAULT_MAX_ROUNDS}.
+	 * @param players The players for this game, must be non empty and not contain <code>null</code>. The entries are copied by reference, the list is not.
+	 * @param rules The rules for this game, must be non empty and not contain <code>null</code>. The entries are copied by reference, the iterable is not.
+	 * @throws NullPointerException If any parameter or entry refers to <code>null</code>.
+	 * @throws IllegalArgumentException If any parameter contains duplicate entries, if there is no rule or
+	 * if there is no player with a non empty deck.
+	 */
+	public FastQuartett(List<? extends SynchronousQuartettPlayer<T>> players, Collection<AbstractNamedComparator<T>> rules) {
+		this(players, rules, DEFAULT_MAX_ROUNDS);
+	}
+
+	/**
+	 * Plays a single game. The decks of the players are shuffled with the specified random number generator.
+	 * @param rng the random number generator for shuffling
+	 * @return the seat of the winner, i.e. the index in the list of players, or {@link #TIE}
+	 * @throws NullPointerException If <code>rng</code> refers to <code>null</code>.
+	 * @throws IndexOutOfBoundsException If a player chooses an invalid rule.
+	 */
+	public int play(SplittableRandom rng) {
+		Utilities.requireNonNull(rng, "rng");
+		setUp(rng);
+		int start = activePlayers[0];
+		int consecutiveTies = 0;
+		int[] played = new int[decks.length];
+		while (activeCount > 1 && rounds < maxRounds) {
+			rounds++;
+			// start player decides on category
+			int rule = players.get(start).chooseImmediately(cards.get(stacks[start][heads[start]]), immutableRules);
+			if (rule < 0 || rule >= ranks.length)
+				throw new IndexOutOfBoundsException("Player "+start+" chose the invalid rule "+rule+"!");
+			int[] rank = ranks[rule];
+			ruleChosen[rule]++;
+			// take next card of each player and find out the winner of this round
+			int maxIndex = 0;
+			boolean tie = false;
+			for (int index = 0; index < activeCount; index++) {
+				played[index] = poll(activePlayers[index]);
+				cardPlayed[played[index]]++;
+				if (index == 0)
+					continue;
+				if (rank[played[maxIndex]] < rank[played[index]]) {
+					maxIndex = index;
+					tie = false;
+				}
+				else if (rank[played[maxIndex]] == rank[played[index]])
+					tie = true;
+			}
+			// give the cards to the winner or to the tie pile
+			if (tie) {
+				System.arraycopy(played, 0, tiePile, tiePileSize, activeCount);
+				tiePileSize += activeCount;
+				ties++;
+				consecutiveTies++;
+			}
+			else {
+				int winner = activePlayers[maxIndex];
+				cardWon[played[maxIndex]]++;
+				if (winner == start)
+					ruleWon[rule]++;
+				for (int index = 0; index < activeCount; index++)
+					offer(winner, played[index]);
+				for (int index = 0; index < tiePileSize; index++)
+					offer(winner, tiePile[index]);
+				tiePileSize = 0;
+				start = winner;
+				consecutiveTies = 0;
+			}
+			start = removeDefeatedPlayers(start);
+			if (tie && activeCount > 1 && agreeOnTie(consecutiveTies))
+				break;
+		}
+		games++;
+		if (activeCount == 1) {
+			wins[activePlayers[0]]++;
+			return activePlayers[0];
+		}
+		draws++;
+		return TIE;
+	}
+
+	/**
+	 * Fills and shuffles the stacks and resets the state of the last game.
+	 * @param rng the random number generator for shuffling
+	 */
+	protected void setUp(SplittableRandom rng) {
+		activeCount = 0;
+		for (int seat = 0; seat < decks.length; seat++) {
+			int[] stack = stacks[seat];
+			int size = decks[seat].length;
+			System.arraycopy(decks[seat], 0, stack, 0, size);
+			for (int index = size - 1; index > 0; index--) {
+				int other = rng.nextInt(index + 1);
+				int swap = stack[index];
+				stack[index] = stack[other];
+				stack[other] = swap;
+			}
+			heads[seat] = 0;
+			sizes[seat] = size;
+			if (size > 0)
+				activePlayers[activeCount++] = seat;
+		}
+		tiePileSize = 0;
+		rounds = 0;
+		ties = 0;
+	}
+
+	/**
+	 * Takes the top card from the stack of a player.
+	 * @param seat the seat of the player
+	 * @return the ordinal of the card
+	 */
+	protected int poll(int seat) {
+		int card = stacks[seat][heads[seat]];
+		heads[seat] = (heads[seat] + 1) & (stacks[seat].length - 1);
+		sizes[seat]--;
+		return card;
+	}
+
+	/**
+	 * Puts a card at the bottom of the stack of a player.
+	 * @param seat the seat of the player
+	 * @param card the ordinal of the card
+	 */
+	protected void offer(int seat, int card) {
+		stacks[seat][(heads[seat] + sizes[seat]) & (stacks[seat].length - 1)] = card;
+		sizes[seat]++;
+	}
+
+	/**
+	 * Removes the players with empty stacks from the active players.
+	 * @param start the seat of the current start player
+	 * @return the seat of the start player, which is the next active player if the current one was removed
+	 */
+	protected int removeDefeatedPlayers(int start) {
+		int count = 0;
+		int nextStart = -1;
+		for (int index = 0; index < activeCount; index++) {
+			int seat = activePlayers[index];
+			if (sizes[seat] > 0) {
+				activePlayers[count++] = seat;
+				if (nextStart == -1 && seat >= start)
+					nextStart = seat;
+			}
+		}
+		activeCount = count;
+		if (nextStart == -1 && count > 0)
+			nextStart = activePlayers[0];
+		return nextStart;
+	}
+
+	/**
+	 * Asks all active players if they agree to end the game in a tie.
+	 * @param consecutiveTies the number of consecutive rounds that ended in a tie
+	 * @return <code>true</code> if all active players agree, else <code>false</code>
+	 */
+	protected boolean agreeOnTie(int consecutiveTies) {
+		for (int index = 0; index < activeCount; index++)
+			if (!players.get(activePlayers[index]).offerTieImmediately(consecutiveTies))
+				return false;
+		return true;
+	}
+
+	public List<SynchronousQuartettPlayer<T>> getPlayers() {
+		return players;
+	}
+
+	public List<AbstractNamedComparator<T>> getRules() {
+		return immutableRules;
+	}
+
+	/**
+	 * Returns the distinct cards of all players. The index of a card is its ordinal in the statistics.
+	 * @return the distinct cards of all players, not modifyable
+	 */
+	public List<T> getCards() {
+		return cards;
+	}
+
+	/**
+	 * Returns the number of rounds of the last game.
+	 * @return the number of rounds of the last game
+	 */
+	public int getRounds() {
+		return rounds;
+	}
+
+	/**
+	 * Returns the number of rounds of the last game that ended in a tie.
+	 * @return the number of tie rounds of the last game
+	 */
+	public int getTies() {
+		return ties;
+	}
+
+	/**
+	 * Returns the number of games played so far.
+	 * @return the number of games played so far
+	 */
+	public long getGames() {
+		return games;
+	}
+
+	/**
+	 * Returns the number of games won by the specified player.
+	 * @param seat the seat of the player, i.e. the index in the list of players
+	 * @return the number of games won by the player
+	 * @throws ArrayIndexOutOfBoundsException If <code>seat</code> is out of bounds.
+	 */
+	public long getWins(int seat) {
+		return wins[seat];
+	}
+
+	/**
+	 * Returns the number of games that ended in a tie.
+	 * @return the number of games that ended in a tie
+	 */
+	public long getDraws() {
+		return draws;
+	}
+
+	/**
+	 * Returns how often each rule was chosen, indexed like {@link #getRules()}.
+	 * @return how often each rule was chosen
+	 */
+	public long[] getRuleChosen() {
+		return Arrays.copyOf(ruleChosen, ruleChosen.length);
+	}
+
+	/**
+	 * Returns how often the player choosing each rule won the round, indexed like {@link #getRules()}.
+	 * @return how often each rule won for the player choosing it
+	 */
+	public long[] getRuleWon() {
+		return Arrays.copyOf(ruleWon, ruleWon.length);
+	}
+
+	/**
+	 * Returns how often each card was played, indexed like {@link #getCards()}.
+	 * @return how often each card was played
+	 */
+	public long[] getCardPlayed() {
+		return Arrays.copyOf(cardPlayed, cardPlayed.length);
+	}
+
+	/**
+	 * Returns how often each card won a round, indexed like {@link #getCards()}.
+	 * @return how often each card won a round
+	 */
+	public long[] getCardWon() {
+		return Arrays.copyOf(cardWon, cardWon.length);
+	}
+
+}
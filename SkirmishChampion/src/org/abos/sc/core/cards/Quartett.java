@@ -16,7 +16,8 @@ import org.abos.util.AbstractNamedComparator;
 import org.abos.util.Utilities;
 
 /**
- * 
+ * A game of quartett in a thread of its own, e.g. between a human player and an AI. The players decide asynchronously.
+ * For simulations between AI players see {@link FastQuartett}.
  * @author Sebastian Koch
  * @version %I%
  * @param <T> the type of the cards being played with
@@ -34,7 +35,7 @@ public class Quartett<T extends Card> extends Thread {
 	
 	protected QuartettPlayer<T> startPlayer;
 	
-	protected final List<T> tiePile = new LinkedList<>();
+	protected final List<T> tiePile = new ArrayList<>();
 	
 	protected boolean gameAborted = false;
 	
@@ -115,8 +116,14 @@ public class Quartett<T extends Card> extends Thread {
 		else {
 			startPlayer = activePlayers.get(maxIndex);
 			startPlayer.getCurrentStack().addAll(cards);
+			startPlayer.getCurrentStack().addAll(tiePile);
+			tiePile.clear();
 		}
+		int startIndex = players.indexOf(startPlayer);
 		removeDefeatedPlayers();
+		// if the start player is out after a tie, the next player in seating order starts
+		for (int offset = 0; offset < players.size() && !activePlayers.isEmpty() && !activePlayers.contains(startPlayer); offset++)
+			startPlayer = players.get((startIndex + offset) % players.size());
 	}
 	
 	@Override
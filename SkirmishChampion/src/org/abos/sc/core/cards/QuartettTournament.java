@@ -0,0 +1,434 @@
+package org.abos.sc.core.cards;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.SplittableRandom;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.abos.sc.core.ChallengeRatable;
+import org.abos.sc.core.CharacterBase;
+import org.abos.sc.core.FandomBase;
+import org.abos.sc.core.StatsPrimary;
+import org.abos.util.AbstractNamedComparator;
+import org.abos.util.Utilities;
+
+/**
+ * Plays many games of quartett between decks on all cores, using {@link FastQuartett}. Every pair of decks
+ * plays the same number of games, half of them with swapped seats. Each game is shuffled by a random number generator
+ * seeded on its own, so the results only depend on the seed and not on the scheduling of the threads.
+ * @author Sebastian Koch
+ * @version %I%
+ * @param <T> the type of the cards being played with
+ * @since 0.7
+ * @see #play(int, long)
+ */
+public class QuartettTournament<T extends Card> {
+
+	/**
+	 * After how many consecutive tie rounds the default players agree to a tie.
+	 */
+	public static final int DEFAULT_TIE_ROUNDS = 3;
+
+	/**
+	 * How many games of a pairing are played by a single task.
+	 */
+	protected static final int GAMES_PER_TASK = 256;
+
+	/**
+	 * The results of a tournament. Win rates are <code>NaN</code> if there is no data.
+	 */
+	public class Result {
+
+		protected final long[] deckWins = new long[decks.size()];
+
+		protected final long[] deckDraws = new long[decks.size()];
+
+		protected final long[] deckGames = new long[decks.size()];
+
+		protected final long[] ruleChosen = new long[rules.size()];
+
+		protected final long[] ruleWon = new long[rules.size()];
+
+		protected final long[] cardPlayed = new long[cards.size()];
+
+		protected final long[] cardWon = new long[cards.size()];
+
+		protected long games = 0L;
+
+		protected long rounds = 0L;
+
+		protected long duration = 0L;
+
+		/**
+		 * Adds the statistics of an engine to this result.
+		 * @param engine the engine to add
+		 * @param seats the deck indices of the players of the engine
+		 * @param engineRounds the number of rounds of all games of the engine
+		 */
+		protected synchronized void merge(FastQuartett<T> engine, int[] seats, long engineRounds) {
+			for (int seat = 0; seat < seats.length; seat++) {
+				deckWins[seats[seat]] += engine.getWins(seat);
+				deckDraws[seats[seat]] += engine.getDraws();
+				deckGames[seats[seat]] += engine.getGames();
+			}
+			long[] chosen = engine.getRuleChosen();
+			long[] won = engine.getRuleWon();
+			for (int rule = 0; rule < chosen.length; rule++) {
+				ruleChosen[rule] += chosen[rule];
+				ruleWon[rule] += won[rule];
+			}
+			long[] played = engine.getCardPlayed();
+			won = engine.getCardWon();
+			List<T> engineCards = engine.getCards();
+			for (int ordinal = 0; ordinal < played.length; ordinal++) {
+				int index = cardIndices.get(engineCards.get(ordinal));
+				cardPlayed[index] += played[ordinal];
+				cardWon[index] += won[ordinal];
+			}
+			games += engine.getGames();
+			rounds += engineRounds;
+		}
+
+		/**
+		 * Returns the number of games played.
+		 * @return the number of games played
+		 */
+		public long getGames() {
+			return games;
+		}
+
+		/**
+		 * Returns the average number of rounds per game.
+		 * @return the average number of rounds per game
+		 */
+		public double getAverageRounds() {
+			return rounds / (double)games;
+		}
+
+		/**
+		 * Returns how long the tournament took in milliseconds.
+		 * @return how long the tournament took
+		 */
+		public long getDuration() {
+			return duration;
+		}
+
+		/**
+		 * Returns the fraction of games won by the specified deck.
+		 * @param deck the name of the deck
+		 * @return the win rate of the deck
+		 * @throws IllegalArgumentException If there is no deck with this name.
+		 */
+		public double getDeckWinRate(String deck) {
+			int index = indexOfDeck(deck);
+			return deckWins[index] / (double)deckGames[index];
+		}
+
+		/**
+		 * Returns the fraction of games of the specified deck that ended in a tie.
+		 * @param deck the name of the deck
+		 * @return the draw rate of the deck
+		 * @throws IllegalArgumentException If there is no deck with this name.
+		 */
+		public double getDeckDrawRate(String deck) {
+			int index = indexOfDeck(deck);
+			return deckDraws[index] / (double)deckGames[index];
+		}
+
+		/**
+		 * Returns the fraction of rounds won by the player choosing the specified comparator.
+		 * @param rule the name of the comparator
+		 * @return the win rate of the comparator
+		 * @throws IllegalArgumentException If there is no comparator with this name.
+		 */
+		public double getRuleWinRate(String rule) {
+			for (int index = 0; index < rules.size(); index++)
+				if (rules.get(index).getName().equals(rule))
+					return ruleWon[index] / (double)ruleChosen[index];
+			throw new IllegalArgumentException("Unknown rule "+rule+"!");
+		}
+
+		/**
+		 * Returns how often the specified comparator was chosen.
+		 * @param rule the name of the comparator
+		 * @return how often the comparator was chosen
+		 * @throws IllegalArgumentException If there is no comparator with this name.
+		 */
+		public long getRuleChosen(String rule) {
+			for (int index = 0; index < rules.size(); index++)
+				if (rules.get(index).getName().equals(rule))
+					return ruleChosen[index];
+			throw new IllegalArgumentException("Unknown rule "+rule+"!");
+		}
+
+		/**
+		 * Returns the fraction of rounds won by the specified card.
+		 * @param card the card
+		 * @return the win rate of the card
+		 * @throws IllegalArgumentException If the card isn't in any deck.
+		 */
+		public double getCardWinRate(T card) {
+			Integer index = cardIndices.get(card);
+			if (index == null)
+				throw new IllegalArgumentException("Unknown card "+card+"!");
+			return cardWon[index] / (double)cardPlayed[index];
+		}
+
+		/**
+		 * Returns the round win rates of all cards that were played, from highest to lowest.
+		 * @return a mapping from the cards to their win rates, iterating from the highest win rate
+		 */
+		public Map<T, Double> getCardWinRates() {
+			return IntStream.range(0, cards.size())
+					.filter(index -> cardPlayed[index] > 0)
+					.boxed()
+					.sorted(Comparator.comparingDouble(index -> -cardWon[(int)index] / (double)cardPlayed[(int)index]))
+					.collect(Collectors.toMap(index -> cards.get(index), index -> cardWon[index] / (double)cardPlayed[index],
+							(rate1, rate2) -> rate1, LinkedHashMap::new));
+		}
+
+		/**
+		 * Returns a report of the tournament, with the decks sorted by win rate.
+		 * @return a report of the tournament
+		 */
+		@Override
+		public String toString() {
+			StringBuilder s = new StringBuilder();
+			s.append(String.format("%d games with %.1f rounds on average in %d ms%n", games, getAverageRounds(), duration));
+			IntStream.range(0, decks.size()).boxed()
+					.sorted(Comparator.comparingDouble(index -> -deckWins[(int)index] / (double)deckGames[(int)index]))
+					.forEach(index -> s.append(String.format("%s: %.1f%% won, %.1f%% tied%n", deckNames.get(index),
+							100d * deckWins[index] / deckGames[index], 100d * deckDraws[index] / deckGames[index])));
+			for (int index = 0; index < rules.size(); index++)
+				s.append(String.format("%s: chosen %d times, %.1f%% won%n", rules.get(index).getName(),
+						ruleChosen[index], 100d * ruleWon[index] / ruleChosen[index]));
+			return s.toString();
+		}
+
+	}
+
+	protected final List<String> deckNames;
+
+	protected final List<List<T>> decks;
+
+	protected final List<AbstractNamedComparator<T>> rules;
+
+	protected final Function<Collection<T>, ? extends SynchronousQuartettPlayer<T>> playerFactory;
+
+	/**
+	 * The distinct cards of all decks.
+	 */
+	protected final List<T> cards;
+
+	protected final Map<T, Integer> cardIndices;
+
+	/**
+	 * Creates a new tournament.
+	 * @param decks A mapping from the deck names to the decks, at least two. The decks are copied in the order of iteration.
+	 * @param rules the comparators to play with, not empty
+	 * @param playerFactory creates a player for a deck
+	 * @throws NullPointerException If any parameter or entry refers to <code>null</code>.
+	 * @throws IllegalArgumentException If there are less than two decks or no rules.
+	 */
+	public QuartettTournament(Map<String, ? extends Collection<T>> decks, Collection<AbstractNamedComparator<T>> rules,
+			Function<Collection<T>, ? extends SynchronousQuartettPlayer<T>> playerFactory) {
+		Utilities.requireNonNull(decks, "decks");
+		Utilities.requireNonNull(rules, "rules");
+		Utilities.requireNonNullEntries(rules, "rules");
+		Utilities.requireNonNull(playerFactory, "playerFactory");
+		if (decks.size() < 2)
+			throw new IllegalArgumentException("There must be at least two decks!");
+		if (rules.isEmpty())
+			throw new IllegalArgumentException("There must be at least one rule!");
+		List<String> deckNames = new ArrayList<>(decks.size());
+		List<List<T>> deckList = new ArrayList<>(decks.size());
+		List<T> cards = new ArrayList<>();
+		Map<T, Integer> cardIndices = new HashMap<>();
+		for (Entry<String, ? extends Collection<T>> entry : decks.entrySet()) {
+			Utilities.requireNonNull(entry.getKey(), "deck name");
+			Utilities.requireNonNull(entry.getValue(), "deck");
+			Utilities.requireNonNullEntries(entry.getValue(), "deck");
+			deckNames.add(entry.getKey());
+			deckList.add(Collections.unmodifiableList(new ArrayList<>(entry.getValue())));
+			for (T card : entry.getValue())
+				if (!cardIndices.containsKey(card)) {
+					cardIndices.put(card, cards.size());
+					cards.add(card);
+				}
+		}
+		this.deckNames = Collections.unmodifiableList(deckNames);
+		this.decks = Collections.unmodifiableList(deckList);
+		this.rules = Collections.unmodifiableList(new ArrayList<>(rules));
+		this.playerFactory = playerFactory;
+		this.cards = Collections.unmodifiableList(cards);
+		this.cardIndices = Collections.unmodifiableMap(cardIndices);
+	}
+
+	/**
+	 * Creates a new tournament between {@link CardPlayerAi}s.
+	 * @param decks A mapping from the deck names to the decks, at least two. The decks are copied in the order of iteration.
+	 * @param rules the comparators to play with, not empty
+	 * @throws NullPointerException If any parameter or entry refers to <code>null</code>.
+	 * @throws IllegalArgumentException If there are less than two decks or no rules.
+	 */
+	public QuartettTournament(Map<String, ? extends Collection<T>> decks, Collection<AbstractNamedComparator<T>> rules) {
+		this(decks, rules, deck -> new CardPlayerAi<>(deck, 0, DEFAULT_TIE_ROUNDS));
+	}
+
+	/**
+	 * Returns the index of a deck.
+	 * @param deck the name of the deck
+	 * @return the index of the deck
+	 * @throws IllegalArgumentException If there is no deck with this name.
+	 */
+	protected int indexOfDeck(String deck) {
+		int index = deckNames.indexOf(deck);
+		if (index == -1)
+			throw new IllegalArgumentException("Unknown deck "+deck+"!");
+		return index;
+	}
+
+	public List<String> getDeckNames() {
+		return deckNames;
+	}
+
+	public List<AbstractNamedComparator<T>> getRules() {
+		return rules;
+	}
+
+	/**
+	 * Plays a round robin in parallel, every pair of decks plays the specified number of games.
+	 * The same seed always leads to the same result.
+	 * @param gamesPerPairing how many games every pair of decks plays
+	 * @param seed the seed the random number generators of the games are derived from
+	 * @return the results of the tournament
+	 * @throws IllegalArgumentException If <code>gamesPerPairing</code> isn't positive.
+	 */
+	public Result play(int gamesPerPairing, long seed) {
+		if (gamesPerPairing <= 0)
+			throw new IllegalArgumentException("gamesPerPairing must be positive!");
+		long start = System.nanoTime();
+		List<int[]> pairings = new ArrayList<>();
+		for (int deck1 = 0; deck1 < decks.size(); deck1++)
+			for (int deck2 = deck1 + 1; deck2 < decks.size(); deck2++)
+				pairings.add(new int[] {deck1, deck2});
+		final int tasksPerPairing = (gamesPerPairing + GAMES_PER_TASK - 1) / GAMES_PER_TASK;
+		Result result = new Result();
+		IntStream.range(0, pairings.size() * tasksPerPairing).parallel().forEach(task -> {
+			int pairing = task / tasksPerPairing;
+			int firstGame = (task % tasksPerPairing) * GAMES_PER_TASK;
+			int lastGame = Math.min(gamesPerPairing, firstGame + GAMES_PER_TASK);
+			int[] seats = pairings.get(pairing);
+			int[] swapped = {seats[1], seats[0]};
+			FastQuartett<T> engine = createEngine(seats);
+			FastQuartett<T> swappedEngine = createEngine(swapped);
+			long rounds = 0L, swappedRounds = 0L;
+			for (int game = firstGame; game < lastGame; game++) {
+				SplittableRandom rng = new SplittableRandom(seed + (long)pairing * gamesPerPairing + game);
+				if (game % 2 == 0) {
+					engine.play(rng);
+					rounds += engine.getRounds();
+				}
+				else {
+					swappedEngine.play(rng);
+					swappedRounds += swappedEngine.getRounds();
+				}
+			}
+			result.merge(engine, seats, rounds);
+			result.merge(swappedEngine, swapped, swappedRounds);
+		});
+		result.duration = (System.nanoTime() - start) / 1_000_000;
+		return result;
+	}
+
+	/**
+	 * Plays a separate round robin for every comparator, in which only this comparator is used.
+	 * This shows which decks are strong under which rule.
+	 * @param gamesPerPairing how many games every pair of decks plays for each comparator
+	 * @param seed the seed the random number generators of the games are derived from
+	 * @return a mapping from the comparator names to the results, in the order of the rules
+	 * @throws IllegalArgumentException If <code>gamesPerPairing</code> isn't positive.
+	 * @see #play(int, long)
+	 */
+	public Map<String, Result> playPerRule(int gamesPerPairing, long seed) {
+		Map<String, List<T>> deckMap = new LinkedHashMap<>();
+		for (int index = 0; index < decks.size(); index++)
+			deckMap.put(deckNames.get(index), decks.get(index));
+		Map<String, Result> results = new LinkedHashMap<>();
+		for (AbstractNamedComparator<T> rule : rules)
+			results.put(rule.getName(), new QuartettTournament<>(deckMap, Collections.singletonList(rule), playerFactory).play(gamesPerPairing, seed));
+		return results;
+	}
+
+	/**
+	 * Creates an engine for the specified decks.
+	 * @param seats the deck indices of the players
+	 * @return an engine for the specified decks
+	 */
+	protected FastQuartett<T> createEngine(int[] seats) {
+		List<SynchronousQuartettPlayer<T>> players = new ArrayList<>(seats.length);
+		for (int seat : seats)
+			players.add(playerFactory.apply(decks.get(seat)));
+		return new FastQuartett<>(players, rules);
+	}
+
+	/**
+	 * Creates a deck for every fandom in {@link FandomBase#FANDOMS} with at least one character, sorted by ID.
+	 * The characters of each deck are sorted by ID as well.
+	 * @return a mapping from the fandom IDs to the associated characters
+	 * @see FandomBase#collectAssociatedCharacters()
+	 */
+	public static Map<String, List<CharacterBase>> createFandomDecks() {
+		Map<String, List<CharacterBase>> decks = new LinkedHashMap<>();
+		FandomBase.FANDOMS.stream()
+				.sorted(Comparator.comparing(FandomBase::getId))
+				.forEach(fandom -> {
+					List<CharacterBase> deck = new ArrayList<>(fandom.collectAssociatedCharacters());
+					deck.sort(Comparator.comparing(CharacterBase::getId));
+					if (!deck.isEmpty())
+						decks.put(fandom.getId(), deck);
+				});
+		return decks;
+	}
+
+	/**
+	 * Creates a deck by opening booster packs.
+	 * @param <T> the type of the cards
+	 * @param booster the booster to open
+	 * @param packs how many packs to open
+	 * @param rng the random number generator for opening the packs
+	 * @return a deck with the cards of all opened packs
+	 * @throws NullPointerException If <code>booster</code> or <code>rng</code> refers to <code>null</code>.
+	 */
+	public static <T extends Card> List<T> createBoosterDeck(Booster<T> booster, int packs, SplittableRandom rng) {
+		Utilities.requireNonNull(booster, "booster");
+		Utilities.requireNonNull(rng, "rng");
+		List<T> deck = new ArrayList<>(packs * booster.packSize());
+		for (int pack = 0; pack < packs; pack++)
+			deck.addAll(booster.openPack(rng));
+		return deck;
+	}
+
+	/**
+	 * Creates the comparators for character cards, i.e. rarity, challenge rating and one for each primary stat.
+	 * @return the comparators for character cards
+	 */
+	public static List<AbstractNamedComparator<CharacterBase>> createCharacterRules() {
+		List<AbstractNamedComparator<CharacterBase>> rules = new ArrayList<>();
+		rules.add(Card.createRarityComparator());
+		rules.add(ChallengeRatable.createCRComparator());
+		for (StatsPrimary type : StatsPrimary.values())
+			rules.add(CharacterBase.createPrimaryComparator(type));
+		return rules;
+	}
+
+}
@@ -0,0 +1,40 @@
+package org.abos.sc.core.cards;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.abos.util.AbstractNamedComparator;
+
+/**
+ * A player for quartett that decides immediately, e.g. an AI. Such players can be used by {@link FastQuartett}
+ * to simulate an entire game in the calling thread.
+ * @author Sebastian Koch
+ * @version %I%
+ * @param <T> the type of the cards being played with
+ * @since 0.7
+ * @see QuartettPlayer
+ */
+public interface SynchronousQuartettPlayer<T extends Card> {
+
+	/**
+	 * Returns the initial deck of this player by reference. This collection is not modifyable.
+	 * @return the initial deck of this player, not <code>null</code>
+	 */
+	public Collection<T> getInitialDeck();
+
+	/**
+	 * Decides if this player agrees to end the game in a tie.
+	 * @param rounds the number of consecutive rounds that ended in a tie
+	 * @return <code>true</code> if this player agrees to a tie, else <code>false</code>
+	 */
+	public boolean offerTieImmediately(int rounds);
+
+	/**
+	 * Chooses the comparator for the next round.
+	 * @param card the current card of this player
+	 * @param comparators the comparators to choose from, likely to be immutable
+	 * @return the index of the chosen comparator
+	 */
+	public int chooseImmediately(T card, List<AbstractNamedComparator<T>> comparators);
+
+}
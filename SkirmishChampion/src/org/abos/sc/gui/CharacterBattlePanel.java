@@ -49,6 +49,19 @@ public class CharacterBattlePanel extends JPanel {
 	
 	protected boolean healthVisible = Difficulty.DEFAULT.showCharacterHealth();
 	
+	/**
+	 * The damage version of the character when the health was last displayed.
+	 * @see Character#getDamageVersion()
+	 * @see #refreshHealth()
+	 */
+	protected int shownDamageVersion;
+	
+	/**
+	 * If the damage marker was painted when the health was last displayed.
+	 * @see #refreshHealth()
+	 */
+	protected boolean shownDamage = false;
+	
 	/**
 	 * The panel for the image.
 	 */
@@ -129,8 +142,33 @@ public class CharacterBattlePanel extends JPanel {
 			characterLabel.setToolTipText(null);
 	}
 	
+	/**
+	 * Updates the health label and the damage marker of the image if the damage of the character has changed
+	 * since the last refresh, or if the damage marker has expired. Only the changed components are repainted.
+	 * @return <code>true</code> if anything has been repainted, else <code>false</code>
+	 * @see Character#getDamageVersion()
+	 */
+	public boolean refreshHealth() {
+		boolean damage = imagePanel.paintDamage();
+		if (character == null || character.getDamageVersion() == shownDamageVersion) {
+			if (damage == shownDamage)
+				return false;
+			shownDamage = damage;
+			imagePanel.repaint();
+			return true;
+		}
+		shownDamageVersion = character.getDamageVersion();
+		shownDamage = damage;
+		if (healthVisible)
+			characterHealthLabel.setText(character.healthToString()); // repaints the label if the text changed
+		imagePanel.repaint();
+		return true;
+	}
+	
 	// todo health only in separate method like stats hint
 	public void refreshCharacter(boolean healthOnly) {
+		if (character != null)
+			shownDamageVersion = character.getDamageVersion();
 		if (healthOnly) {
 			if (character == null || !healthVisible)
 				characterHealthLabel.setText("");
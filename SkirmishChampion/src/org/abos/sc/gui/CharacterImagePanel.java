@@ -3,13 +3,16 @@ package org.abos.sc.gui;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Graphics;
+import java.awt.Image;
 import java.io.IOException;
 import java.nio.file.Path;
 
 import org.abos.sc.core.Character;
 import org.abos.sc.core.CharacterBase;
+import org.abos.sc.core.ContentValidator;
 import org.abos.util.Utilities;
 import org.abos.util.gui.GUIUtilities;
+import org.abos.util.gui.ImageCache;
 import org.abos.util.gui.ImagePanel;
 
 /**
@@ -50,11 +53,37 @@ public class CharacterImagePanel extends ImagePanel {
 	 */
 	public static final Color DEFEAT_COLOR = new Color(0xaaaaaaaa, true);
 	
+	/**
+	 * Placeholder color while a character image is loading.
+	 */
+	public static final Color LOADING_COLOR = new Color(0xdddddd);
+	
+	/**
+	 * The maximum number of bytes the cached character images may use, enough for 1024 images.
+	 */
+	public static final long PORTRAIT_BUDGET = 1024L * WIDTH * HEIGHT * ImageCache.BYTES_PER_PIXEL;
+	
+	/**
+	 * The character images shared by all panels, scaled to {@link #SIZE} and taken from the fandom atlases if present.
+	 */
+	protected static final PortraitCache PORTRAITS = new PortraitCache(SIZE, PORTRAIT_BUDGET);
+	
 	/**
 	 * The character to display the image of.
 	 */
 	protected Character character;
 	
+	/**
+	 * The path of the image being displayed or loaded, <code>null</code> if none.
+	 */
+	protected Path imagePath;
+	
+	/**
+	 * If the image of the character is still being loaded.
+	 * @see #paintLoading()
+	 */
+	protected boolean loading = false;
+	
 	/**
 	 * 
 	 */
@@ -82,20 +111,59 @@ public class CharacterImagePanel extends ImagePanel {
 	
 	public static Path getCharacterPath(CharacterBase character) {
 		Utilities.requireNonNull(character, "character");
-		return GUIUtilities.getCharacterImagesPath().resolve(character.getFandomId()).resolve(character.getId()+".png");
+		return ContentValidator.getCharacterImagePath(GUIUtilities.getCharacterImagesPath(), character);
 	}
 	
 	/**
-	 * Sets the character for this image panel.
+	 * Sets the character for this image panel. The image is taken from {@link #PORTRAITS}, if it isn't cached
+	 * it is loaded in the background and a placeholder is painted meanwhile.
 	 * @param character the new character of this image panel
 	 */
 	public void setCharacter(Character character) {
 		this.character = character;
-		if (character == null)
+		if (character == null) {
+			imagePath = null;
+			loading = false;
 			setImage(null);
-		else
-			loadImageLazy(getCharacterPath(character), DEFAULT_PATH);
-		repaint();
+			return;
+		}
+		final Path path = getCharacterPath(character);
+		if (path.equals(imagePath) && image != null) {
+			repaint();
+			return;
+		}
+		imagePath = path;
+		Image cached = PORTRAITS.get(path, DEFAULT_PATH, loaded -> imageLoaded(path, loaded, true));
+		loading = cached == null;
+		setImage(cached);
+	}
+	
+	/**
+	 * Shows a loaded image, unless the character has changed meanwhile. If the image couldn't be loaded,
+	 * the default character image is shown instead.
+	 * @param path the path the image was loaded for
+	 * @param loaded the loaded image, <code>null</code> if it couldn't be loaded
+	 * @param fallback if the default character image should be tried if <code>loaded</code> is <code>null</code>
+	 * @see #DEFAULT_PATH
+	 */
+	protected void imageLoaded(Path path, Image loaded, boolean fallback) {
+		if (!path.equals(imagePath))
+			return;
+		if (loaded == null && fallback && !path.equals(DEFAULT_PATH)) {
+			loaded = PORTRAITS.get(DEFAULT_PATH, null, defaultImage -> imageLoaded(path, defaultImage, false));
+			if (loaded == null)
+				return; // still loading the default image
+		}
+		loading = false;
+		setImage(loaded);
+	}
+	
+	/**
+	 * Tells if the image of the character is still being loaded.
+	 * @return <code>true</code> if there is a character and its image is being loaded
+	 */
+	protected boolean paintLoading() {
+		return character != null && loading;
 	}
 	
 	protected boolean paintDamage() {
@@ -111,6 +179,10 @@ public class CharacterImagePanel extends ImagePanel {
 	protected void paintComponent(Graphics g) {
 		super.paintComponent(g);
 		Color old = g.getColor();
+		if (paintLoading()) {
+			g.setColor(LOADING_COLOR);
+			g.fillRect(1, 1, WIDTH-2, HEIGHT-2);
+		}
 		if (paintDamage()) {
 			g.setColor(Color.RED);
 			g.drawRect(1, 1, WIDTH-3, HEIGHT-3);
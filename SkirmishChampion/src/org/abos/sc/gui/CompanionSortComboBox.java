@@ -1,6 +1,8 @@
 package org.abos.sc.gui;
 
 import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Map;
 
 import javax.swing.JComboBox;
 import javax.swing.JLabel;
@@ -27,6 +29,16 @@ public class CompanionSortComboBox extends JComboBox<AbstractNamedComparator<Com
 	
 	protected AbstractNamedComparator<Companion> idComparator = Id.createIdComparator();
 	
+	/**
+	 * The comparators returned so far by {@link #getComparator()} by the selected item, ascending.
+	 */
+	protected final Map<Object, Comparator<Companion>> ascending = new IdentityHashMap<>();
+	
+	/**
+	 * The comparators returned so far by {@link #getComparator()} by the selected item, descending.
+	 */
+	protected final Map<Object, Comparator<Companion>> descending = new IdentityHashMap<>();
+	
 	/**
 	 * 
 	 */
@@ -53,11 +65,19 @@ public class CompanionSortComboBox extends JComboBox<AbstractNamedComparator<Com
 		this.reversed = reversed;
 	}
 	
+	/**
+	 * Returns the comparator for the selected item and order. The same comparator is returned for the same selection,
+	 * so sorted views of the companions can be reused.
+	 * @return the comparator for the selected item and order
+	 * @see SortedContent
+	 */
 	@SuppressWarnings("unchecked")
 	public Comparator<Companion> getComparator() {
-		Comparator<Companion> comp = ((AbstractNamedComparator<Companion>)getSelectedItem()).thenComparing(idComparator);
+		Object selected = getSelectedItem();
+		Comparator<Companion> comp = ascending.computeIfAbsent(selected, 
+				item -> ((AbstractNamedComparator<Companion>)item).thenComparing(idComparator));
 		if (reversed)
-			return comp.reversed();
+			return descending.computeIfAbsent(selected, item -> comp.reversed());
 		return comp;
 	}
 
@@ -1,12 +1,13 @@
 package org.abos.sc.gui;
 
 import java.awt.Dimension;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 
+import javax.swing.AbstractListModel;
+import javax.swing.ComboBoxModel;
 import javax.swing.JComboBox;
 
 import org.abos.util.Id;
@@ -24,21 +25,91 @@ public class ContentComboBox<T extends Id> extends JComboBox<T> {
 	public static final int PREFERRED_WIDTH = 162; // should be divisible by 6 for GUI reasons
 	
 	public static final Dimension PREFERRED_SIZE = new Dimension(PREFERRED_WIDTH, PREFERRED_HEIGHT);
+	
+	/**
+	 * A combo box model backed by a view of {@link SortedContent}. Replacing the view fires a single event
+	 * instead of one per item.
+	 * @author Sebastian Koch
+	 * @version %I%
+	 * @since 0.7
+	 */
+	protected class ContentModel extends AbstractListModel<T> implements ComboBoxModel<T> {
+		
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The displayed items.
+		 */
+		protected List<T> items = Collections.emptyList();
+		
+		/**
+		 * The selected item.
+		 */
+		protected Object selected = null;
+		
+		/**
+		 * Displays the specified items.
+		 * @param items the items to display
+		 */
+		protected void setItems(List<T> items) {
+			this.items = items;
+			fireContentsChanged(this, -1, -1);
+		}
 
-	protected Collection<T> content;
+		@Override
+		public int getSize() {
+			return items.size();
+		}
+
+		@Override
+		public T getElementAt(int index) {
+			return items.get(index);
+		}
+
+		@Override
+		public void setSelectedItem(Object item) {
+			if (selected == item)
+				return;
+			selected = item;
+			fireContentsChanged(this, -1, -1);
+		}
+
+		@Override
+		public Object getSelectedItem() {
+			return selected;
+		}
+		
+	}
+
+	protected SortedContent<T> content;
 	
 	protected Comparator<T> comparator;
 	
+	protected ContentModel model;
+	
 	/**
-	 * 
+	 * Creates a combo box displaying views of the specified sorted content, which may be shared with other combo boxes.
+	 * @param content the content to display
+	 * @param comparator the order to display the content in, <code>null</code> for the order of the underlying collection
+	 * @throws NullPointerException If <code>content</code> refers to <code>null</code>.
+	 * @see #refreshView(boolean)
 	 */
-	public ContentComboBox(Collection<T> content, Comparator<T> comparator) {
+	public ContentComboBox(SortedContent<T> content, Comparator<T> comparator) {
 		if (content == null)
 			throw new NullPointerException("content must be specified!");
 		this.content = content;
 		this.comparator = comparator;
+		model = new ContentModel();
+		setModel(model);
 		setPreferredSize(PREFERRED_SIZE);
-		refreshContent(false);
+		refreshView(false);
+	}
+	
+	/**
+	 * 
+	 */
+	public ContentComboBox(Collection<T> content, Comparator<T> comparator) {
+		this(new SortedContent<>(content), comparator); // throws NPE
 	}
 	
 	public ContentComboBox(Collection<T> content) {
@@ -50,27 +121,45 @@ public class ContentComboBox<T extends Id> extends JComboBox<T> {
 	}
 	
 	public void setContent(Collection<T> content) {
+		Utilities.requireNonNull(content, "content");
+		setContent(new SortedContent<>(content));
+	}
+	
+	/**
+	 * Displays the specified sorted content, which may be shared with other combo boxes.
+	 * @param content the content to display
+	 * @throws NullPointerException If <code>content</code> refers to <code>null</code>.
+	 */
+	public void setContent(SortedContent<T> content) {
 		Utilities.requireNonNull(content, "content");
 		this.content = content;
-		refreshContent(true);
+		refreshView(true);
 	}
 	
+	/**
+	 * Takes changes of the content into account and displays it.
+	 * @param keepCurrentItemSelected if the selected item should stay selected if it is still part of the content
+	 * @see SortedContent#refresh()
+	 */
 	public void refreshContent(boolean keepCurrentItemSelected) {
+		content.refresh();
+		refreshView(keepCurrentItemSelected);
+	}
+	
+	/**
+	 * Displays the content as of its last refresh, e.g. if the content is shared and has been refreshed already.
+	 * @param keepCurrentItemSelected if the selected item should stay selected if it is still part of the content
+	 * @see #refreshContent(boolean)
+	 */
+	public void refreshView(boolean keepCurrentItemSelected) {
 		Object selected = getSelectedItem();
-		removeAllItems();
-		if (comparator == null)
-			for (T item : content)
-				addItem(item);
-		else {
-			List<T> input = new ArrayList<>(content);
-			Collections.sort(input, comparator);
-			for (T item : input)
-				addItem(item);
-		}
+		model.setItems(content.getSorted(comparator));
 		if (keepCurrentItemSelected && containsItem(selected))
 			setSelectedItem(selected);
-		else
+		else if (model.getSize() > 0)
 			setSelectedIndex(0);
+		else
+			setSelectedItem(null);
 		repaint();
 	}
 	
@@ -86,7 +175,7 @@ public class ContentComboBox<T extends Id> extends JComboBox<T> {
 	 */
 	public void setComparator(Comparator<T> comparator, boolean keepCurrentItemSelected) {
 		this.comparator = comparator;
-		refreshContent(keepCurrentItemSelected);
+		refreshView(keepCurrentItemSelected);
 	}
 
 }
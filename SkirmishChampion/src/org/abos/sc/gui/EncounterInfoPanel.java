@@ -104,15 +104,16 @@ public class EncounterInfoPanel extends JPanel {
 		repaint();
 	}
 	
+	/**
+	 * Refreshes the health of all characters whose damage has changed, repainting only their panels.
+	 * @see CharacterBattlePanel#refreshHealth()
+	 */
 	public void refreshHealth() {
-		if (encounter == null || !difficulty.showCharacterHealth()) {
-			repaint();
+		if (encounter == null)
 			return;
-		}
 		for (int row = 0; row < formation.length; row++)
 			for (int col = 0; col < formation[0].length; col++)
-				formation[row][col].refreshCharacter(true);
-		repaint();
+				formation[row][col].refreshHealth();
 	}
 
 	/**
@@ -2,29 +2,35 @@ package org.abos.sc.gui;
 
 import java.awt.BorderLayout;
 import java.awt.Dimension;
+import java.awt.Graphics;
 import java.awt.GridLayout;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
 
 import javax.swing.JButton;
 import javax.swing.JFileChooser;
 import javax.swing.JFrame;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
 import javax.swing.ToolTipManager;
 import javax.swing.filechooser.FileNameExtensionFilter;
 
 import org.abos.sc.core.CharacterBase;
 import org.abos.sc.core.Companion;
 import org.abos.sc.core.ConfigManager;
+import org.abos.sc.core.ContentValidator;
 import org.abos.sc.core.FandomBase;
+import org.abos.sc.core.IdleProgression;
 import org.abos.sc.core.Player;
 import org.abos.sc.core.RegionBase;
 import org.abos.sc.core.StageBase;
 import org.abos.util.ParseException;
-import org.abos.util.Registry;
+import org.abos.util.StartupProfiler;
 import org.abos.util.Utilities;
 import org.abos.util.gui.GUIUtilities;
 import org.abos.util.gui.ImagePanel;
@@ -51,6 +57,12 @@ public class MainMenu extends JFrame {
 	
 	public final static String SAVE_GAME_EXT_D = "." + SAVE_GAME_EXT;
 	
+	/**
+	 * The profiler of the startup, from loading the main menu class to its first interactive frame.
+	 * @see #main(String[])
+	 */
+	public final static StartupProfiler STARTUP = new StartupProfiler();
+	
 	protected Player player;
 	
 	protected NewGameDialog newGameDialog; 
@@ -79,6 +91,17 @@ public class MainMenu extends JFrame {
 	
 	protected JButton exitButton;
 	
+	/**
+	 * If the application directory was found, i.e. if credits, license and save games are available.
+	 */
+	protected boolean applicationPath = true;
+	
+	/**
+	 * If this menu has been painted before.
+	 * @see #paint(Graphics)
+	 */
+	private boolean painted = false;
+	
 	/**
 	 * 
 	 * @throws IllegalStateException If {@link FandomBase#FANDOMS} is empty, which shouldn't happen. Either they have been loaded
@@ -121,7 +144,51 @@ public class MainMenu extends JFrame {
 		stageSelectionFrame.setVisible(true);
 	}
 	
+	/**
+	 * Returns the file chooser for save games, creating it on first use since creating it is rather slow.
+	 * @return the file chooser for save games
+	 */
+	protected JFileChooser getSaveGameChooser() {
+		if (saveGameChooser == null) {
+			saveGameChooser = new JFileChooser(Utilities.getApplicationDirectory().toFile());
+			saveGameChooser.setFileFilter(new FileNameExtensionFilter("Skirmish Champion save game", SAVE_GAME_EXT));
+		}
+		return saveGameChooser;
+	}
+	
+	/**
+	 * Returns the frame showing the credits, creating it and reading the credits on first use.
+	 * @return the credits frame
+	 */
+	protected TextAreaFrame getCreditsFrame() {
+		if (creditsFrame == null) {
+			creditsFrame = new TextAreaFrame("Credits");
+			if (applicationPath)
+				creditsFrame.setTextFilePath(Utilities.getApplicationDirectory().resolve("credits.txt"));
+			else
+				creditsFrame.setText("Application path not found, no credits loaded!");
+		}
+		return creditsFrame;
+	}
+	
+	/**
+	 * Returns the frame showing the license, creating it and reading the license on first use.
+	 * @return the license frame
+	 */
+	protected TextAreaFrame getLicenseFrame() {
+		if (licenseFrame == null) {
+			licenseFrame = new TextAreaFrame("License");
+			if (applicationPath)
+				licenseFrame.setTextFilePath(Utilities.getApplicationDirectory().resolve("license.txt"));
+			else
+				licenseFrame.setText("Application path not found, no license loaded!"+System.lineSeparator()+
+						"(Note that this game is licensed nonetheless.)");
+		}
+		return licenseFrame;
+	}
+	
 	public void saveGame() {
+		JFileChooser saveGameChooser = getSaveGameChooser();
 		if (saveGameChooser.showSaveDialog(this) == JFileChooser.APPROVE_OPTION) {
 			try {
 				Path saveGame = saveGameChooser.getSelectedFile().toPath();
@@ -142,7 +209,19 @@ public class MainMenu extends JFrame {
 		}
 	}
 	
+	/**
+	 * Catches up on the progress the specified player made since it was saved and informs about it.
+	 * @param loadedPlayer the player that has just been loaded
+	 * @see IdleProgression#catchUp(Player, Instant)
+	 */
+	protected void catchUp(Player loadedPlayer) {
+		IdleProgression progression = IdleProgression.catchUp(loadedPlayer, Instant.now());
+		if (progression != null && (progression.getLevelUps() > 0 || progression.getFarm() != null))
+			JOptionPane.showMessageDialog(this, progression.toString(), "Welcome back!", JOptionPane.INFORMATION_MESSAGE);
+	}
+	
 	public void loadGame() {
+		JFileChooser saveGameChooser = getSaveGameChooser();
 		if (saveGameChooser.showOpenDialog(this) == JFileChooser.APPROVE_OPTION) {
 			Path saveGame = saveGameChooser.getSelectedFile().toPath();
 			Player loadedPlayer = null;
@@ -153,6 +232,7 @@ public class MainMenu extends JFrame {
 				GUIUtilities.errorMessage(this, "Loading...", "Loading save game failed!", ex);
 			}
 			if (loadedPlayer != null) {
+				catchUp(loadedPlayer);
 				setPlayer(loadedPlayer);
 				continueGameButton.setEnabled(true);
 				ConfigManager.setProperty(ConfigManager.LAST_SAVE_LOCATION, saveGame.toString());
@@ -164,16 +244,33 @@ public class MainMenu extends JFrame {
 	
 	@Override
 	public void dispose() {
-		creditsFrame.dispose();
-		licenseFrame.dispose();
+		if (creditsFrame != null)
+			creditsFrame.dispose();
+		if (licenseFrame != null)
+			licenseFrame.dispose();
 		super.dispose();
 	}
+	
+	/**
+	 * Marks the first interactive frame of the {@link #STARTUP} once the first paint has been processed.
+	 */
+	@Override
+	public void paint(Graphics g) {
+		super.paint(g);
+		if (!painted) {
+			painted = true;
+			// queued behind the pending paint events, so the menu is both visible and responsive when this runs
+			SwingUtilities.invokeLater(() -> {
+				STARTUP.firstFrame();
+				System.out.println("Startup: "+STARTUP);
+			});
+		}
+	}
 
 	/**
 	 * 
 	 */
 	private void initComponents() {
-		boolean applicationPath = true;
 		try {
 			titleScreen = new ImagePanel(GUIUtilities.getTitleScreenPath(), TITLE_SCREEN_DIMENSION);
 		} catch (IllegalStateException ex) {
@@ -187,6 +284,7 @@ public class MainMenu extends JFrame {
 			// following line is explicitly not done in initLayout to avoid confusion 
 			titleScreen.setPreferredSize(TITLE_SCREEN_DIMENSION);
 		}
+		STARTUP.lap("title screen");
 		newGameButton = new JButton("New Game");
 		newGameButton.addActionListener(e -> newGame());
 		continueGameButton = new JButton("Continue");
@@ -206,6 +304,7 @@ public class MainMenu extends JFrame {
 			else {
 				try {
 					player = Player.loadFromFile(lastSaveLocationFile.toPath());
+					catchUp(player);
 				}
 				catch (IOException | ParseException ex) {
 					player = Player.createNewDefaultPlayer();
@@ -213,35 +312,24 @@ public class MainMenu extends JFrame {
 				}
 			}
 		}
+		STARTUP.lap("last save");
 		saveGameButton = new JButton("Save Game");
 		saveGameButton.addActionListener(e -> saveGame());
 		loadGameButton = new JButton("Load Game");
 		loadGameButton.addActionListener(e -> loadGame());
-		creditsFrame = new TextAreaFrame("Credits");
-		if (applicationPath)
-			creditsFrame.setTextFilePath(Utilities.getApplicationDirectory().resolve("credits.txt"));
-		else
-			creditsFrame.setText("Application path not found, no credits loaded!");
+		// credits and license are only read when first shown
 		creditsButton = new JButton("Credits");
-		creditsButton.addActionListener(e -> creditsFrame.setVisible(true));
-		licenseFrame = new TextAreaFrame("License");
-		if (applicationPath)
-			licenseFrame.setTextFilePath(Utilities.getApplicationDirectory().resolve("license.txt"));
-		else
-			licenseFrame.setText("Application path not found, no license loaded!"+System.lineSeparator()+
-					"(Note that this game is licensed nonetheless.)");
+		creditsButton.addActionListener(e -> getCreditsFrame().setVisible(true));
 		licenseButton = new JButton("License");
-		licenseButton.addActionListener(e -> licenseFrame.setVisible(true));
+		licenseButton.addActionListener(e -> getLicenseFrame().setVisible(true));
 		exitButton = new JButton("Exit");
 		exitButton.addActionListener(e -> System.exit(0));
 		newGameDialog = new NewGameDialog(this);
 		stageSelectionFrame = new StageSelectionFrame(player, true);
 		stageSelectionFrame.setAfterHiding(() -> setVisible(true));
-		if (applicationPath) {
-			saveGameChooser = new JFileChooser(Utilities.getApplicationDirectory().toFile());
-			saveGameChooser.setFileFilter(new FileNameExtensionFilter("Skirmish Champion save game", SAVE_GAME_EXT));
-		}
-		else {
+		STARTUP.lap("frames");
+		// the save game chooser is created on first use
+		if (!applicationPath) {
 			saveGameButton.setEnabled(false);
 			loadGameButton.setEnabled(false);
 			GUIUtilities.errorMessage("Utility Failure", "Application path not found, saving/loading disabled!", null);
@@ -262,6 +350,19 @@ public class MainMenu extends JFrame {
 		add(buttonPanel, BorderLayout.CENTER);
 		pack();
 		setLocationRelativeTo(null);
+		STARTUP.lap("layout");
+	}
+	
+	/**
+	 * Validates the game data and looks for missing character images, printing the results. 
+	 * Nothing of this is needed to play, so {@link #main(String[])} runs it in the background after showing the menu.
+	 */
+	protected static void validateContent() {
+		STARTUP.timed("game data validation (background)", () -> System.out.print(Player.validateGameData())).run();
+		STARTUP.timed("image validation (background)", () -> {
+			List<String> missingImages = ContentValidator.findMissingImages(GUIUtilities.getCharacterImagesPath());
+			System.out.println(String.format("%d out of %d character images missing: %s", missingImages.size(), CharacterBase.CHARACTERS.size(), missingImages));
+		}).run();
 	}
 	
 	public static void main(String[] args) {
@@ -270,6 +371,7 @@ public class MainMenu extends JFrame {
 		} catch (IOException ex) {
 			GUIUtilities.errorMessage("Utility Failure", "Could access path to the application directory!", ex);
 		}
+		STARTUP.lap("application directory");
 		try {
 			ConfigManager.loadConfig();
 		}
@@ -279,6 +381,8 @@ public class MainMenu extends JFrame {
 		catch (IOException ex) {
 			GUIUtilities.errorMessage("Config Failure", "Config couldn't be loaded!", ex);
 		}
+		STARTUP.lap("config");
+		// all game data is needed up front: the last save and the new game dialog may refer to any fandom
 		String current = "";
 		try {
 			Utilities.checkApplicationDirectory();
@@ -313,6 +417,7 @@ public class MainMenu extends JFrame {
 			GUIUtilities.errorMessage("Startup Failure", "File "+current+" seems to be invalid!", ex);
 			return;
 		}
+		STARTUP.lap("game data");
 		try {
 			GUIUtilities.loadLogos();
 		}
@@ -323,18 +428,15 @@ public class MainMenu extends JFrame {
 			GUIUtilities.LOGOS.clear();
 			GUIUtilities.errorMessage("Logo Loading Failure", "The logos couldn't be loaded!", ex);
 		}
+		STARTUP.lap("logos");
 		ToolTipManager.sharedInstance().setInitialDelay(300);
 		MainMenu game = new MainMenu();
 		game.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
 		game.setVisible(true);
-		// TODO this needs to be put somewhere else:
-		System.out.print(Player.validateGameData());
-		StringBuilder s = new StringBuilder();
-		Registry<CharacterBase> missingImages = new Registry<>();
-		for (CharacterBase characterBase : CharacterBase.CHARACTERS)
-			if (Files.notExists(CharacterImagePanel.getCharacterPath(characterBase)))
-				missingImages.add(characterBase);
-		System.out.println(String.format("%d out of %d character images missing: %s", missingImages.size(), CharacterBase.CHARACTERS.size(), missingImages.toString()));
+		STARTUP.lap("show");
+		Thread validation = new Thread(MainMenu::validateContent, "ValidatesContent");
+		validation.setDaemon(true);
+		validation.start();
 	}
 
 }
@@ -7,17 +7,26 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.ItemEvent;
 import java.awt.event.ItemListener;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
 
 import javax.swing.ButtonGroup;
 import javax.swing.JButton;
+import javax.swing.JComboBox;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JRadioButton;
+import javax.swing.SwingWorker;
 
 import org.abos.sc.core.Companion;
+import org.abos.sc.core.FormationOptimizer;
+import org.abos.sc.core.TacticSearch;
+import org.abos.sc.core.battle.Encounter;
 import org.abos.sc.core.battle.Formation;
+import org.abos.sc.core.battle.Strategy;
+import org.abos.sc.core.battle.StrategyType;
 import org.abos.util.Registry;
 import org.abos.util.Utilities;
 import org.abos.util.gui.GUIUtilities;
@@ -31,6 +40,17 @@ public class PartySelectionFrame extends JFrame {
 
 	public static String TITLE = "Party Selection";
 	
+	/**
+	 * The strategy types selectable in this frame.
+	 */
+	public static final StrategyType[] STRATEGY_TYPES = new StrategyType[] {StrategyType.ROW, StrategyType.COL, StrategyType.CONCENTRATED, StrategyType.CUSTOM};
+	
+	/**
+	 * The number of parties the optimizer suggests.
+	 * @see #optimizeFormation()
+	 */
+	public static final int OPTIMIZER_SUGGESTIONS = 5;
+	
 	protected Registry<Companion> companionPool;
 	
 	protected Runnable afterHiding = null;
@@ -43,6 +63,22 @@ public class PartySelectionFrame extends JFrame {
 	
 	protected PartySelectionPanel selectionPanel;
 	
+	protected Strategy strategy = Strategy.createConcentratedAssault();
+	
+	/**
+	 * The last suggested or confirmed custom strategy, <code>null</code> if there is none.
+	 * @see #suggestTactic()
+	 */
+	protected Strategy customStrategy = null;
+	
+	protected JComboBox<String> strategyComboBox;
+	
+	protected Encounter opponent = null;
+	
+	protected JButton optimizeButton;
+	
+	protected JButton suggestTacticButton;
+	
 	protected JButton deselectAllButton;
 	
 	protected JButton resetButton;
@@ -86,6 +122,137 @@ public class PartySelectionFrame extends JFrame {
 		selectionPanel.setStageChallengeRatingCap(stageChallengeRatingCap);
 	}
 	
+	/**
+	 * @return the confirmed strategy of the party
+	 */
+	public Strategy getStrategy() {
+		return strategy;
+	}
+	
+	/**
+	 * @param strategy the strategy of the party to display
+	 */
+	public void setStrategy(Strategy strategy) {
+		Utilities.requireNonNull(strategy, "strategy");
+		this.strategy = strategy;
+		if (strategy.getType() == StrategyType.CUSTOM)
+			customStrategy = strategy;
+		resetStrategy();
+	}
+	
+	/**
+	 * Changes the GUI to display the confirmed strategy.
+	 */
+	public void resetStrategy() {
+		selectStrategyType(strategy.getType());
+	}
+	
+	/**
+	 * Selects the specified strategy type in the GUI.
+	 * @param type the strategy type to select
+	 */
+	protected void selectStrategyType(StrategyType type) {
+		for (int i = 0; i < STRATEGY_TYPES.length; i++)
+			if (STRATEGY_TYPES[i] == type)
+				strategyComboBox.setSelectedIndex(i);
+	}
+	
+	/**
+	 * @return the opponent the party is optimized against, may be <code>null</code>
+	 */
+	public Encounter getOpponent() {
+		return opponent;
+	}
+	
+	/**
+	 * @param opponent the opponent the party should be optimized against, <code>null</code> disables optimizing
+	 */
+	public void setOpponent(Encounter opponent) {
+		this.opponent = opponent;
+		optimizeButton.setEnabled(opponent != null);
+		suggestTacticButton.setEnabled(opponent != null);
+	}
+	
+	/**
+	 * Searches the companion pool for the best parties against the opponent in the background and lets 
+	 * the user choose one of them to display. The challenge rating cap is respected.
+	 * @see FormationOptimizer
+	 */
+	public void optimizeFormation() {
+		if (opponent == null)
+			return;
+		Integer cap = getStageChallengeRatingCap();
+		FormationOptimizer optimizer = new FormationOptimizer(companionPool, opponent, cap == null ? Integer.MAX_VALUE : cap);
+		optimizeButton.setEnabled(false);
+		new SwingWorker<List<FormationOptimizer.Result>, Void>() {
+			@Override protected List<FormationOptimizer.Result> doInBackground() {
+				return optimizer.optimize(OPTIMIZER_SUGGESTIONS, System.nanoTime());
+			}
+			@Override protected void done() {
+				optimizeButton.setEnabled(opponent != null);
+				List<FormationOptimizer.Result> results;
+				try {
+					results = get();
+				}
+				catch (InterruptedException | ExecutionException ex) {
+					GUIUtilities.errorMessage(PartySelectionFrame.this, "Optimizing...", "Optimizing the party failed!", ex);
+					return;
+				}
+				if (results.isEmpty()) {
+					JOptionPane.showMessageDialog(PartySelectionFrame.this, "No companion fits under the challenge rating cap!", 
+							"Optimizing...", JOptionPane.INFORMATION_MESSAGE);
+					return;
+				}
+				Object choice = JOptionPane.showInputDialog(PartySelectionFrame.this, "Choose a party:", "Optimizing...", 
+						JOptionPane.PLAIN_MESSAGE, null, results.toArray(), results.get(0));
+				if (choice != null) {
+					FormationOptimizer.Result result = (FormationOptimizer.Result)choice;
+					selectionPanel.displayFormation(result.getFormation());
+					selectStrategyType(result.getStrategy().getType());
+				}
+			}
+		}.execute();
+	}
+	
+	/**
+	 * Searches a custom strategy for the displayed party against the opponent in the background
+	 * and lets the user decide whether to select it.
+	 * @see TacticSearch
+	 */
+	public void suggestTactic() {
+		if (opponent == null)
+			return;
+		if (!selectionPanel.validateFormation()) {
+			showInvalidFormationMessage();
+			return;
+		}
+		TacticSearch search = new TacticSearch(selectionPanel.createFormation(), opponent);
+		suggestTacticButton.setEnabled(false);
+		new SwingWorker<TacticSearch.Result, Void>() {
+			@Override protected TacticSearch.Result doInBackground() {
+				return search.search();
+			}
+			@Override protected void done() {
+				suggestTacticButton.setEnabled(opponent != null);
+				TacticSearch.Result result;
+				try {
+					result = get();
+				}
+				catch (InterruptedException | ExecutionException ex) {
+					GUIUtilities.errorMessage(PartySelectionFrame.this, "Suggesting...", "Suggesting a tactic failed!", ex);
+					return;
+				}
+				int choice = JOptionPane.showConfirmDialog(PartySelectionFrame.this, 
+						result.toString()+System.lineSeparator()+"Select this strategy?", "Suggesting...", JOptionPane.YES_NO_OPTION);
+				if (choice == JOptionPane.YES_OPTION) {
+					if (result.getStrategy().getType() == StrategyType.CUSTOM)
+						customStrategy = result.getStrategy();
+					selectStrategyType(result.getStrategy().getType());
+				}
+			}
+		}.execute();
+	}
+	
 	/**
 	 * @param companionPool the companionPool to set
 	 */
@@ -123,21 +290,36 @@ public class PartySelectionFrame extends JFrame {
 	
 	public void confirmFormation() {
 		if (selectionPanel.validateFormation()) {
+			StrategyType type = STRATEGY_TYPES[strategyComboBox.getSelectedIndex()];
+			if (type == StrategyType.CUSTOM && customStrategy == null) {
+				JOptionPane.showMessageDialog(this, "Let a tactic be suggested first to use a customized assault!", 
+						"Invalid strategy!", JOptionPane.ERROR_MESSAGE);
+				return;
+			}
 			selectionPanel.acceptFormation();
+			if (type == StrategyType.CUSTOM)
+				strategy = customStrategy;
+			else if (type != strategy.getType())
+				strategy = Strategy.createStrategy(type);
 			setVisible(false, false);
 		}
 		else {
-			JOptionPane.showMessageDialog(this, 
-					"The party must contain at least one member and "+System.lineSeparator()+
-					"no character can be used several times!", 
-					"Invalid party!", JOptionPane.ERROR_MESSAGE);
+			showInvalidFormationMessage();
 		}
 	}
 	
+	protected void showInvalidFormationMessage() {
+		JOptionPane.showMessageDialog(this, 
+				"The party must contain at least one member and "+System.lineSeparator()+
+				"no character can be used several times!", 
+				"Invalid party!", JOptionPane.ERROR_MESSAGE);
+	}
+	
 	public void cancelFormation(boolean hide) {
 		if (hide)
 			setVisible(false, false);
 		selectionPanel.resetFormation();
+		resetStrategy();
 	}
 	
 	private void initComponents() {
@@ -167,6 +349,17 @@ public class PartySelectionFrame extends JFrame {
 				selectionPanel.setComparator(sortComboBox.getComparator());
 			}
 		});
+		String[] strategyNames = new String[STRATEGY_TYPES.length];
+		for (int i = 0; i < STRATEGY_TYPES.length; i++)
+			strategyNames[i] = STRATEGY_TYPES[i].getName();
+		strategyComboBox = new JComboBox<>(strategyNames);
+		resetStrategy();
+		optimizeButton = new JButton("Optimize");
+		optimizeButton.addActionListener(e -> optimizeFormation());
+		optimizeButton.setEnabled(false);
+		suggestTacticButton = new JButton("Suggest Tactic");
+		suggestTacticButton.addActionListener(e -> suggestTactic());
+		suggestTacticButton.setEnabled(false);
 		deselectAllButton = new JButton("Deselect all");
 		deselectAllButton.addActionListener(e -> selectionPanel.deselectAll());
 		resetButton = new JButton("Reset");
@@ -186,7 +379,15 @@ public class PartySelectionFrame extends JFrame {
 		sortPanel.add(ascButton);
 		sortPanel.add(descButton);
 		add(sortPanel, BorderLayout.PAGE_START);
-		add(selectionPanel, BorderLayout.CENTER);
+		JPanel centerPanel = new JPanel(new BorderLayout());
+		centerPanel.add(selectionPanel, BorderLayout.CENTER);
+		JPanel strategyPanel = new JPanel();
+		strategyPanel.add(new JLabel("Strategy:"));
+		strategyPanel.add(strategyComboBox);
+		strategyPanel.add(optimizeButton);
+		strategyPanel.add(suggestTacticButton);
+		centerPanel.add(strategyPanel, BorderLayout.PAGE_END);
+		add(centerPanel, BorderLayout.CENTER);
 		JPanel buttonPanel = new JPanel(new GridLayout(2, 2));
 		buttonPanel.add(deselectAllButton);
 		buttonPanel.add(resetButton);
@@ -38,12 +38,17 @@ public class PartySelectionPanel extends JPanel implements ChallengeRatable {
 	
 	protected Formation formation;
 	
-	protected Comparator<Companion> comparator = null;
+	protected Comparator<Companion> comparator = Name.createNameComparator();
 	
 	protected boolean facesLineEnd;
 	
 	protected Registry<Companion> companionPool;
 	
+	/**
+	 * The sorted views of the companion pool shared by all position selectors.
+	 */
+	protected SortedContent<Companion> companionContent;
+	
 	protected Integer scrc; // stage challenge rating cap
 
 	protected JCheckBox[][] positionCheckBox;
@@ -101,10 +106,7 @@ public class PartySelectionPanel extends JPanel implements ChallengeRatable {
 	public void setCompanionPool(Registry<Companion> companionPool) {
 		Utilities.requireNonNull(companionPool, "companionPool");
 		this.companionPool = companionPool;
-		for (int row = 0; row < Formation.ROW_NUMBER; row++)
-			for (int col = 0; col < Formation.COL_NUMBER; col++) {
-				positionSelector[row][col].setContent(companionPool);
-			}
+		companionContent.setContent(companionPool);
 		refreshSelectors();
 		deselectAlmostAll();
 		assert validateFormation();
@@ -145,8 +147,21 @@ public class PartySelectionPanel extends JPanel implements ChallengeRatable {
 	/**
 	 * Changes the GUI to display the internal formation. Unused spaces will make the corresponding combobox
 	 * display its first item.
+	 * @see #displayFormation(Formation)
 	 */
 	public void resetFormation() {
+		displayFormation(formation);
+	}
+	
+	/**
+	 * Changes the GUI to display the specified formation without changing the internal formation. 
+	 * Unused spaces will make the corresponding combobox display its first item.
+	 * @param formation the formation to display, made up of companions of the companion pool
+	 * @throws NullPointerException If <code>formation</code> refers to <code>null</code>.
+	 * @see #acceptFormation()
+	 */
+	public void displayFormation(Formation formation) {
+		Utilities.requireNonNull(formation, "formation");
 		Character currentCharacter = null;
 		for (int row = 0; row < Formation.ROW_NUMBER; row++)
 			for (int col = 0; col < Formation.COL_NUMBER; col++) {
@@ -199,22 +214,34 @@ public class PartySelectionPanel extends JPanel implements ChallengeRatable {
 	 * @see #validateFormation()
 	 */
 	public void acceptFormation() {
+		formation = createFormation();
+	}
+	
+	/**
+	 * Creates the battle formation displayed by the GUI without changing the internal formation.
+	 * The same restrictions as for {@link #acceptFormation()} apply.
+	 * @return a new formation of copies of the displayed companions
+	 * @throws RuntimeException Possibly if {@link #validateFormation()} didn't returned <code>true</code> before calling this method.
+	 * @see #validateFormation()
+	 */
+	public Formation createFormation() {
 		Character[][] characters = new Character[Formation.ROW_NUMBER][Formation.COL_NUMBER];
 		for (int row = 0; row < Formation.ROW_NUMBER; row++)
 			for (int col = 0; col < Formation.COL_NUMBER; col++) {
 				if (positionCheckBox[row][col].isSelected())
 					characters[row][col] = (Character)((Character)positionSelector[row][col].getSelectedItem()).clone();
 			}
-		formation = new Formation(characters);
+		return new Formation(characters);
 	}
 	
+	/**
+	 * Takes changes of the companion pool into account, which is done once for all position selectors.
+	 */
 	public void refreshSelectors() {
-		Companion companion = null;
+		companionContent.refresh();
 		for (int row = 0; row < Formation.ROW_NUMBER; row++)
-			for (int col = 0; col < Formation.COL_NUMBER; col++) {
-				companion = (Companion)positionSelector[row][col].getSelectedItem();
-				positionSelector[row][col].refreshContent(true);
-			}
+			for (int col = 0; col < Formation.COL_NUMBER; col++)
+				positionSelector[row][col].refreshView(true);
 	}
 	
 	/**
@@ -244,6 +271,7 @@ public class PartySelectionPanel extends JPanel implements ChallengeRatable {
 	private void initComponents() {
 		positionCheckBox = new JCheckBox[Formation.ROW_NUMBER][Formation.COL_NUMBER];
 		positionSelector = new ContentComboBox[Formation.ROW_NUMBER][Formation.COL_NUMBER];
+		companionContent = new SortedContent<>(companionPool);
 		for (int row = 0; row < Formation.ROW_NUMBER; row++)
 			for (int col = 0; col < Formation.COL_NUMBER; col++) {
 				positionCheckBox[row][col] = new JCheckBox(String.format("Position (%d,%d) ",row,col), row == 0 && col == 0);
@@ -260,7 +288,7 @@ public class PartySelectionPanel extends JPanel implements ChallengeRatable {
 						refreshChallengeRating();
 					}
 				});
-				positionSelector[row][col] = new ContentComboBox<>(companionPool, Name.createNameComparator());
+				positionSelector[row][col] = new ContentComboBox<>(companionContent, comparator);
 				// automatically change to selected if combobox is used, also refresh CR
 				positionSelector[row][col].addItemListener(new ItemListener() {
 					@SuppressWarnings("rawtypes")
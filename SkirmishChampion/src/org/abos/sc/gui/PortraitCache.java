@@ -0,0 +1,219 @@
+package org.abos.sc.gui;
+
+import java.awt.Dimension;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.imageio.ImageIO;
+
+import org.abos.util.ParseException;
+import org.abos.util.Utilities;
+import org.abos.util.gui.GUIUtilities;
+import org.abos.util.gui.ImageAtlas;
+import org.abos.util.gui.ImageCache;
+
+/**
+ * A cache for character images that prefers the atlas of a fandom over the single images. The atlas of a fandom
+ * lies in the fandom's image directory as {@link #ATLAS_IMAGE} and {@link #ATLAS_INDEX}. When an image of the atlas
+ * is requested, the atlas is decoded and all its images are cached as far as they fit into the byte budget,
+ * so showing a stage usually only reads one file per fandom. The decoded atlas itself isn't kept, only its IDs, 
+ * so later misses read the single image and only fall back to the atlas if the single image is missing.
+ * Images missing from the atlas are read on their own, and an atlas older than any image of its directory is ignored
+ * until {@link #buildAtlases(Path)} runs again, so it never shadows changed images.
+ * @author Sebastian Koch
+ * @version %I%
+ * @since 0.7
+ * @see #main(String[])
+ */
+public class PortraitCache extends ImageCache {
+
+	/**
+	 * The file name of the atlas image in a fandom's image directory.
+	 */
+	public static final String ATLAS_IMAGE = "atlas.png";
+
+	/**
+	 * The file name of the atlas index in a fandom's image directory.
+	 */
+	public static final String ATLAS_INDEX = "atlas.txt";
+
+	/**
+	 * The file extension of character images.
+	 */
+	public static final String EXTENSION = ".png";
+
+	/**
+	 * The IDs in the atlases by the image directory of their fandom, empty if a fandom has no valid atlas.
+	 * A directory is missing until its atlas has been read for the first time.
+	 */
+	private final Map<Path, Set<String>> atlasIds = new ConcurrentHashMap<>();
+	
+	/**
+	 * The locks by fandom image directory, so an atlas is only decoded by one thread at a time.
+	 */
+	private final Map<Path, Object> atlasLocks = new ConcurrentHashMap<>();
+
+	/**
+	 * Creates a new portrait cache.
+	 * @param size the size all images are scaled to
+	 * @param byteBudget the maximum number of bytes the cached images may use
+	 * @throws NullPointerException If <code>size</code> refers to <code>null</code>.
+	 * @throws IllegalArgumentException If <code>size</code> is empty or <code>byteBudget</code> is negative.
+	 */
+	public PortraitCache(Dimension size, long byteBudget) {
+		super(size, byteBudget);
+	}
+
+	/**
+	 * Reads the atlas of the specified fandom image directory and remembers its IDs.
+	 * @param directory the image directory of a fandom
+	 * @return the atlas or <code>null</code> if there is no valid one or it is stale
+	 * @see #isStale(Path)
+	 */
+	protected ImageAtlas loadAtlas(Path directory) {
+		Path image = directory.resolve(ATLAS_IMAGE);
+		Path index = directory.resolve(ATLAS_INDEX);
+		ImageAtlas atlas = null;
+		if (Files.exists(image) && Files.exists(index)) {
+			try {
+				if (!isStale(directory))
+					atlas = ImageAtlas.load(image, index);
+			}
+			catch (IOException | ParseException ex) {
+				// fall back to the single images
+			}
+		}
+		atlasIds.put(directory, atlas == null ? Collections.emptySet() : new HashSet<>(atlas.getIds()));
+		return atlas;
+	}
+
+	/**
+	 * Checks if an image of the specified fandom image directory has been modified after its atlas was written.
+	 * @param directory the image directory of a fandom, with an atlas
+	 * @return <code>true</code> if the atlas is older than any image of <code>directory</code>, else <code>false</code>
+	 * @throws IOException If the directory couldn't be read.
+	 */
+	protected static boolean isStale(Path directory) throws IOException {
+		FileTime image = Files.getLastModifiedTime(directory.resolve(ATLAS_IMAGE));
+		FileTime index = Files.getLastModifiedTime(directory.resolve(ATLAS_INDEX));
+		FileTime written = image.compareTo(index) < 0 ? image : index;
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*"+EXTENSION)) {
+			for (Path file : files)
+				if (!file.getFileName().toString().equals(ATLAS_IMAGE) && Files.getLastModifiedTime(file).compareTo(written) > 0)
+					return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Checks if an image should be taken from the atlas of its directory, i.e. if the atlas hasn't been read yet
+	 * or if it contains the image and the single image is missing.
+	 * @param directory the image directory of a fandom
+	 * @param path the path of the image
+	 * @param id the ID of the image
+	 * @return <code>true</code> if the atlas should be read, else <code>false</code>
+	 */
+	private boolean readsAtlas(Path directory, Path path, String id) {
+		Set<String> ids = atlasIds.get(directory);
+		return ids == null || (ids.contains(id) && !Files.exists(path));
+	}
+
+	/**
+	 * Takes the image from the atlas of its directory if possible, else reads it on its own. 
+	 * The other images of the atlas are cached as well, as far as they fit into the byte budget.
+	 * After the first read of an atlas, the single image is preferred, so a full cache doesn't decode the atlas for every miss.
+	 * @see #offer(Path, BufferedImage)
+	 */
+	@Override
+	protected BufferedImage decode(Path path, Path backup) {
+		Path directory = path.getParent();
+		String name = path.getFileName().toString();
+		if (directory != null && name.endsWith(EXTENSION)) {
+			String id = name.substring(0, name.length() - EXTENSION.length());
+			if (readsAtlas(directory, path, id)) {
+				synchronized (atlasLocks.computeIfAbsent(directory, dir -> new Object())) {
+					Image cached = getNow(path); // maybe cached along with another image meanwhile
+					if (cached instanceof BufferedImage)
+						return (BufferedImage)cached;
+					if (readsAtlas(directory, path, id)) { // maybe read by another thread meanwhile
+						ImageAtlas atlas = loadAtlas(directory);
+						if (atlas != null && atlas.contains(id)) {
+							for (String other : atlas.getIds())
+								if (!other.equals(id))
+									offer(directory.resolve(other+EXTENSION), scale(atlas.getImage(other)));
+							return scale(atlas.getImage(id));
+						}
+					}
+				}
+			}
+		}
+		return super.decode(path, backup);
+	}
+
+	/**
+	 * Packs the images of every fandom directory into an atlas, replacing existing atlases.
+	 * @param imageDirectory the directory of the character images, containing one directory per fandom
+	 * @return the number of atlases written
+	 * @throws NullPointerException If <code>imageDirectory</code> refers to <code>null</code>.
+	 * @throws IOException If an image couldn't be read or an atlas couldn't be written.
+	 */
+	public static int buildAtlases(Path imageDirectory) throws IOException {
+		Utilities.requireNonNull(imageDirectory, "imageDirectory");
+		int count = 0;
+		try (DirectoryStream<Path> fandoms = Files.newDirectoryStream(imageDirectory, Files::isDirectory)) {
+			for (Path fandom : fandoms) {
+				Map<String, BufferedImage> images = new HashMap<>();
+				try (DirectoryStream<Path> files = Files.newDirectoryStream(fandom, "*"+EXTENSION)) {
+					for (Path file : files) {
+						String name = file.getFileName().toString();
+						if (name.equals(ATLAS_IMAGE))
+							continue;
+						BufferedImage image = ImageIO.read(file.toFile());
+						if (image == null)
+							throw new IOException("No image reader for "+file+"!");
+						images.put(name.substring(0, name.length() - EXTENSION.length()), image);
+					}
+				}
+				if (images.isEmpty())
+					continue;
+				ImageAtlas.pack(images).save(fandom.resolve(ATLAS_IMAGE), fandom.resolve(ATLAS_INDEX));
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Builds the atlases of the character images.
+	 * @param args The directory of the character images can be given as first argument,
+	 * else {@link GUIUtilities#getCharacterImagesPath()} is used.
+	 */
+	public static void main(String[] args) {
+		try {
+			Path imageDirectory;
+			if (args.length > 0)
+				imageDirectory = Path.of(args[0]);
+			else {
+				Utilities.loadApplicationDirectory();
+				imageDirectory = GUIUtilities.getCharacterImagesPath();
+			}
+			System.out.println(String.format("Wrote %d atlases.", buildAtlases(imageDirectory)));
+		}
+		catch (IOException ex) {
+			System.err.println(ex.getMessage());
+			System.exit(2);
+		}
+	}
+
+}
@@ -0,0 +1,176 @@
+package org.abos.sc.gui;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.abos.util.Id;
+import org.abos.util.Utilities;
+
+/**
+ * Sorted views of a collection, shared by several {@link ContentComboBox}es. Each comparator gets its own view,
+ * which is sorted once and afterwards kept up to date: Added items are inserted at their place by binary search and
+ * the order is only checked again, since sorting an already sorted list is linear. Only if items are removed,
+ * the views are rebuilt. The comparators should be reused, e.g. from {@link CompanionSortComboBox#getComparator()},
+ * since each new comparator creates a new view.
+ * @author Sebastian Koch
+ * @version %I%
+ * @param <T> the type of the items
+ * @since 0.7
+ * @see #refresh()
+ */
+public class SortedContent<T extends Id> {
+
+	/**
+	 * The key for the view in the order of the underlying collection.
+	 */
+	private static final Comparator<Object> UNSORTED = (o1, o2) -> 0;
+
+	/**
+	 * The underlying collection.
+	 */
+	protected Collection<T> content;
+
+	/**
+	 * The items of the content at the last refresh, by identity since the items may change their hash code.
+	 */
+	protected final Set<T> known = Collections.newSetFromMap(new IdentityHashMap<>());
+
+	/**
+	 * The sorted views by their comparator.
+	 */
+	protected final Map<Comparator<? super T>, List<T>> views = new HashMap<>();
+
+	/**
+	 * The views that may not be sorted anymore, since the items may have changed.
+	 */
+	protected final Set<List<T>> unchecked = Collections.newSetFromMap(new IdentityHashMap<>());
+
+	/**
+	 * Creates new sorted views of the specified collection.
+	 * @param content the underlying collection
+	 * @throws NullPointerException If <code>content</code> refers to <code>null</code>.
+	 */
+	public SortedContent(Collection<T> content) {
+		Utilities.requireNonNull(content, "content");
+		this.content = content;
+		known.addAll(content);
+	}
+
+	/**
+	 * @return the underlying collection
+	 */
+	public Collection<T> getContent() {
+		return content;
+	}
+
+	/**
+	 * Replaces the underlying collection, which discards all views.
+	 * @param content the new underlying collection
+	 * @throws NullPointerException If <code>content</code> refers to <code>null</code>.
+	 */
+	public void setContent(Collection<T> content) {
+		Utilities.requireNonNull(content, "content");
+		this.content = content;
+		known.clear();
+		known.addAll(content);
+		views.clear();
+		unchecked.clear();
+	}
+
+	/**
+	 * Tests if the underlying collection contains the specified item.
+	 * @param item the item to test
+	 * @return <code>true</code> if the underlying collection contains the item, else <code>false</code>
+	 * @see Collection#contains(Object)
+	 */
+	public boolean contains(Object item) {
+		return content.contains(item);
+	}
+
+	/**
+	 * Takes changes of the underlying collection and of the items into account. Added items are inserted into all views,
+	 * removed items let all views be rebuilt, and all views will be checked for their order when requested next.
+	 */
+	public void refresh() {
+		List<T> added = new ArrayList<>();
+		int present = 0;
+		for (T item : content) {
+			if (known.contains(item))
+				present++;
+			else
+				added.add(item);
+		}
+		if (present != known.size()) { // some items have been removed
+			setContent(content);
+			return;
+		}
+		known.addAll(added);
+		if (!added.isEmpty()) {
+			for (Map.Entry<Comparator<? super T>, List<T>> entry : views.entrySet()) {
+				List<T> view = entry.getValue();
+				if (entry.getKey() == UNSORTED)
+					view.addAll(added);
+				else {
+					sort(view, entry.getKey()); // so the binary search works
+					for (T item : added) {
+						int index = Collections.binarySearch(view, item, entry.getKey());
+						view.add(index < 0 ? -index - 1 : index, item);
+					}
+				}
+			}
+		}
+		unchecked.addAll(views.values());
+	}
+
+	/**
+	 * Returns the view for the specified comparator, creating it if needed.
+	 * @param comparator the order of the view, <code>null</code> for the order of the underlying collection
+	 * @return an unmodifiable view of the content as of the last {@link #refresh()}
+	 */
+	@SuppressWarnings("unchecked")
+	public List<T> getSorted(Comparator<? super T> comparator) {
+		Comparator<? super T> key = comparator == null ? (Comparator<? super T>)(Comparator<?>)UNSORTED : comparator;
+		List<T> view = views.get(key);
+		if (view == null) {
+			view = new ArrayList<>(known.size());
+			for (T item : content)
+				if (known.contains(item))
+					view.add(item);
+			if (comparator != null)
+				view.sort(comparator);
+			views.put(key, view);
+		}
+		else if (unchecked.remove(view) && comparator != null)
+			sort(view, comparator);
+		return Collections.unmodifiableList(view);
+	}
+
+	/**
+	 * Sorts the view if it isn't sorted anymore.
+	 * @param view the view to sort
+	 * @param comparator the order of the view
+	 */
+	protected static <T> void sort(List<T> view, Comparator<? super T> comparator) {
+		Iterator<T> it = view.iterator();
+		if (!it.hasNext())
+			return;
+		T previous = it.next();
+		while (it.hasNext()) {
+			T current = it.next();
+			if (comparator.compare(previous, current) > 0) {
+				view.sort(comparator);
+				return;
+			}
+			previous = current;
+		}
+	}
+
+}
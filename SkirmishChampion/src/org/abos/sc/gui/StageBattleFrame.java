@@ -9,7 +9,6 @@ import java.awt.HeadlessException;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.util.Comparator;
-import java.util.logging.LogRecord;
 
 import javax.swing.JButton;
 import javax.swing.JEditorPane;
@@ -20,6 +19,7 @@ import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.JTextArea;
 import javax.swing.SwingConstants;
+import javax.swing.Timer;
 import javax.swing.text.DefaultCaret;
 
 import org.abos.sc.core.ChallengeRatable;
@@ -27,6 +27,7 @@ import org.abos.sc.core.Difficulty;
 import org.abos.sc.core.Player;
 import org.abos.sc.core.Stage;
 import org.abos.sc.core.battle.Battle;
+import org.abos.sc.core.battle.BattleMetrics;
 import org.abos.sc.core.battle.Conclusion;
 import org.abos.sc.core.battle.Encounter;
 import org.abos.util.gui.GUIUtilities;
@@ -41,6 +42,11 @@ public class StageBattleFrame extends JFrame {
 
 	public static final String TITLE = "Stage Battle";
 	
+	/**
+	 * How often the health of the characters is refreshed during a battle, per second.
+	 */
+	public static final int FRAME_RATE = 30;
+	
 	protected Player player = null;
 	
 	protected Stage stage = null;
@@ -67,6 +73,11 @@ public class StageBattleFrame extends JFrame {
 	
 	protected JButton returnButton;
 	
+	/**
+	 * Refreshes the health with {@link #FRAME_RATE} while a battle is shown, independent of the attack rate.
+	 */
+	protected Timer healthTimer;
+	
 	/**
 	 * @throws HeadlessException
 	 */
@@ -147,6 +158,9 @@ public class StageBattleFrame extends JFrame {
 		returnButton.setEnabled(false);
 		setDefaultCloseOperation(JFrame.DO_NOTHING_ON_CLOSE);
 		battle = new Battle(be1, be2, Difficulty.of(player), handler);
+		if (stage != null)
+			battle.setStageId(stage.getId());
+		healthTimer.start();
 		battle.run();
 		new Thread(new Runnable() {
 			@Override public void run() {
@@ -176,6 +190,7 @@ public class StageBattleFrame extends JFrame {
 	
 	public void returnFromBattle() {
 		setVisible(false, false);
+		healthTimer.stop();
 		if (battle != null)
 			battle.restoreCombatants();
 		battle = null;
@@ -223,11 +238,15 @@ public class StageBattleFrame extends JFrame {
 		battleLog.setText(null); // needed so autoscrolling works on first time
 		battleLogWrapper = new JScrollPane(battleLog);
 		handler = new TextAreaHandler(battleLog) {
-			@Override public void publish(LogRecord record) {
-				super.publish(record);
-				refreshHealth();
+			@Override protected void formatted(long nanos) {
+				BattleMetrics.METRICS.logFormatted(nanos);
+			}
+			@Override protected void appended(long latency) {
+				BattleMetrics.METRICS.edtUpdated(latency);
 			}
 		};
+		healthTimer = new Timer(1000 / FRAME_RATE, e -> refreshHealth());
+		healthTimer.setCoalesce(true);
 		fightButton = new JButton("Fight");
 		fightButton.addActionListener(e -> commenceBattle());
 		returnButton = new JButton("Return");
@@ -3,17 +3,22 @@ package org.abos.sc.gui;
 import java.awt.BorderLayout;
 import java.awt.GridLayout;
 import java.awt.HeadlessException;
+import java.time.Duration;
 
 import javax.swing.JButton;
+import javax.swing.JComboBox;
 import javax.swing.JFrame;
+import javax.swing.JLabel;
+import javax.swing.JOptionPane;
 import javax.swing.JPanel;
+import javax.swing.JSpinner;
+import javax.swing.SpinnerNumberModel;
 
 import org.abos.sc.core.Difficulty;
 import org.abos.sc.core.Player;
 import org.abos.sc.core.Stage;
-import org.abos.sc.core.battle.Encounter;
-import org.abos.sc.core.battle.Formation;
-import org.abos.sc.core.battle.Strategy;
+import org.abos.sc.core.StageFarm;
+import org.abos.sc.core.battle.Conclusion;
 import org.abos.util.Utilities;
 import org.abos.util.gui.GUIUtilities;
 
@@ -26,6 +31,13 @@ public class StageSelectionFrame extends JFrame {
 
 	public static final String TITLE = "Stage Selection";
 	
+	public static final String AUTO_FARM_TITLE = "Auto-Farm";
+	
+	/**
+	 * The units the repetitions of auto-farming can be given in, see {@link #autoFarm()}.
+	 */
+	public static final String[] AUTO_FARM_UNITS = new String[] {"battles", "minutes", "hours"};
+	
 	protected Player player;
 	
 	protected Runnable afterHiding = null;
@@ -42,6 +54,10 @@ public class StageSelectionFrame extends JFrame {
 	
 	protected JButton stageBattleButton;
 	
+	protected JButton idleStageButton;
+	
+	protected JButton autoFarmButton;
+	
 	protected JButton returnButton;
 	
 	/**
@@ -113,6 +129,8 @@ public class StageSelectionFrame extends JFrame {
 	
 	public void showPartySelectionFrame() {
 		partySelectionFrame.setFormation(player.getParty());
+		partySelectionFrame.setStrategy(player.getStrategy());
+		partySelectionFrame.setOpponent(selectionPanel.getStage() == null ? null : selectionPanel.getStage().createEncounter());
 		if (player.getDifficulty().stopSteamrolling())
 			partySelectionFrame.setStageChallengeRatingCap(Difficulty.of(player).getChallengeRatingCap(selectionPanel.getStage().getChallengeRating()));
 		else
@@ -126,6 +144,7 @@ public class StageSelectionFrame extends JFrame {
 	
 	public void afterHidingPartySelectionFrame() {
 		player.setParty(partySelectionFrame.getFormation());
+		player.setStrategy(partySelectionFrame.getStrategy());
 		afterHidingSubframe();
 	}
 	
@@ -140,11 +159,84 @@ public class StageSelectionFrame extends JFrame {
 		Stage stage = selectionPanel.getStage();
 		stageBattleFrame.setStage(stage);
 		stage.engageStage();
-		stageBattleFrame.setFirstParty(new Encounter((Formation)player.getParty().clone(), Strategy.createConcentratedAssault()));
+		stageBattleFrame.setFirstParty(player.createPartyEncounter());
 		stageBattleFrame.setSecondParty(stage.getEncounter());
 		showSubframe(stageBattleFrame);
 	}
 	
+	/**
+	 * Lets the party farm the selected stage while the game is closed, if the stage has been cleared
+	 * and the party doesn't exceed the challenge rating cap for it.
+	 * @see Player#setIdleStageId(String)
+	 */
+	public void chooseIdleStage() {
+		Stage stage = selectionPanel.getStage();
+		if (stage == null || !stage.isCleared()) {
+			JOptionPane.showMessageDialog(this, "Only cleared stages can be farmed while you are away.", TITLE, JOptionPane.INFORMATION_MESSAGE);
+			return;
+		}
+		if (StageFarm.exceedsChallengeRatingCap(player, stage)) {
+			JOptionPane.showMessageDialog(this, "Your party is a bit too powerful to farm this stage. Let's not steamroll through it, okay?", TITLE, JOptionPane.INFORMATION_MESSAGE);
+			return;
+		}
+		player.setIdleStageId(stage.getId());
+		JOptionPane.showMessageDialog(this, "Your party will farm "+stage.getName()+" while you are away.", TITLE, JOptionPane.INFORMATION_MESSAGE);
+	}
+	
+	/**
+	 * Repeats the selected stage a chosen number of times or for a chosen time. The battles are resolved at once 
+	 * in virtual time and only a summary is shown, so the selected stage must have been cleared and be won by the party
+	 * without exceeding the challenge rating cap.
+	 * @see StageFarm
+	 */
+	public void autoFarm() {
+		Stage stage = selectionPanel.getStage();
+		if (stage == null || !stage.isCleared()) {
+			JOptionPane.showMessageDialog(this, "Only cleared stages can be auto-farmed.", AUTO_FARM_TITLE, JOptionPane.INFORMATION_MESSAGE);
+			return;
+		}
+		if (StageFarm.exceedsChallengeRatingCap(player, stage)) {
+			JOptionPane.showMessageDialog(this, "Your party is a bit too powerful to farm this stage. Let's not steamroll through it, okay?", AUTO_FARM_TITLE, JOptionPane.INFORMATION_MESSAGE);
+			return;
+		}
+		StageFarm farm = new StageFarm(player, stage);
+		if (farm.getConclusion() != Conclusion.WON) {
+			JOptionPane.showMessageDialog(this, "Your party doesn't win this stage, auto-farming it would only cost gold.", AUTO_FARM_TITLE, JOptionPane.INFORMATION_MESSAGE);
+			return;
+		}
+		JSpinner amount = new JSpinner(new SpinnerNumberModel(10, 1, Integer.MAX_VALUE, 1));
+		JComboBox<String> unit = new JComboBox<>(AUTO_FARM_UNITS);
+		JPanel repeatPanel = new JPanel(new GridLayout(1, 0));
+		repeatPanel.add(new JLabel("Repeat for"));
+		repeatPanel.add(amount);
+		repeatPanel.add(unit);
+		if (JOptionPane.showConfirmDialog(this, repeatPanel, AUTO_FARM_TITLE, JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE) != JOptionPane.OK_OPTION)
+			return;
+		int value = (Integer)amount.getValue();
+		switch (unit.getSelectedIndex()) {
+		case 0:
+			farm.farm(value);
+			break;
+		case 1:
+			farm.farmFor(Duration.ofMinutes(value));
+			break;
+		default:
+			farm.farmFor(Duration.ofHours(value));
+		}
+		selectionPanel.refreshSelectors();
+		Duration duration = farm.getDuration();
+		StringBuilder message = new StringBuilder(farm.toString());
+		message.append(System.lineSeparator());
+		message.append("Time: ");
+		message.append(duration.toHours());
+		message.append("h ");
+		message.append(duration.toMinutesPart());
+		message.append("min ");
+		message.append(duration.toSecondsPart());
+		message.append('s');
+		JOptionPane.showMessageDialog(this, message.toString(), AUTO_FARM_TITLE, JOptionPane.INFORMATION_MESSAGE);
+	}
+	
 	private void initComponents() {
 		selectionPanel = new StageSelectionPanel(player,leftToRight);
 		partySelectionFrame = new PartySelectionFrame(player.getCompanions());
@@ -156,6 +248,10 @@ public class StageSelectionFrame extends JFrame {
 		stageBattleFrame.setAfterHiding(() -> afterBattle());
 		stageBattleButton = new JButton("Fight");
 		stageBattleButton.addActionListener(e -> prepareBattle());
+		idleStageButton = new JButton("Idle Here");
+		idleStageButton.addActionListener(e -> chooseIdleStage());
+		autoFarmButton = new JButton(AUTO_FARM_TITLE);
+		autoFarmButton.addActionListener(e -> autoFarm());
 		returnButton = new JButton("Return");
 		returnButton.addActionListener(e -> setVisible(false));
 	}
@@ -164,6 +260,8 @@ public class StageSelectionFrame extends JFrame {
 		JPanel buttonPanel = new JPanel(new GridLayout(1, 0));
 		buttonPanel.add(partySelectionButton);
 		buttonPanel.add(stageBattleButton);
+		buttonPanel.add(autoFarmButton);
+		buttonPanel.add(idleStageButton);
 		buttonPanel.add(returnButton);
 		BorderLayout layout = new BorderLayout();
 		setLayout(layout);
@@ -0,0 +1,34 @@
+package org.abos.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A flight recorder event spanning the loading of a data file.
+ * @author Sebastian Koch
+ * @version %I%
+ * @since 0.7
+ * @see Utilities#loadFromFile(java.nio.file.Path, java.util.function.Consumer)
+ */
+@Name("org.abos.sc.GameDataLoaded")
+@Label("Game Data Loaded")
+@Category({"Skirmish Champion", "Persistence"})
+@Description("A data file has been read and parsed line by line")
+public class GameDataLoadedEvent extends Event {
+
+	/**
+	 * The path of the data file.
+	 */
+	@Label("File")
+	public String file;
+
+	/**
+	 * The number of lines of the file.
+	 */
+	@Label("Lines")
+	public int lines;
+
+}
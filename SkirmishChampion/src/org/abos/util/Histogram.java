@@ -0,0 +1,197 @@
+package org.abos.util;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * A histogram of non-negative <code>long</code> values with logarithmic buckets. Values below {@link #SUB_BUCKETS}
+ * are counted exactly, larger values in buckets with a relative width of at most <code>1/SUB_BUCKETS</code>.
+ * Recording is thread safe and doesn't allocate.
+ * @author Sebastian Koch
+ * @version %I%
+ * @since 0.7
+ * @see #record(long)
+ * @see #getPercentile(double)
+ */
+public class Histogram {
+
+	/**
+	 * The number of buckets per power of two.
+	 */
+	public static final int SUB_BUCKETS = 16;
+
+	/**
+	 * The binary logarithm of {@link #SUB_BUCKETS}.
+	 */
+	private static final int SUB_BITS = 4;
+
+	/**
+	 * The number of buckets needed for all non-negative <code>long</code> values.
+	 */
+	private static final int BUCKETS = SUB_BUCKETS + (Long.SIZE - 1 - SUB_BITS) * SUB_BUCKETS;
+
+	/**
+	 * The counts per bucket.
+	 */
+	private final long[] counts = new long[BUCKETS];
+
+	/**
+	 * The number of recorded values.
+	 */
+	private long count = 0L;
+
+	/**
+	 * The sum of the recorded values, as <code>double</code> to not overflow.
+	 */
+	private double sum = 0d;
+
+	/**
+	 * The smallest recorded value.
+	 */
+	private long min = Long.MAX_VALUE;
+
+	/**
+	 * The largest recorded value.
+	 */
+	private long max = Long.MIN_VALUE;
+
+	/**
+	 * Returns the bucket of the specified value.
+	 * @param value a non-negative value
+	 * @return the index of the bucket
+	 */
+	protected static int bucket(long value) {
+		if (value < SUB_BUCKETS)
+			return (int)value;
+		int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+		return SUB_BUCKETS + shift * SUB_BUCKETS + (int)(value >>> shift) - SUB_BUCKETS;
+	}
+
+	/**
+	 * Returns the largest value of the specified bucket.
+	 * @param bucket the index of the bucket
+	 * @return the upper bound of the bucket
+	 */
+	protected static long upperBound(int bucket) {
+		if (bucket < SUB_BUCKETS)
+			return bucket;
+		int shift = (bucket - SUB_BUCKETS) / SUB_BUCKETS;
+		long mantissa = SUB_BUCKETS + (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+		return ((mantissa + 1) << shift) - 1;
+	}
+
+	/**
+	 * Records a value. Negative values are recorded as <code>0</code>.
+	 * @param value the value to record
+	 */
+	public synchronized void record(long value) {
+		if (value < 0)
+			value = 0;
+		counts[bucket(value)]++;
+		count++;
+		sum += value;
+		min = Math.min(min, value);
+		max = Math.max(max, value);
+	}
+
+	/**
+	 * Adds all values of another histogram to this one.
+	 * @param other the histogram to add
+	 * @throws NullPointerException If <code>other</code> refers to <code>null</code>.
+	 */
+	public void add(Histogram other) {
+		Utilities.requireNonNull(other, "other");
+		long[] otherCounts;
+		long otherCount, otherMin, otherMax;
+		double otherSum;
+		synchronized (other) {
+			otherCounts = other.counts.clone();
+			otherCount = other.count;
+			otherSum = other.sum;
+			otherMin = other.min;
+			otherMax = other.max;
+		}
+		synchronized (this) {
+			for (int i = 0; i < BUCKETS; i++)
+				counts[i] += otherCounts[i];
+			count += otherCount;
+			sum += otherSum;
+			min = Math.min(min, otherMin);
+			max = Math.max(max, otherMax);
+		}
+	}
+
+	/**
+	 * @return the number of recorded values
+	 */
+	public synchronized long getCount() {
+		return count;
+	}
+
+	/**
+	 * @return the smallest recorded value, {@link Long#MAX_VALUE} if there is none
+	 */
+	public synchronized long getMin() {
+		return min;
+	}
+
+	/**
+	 * @return the largest recorded value, {@link Long#MIN_VALUE} if there is none
+	 */
+	public synchronized long getMax() {
+		return max;
+	}
+
+	/**
+	 * @return the mean of the recorded values, {@link Double#NaN} if there are none
+	 */
+	public synchronized double getMean() {
+		return sum / count;
+	}
+
+	/**
+	 * Returns a percentile of the recorded values using the nearest-rank method. The result is the upper bound of the bucket
+	 * the percentile falls into, but never larger than the largest recorded value.
+	 * @param fraction the fraction of the values, between <code>0</code> and <code>1</code>
+	 * @return the percentile, <code>0</code> if there are no values
+	 * @throws IllegalArgumentException If <code>fraction</code> isn't between <code>0</code> and <code>1</code>.
+	 */
+	public synchronized long getPercentile(double fraction) {
+		if (!(0d <= fraction && fraction <= 1d))
+			throw new IllegalArgumentException("The fraction must be between 0 and 1!");
+		if (count == 0)
+			return 0L;
+		long rank = Math.max(1L, (long)Math.ceil(fraction * count));
+		long seen = 0L;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += counts[i];
+			if (seen >= rank)
+				return Math.max(min, Math.min(max, upperBound(i)));
+		}
+		return max;
+	}
+
+	/**
+	 * Removes all recorded values.
+	 */
+	public synchronized void reset() {
+		Arrays.fill(counts, 0L);
+		count = 0L;
+		sum = 0d;
+		min = Long.MAX_VALUE;
+		max = Long.MIN_VALUE;
+	}
+
+	/**
+	 * Returns a summary of this histogram, e.g. "<code>count=12 mean=3.5 p50=3 p99=9 max=10</code>".
+	 * @return a summary of the recorded values
+	 */
+	@Override
+	public synchronized String toString() {
+		if (count == 0)
+			return "count=0";
+		return String.format(Locale.ROOT, "count=%d mean=%.1f p50=%d p99=%d max=%d",
+				count, getMean(), getPercentile(0.5d), getPercentile(0.99d), max);
+	}
+
+}
@@ -0,0 +1,147 @@
+package org.abos.util;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the phases of an application startup and the time to the first interactive frame. The phases on the
+ * startup path are measured as laps, i.e. each from the end of the previous one, while background tasks
+ * can be measured on their own. All times are on the monotonic clock, in nanoseconds, and relative to the creation of the profiler.
+ * @author Sebastian Koch
+ * @version %I%
+ * @since 0.7
+ * @see #lap(String)
+ * @see #timed(String, Runnable)
+ * @see #firstFrame()
+ */
+public class StartupProfiler {
+
+	/**
+	 * The creation of this profiler as of {@link System#nanoTime()}.
+	 */
+	private final long origin;
+
+	/**
+	 * The end of the last lap as of {@link System#nanoTime()}.
+	 */
+	private long last;
+
+	/**
+	 * The durations of the phases in the order they were first recorded.
+	 */
+	private final Map<String, Long> phases = new LinkedHashMap<>();
+
+	/**
+	 * The time to the first interactive frame, <code>-1</code> if it hasn't been reached yet.
+	 */
+	private long firstFrame = -1L;
+
+	/**
+	 * Creates a new startup profiler, starting the first lap.
+	 */
+	public StartupProfiler() {
+		origin = System.nanoTime();
+		last = origin;
+	}
+
+	/**
+	 * Ends the current lap, records it as the specified phase and starts the next lap. 
+	 * If the phase has been recorded before, the durations are added.
+	 * @param phase the name of the phase that just ended
+	 * @return the duration of the lap
+	 * @throws NullPointerException If <code>phase</code> refers to <code>null</code>.
+	 */
+	public synchronized long lap(String phase) {
+		Utilities.requireNonNull(phase, "phase");
+		long now = System.nanoTime();
+		long duration = now - last;
+		last = now;
+		phases.merge(phase, duration, Long::sum);
+		return duration;
+	}
+
+	/**
+	 * Records a phase that doesn't belong to the laps, e.g. a background task. 
+	 * If the phase has been recorded before, the durations are added.
+	 * @param phase the name of the phase
+	 * @param nanos the duration of the phase
+	 * @throws NullPointerException If <code>phase</code> refers to <code>null</code>.
+	 */
+	public synchronized void record(String phase, long nanos) {
+		Utilities.requireNonNull(phase, "phase");
+		phases.merge(phase, nanos, Long::sum);
+	}
+
+	/**
+	 * Wraps a task so its duration is recorded as the specified phase whenever it runs.
+	 * @param phase the name of the phase
+	 * @param task the task to measure
+	 * @return a runnable running and measuring <code>task</code>
+	 * @throws NullPointerException If any parameter refers to <code>null</code>.
+	 * @see #record(String, long)
+	 */
+	public Runnable timed(String phase, Runnable task) {
+		Utilities.requireNonNull(phase, "phase");
+		Utilities.requireNonNull(task, "task");
+		return () -> {
+			long start = System.nanoTime();
+			try {
+				task.run();
+			}
+			finally {
+				record(phase, System.nanoTime() - start);
+			}
+		};
+	}
+
+	/**
+	 * Marks that the first interactive frame has been reached. Only the first call has an effect.
+	 * @return the time to the first interactive frame
+	 */
+	public synchronized long firstFrame() {
+		if (firstFrame == -1L)
+			firstFrame = System.nanoTime() - origin;
+		return firstFrame;
+	}
+
+	/**
+	 * @return the time to the first interactive frame, <code>-1</code> if it hasn't been reached yet
+	 */
+	public synchronized long getTimeToFirstFrame() {
+		return firstFrame;
+	}
+
+	/**
+	 * @return a copy of the durations of the recorded phases, in the order they were first recorded
+	 */
+	public synchronized Map<String, Long> getPhases() {
+		return new LinkedHashMap<>(phases);
+	}
+
+	/**
+	 * Returns a summary of this profiler, e.g. "<code>config=1.2 ms, game data=35.0 ms, first frame=240.3 ms</code>".
+	 * @return the durations of the phases and the time to the first interactive frame in milliseconds
+	 */
+	@Override
+	public synchronized String toString() {
+		StringJoiner joiner = new StringJoiner(", ");
+		for (Map.Entry<String, Long> phase : phases.entrySet())
+			joiner.add(phase.getKey()+"="+millis(phase.getValue()));
+		if (firstFrame != -1L)
+			joiner.add("first frame="+millis(firstFrame));
+		return joiner.toString();
+	}
+
+	/**
+	 * Formats nanoseconds as milliseconds.
+	 * @param nanos the nanoseconds to format
+	 * @return the milliseconds with one decimal place and unit
+	 */
+	private static String millis(long nanos) {
+		return String.format(Locale.ROOT, "%.1f ms", nanos / (double)TimeUnit.MILLISECONDS.toNanos(1));
+	}
+
+}
@@ -18,7 +18,11 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Random;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.logging.Formatter;
 import java.util.logging.LogRecord;
 
@@ -688,6 +692,59 @@ public class Utilities {
 		}
 	}
 	
+	/**
+	 * Appends the specified string as a quoted and escaped JSON string to the string builder.
+	 * @param str the string to append, <code>null</code> will be appended as JSON <code>null</code>
+	 * @param s the string builder to append to
+	 * @throws NullPointerException If <code>s</code> refers to <code>null</code>.
+	 * @see #iterableToJson(Iterable, StringBuilder)
+	 */
+	public static void appendJsonString(String str, StringBuilder s) {
+		requireNonNull(s, "s");
+		if (str == null) {
+			s.append("null");
+			return;
+		}
+		s.append('"');
+		for (int i = 0; i < str.length(); i++) {
+			char c = str.charAt(i);
+			switch (c) {
+			case '"': s.append("\\\""); break;
+			case '\\': s.append("\\\\"); break;
+			case '\n': s.append("\\n"); break;
+			case '\r': s.append("\\r"); break;
+			case '\t': s.append("\\t"); break;
+			default:
+				if (c < 0x20)
+					s.append(String.format("\\u%04x", (int)c));
+				else
+					s.append(c);
+			}
+		}
+		s.append('"');
+	}
+
+	/**
+	 * Appends the string representations of the entries as a JSON array of strings to the string builder.
+	 * @param iterable the entries to append
+	 * @param s the string builder to append to
+	 * @throws NullPointerException If <code>iterable</code> or <code>s</code> refers to <code>null</code>.
+	 * @see #appendJsonString(String, StringBuilder)
+	 */
+	public static void iterableToJson(Iterable<?> iterable, StringBuilder s) {
+		requireNonNull(iterable, "iterable");
+		requireNonNull(s, "s");
+		s.append('[');
+		Iterator<?> it = iterable.iterator();
+		while (it.hasNext()) {
+			Object next = it.next();
+			appendJsonString(next == null ? null : next.toString(), s);
+			if (it.hasNext())
+				s.append(',');
+		}
+		s.append(']');
+	}
+
 	/**
 	 * Reads in lines from a file that are all to be parsed in the same way as specified by the parser.
 	 * The file is expected to be encoded in {@link #ENCODING}. Empty lines and lines starting with "//" for comments
@@ -705,6 +762,8 @@ public class Utilities {
 	public static void loadFromFile(Path path, Consumer<String> lineParser) throws IOException {
 		requireNonNull(path, "path");
 		requireNonNull(lineParser, "lineParser");
+		GameDataLoadedEvent event = new GameDataLoadedEvent();
+		event.begin();
 		int lineCounter = 0;
 		for (String line : Files.readAllLines(path, ENCODING)) {
 			lineCounter++;
@@ -717,6 +776,58 @@ public class Utilities {
 				throw new ParseException(String.format("Parsing Error in line %d: %s", lineCounter, line),ex); 
 			}
 		}
+		event.end();
+		if (event.shouldCommit()) {
+			event.file = path.toString();
+			event.lines = lineCounter;
+			event.commit();
+		}
+	}
+	
+	/**
+	 * Creates an executor that starts a new virtual thread for each task if the runtime supports virtual threads.
+	 * Older runtimes get a cached pool of daemon threads instead. The method is looked up reflectively,
+	 * so this compiles against older releases as well.
+	 * @return an executor service with a thread per task
+	 */
+	public static ExecutorService newThreadPerTaskExecutor() {
+		try {
+			return (ExecutorService)Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		}
+		catch (ReflectiveOperationException ex) {
+			return Executors.newCachedThreadPool(runnable -> {
+				Thread thread = new Thread(runnable);
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+	}
+	
+	/**
+	 * Returns the value cached for the specified key, computing and caching it first if necessary. Unlike 
+	 * {@link ConcurrentMap#computeIfAbsent(Object, Function)} the value is computed without holding a lock, 
+	 * so a long computation doesn't block other keys. If threads compute the same key concurrently,
+	 * all of them return the value cached first, so the computation must be free of side effects.
+	 * @param <K> the type of the keys
+	 * @param <V> the type of the values
+	 * @param cache the cache to use
+	 * @param key the key to look up
+	 * @param compute the function to compute a missing value, mustn't return <code>null</code>
+	 * @return the value cached for <code>key</code>
+	 * @throws NullPointerException If any parameter refers to <code>null</code> or <code>compute</code> returns <code>null</code>.
+	 */
+	public static <K, V> V getOrCompute(ConcurrentMap<K, V> cache, K key, Function<? super K, ? extends V> compute) {
+		requireNonNull(cache, "cache");
+		requireNonNull(key, "key");
+		requireNonNull(compute, "compute");
+		V value = cache.get(key);
+		if (value == null) {
+			value = compute.apply(key);
+			V previous = cache.putIfAbsent(key, value);
+			if (previous != null)
+				value = previous;
+		}
+		return value;
 	}
 	
 	/**
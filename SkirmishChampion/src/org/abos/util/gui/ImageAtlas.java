@@ -0,0 +1,218 @@
+package org.abos.util.gui;
+
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.imageio.ImageIO;
+
+import org.abos.util.ParseException;
+import org.abos.util.Utilities;
+
+/**
+ * Many small images packed into one image, with an index of their regions. Decoding one atlas is much cheaper
+ * than opening and decoding every small image on its own. The index is a text file with one line
+ * "<code>ID;X;Y;WIDTH;HEIGHT</code>" per image.
+ * @author Sebastian Koch
+ * @version %I%
+ * @since 0.7
+ * @see #pack(Map)
+ * @see #load(Path, Path)
+ */
+public class ImageAtlas {
+
+	/**
+	 * The separator of the fields in the index.
+	 */
+	public static final String SEPARATOR = ";";
+
+	/**
+	 * The image containing all packed images.
+	 */
+	protected final BufferedImage image;
+
+	/**
+	 * The regions of the packed images by their ID.
+	 */
+	protected final Map<String, Rectangle> regions;
+
+	/**
+	 * Creates a new image atlas.
+	 * @param image the image containing all packed images
+	 * @param regions the regions of the packed images by their ID, which must lie within <code>image</code>
+	 * @throws NullPointerException If any parameter refers to <code>null</code>.
+	 * @throws IllegalArgumentException If a region doesn't lie within <code>image</code>.
+	 */
+	public ImageAtlas(BufferedImage image, Map<String, Rectangle> regions) {
+		Utilities.requireNonNull(image, "image");
+		Utilities.requireNonNull(regions, "regions");
+		Rectangle bounds = new Rectangle(0, 0, image.getWidth(), image.getHeight());
+		this.regions = new HashMap<>(regions.size());
+		for (Map.Entry<String, Rectangle> entry : regions.entrySet()) {
+			Rectangle region = entry.getValue();
+			if (region.isEmpty() || !bounds.contains(region))
+				throw new IllegalArgumentException("The region of "+entry.getKey()+" doesn't lie within the atlas!");
+			this.regions.put(entry.getKey(), new Rectangle(region));
+		}
+		this.image = image;
+	}
+
+	/**
+	 * Packs the specified images into an atlas, shelf by shelf from the highest to the lowest image.
+	 * @param images the images to pack by their ID
+	 * @return a new image atlas containing all images
+	 * @throws NullPointerException If <code>images</code> or any of its values refers to <code>null</code>.
+	 * @throws IllegalArgumentException If <code>images</code> is empty.
+	 */
+	public static ImageAtlas pack(Map<String, ? extends BufferedImage> images) {
+		Utilities.requireNonNull(images, "images");
+		Utilities.requireNonNullEntries(images.values(), "images");
+		if (images.isEmpty())
+			throw new IllegalArgumentException("There must be at least one image to pack!");
+		List<String> ids = new ArrayList<>(images.keySet());
+		ids.sort(Comparator.<String>comparingInt(id -> images.get(id).getHeight()).reversed().thenComparing(Comparator.naturalOrder()));
+		long area = 0L;
+		int maxWidth = 0;
+		for (BufferedImage image : images.values()) {
+			area += (long)image.getWidth() * image.getHeight();
+			maxWidth = Math.max(maxWidth, image.getWidth());
+		}
+		final int shelfWidth = Math.max(maxWidth, (int)Math.ceil(Math.sqrt(area)));
+		Map<String, Rectangle> regions = new HashMap<>(ids.size());
+		int x = 0, y = 0, shelfHeight = 0, width = 0;
+		for (String id : ids) {
+			BufferedImage image = images.get(id);
+			if (x + image.getWidth() > shelfWidth) {
+				x = 0;
+				y += shelfHeight;
+				shelfHeight = 0;
+			}
+			regions.put(id, new Rectangle(x, y, image.getWidth(), image.getHeight()));
+			x += image.getWidth();
+			width = Math.max(width, x);
+			shelfHeight = Math.max(shelfHeight, image.getHeight());
+		}
+		BufferedImage atlas = new BufferedImage(width, y + shelfHeight, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D g = atlas.createGraphics();
+		try {
+			for (Map.Entry<String, Rectangle> entry : regions.entrySet())
+				g.drawImage(images.get(entry.getKey()), entry.getValue().x, entry.getValue().y, null);
+		}
+		finally {
+			g.dispose();
+		}
+		return new ImageAtlas(atlas, regions);
+	}
+
+	/**
+	 * Loads an image atlas.
+	 * @param imagePath the path of the atlas image
+	 * @param indexPath the path of the index
+	 * @return the loaded image atlas
+	 * @throws NullPointerException If any parameter refers to <code>null</code>.
+	 * @throws ParseException If the index is malformed or doesn't fit the image.
+	 * @throws IOException If any I/O error occurs.
+	 */
+	public static ImageAtlas load(Path imagePath, Path indexPath) throws IOException {
+		Utilities.requireNonNull(imagePath, "imagePath");
+		Utilities.requireNonNull(indexPath, "indexPath");
+		Map<String, Rectangle> regions = new HashMap<>();
+		Utilities.loadFromFile(indexPath, line -> {
+			String[] parts = line.split(SEPARATOR);
+			if (parts.length != 5)
+				throw new ParseException("An atlas entry must consist of exactly 5 parts!");
+			int[] values;
+			try {
+				values = Utilities.arrayToInt(Arrays.copyOfRange(parts, 1, parts.length));
+			}
+			catch (NumberFormatException ex) {
+				throw new ParseException(ex);
+			}
+			if (regions.put(parts[0], new Rectangle(values[0], values[1], values[2], values[3])) != null)
+				throw new ParseException("The ID "+parts[0]+" appears twice!");
+		});
+		BufferedImage image = ImageIO.read(imagePath.toFile());
+		if (image == null)
+			throw new IOException("No image reader for "+imagePath+"!");
+		try {
+			return new ImageAtlas(image, regions);
+		}
+		catch (IllegalArgumentException ex) {
+			throw new ParseException(ex.getMessage(), ex);
+		}
+	}
+
+	/**
+	 * Saves this image atlas as PNG image and index.
+	 * @param imagePath the path to write the atlas image to
+	 * @param indexPath the path to write the index to
+	 * @throws NullPointerException If any parameter refers to <code>null</code>.
+	 * @throws IOException If any I/O error occurs.
+	 */
+	public void save(Path imagePath, Path indexPath) throws IOException {
+		Utilities.requireNonNull(imagePath, "imagePath");
+		Utilities.requireNonNull(indexPath, "indexPath");
+		List<String> ids = new ArrayList<>(regions.keySet());
+		Collections.sort(ids);
+		List<String> lines = new ArrayList<>(ids.size() + 1);
+		lines.add("// ID;X;Y;WIDTH;HEIGHT");
+		for (String id : ids) {
+			Rectangle region = regions.get(id);
+			lines.add(String.join(SEPARATOR, id, Integer.toString(region.x), Integer.toString(region.y),
+					Integer.toString(region.width), Integer.toString(region.height)));
+		}
+		if (!ImageIO.write(image, "png", imagePath.toFile()))
+			throw new IOException("No PNG writer available!");
+		Files.write(indexPath, lines, Utilities.ENCODING);
+	}
+
+	/**
+	 * Returns the image containing all packed images.
+	 * @return the atlas image, which must not be modified
+	 */
+	public BufferedImage getImage() {
+		return image;
+	}
+
+	/**
+	 * Returns the IDs of the packed images.
+	 * @return an unmodifiable set of the IDs
+	 */
+	public Set<String> getIds() {
+		return Collections.unmodifiableSet(regions.keySet());
+	}
+
+	/**
+	 * Tells if an image with the specified ID is packed in this atlas.
+	 * @param id the ID to look for
+	 * @return <code>true</code> if the image is packed in this atlas, else <code>false</code>
+	 */
+	public boolean contains(String id) {
+		return regions.containsKey(id);
+	}
+
+	/**
+	 * Returns the packed image with the specified ID. The image shares its data with the atlas image.
+	 * @param id the ID of the image
+	 * @return the image or <code>null</code> if there is none with this ID
+	 * @see BufferedImage#getSubimage(int, int, int, int)
+	 */
+	public BufferedImage getImage(String id) {
+		Rectangle region = regions.get(id);
+		if (region == null)
+			return null;
+		return image.getSubimage(region.x, region.y, region.width, region.height);
+	}
+
+}
@@ -0,0 +1,289 @@
+package org.abos.util.gui;
+
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import javax.imageio.ImageIO;
+import javax.swing.SwingUtilities;
+
+import org.abos.util.Utilities;
+
+/**
+ * A cache for images of a fixed size. Images are decoded on a background executor, scaled to the size once
+ * and kept until the byte budget is exceeded, at which point the least recently used images are evicted.
+ * Requests for an image that is already being loaded share the same load.
+ * @author Sebastian Koch
+ * @version %I%
+ * @since 0.7
+ * @see #get(Path, Path, Consumer)
+ */
+public class ImageCache {
+
+	/**
+	 * The bytes used per pixel of a cached image.
+	 */
+	public static final int BYTES_PER_PIXEL = 4;
+
+	/**
+	 * The size all images are scaled to.
+	 */
+	protected final Dimension size;
+
+	/**
+	 * The maximum number of bytes the cached images may use.
+	 */
+	protected final long byteBudget;
+
+	/**
+	 * The executor to decode and scale the images on.
+	 */
+	protected final Executor executor;
+
+	/**
+	 * The cached images in the order of their last access.
+	 */
+	private final LinkedHashMap<Path, BufferedImage> images = new LinkedHashMap<>(16, 0.75f, true);
+
+	/**
+	 * The loads in progress.
+	 */
+	private final Map<Path, CompletableFuture<BufferedImage>> pending = new HashMap<>();
+
+	/**
+	 * The number of bytes the cached images use.
+	 */
+	private long bytes = 0L;
+
+	/**
+	 * Creates a new image cache with its own pool of daemon threads.
+	 * @param size the size all images are scaled to
+	 * @param byteBudget the maximum number of bytes the cached images may use
+	 * @throws NullPointerException If <code>size</code> refers to <code>null</code>.
+	 * @throws IllegalArgumentException If <code>size</code> is empty or <code>byteBudget</code> is negative.
+	 */
+	public ImageCache(Dimension size, long byteBudget) {
+		this(size, byteBudget, createExecutor());
+	}
+
+	/**
+	 * Creates a new image cache.
+	 * @param size the size all images are scaled to
+	 * @param byteBudget the maximum number of bytes the cached images may use
+	 * @param executor the executor to decode and scale the images on
+	 * @throws NullPointerException If <code>size</code> or <code>executor</code> refers to <code>null</code>.
+	 * @throws IllegalArgumentException If <code>size</code> is empty or <code>byteBudget</code> is negative.
+	 */
+	public ImageCache(Dimension size, long byteBudget, Executor executor) {
+		Utilities.requireNonNull(size, "size");
+		Utilities.requireNonNull(executor, "executor");
+		if (size.width <= 0 || size.height <= 0)
+			throw new IllegalArgumentException("The size must not be empty!");
+		if (byteBudget < 0)
+			throw new IllegalArgumentException("The byte budget must not be negative!");
+		this.size = new Dimension(size);
+		this.byteBudget = byteBudget;
+		this.executor = executor;
+	}
+
+	/**
+	 * Creates the default executor, a small pool of daemon threads.
+	 * @return a new executor service
+	 */
+	private static ExecutorService createExecutor() {
+		return Executors.newFixedThreadPool(Math.max(1, Runtime.getRuntime().availableProcessors() / 2), runnable -> {
+			Thread thread = new Thread(runnable, "image-cache");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * @return the size all images are scaled to
+	 */
+	public Dimension getSize() {
+		return new Dimension(size);
+	}
+
+	/**
+	 * @return the maximum number of bytes the cached images may use
+	 */
+	public long getByteBudget() {
+		return byteBudget;
+	}
+
+	/**
+	 * @return the number of bytes the cached images use
+	 */
+	public synchronized long getBytes() {
+		return bytes;
+	}
+
+	/**
+	 * Returns the cached image for the specified path without loading it.
+	 * @param path the path of the image
+	 * @return the cached image or <code>null</code> if it isn't cached
+	 */
+	public synchronized Image getNow(Path path) {
+		return images.get(path);
+	}
+
+	/**
+	 * Returns the cached image for the specified path, or starts loading it in the background.
+	 * @param path the path of the image
+	 * @param backup The image to load if the image specified by path doesn't exist. <code>null</code> means no backup is given.
+	 * @param callback Called on the event dispatch thread with the loaded image, or with <code>null</code> if it couldn't be loaded.
+	 * Not called if the image is cached.
+	 * @return the cached image or <code>null</code> if it is being loaded
+	 * @throws NullPointerException If <code>path</code> or <code>callback</code> refers to <code>null</code>.
+	 */
+	public Image get(Path path, Path backup, Consumer<? super Image> callback) {
+		Utilities.requireNonNull(callback, "callback");
+		Image image = getNow(path);
+		if (image != null)
+			return image;
+		load(path, backup).whenComplete((result, ex) -> SwingUtilities.invokeLater(() -> callback.accept(result)));
+		return null;
+	}
+
+	/**
+	 * Loads the image for the specified path in the background, if it isn't cached or being loaded already.
+	 * @param path the path of the image
+	 * @param backup The image to load if the image specified by path doesn't exist. <code>null</code> means no backup is given.
+	 * The scaled backup is cached under <code>path</code>.
+	 * @return a future of the scaled image, which completes exceptionally if neither image could be loaded
+	 * @throws NullPointerException If <code>path</code> refers to <code>null</code>.
+	 */
+	public synchronized CompletableFuture<BufferedImage> load(Path path, Path backup) {
+		Utilities.requireNonNull(path, "path");
+		BufferedImage image = images.get(path);
+		if (image != null)
+			return CompletableFuture.completedFuture(image);
+		CompletableFuture<BufferedImage> future = pending.get(path);
+		if (future == null) {
+			future = CompletableFuture.supplyAsync(() -> decode(path, backup), executor);
+			pending.put(path, future);
+			future.whenComplete((result, ex) -> finish(path, result));
+		}
+		return future;
+	}
+
+	/**
+	 * Ends a load and caches the loaded image.
+	 * @param path the path of the image
+	 * @param image the scaled image, <code>null</code> if it couldn't be loaded
+	 */
+	private synchronized void finish(Path path, BufferedImage image) {
+		pending.remove(path);
+		if (image != null)
+			put(path, image);
+	}
+	
+	/**
+	 * Caches an image that has been loaded alongside another one, but only if it isn't cached yet 
+	 * and fits into the byte budget without evicting any image.
+	 * @param path the path of the image
+	 * @param image the scaled image
+	 * @return <code>true</code> if the image has been cached, else <code>false</code>
+	 * @throws NullPointerException If any parameter refers to <code>null</code>.
+	 */
+	protected synchronized boolean offer(Path path, BufferedImage image) {
+		Utilities.requireNonNull(path, "path");
+		Utilities.requireNonNull(image, "image");
+		if (images.containsKey(path) || bytes + bytes(image) > byteBudget)
+			return false;
+		put(path, image);
+		return true;
+	}
+	
+	/**
+	 * Caches an image and evicts the least recently used images exceeding the byte budget.
+	 * @param path the path of the image
+	 * @param image the scaled image
+	 */
+	private synchronized void put(Path path, BufferedImage image) {
+		BufferedImage old = images.put(path, image);
+		if (old != null)
+			bytes -= bytes(old);
+		bytes += bytes(image);
+		Iterator<BufferedImage> it = images.values().iterator();
+		while (bytes > byteBudget && it.hasNext()) {
+			bytes -= bytes(it.next());
+			it.remove();
+		}
+	}
+
+	/**
+	 * Removes all cached images.
+	 */
+	public synchronized void clear() {
+		images.clear();
+		bytes = 0L;
+	}
+
+	/**
+	 * Returns the number of bytes an image uses in this cache.
+	 * @param image the image
+	 * @return the estimated number of bytes
+	 */
+	protected static long bytes(BufferedImage image) {
+		return (long)image.getWidth() * image.getHeight() * BYTES_PER_PIXEL;
+	}
+
+	/**
+	 * Reads the image from the specified path or the backup and scales it.
+	 * @param path the path of the image
+	 * @param backup the path of the backup image, can be <code>null</code>
+	 * @return the scaled image
+	 * @throws UncheckedIOException If the image couldn't be read.
+	 */
+	protected BufferedImage decode(Path path, Path backup) {
+		Path source = path;
+		if (Files.notExists(path) && backup != null && Files.exists(backup))
+			source = backup;
+		BufferedImage read;
+		try {
+			read = ImageIO.read(source.toFile());
+		}
+		catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+		if (read == null)
+			throw new UncheckedIOException(new IOException("No image reader for "+source+"!"));
+		return scale(read);
+	}
+
+	/**
+	 * Scales the image to the size of this cache.
+	 * @param image the image to scale
+	 * @return a new image of the size of this cache
+	 */
+	protected BufferedImage scale(BufferedImage image) {
+		BufferedImage scaled = new BufferedImage(size.width, size.height, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D g = scaled.createGraphics();
+		try {
+			g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			g.drawImage(image, 0, 0, size.width, size.height, null);
+		}
+		finally {
+			g.dispose();
+		}
+		return scaled;
+	}
+
+}
@@ -7,6 +7,7 @@ import java.util.logging.LogRecord;
 import javax.swing.JEditorPane;
 import javax.swing.JTextArea;
 import javax.swing.JTextPane;
+import javax.swing.SwingUtilities;
 import javax.swing.text.EditorKit;
 
 import org.abos.util.Utilities;
@@ -65,20 +66,49 @@ public class TextAreaHandler extends Handler {
 	
 	/**
 	 * Publishes the specified record by appending it to the text area, unless this handler is closed.
+	 * The record is formatted on the calling thread, but appended on the event dispatch thread.
 	 * @param record the record to publish
 	 * @throws NullPointerException Might happen if the record is <code>null</code> and the
 	 * formatter cannot handle that.
 	 * @see #close()
 	 * @see Formatter#format(LogRecord)
 	 * @see JTextArea#append(String)
+	 * @see #formatted(long)
+	 * @see #appended(long)
 	 */
 	@Override
 	public void publish(LogRecord record) {
 		if (!closed) {
-			GUIUtilities.appendToEditorPane(textArea, formatter.format(record), null);
+			final long start = System.nanoTime();
+			final String text = formatter.format(record);
+			final long requested = System.nanoTime();
+			formatted(requested - start);
+			if (SwingUtilities.isEventDispatchThread()) {
+				GUIUtilities.appendToEditorPane(textArea, text, null);
+				appended(0L);
+			}
+			else
+				SwingUtilities.invokeLater(() -> {
+					appended(System.nanoTime() - requested);
+					GUIUtilities.appendToEditorPane(textArea, text, null);
+				});
 		}
 	}
 	
+	/**
+	 * Called after a record has been formatted. Does nothing by default.
+	 * @param nanos the time spent formatting in nanoseconds
+	 * @see #publish(LogRecord)
+	 */
+	protected void formatted(long nanos) {}
+	
+	/**
+	 * Called on the event dispatch thread before a formatted record is appended. Does nothing by default.
+	 * @param latency the time since the record has been formatted in nanoseconds
+	 * @see #publish(LogRecord)
+	 */
+	protected void appended(long latency) {}
+	
 	/**
 	 * The close method will perform a flush and then close the handler. 
 	 * After this method has been called this handler should no longer be used. 
@@ -0,0 +1,54 @@
+package org.abos.sc.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.abos.sc.core.battle.Battle;
+import org.abos.sc.core.battle.BattleMetrics;
+import org.abos.sc.core.battle.Conclusion;
+import org.abos.sc.core.battle.Encounter;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Sebastian Koch
+ * @version %I%
+ * @since 0.7
+ */
+public class BattleMetricsTest {
+
+	@Test
+	public void testBattle() throws JMException {
+		BattleMetrics metrics = BattleMetrics.METRICS;
+		metrics.reset();
+		Encounter first = BattleTest.createEncounter("strong", 1000);
+		Battle battle = new Battle(first, BattleTest.createEncounter("weak", 10), Difficulty.DEFAULT, null);
+		battle.run();
+		assertTimeoutPreemptively(Duration.ofSeconds(10), battle::waitForEnd);
+		battle.cancel(); // counted only once
+		BattleMetrics.Snapshot snapshot = metrics.snapshot();
+		assertEquals(1L, snapshot.getBattlesStarted());
+		assertEquals(1L, snapshot.getBattlesFinished());
+		assertTrue(snapshot.getAttacks() > 0);
+		assertTrue(snapshot.getDamageEvents() > 0);
+		assertTrue(snapshot.getAverageBattleMillis() > 0d);
+		assertTrue(snapshot.getAttacksPerSecond() > 0d);
+		metrics.concluded("s", Conclusion.WON, 3L);
+		metrics.concluded("s", Conclusion.WON, 1L);
+		assertEquals(Long.valueOf(4L), metrics.snapshot().getConclusions().get("s:WON"));
+		metrics.farmed("s", Conclusion.WON, 100L);
+		assertEquals(Long.valueOf(4L), metrics.snapshot().getConclusions().get("s:WON"));
+		assertEquals(Long.valueOf(100L), metrics.snapshot().getFarmedBattles().get("s:WON"));
+		assertTrue(BattleMetrics.register());
+		assertEquals(1L, ManagementFactory.getPlatformMBeanServer().getAttribute(new ObjectName(BattleMetrics.OBJECT_NAME), "BattlesFinished"));
+		metrics.reset();
+		assertEquals(0L, metrics.getAttacks());
+		assertTrue(metrics.getConclusions().isEmpty());
+		assertTrue(metrics.getFarmedBattles().isEmpty());
+	}
+
+}
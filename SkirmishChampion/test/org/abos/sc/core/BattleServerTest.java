@@ -0,0 +1,41 @@
+package org.abos.sc.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.time.Duration;
+
+import org.abos.util.Utilities;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Sebastian Koch
+ * @version %I%
+ * @since 0.7
+ */
+public class BattleServerTest {
+
+	@Test
+	public void testUnexpectedException() throws IOException {
+		BattleServer battleServer = new BattleServer(0);
+		battleServer.server.createContext("/fail", exchange -> battleServer.handle(exchange, (parameters, s) -> {
+			throw new NullPointerException("broken");
+		}));
+		battleServer.start();
+		try {
+			HttpURLConnection connection = (HttpURLConnection)new URL("http://localhost:"+battleServer.getPort()+"/fail").openConnection();
+			connection.setReadTimeout(5000);
+			assertTimeoutPreemptively(Duration.ofSeconds(10), () -> assertEquals(500, connection.getResponseCode()));
+			try (InputStream error = connection.getErrorStream()) {
+				assertTrue(new String(error.readAllBytes(), Utilities.ENCODING).startsWith("{\"error\":"));
+			}
+		}
+		finally {
+			battleServer.stop(0);
+		}
+	}
+
+}
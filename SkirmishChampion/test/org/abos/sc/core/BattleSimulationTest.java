@@ -0,0 +1,64 @@
+package org.abos.sc.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.abos.sc.core.battle.BattleSimulation;
+import org.abos.sc.core.battle.Conclusion;
+import org.abos.sc.core.battle.Encounter;
+import org.abos.sc.core.battle.Formation;
+import org.abos.sc.core.battle.Strategy;
+import org.abos.sc.core.battle.Tactic;
+import org.abos.sc.core.cards.Rarity;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Sebastian Koch
+ * @version %I%
+ * @since 0.7
+ */
+public class BattleSimulationTest {
+
+	protected static Encounter createEncounter(String id, int[] stats) {
+		Character character = new Character(new CharacterBase(id, id, "TWI", new String[] {},
+				stats, StatsPrimary.CHARISMA, StatsSecondary.ELOQUENCE, Rarity.COMMON, "", false));
+		return new Encounter(Formation.createFormation(character), Strategy.createConcentratedAssault());
+	}
+
+	@Test
+	public void testConclusion() {
+		Encounter erin = createEncounter("twi_erin", new int[] {50,40,40,40,10,60,80,30});
+		Encounter mrsha = createEncounter("twi_mrsha", new int[] {20,20,20,10,0,30,40,50});
+		BattleSimulation simulation = new BattleSimulation(erin, mrsha);
+		assertEquals(Conclusion.WON, simulation.simulate());
+		assertEquals(0, simulation.getSurvivors(false));
+		assertEquals(1, simulation.getSurvivors(true));
+		assertTrue(simulation.getAttacks(true) > 0);
+		assertTrue(simulation.getDuration() > 0);
+		assertEquals(Conclusion.LOST, BattleSimulation.simulate(mrsha, erin));
+		// the given encounters are not modified
+		assertFalse(mrsha.isDefeated());
+		assertEquals(0, mrsha.getCharacter(0, 0).getDamage(StatsSecondary.ELOQUENCE));
+	}
+
+	@Test
+	public void testTimeLimit() {
+		Encounter weak1 = createEncounter("t_weak1", new int[] {5,5,5,5,5,5,5,5});
+		Encounter weak2 = createEncounter("t_weak2", new int[] {5,5,5,5,5,5,5,5});
+		BattleSimulation simulation = new BattleSimulation(weak1, weak2, 10_000L);
+		assertEquals(Conclusion.TIE, simulation.simulate());
+		assertEquals(10_000L, simulation.getDuration());
+		assertThrows(IllegalArgumentException.class, () -> new BattleSimulation(weak1, weak2, 0L));
+	}
+
+	@Test
+	public void testCustomStrategyClone() {
+		Tactic[][] tactics = new Tactic[Formation.ROW_NUMBER][Formation.COL_NUMBER];
+		for (int row = 0; row < Formation.ROW_NUMBER; row++)
+			for (int col = 0; col < Formation.COL_NUMBER; col++)
+				tactics[row][col] = Tactic.createConcentratedAssault();
+		Strategy strategy = new Strategy(tactics);
+		assertEquals(strategy, strategy.clone());
+		assertNotNull(((Strategy)strategy.clone()).getTactic(Formation.ROW_NUMBER-1, Formation.COL_NUMBER-1));
+	}
+
+}
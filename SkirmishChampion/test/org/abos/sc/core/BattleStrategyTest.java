@@ -2,7 +2,9 @@ package org.abos.sc.core;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import org.abos.sc.core.battle.Formation;
 import org.abos.sc.core.battle.Strategy;
+import org.abos.sc.core.battle.Tactic;
 import org.junit.jupiter.api.Test;
 
 public class BattleStrategyTest {
@@ -12,5 +14,22 @@ public class BattleStrategyTest {
 		Strategy strategy = Strategy.createRowAssault();
 		assertEquals(strategy, Strategy.parse(strategy.toSaveString()));
 	}
+	
+	@Test
+	public void testSaveAndLoadCustom() {
+		Tactic[][] tactics = new Tactic[Formation.ROW_NUMBER][Formation.COL_NUMBER];
+		for (int row = 0; row < Formation.ROW_NUMBER; row++)
+			for (int col = 0; col < Formation.COL_NUMBER; col++)
+				tactics[row][col] = Tactic.createColAssault(col);
+		tactics[1][2] = new Tactic(new int[] {5,4,3,2,1,0});
+		Strategy strategy = new Strategy(tactics);
+		int count = 0;
+		for (Tactic tactic : strategy) {
+			assertSame(strategy.getTactic(count / Formation.COL_NUMBER, count % Formation.COL_NUMBER), tactic);
+			count++;
+		}
+		assertEquals(Formation.MAX_CHAR_NUMBER, count);
+		assertEquals(strategy, Strategy.parse(strategy.toSaveString()));
+	}
 
 }
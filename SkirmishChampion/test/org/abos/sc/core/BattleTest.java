@@ -2,12 +2,16 @@ package org.abos.sc.core;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.time.Duration;
 import java.util.logging.Handler;
 import java.util.logging.Level;
 import java.util.logging.StreamHandler;
 
 import org.abos.sc.core.battle.Battle;
+import org.abos.sc.core.battle.BattleSimulation;
+import org.abos.sc.core.battle.Conclusion;
 import org.abos.sc.core.battle.Encounter;
+import org.abos.sc.core.battle.ExecutionMode;
 import org.abos.sc.core.battle.Formation;
 import org.abos.sc.core.battle.Strategy;
 import org.abos.sc.core.cards.Rarity;
@@ -16,6 +20,71 @@ import org.junit.jupiter.api.Test;
 
 public class BattleTest {
 	
+	public static CharacterBase createCharacterBase(String id, int value, boolean add) {
+		return new CharacterBase(id, id, "t", new String[] {}, new int[] {value,value,value,value,value,value,value,value}, 
+				StatsPrimary.STRENGTH, StatsSecondary.CONSTITUTION, Rarity.COMMON, "", add);
+	}
+	
+	public static Character createCharacter(String id, int value) {
+		return new Character(createCharacterBase("t_"+id, value, false));
+	}
+	
+	public static Encounter createEncounter(String id, int value) {
+		return new Encounter(new Formation(new Character[][] {{createCharacter(id, value), null, null}, {null, null, null}}), Strategy.createConcentratedAssault());
+	}
+	
+	@Test
+	public void testSchedulerMatchesSimulation() {
+		Encounter first = new Encounter(new Formation(new Character[][] {{createCharacter("a", 1000), createCharacter("b", 500), null}, {null, null, null}}), 
+				Strategy.createConcentratedAssault());
+		Encounter second = new Encounter(new Formation(new Character[][] {{createCharacter("c", 900), createCharacter("d", 700), null}, {null, null, null}}), 
+				Strategy.createConcentratedAssault());
+		Conclusion expected = new BattleSimulation(first, second).simulate();
+		Battle battle = new Battle(first, second, Difficulty.DEFAULT, null);
+		assertEquals(ExecutionMode.SCHEDULER, battle.getExecutionMode());
+		battle.run();
+		assertTimeoutPreemptively(Duration.ofSeconds(20), battle::waitForEnd);
+		assertEquals(expected, battle.party1Won() ? Conclusion.WON : battle.party1Lost() ? Conclusion.LOST : Conclusion.TIE);
+		assertTrue(battle.getLateness().getCount() > 0);
+		assertEquals(battle.getLateness().getCount(), battle.getJitter().getCount());
+	}
+	
+	@Test
+	public void testThreadPerCharacter() throws InterruptedException {
+		// 50ms attacks with 100 damage against 10 health
+		Battle battle = new Battle(createEncounter("strong", 1000), createEncounter("weak", 10), Difficulty.DEFAULT, null, ExecutionMode.THREAD_PER_CHARACTER);
+		assertEquals(ExecutionMode.THREAD_PER_CHARACTER, battle.getExecutionMode());
+		battle.run();
+		assertTimeoutPreemptively(Duration.ofSeconds(10), battle::waitForEnd);
+		assertTrue(battle.isCancelled());
+		assertTrue(battle.party1Won());
+		// cancelling stops all attacks
+		Encounter first = createEncounter("a", 1000);
+		Encounter second = createEncounter("b", 1000);
+		battle = new Battle(first, second, Difficulty.DEFAULT, null, ExecutionMode.THREAD_PER_CHARACTER);
+		battle.run();
+		Thread.sleep(200);
+		battle.cancel();
+		assertTrue(battle.isCancelled());
+		Thread.sleep(100); // attacks running during the cancellation are completed
+		int version = first.getCharacter(0, 0).getDamageVersion();
+		assertTrue(version > 0);
+		Thread.sleep(200);
+		assertEquals(version, first.getCharacter(0, 0).getDamageVersion());
+	}
+	
+	@Test
+	public void testTimer() {
+		long timers = Thread.getAllStackTraces().keySet().stream().filter(thread -> thread.getName().startsWith("Battle")).count();
+		for (int i = 0; i < 10; i++)
+			new Battle(createEncounter("a", 1000), createEncounter("b", 1000), Difficulty.DEFAULT, null);
+		assertEquals(timers, Thread.getAllStackTraces().keySet().stream().filter(thread -> thread.getName().startsWith("Battle")).count());
+		Battle battle = new Battle(createEncounter("strong", 1000), createEncounter("weak", 10), Difficulty.DEFAULT, null, ExecutionMode.TIMER);
+		battle.run();
+		assertTimeoutPreemptively(Duration.ofSeconds(10), battle::waitForEnd);
+		assertTrue(battle.party1Won());
+	}
+	
 	public static void main(String[] args) throws InterruptedException {
 		Character erin = new Character(new CharacterBase("twi_erin", "Erin Solstice", "TWI", new String[] {"Inn"}, 
 				new int[] {50,40,40,40,10,60,80,30}, StatsPrimary.CHARISMA, StatsSecondary.ELOQUENCE, Rarity.COMMON, "", false));
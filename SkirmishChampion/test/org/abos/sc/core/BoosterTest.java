@@ -0,0 +1,87 @@
+package org.abos.sc.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import org.abos.sc.core.cards.Booster;
+import org.abos.sc.core.cards.BoosterSimulation;
+import org.abos.sc.core.cards.Card;
+import org.abos.sc.core.cards.Rarity;
+import org.abos.util.Utilities;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Sebastian Koch
+ * @version %I%
+ * @since 0.7
+ */
+public class BoosterTest {
+
+	protected static Map<Rarity, Collection<CharacterBase>> createCards() {
+		List<CharacterBase> cards = FastQuartettTest.createDeck("t_booster", 4, 10);
+		cards.add(new CharacterBase("t_booster_rare", "Rare", "t", new String[] {}, new int[] {10,10,10,10,10,10,10,10},
+				StatsPrimary.STRENGTH, StatsSecondary.CONSTITUTION, Rarity.RARE, "", false));
+		return Card.toRarityMap(cards);
+	}
+
+	@Test
+	public void testDistribution() {
+		Map<Rarity, Integer> weights = Utilities.intArrayToEnumMap(new int[] {1,3,0,0}, Rarity.class);
+		Booster<CharacterBase> booster = new Booster<>("t", "Test", 0, 0, createCards(), Booster.createSingleDistribution(2, weights));
+		SplittableRandom rng = new SplittableRandom(3L);
+		int rare = 0, total = 0;
+		for (int pack = 0; pack < 50_000; pack++)
+			for (CharacterBase card : booster.openPack(rng)) {
+				total++;
+				if (card.getRarity() == Rarity.RARE)
+					rare++;
+			}
+		assertEquals(100_000, total);
+		assertEquals(0.75d, rare / (double)total, 0.01d);
+	}
+
+	@Test
+	public void testSeeded() {
+		Booster<CharacterBase> booster = new Booster<>("t", "Test", 0, 0, createCards(),
+				Booster.createSingletonDistribution(5, Utilities.intArrayToEnumMap(new int[] {0,1,0,0}, Rarity.class)));
+		List<CharacterBase> pack = booster.openPack(new SplittableRandom(9L));
+		assertEquals(5, pack.size());
+		assertEquals(Rarity.RARE, pack.get(4).getRarity());
+		assertEquals(pack, booster.openPack(new SplittableRandom(9L)));
+	}
+
+	@Test
+	public void testInvalidDistribution() {
+		Map<Rarity, Integer> legendary = new EnumMap<>(Rarity.class);
+		legendary.put(Rarity.LEGENDARY, 1);
+		assertThrows(IllegalArgumentException.class, () -> new Booster<>("t", "Test", 0, 0, createCards(), Booster.createSingleDistribution(1, legendary)));
+		Map<Rarity, Integer> zero = new EnumMap<>(Rarity.class);
+		zero.put(Rarity.COMMON, 0);
+		assertThrows(IllegalArgumentException.class, () -> new Booster<>("t", "Test", 0, 0, createCards(), Booster.createSingleDistribution(1, zero)));
+	}
+
+	@Test
+	public void testSimulation() {
+		// a single common card per pack from 4 commons is the coupon collector's problem
+		Booster<CharacterBase> booster = new Booster<>("t", "Test", 10, 0, createCards(),
+				Booster.createSingleDistribution(1, Utilities.intArrayToEnumMap(new int[] {1,0,0,0}, Rarity.class)));
+		BoosterSimulation<CharacterBase> simulation = new BoosterSimulation<>(booster);
+		assertEquals(4, simulation.getObtainableCount());
+		BoosterSimulation<CharacterBase>.Summary summary = simulation.simulate(20_000, 11L);
+		assertEquals(20_000, summary.getTrials());
+		assertEquals(1d, summary.getCompletionRate());
+		assertEquals(25d / 3d, summary.getExpectedPacks(), 0.2d);
+		assertEquals(10d * summary.getExpectedPacks(), summary.getExpectedGold(), 1e-9);
+		assertEquals(summary.getExpectedPacks() - 4d, summary.getExpectedDuplicates(), 1e-9);
+		assertEquals(4, summary.getPacksPercentile(0));
+		assertEquals(summary.getPacksPercentile(90), summary.getRarityPercentile(Rarity.COMMON, 90));
+		assertEquals(0, summary.getRarityPercentile(Rarity.RARE, 50));
+		assertEquals(summary.toString(), simulation.simulate(20_000, 11L).toString());
+	}
+
+}
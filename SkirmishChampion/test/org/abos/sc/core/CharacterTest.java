@@ -34,6 +34,19 @@ public class CharacterTest {
 		assertEquals(c, CharacterBase.parse(c.toSaveString(), false));
 	}
 	
+	@Test
+	public void testDamageVersion() {
+		Character c = new Character(new CharacterBase("t_erin", "Erin", "t", new String[] {}, new int[] {50,40,40,40,10,60,80,30},
+				StatsPrimary.CHARISMA, StatsSecondary.ELOQUENCE, Rarity.COMMON, "", false));
+		int version = c.getDamageVersion();
+		c.dealDamage(5, StatsSecondary.CONSTITUTION);
+		assertNotEquals(version, c.getDamageVersion());
+		version = c.getDamageVersion();
+		assertEquals(version, c.getDamageVersion());
+		c.restore();
+		assertNotEquals(version, c.getDamageVersion());
+	}
+	
 	@Test
 	public void testParseData() throws IOException {
 		Path path = Utilities.loadApplicationDirectory().resolve("resources").resolve("characters").resolve("chars_twi.txt");
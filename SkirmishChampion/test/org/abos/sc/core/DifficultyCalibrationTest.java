@@ -0,0 +1,96 @@
+package org.abos.sc.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.abos.sc.core.battle.Encounter;
+import org.abos.sc.core.battle.Formation;
+import org.abos.sc.core.battle.Strategy;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Sebastian Koch
+ * @version %I%
+ * @since 0.7
+ */
+public class DifficultyCalibrationTest {
+
+	/**
+	 * @throws java.lang.Exception
+	 */
+	@BeforeAll
+	public static void setUpBeforeClass() throws Exception {
+		for (int value = 5; value <= 100; value += 5)
+			BattleTest.createCharacterBase("c_"+value, value, true);
+	}
+
+	/**
+	 * @throws java.lang.Exception
+	 */
+	@AfterAll
+	public static void tearDownAfterClass() throws Exception {
+		CharacterBase.CHARACTERS.clear();
+	}
+
+	protected static List<Encounter> createReferenceParties() {
+		List<Encounter> parties = new ArrayList<>();
+		for (CharacterBase base : CharacterBase.CHARACTERS)
+			parties.add(new Encounter(Formation.createFormation(new Character[] {new Character(base)}), Strategy.createConcentratedAssault()));
+		return parties;
+	}
+
+	@Test
+	public void testMeasure() {
+		DifficultyCalibration calibration = new DifficultyCalibration(createReferenceParties());
+		StageBase medium = new StageBase("c_medium", "Medium, really", "c", null, null, null, "c_50|ROW", false);
+		StageBase copy = new StageBase("c_copy", "Copy", "c", null, null, null, "c_50|ROW", false);
+		StageBase hard = new StageBase("c_hard", "Hard", "c", null, null, null, "c_100,c_95,c_90,c_85,c_80,c_75|ROW", false);
+		DifficultyCalibration.Measurement measurement = calibration.measure(medium);
+		assertEquals(medium.getChallengeRating(), measurement.getHeuristicChallengeRating());
+		assertEquals(CharacterBase.CHARACTERS.size(), measurement.getBattles());
+		assertTrue(0 < measurement.getWins() && measurement.getWins() < measurement.getBattles());
+		// the stronger half of the single characters wins against a middle one
+		CharacterBase weakest = CharacterBase.CHARACTERS.lookup("c_5"), strongest = CharacterBase.CHARACTERS.lookup("c_100");
+		assertTrue(weakest.getChallengeRating() < measurement.getEmpiricalChallengeRating());
+		assertTrue(measurement.getEmpiricalChallengeRating() < strongest.getChallengeRating());
+		assertSame(measurement, calibration.measure(copy));
+		assertTrue(Double.isNaN(calibration.measure(hard).getEmpiricalChallengeRating())); // no party wins
+		String[] csv = calibration.toCsv(Arrays.asList(medium, hard)).split(System.lineSeparator());
+		assertEquals(3, csv.length);
+		assertEquals(DifficultyCalibration.CSV_HEADER, csv[0]);
+		assertTrue(csv[1].startsWith("c_medium,\"Medium, really\","+medium.getChallengeRating()+","));
+		assertEquals("c_hard,Hard,"+hard.getChallengeRating()+",,,0.000,,"+measurement.getBattles(), csv[2]);
+		assertEquals(2, calibration.measurements.size());
+	}
+
+	@Test
+	public void testExtrapolation() {
+		DifficultyCalibration calibration = new DifficultyCalibration(createReferenceParties());
+		boolean[] won = new boolean[calibration.ratings.length];
+		for (int i = 0; i < won.length; i++)
+			won[i] = i % 4 != 0; // most parties win regardless of their rating
+		double[] fit = calibration.fitLogistic(won);
+		assertTrue(fit[1] > 0d);
+		assertTrue(-fit[0] / fit[1] * calibration.scale < calibration.minRating);
+		DifficultyCalibration.Measurement measurement = calibration.measure(50, won);
+		assertTrue(Double.isNaN(measurement.getEmpiricalChallengeRating()));
+		assertTrue(Double.isNaN(measurement.getRatio()));
+		assertTrue(measurement.getWinRateAtHeuristicChallengeRating() > 0.5);
+	}
+
+	@Test
+	public void testCreateReferenceParties() {
+		List<Encounter> parties = DifficultyCalibration.createReferenceParties(CharacterBase.CHARACTERS, 50, 7L);
+		assertEquals(50, parties.size());
+		for (Encounter party : parties)
+			assertTrue(1 <= party.getSize() && party.getSize() <= Formation.MAX_CHAR_NUMBER);
+		assertEquals(parties, DifficultyCalibration.createReferenceParties(CharacterBase.CHARACTERS, 50, 7L));
+		assertThrows(IllegalArgumentException.class, () -> DifficultyCalibration.createReferenceParties(CharacterBase.CHARACTERS, 0, 7L));
+	}
+
+}
@@ -0,0 +1,74 @@
+package org.abos.sc.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.abos.sc.core.cards.CardPlayerAi;
+import org.abos.sc.core.cards.FastQuartett;
+import org.abos.util.AbstractNamedComparator;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Sebastian Koch
+ * @version %I%
+ * @since 0.7
+ */
+public class FastQuartettTest {
+
+	protected static List<CharacterBase> createDeck(String prefix, int size, int stat) {
+		List<CharacterBase> deck = new ArrayList<>(size);
+		for (int index = 0; index < size; index++)
+			deck.add(BattleTest.createCharacterBase(prefix+index, stat + index, false));
+		return deck;
+	}
+
+	protected static FastQuartett<CharacterBase> createGame(List<CharacterBase> deck1, List<CharacterBase> deck2) {
+		List<CardPlayerAi<CharacterBase>> players = Arrays.asList(new CardPlayerAi<>(deck1, 0, 3), new CardPlayerAi<>(deck2, 0, 3));
+		List<AbstractNamedComparator<CharacterBase>> rules = Collections.singletonList(ChallengeRatable.createCRComparator());
+		return new FastQuartett<>(players, rules);
+	}
+
+	@Test
+	public void testStrongerDeckWins() {
+		FastQuartett<CharacterBase> game = createGame(createDeck("t_strong", 8, 100), createDeck("t_weak", 8, 10));
+		SplittableRandom rng = new SplittableRandom(42L);
+		for (int i = 0; i < 20; i++) {
+			assertEquals(0, game.play(rng));
+			assertEquals(8, game.getRounds());
+			assertEquals(0, game.getTies());
+		}
+		assertEquals(20L, game.getWins(0));
+		assertEquals(20L, game.getGames());
+		assertEquals(160L, game.getRuleChosen()[0]);
+		assertEquals(320L, Arrays.stream(game.getCardPlayed()).sum());
+		assertEquals(160L, Arrays.stream(game.getCardWon()).sum());
+	}
+
+	@Test
+	public void testDeterministic() {
+		List<CharacterBase> deck1 = createDeck("t_first", 10, 10);
+		List<CharacterBase> deck2 = createDeck("t_second", 10, 12);
+		FastQuartett<CharacterBase> game1 = createGame(deck1, deck2);
+		FastQuartett<CharacterBase> game2 = createGame(deck1, deck2);
+		for (long seed = 0; seed < 50; seed++) {
+			assertEquals(game1.play(new SplittableRandom(seed)), game2.play(new SplittableRandom(seed)));
+			assertEquals(game1.getRounds(), game2.getRounds());
+		}
+		assertEquals(50L, game1.getWins(0) + game1.getWins(1) + game1.getDraws());
+	}
+
+	@Test
+	public void testTie() {
+		// the only round is a tie and both players run out of cards
+		List<CharacterBase> deck = createDeck("t_same", 1, 10);
+		FastQuartett<CharacterBase> game = createGame(deck, deck);
+		assertEquals(FastQuartett.TIE, game.play(new SplittableRandom(0L)));
+		assertEquals(1L, game.getDraws());
+	}
+
+}
@@ -0,0 +1,85 @@
+package org.abos.sc.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.abos.sc.core.battle.Battle;
+import org.abos.util.Utilities;
+import org.junit.jupiter.api.Test;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * @author Sebastian Koch
+ * @version %I%
+ * @since 0.7
+ */
+public class FlightRecorderEventsTest {
+
+	private static List<RecordedEvent> events(Recording recording, String name) throws IOException {
+		Path file = Files.createTempFile("sc", ".jfr");
+		try {
+			recording.dump(file);
+			return RecordingFile.readAllEvents(file).stream()
+					.filter(event -> event.getEventType().getName().equals(name))
+					.collect(Collectors.toList());
+		}
+		finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void testBattleEvents() throws IOException {
+		try (Recording recording = new Recording()) {
+			recording.enable("org.abos.sc.BattleStarted");
+			recording.enable("org.abos.sc.BattleEnded");
+			recording.enable("org.abos.sc.AttackExecuted").withThreshold(Duration.ZERO);
+			recording.start();
+			Battle battle = new Battle(BattleTest.createEncounter("strong", 1000), BattleTest.createEncounter("weak", 10), Difficulty.DEFAULT, null);
+			battle.setStageId("stage");
+			battle.run();
+			assertTimeoutPreemptively(Duration.ofSeconds(10), battle::waitForEnd);
+			battle.cancel(); // committed only once
+			recording.stop();
+			List<RecordedEvent> started = events(recording, "org.abos.sc.BattleStarted");
+			assertEquals(1, started.size());
+			assertEquals("stage", started.get(0).getString("stageId"));
+			List<RecordedEvent> ended = events(recording, "org.abos.sc.BattleEnded");
+			assertEquals(1, ended.size());
+			assertEquals("WON", ended.get(0).getString("conclusion"));
+			assertEquals(battle.getConclusion().name(), ended.get(0).getString("conclusion"));
+			List<RecordedEvent> attacks = events(recording, "org.abos.sc.AttackExecuted");
+			assertFalse(attacks.isEmpty());
+			assertFalse(attacks.get(0).getBoolean("simulated"));
+		}
+	}
+
+	@Test
+	public void testGameDataLoaded() throws IOException {
+		Path data = Files.createTempFile("sc", ".txt");
+		try (Recording recording = new Recording()) {
+			Files.write(data, List.of("// comment", "a", "", "b"), Utilities.ENCODING);
+			recording.enable("org.abos.sc.GameDataLoaded");
+			recording.start();
+			Utilities.loadFromFile(data, line -> {});
+			recording.stop();
+			List<RecordedEvent> loaded = events(recording, "org.abos.sc.GameDataLoaded");
+			assertEquals(1, loaded.size());
+			assertEquals(data.toString(), loaded.get(0).getString("file"));
+			assertEquals(4, loaded.get(0).getInt("lines"));
+		}
+		finally {
+			Files.delete(data);
+		}
+	}
+
+}
@@ -0,0 +1,62 @@
+package org.abos.sc.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.abos.sc.core.battle.Conclusion;
+import org.abos.sc.core.battle.Encounter;
+import org.abos.sc.core.battle.Formation;
+import org.abos.sc.core.battle.Strategy;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Sebastian Koch
+ * @version %I%
+ * @since 0.7
+ */
+public class FormationOptimizerTest {
+
+	protected static List<Companion> createRoster(int size) {
+		List<Companion> roster = new ArrayList<>(size);
+		for (int index = 0; index < size; index++) {
+			int value = 5 + index % 40;
+			roster.add(new Companion(BattleTest.createCharacterBase("o_"+index, value, false)));
+		}
+		return roster;
+	}
+
+	protected static Encounter createOpponent() {
+		Character[] characters = new Character[3];
+		for (int index = 0; index < characters.length; index++)
+			characters[index] = BattleTest.createCharacter("enemy"+index, 30);
+		return new Encounter(Formation.createFormation(characters), Strategy.createConcentratedAssault());
+	}
+
+	@Test
+	public void testOptimize() {
+		Encounter opponent = createOpponent();
+		int cap = opponent.getChallengeRating() * 2;
+		FormationOptimizer optimizer = new FormationOptimizer(createRoster(300), opponent, cap);
+		List<FormationOptimizer.Result> results = optimizer.optimize(5, 42L);
+		assertEquals(5, results.size());
+		assertEquals(Conclusion.WON, results.get(0).getConclusion());
+		for (int i = 0; i < results.size(); i++) {
+			assertTrue(results.get(i).getFormation().getChallengeRating() <= cap);
+			if (i > 0)
+				assertTrue(results.get(i-1).compareTo(results.get(i)) <= 0);
+		}
+		// the search is deterministic for a given seed
+		List<FormationOptimizer.Result> again = new FormationOptimizer(createRoster(300), opponent, cap).optimize(5, 42L);
+		assertEquals(results.get(0).toString(), again.get(0).toString());
+	}
+
+	@Test
+	public void testCap() {
+		FormationOptimizer optimizer = new FormationOptimizer(createRoster(10), createOpponent(), 0);
+		assertTrue(optimizer.optimize(3, 0L).isEmpty());
+		assertThrows(IllegalArgumentException.class, () -> optimizer.optimize(0, 0L));
+	}
+
+}
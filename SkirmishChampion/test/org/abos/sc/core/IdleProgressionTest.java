@@ -0,0 +1,127 @@
+package org.abos.sc.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.abos.sc.core.battle.Conclusion;
+import org.abos.sc.core.cards.Rarity;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Sebastian Koch
+ * @version %I%
+ * @since 0.7
+ */
+public class IdleProgressionTest {
+
+	/**
+	 * @throws java.lang.Exception
+	 */
+	@BeforeAll
+	public static void setUpBeforeClass() throws Exception {
+		new CharacterBase("i_strong", "Strong", "i", new String[] {}, new int[] {90,90,90,90,90,90,90,90},
+				StatsPrimary.STRENGTH, StatsSecondary.CONSTITUTION, Rarity.COMMON, "", true);
+		new CharacterBase("i_weak", "Weak", "i", new String[] {}, new int[] {5,5,5,5,5,5,5,5},
+				StatsPrimary.STRENGTH, StatsSecondary.CONSTITUTION, Rarity.COMMON, "", true);
+		new FandomBase("i", "Idle", "i_region", "i_strong", true);
+		new RegionBase("i_region", "Region", "i", "i_1", true);
+		new StageBase("i_1", "One", "i_region", null, null, null, "i_weak|ROW", true);
+	}
+
+	/**
+	 * @throws java.lang.Exception
+	 */
+	@AfterAll
+	public static void tearDownAfterClass() throws Exception {
+		StageBase.STAGES.clear();
+		RegionBase.REGIONS.clear();
+		FandomBase.FANDOMS.clear();
+		CharacterBase.CHARACTERS.clear();
+	}
+
+	@Test
+	public void testTrain() {
+		Companion companion = new Companion(CharacterBase.CHARACTERS.lookup("i_weak"));
+		assertEquals(0, companion.train(Duration.ofMinutes(30L)));
+		assertEquals(Duration.ofMinutes(30L), companion.getTraining());
+		assertEquals(2, companion.train(Duration.ofHours(24L).plusMinutes(45L)));
+		assertEquals(3, companion.getLevel());
+		assertEquals(Duration.ofMinutes(15L), companion.getTraining());
+		assertEquals(Companion.MAX_LEVEL - 3, companion.train(Duration.ofDays(365L)));
+		assertEquals(Companion.MAX_LEVEL, companion.getLevel());
+		assertEquals(Duration.ZERO, companion.getTraining());
+		assertThrows(IllegalArgumentException.class, () -> companion.train(Duration.ofMillis(-1L)));
+	}
+
+	@Test
+	public void testSaveTraining() {
+		Companion companion = new Companion(CharacterBase.CHARACTERS.lookup("i_weak"));
+		companion.train(Duration.ofMinutes(90L));
+		Companion parsed = Companion.parse(companion.toSaveString(), null);
+		assertEquals(companion, parsed);
+		assertEquals(Duration.ofMinutes(30L), parsed.getTraining());
+		assertEquals(Duration.ZERO, Companion.parse("i_weak,2,5", null).getTraining());
+	}
+
+	@Test
+	public void testFarm() {
+		Player player = new Player(Difficulty.EASIEST, FandomBase.FANDOMS.lookup("i"));
+		Stage stage = player.getStages().lookup("i_1");
+		assertThrows(IllegalArgumentException.class, () -> new StageFarm(player, stage));
+		player.clearStage(stage, null);
+		assertFalse(StageFarm.exceedsChallengeRatingCap(player, stage));
+		StageFarm farm = new StageFarm(player, stage);
+		assertFalse(stage.isEngaged());
+		farm.farm(100_000);
+		assertEquals(100_000, farm.getBattles());
+		assertEquals(200_000, player.getMoney());
+		assertEquals(100_000 * farm.getExtraPointsPerBattle(), player.getCompanions().lookup("i_strong").getExtraPoints());
+		assertEquals(Duration.ofMillis(100_000 * farm.getBattleDuration()), farm.getDuration());
+		assertEquals(0, farm.farmFor(Duration.ofMillis(farm.getBattleDuration() - 1)));
+		assertEquals(2, farm.farmFor(Duration.ofMillis(2 * farm.getBattleDuration())));
+		assertThrows(IllegalArgumentException.class, () -> farm.farm(-1));
+	}
+
+	@Test
+	public void testFarmChallengeRatingCap() {
+		Player player = new Player(Difficulty.DEFAULT, FandomBase.FANDOMS.lookup("i"));
+		Stage stage = player.getStages().lookup("i_1");
+		player.clearStage(stage, null);
+		assertTrue(StageFarm.exceedsChallengeRatingCap(player, stage));
+		assertThrows(IllegalArgumentException.class, () -> new StageFarm(player, stage));
+		player.setIdleStageId(stage.getId());
+		IdleProgression progression = new IdleProgression(player, Duration.ofDays(1L));
+		progression.apply();
+		assertNull(progression.getFarm());
+		assertEquals(0, player.getMoney());
+	}
+
+	@Test
+	public void testCatchUp() {
+		Player player = new Player(Difficulty.EASIEST, FandomBase.FANDOMS.lookup("i"));
+		assertNull(IdleProgression.catchUp(player, Instant.now()));
+		assertThrows(IllegalArgumentException.class, () -> player.setIdleStageId("i_1"));
+		player.clearStage(player.getStages().lookup("i_1"), null);
+		player.setIdleStageId("i_1");
+		Instant now = Instant.now();
+		player.lastSaveTime = now.minus(Duration.ofDays(7L));
+		long start = System.nanoTime();
+		IdleProgression progression = IdleProgression.catchUp(player, now);
+		long nanos = System.nanoTime() - start;
+		assertTrue(nanos < 1_000_000_000L, "A week of idle time took "+nanos+"ns");
+		assertEquals(Duration.ofDays(7L), progression.getElapsed());
+		assertEquals(3, progression.getLevelUps()); // an hour, a day and three days
+		StageFarm farm = progression.getFarm();
+		assertEquals(Conclusion.WON, farm.getConclusion());
+		assertEquals(Duration.ofDays(7L).toMillis() / farm.getBattleDuration(), farm.getBattles());
+		assertEquals(2 * farm.getBattles(), player.getMoney());
+		assertTrue(farm.getDuration().compareTo(Duration.ofDays(7L)) <= 0);
+		assertEquals(4, player.getCompanions().lookup("i_strong").getLevel());
+		assertThrows(IllegalStateException.class, () -> progression.apply());
+	}
+
+}
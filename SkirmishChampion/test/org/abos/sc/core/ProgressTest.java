@@ -0,0 +1,126 @@
+package org.abos.sc.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.abos.sc.core.battle.Conclusion;
+import org.abos.sc.core.cards.Rarity;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Sebastian Koch
+ * @version %I%
+ * @since 0.7
+ */
+public class ProgressTest {
+
+	/**
+	 * @throws java.lang.Exception
+	 */
+	@BeforeAll
+	public static void setUpBeforeClass() throws Exception {
+		for (String id : new String[] {"p_c", "p_e"})
+			new CharacterBase(id, id, "p", new String[] {}, new int[] {10,10,10,10,10,10,10,10},
+					StatsPrimary.STRENGTH, StatsSecondary.CONSTITUTION, Rarity.COMMON, "", true);
+		new FandomBase("p", "Progress", "p_a", "p_c", true);
+		new RegionBase("p_a", "Region A", "p", "p_1", true);
+		new RegionBase("p_b", "Region B", "p", "p_3", true);
+		new StageBase("p_1", "One", "p_a", new String[] {"p_2"}, null, null, "p_e|ROW", true);
+		new StageBase("p_2", "Two", "p_a", new String[] {"p_3"}, new String[] {"p_b"}, null, "p_e|ROW", true);
+		new StageBase("p_3", "Three", "p_b", null, null, null, "p_e|ROW", true);
+	}
+
+	/**
+	 * @throws java.lang.Exception
+	 */
+	@AfterAll
+	public static void tearDownAfterClass() throws Exception {
+		StageBase.STAGES.clear();
+		RegionBase.REGIONS.clear();
+		FandomBase.FANDOMS.clear();
+		CharacterBase.CHARACTERS.clear();
+	}
+
+	protected static String win(Player player, String stageId) {
+		Stage stage = player.getStages().lookup(stageId);
+		if (!stage.isEngaged())
+			stage.engageStage();
+		StringBuilder message = new StringBuilder();
+		stage.acknowledgeBattleResult(message, Conclusion.WON, player);
+		return message.toString();
+	}
+
+	@Test
+	public void testIncrementalProgress() {
+		Player player = new Player(Difficulty.DEFAULT, FandomBase.FANDOMS.lookup("p"));
+		Region regionA = player.getRegions().lookup("p_a");
+		Fandom fandom = player.getFandoms().lookup("p");
+		assertFalse(win(player, "p_1").contains("completed!"));
+		assertFalse(regionA.isCleared());
+		String message = win(player, "p_2");
+		assertTrue(message.contains("Region Region A completed!"));
+		assertFalse(message.contains("Fandom"));
+		assertTrue(regionA.isCleared());
+		assertFalse(fandom.isCleared());
+		assertEquals(2, fandom.getRegions().size());
+		message = win(player, "p_3");
+		assertTrue(message.contains("Region Region B completed!"));
+		assertTrue(message.contains("Fandom Progress completed!"));
+		assertTrue(fandom.isCleared());
+		// clearing a stage again doesn't complete anything again
+		assertFalse(win(player, "p_3").contains("completed!"));
+		// the full rebuild agrees with the incremental counters
+		player.updateRegionStages(true);
+		player.updateFandomRegions(true);
+		assertTrue(player.getRegions().lookup("p_b").isCleared());
+		assertTrue(fandom.isCleared());
+	}
+
+	@Test
+	public void testClearStageListener() {
+		Player player = new Player(Difficulty.DEFAULT, FandomBase.FANDOMS.lookup("p"));
+		player.addStage(new Stage(StageBase.STAGES.lookup("p_2"), false));
+		int[] completions = new int[2];
+		ProgressListener listener = new ProgressListener() {
+			@Override public void regionCompleted(Region region) {
+				completions[0]++;
+			}
+			@Override public void fandomCompleted(Fandom fandom) {
+				completions[1]++;
+			}
+		};
+		player.clearStage(player.getStages().lookup("p_1"), listener);
+		player.clearStage(player.getStages().lookup("p_2"), listener);
+		player.clearStage(player.getStages().lookup("p_2"), listener);
+		assertArrayEquals(new int[] {1, 0}, completions);
+		assertFalse(player.addStage(new Stage(StageBase.STAGES.lookup("p_1"), false)));
+	}
+
+	@Test
+	public void testAddRegionListener() {
+		Player player = new Player(Difficulty.DEFAULT, FandomBase.FANDOMS.lookup("p"));
+		player.addStage(new Stage(StageBase.STAGES.lookup("p_2"), false));
+		player.addStage(new Stage(StageBase.STAGES.lookup("p_3"), false)); // its region isn't accessable yet
+		int[] completions = new int[2];
+		ProgressListener listener = new ProgressListener() {
+			@Override public void regionCompleted(Region region) {
+				completions[0]++;
+			}
+			@Override public void fandomCompleted(Fandom fandom) {
+				assertEquals(2, completions[0]); // always after the completing region
+				completions[1]++;
+			}
+		};
+		for (String id : new String[] {"p_1", "p_2", "p_3"})
+			player.clearStage(player.getStages().lookup(id), listener);
+		assertArrayEquals(new int[] {1, 0}, completions);
+		// the unlocked region has been cleared already and completes the fandom
+		assertTrue(player.addRegion(new Region(RegionBase.REGIONS.lookup("p_b")), listener));
+		assertArrayEquals(new int[] {2, 1}, completions);
+		assertTrue(player.getFandoms().lookup("p").isCleared());
+		assertFalse(player.addRegion(new Region(RegionBase.REGIONS.lookup("p_b")), listener));
+		assertArrayEquals(new int[] {2, 1}, completions);
+	}
+
+}
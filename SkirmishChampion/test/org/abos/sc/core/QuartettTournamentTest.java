@@ -0,0 +1,52 @@
+package org.abos.sc.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.abos.sc.core.cards.QuartettTournament;
+import org.abos.util.AbstractNamedComparator;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Sebastian Koch
+ * @version %I%
+ * @since 0.7
+ */
+public class QuartettTournamentTest {
+
+	protected static QuartettTournament<CharacterBase> createTournament() {
+		Map<String, List<CharacterBase>> decks = new LinkedHashMap<>();
+		decks.put("weak", FastQuartettTest.createDeck("t_weak", 6, 10));
+		decks.put("medium", FastQuartettTest.createDeck("t_medium", 6, 50));
+		decks.put("strong", FastQuartettTest.createDeck("t_strong", 6, 100));
+		List<AbstractNamedComparator<CharacterBase>> rules = Collections.singletonList(ChallengeRatable.createCRComparator());
+		return new QuartettTournament<>(decks, rules);
+	}
+
+	@Test
+	public void testWinRates() {
+		QuartettTournament<CharacterBase>.Result result = createTournament().play(300, 1L);
+		assertEquals(900L, result.getGames());
+		assertEquals(1d, result.getDeckWinRate("strong"));
+		assertEquals(0.5d, result.getDeckWinRate("medium"));
+		assertEquals(0d, result.getDeckWinRate("weak"));
+		assertEquals(0d, result.getDeckDrawRate("strong"));
+		assertEquals(6d, result.getAverageRounds());
+		assertTrue(result.getRuleChosen(ChallengeRatable.DISPLAY_NAME) > 0);
+		assertThrows(IllegalArgumentException.class, () -> result.getDeckWinRate("unknown"));
+	}
+
+	@Test
+	public void testDeterministic() {
+		QuartettTournament<CharacterBase> tournament = createTournament();
+		QuartettTournament<CharacterBase>.Result result1 = tournament.play(1000, 5L);
+		QuartettTournament<CharacterBase>.Result result2 = tournament.play(1000, 5L);
+		assertEquals(result1.getCardWinRates(), result2.getCardWinRates());
+		assertEquals(result1.getRuleWinRate(ChallengeRatable.DISPLAY_NAME), result2.getRuleWinRate(ChallengeRatable.DISPLAY_NAME));
+	}
+
+}
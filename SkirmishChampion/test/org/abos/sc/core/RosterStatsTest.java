@@ -0,0 +1,83 @@
+package org.abos.sc.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.abos.sc.core.cards.Rarity;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Sebastian Koch
+ * @version %I%
+ * @since 0.7
+ */
+public class RosterStatsTest {
+
+	protected static List<CharacterBase> createRoster(int size, long seed) {
+		SplittableRandom random = new SplittableRandom(seed);
+		List<CharacterBase> roster = new ArrayList<>(size + 1);
+		for (int c = 0; c < size; c++) {
+			int[] stats = new int[StatsPrimary.SIZE];
+			for (int i = 0; i < stats.length; i++)
+				stats[i] = 1 + random.nextInt(100);
+			roster.add(new CharacterBase("r_"+c, "R"+c, "r", new String[] {}, stats,
+					StatsPrimary.STRENGTH, StatsSecondary.CONSTITUTION, Rarity.COMMON, "", false));
+		}
+		roster.add(null);
+		return roster;
+	}
+
+	@Test
+	public void testMatchesStatsEval() {
+		List<CharacterBase> roster = createRoster(500, 3L);
+		RosterStats stats = new RosterStats(roster);
+		assertEquals(500, stats.size());
+		for (boolean primary : new boolean[] {true, false}) {
+			assertArrayEquals(CharacterBase.getStatsMax(roster, primary), stats.getMax(primary));
+			assertArrayEquals(CharacterBase.getStatsMin(roster, primary), stats.getMin(primary));
+			int[] average = CharacterBase.getStatsAverage(roster, 500, primary);
+			double[] mean = stats.getMean(primary);
+			for (int i = 0; i < average.length; i++)
+				assertEquals(average[i], (int)mean[i]);
+			int[] startVals = new int[average.length];
+			assertArrayEquals(CharacterBase.getStatsEval(roster, (a, b) -> a ^ b, startVals, primary), stats.fold((a, b) -> a ^ b, startVals, primary));
+		}
+	}
+
+	@Test
+	public void testPercentile() {
+		List<CharacterBase> roster = createRoster(101, 5L);
+		RosterStats stats = new RosterStats(roster);
+		List<Integer> strength = new ArrayList<>();
+		for (CharacterBase base : roster)
+			if (base != null)
+				strength.add(base.getPrimaryStat(StatsPrimary.STRENGTH));
+		Collections.sort(strength);
+		int index = StatsPrimary.STRENGTH.ordinal();
+		assertEquals(strength.get(50).intValue(), stats.getMedian(true)[index]);
+		assertEquals(strength.get(90).intValue(), stats.getPercentile(0.9d, true)[index]); // rank ceil(90.9)
+		assertEquals(strength.get(0).intValue(), stats.getPercentile(0d, true)[index]);
+		assertEquals(strength.get(100).intValue(), stats.getPercentile(1d, true)[index]);
+		assertThrows(IllegalArgumentException.class, () -> stats.getPercentile(1.5d, true));
+		RosterStats empty = new RosterStats(Collections.<CharacterBase>emptyList());
+		assertEquals(Integer.MIN_VALUE, empty.getMax(false)[0]);
+		assertTrue(Double.isNaN(empty.getMean(true)[0]));
+	}
+
+	@Test
+	public void testParallel() {
+		List<CharacterBase> roster = createRoster(RosterStats.PARALLEL_THRESHOLD + 1, 7L);
+		RosterStats stats = new RosterStats(roster);
+		assertArrayEquals(CharacterBase.getStatsMax(roster, false), stats.getMax(false));
+		long sum = 0L;
+		for (CharacterBase base : roster)
+			if (base != null)
+				sum += base.getSecondaryStat(StatsSecondary.MENTAL);
+		assertEquals(sum, stats.getSum(false)[StatsSecondary.MENTAL.ordinal()]);
+	}
+
+}
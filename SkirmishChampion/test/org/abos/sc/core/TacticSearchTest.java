@@ -0,0 +1,73 @@
+package org.abos.sc.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.abos.sc.core.battle.BattleSimulation;
+import org.abos.sc.core.battle.Conclusion;
+import org.abos.sc.core.battle.Encounter;
+import org.abos.sc.core.battle.Formation;
+import org.abos.sc.core.battle.Strategy;
+import org.abos.sc.core.battle.StrategyType;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Sebastian Koch
+ * @version %I%
+ * @since 0.7
+ */
+public class TacticSearchTest {
+
+	protected static Encounter createOpponent() {
+		Character[][] characters = new Character[Formation.ROW_NUMBER][Formation.COL_NUMBER];
+		characters[0][0] = BattleTest.createCharacter("tank", 80);
+		characters[1][2] = BattleTest.createCharacter("glass", 15);
+		characters[1][1] = BattleTest.createCharacter("glass2", 15);
+		return new Encounter(new Formation(characters), Strategy.createConcentratedAssault());
+	}
+
+	protected static Formation createParty() {
+		Character[][] characters = new Character[Formation.ROW_NUMBER][Formation.COL_NUMBER];
+		characters[0][0] = BattleTest.createCharacter("a", 40);
+		characters[0][2] = BattleTest.createCharacter("b", 40);
+		return new Formation(characters);
+	}
+
+	@Test
+	public void testAttackOrders() {
+		TacticSearch search = new TacticSearch(createParty(), createOpponent());
+		List<int[]> orders = search.createAttackOrders();
+		assertEquals(6, orders.size()); // 3 occupied positions
+		Set<String> distinct = new HashSet<>();
+		for (int[] order : orders) {
+			assertArrayEquals(new int[] {1,2,3}, Arrays.copyOfRange(order, 3, 6));
+			distinct.add(Arrays.toString(order));
+		}
+		assertEquals(6, distinct.size());
+		Encounter full = new Encounter(Formation.createFormation(new Character[] {BattleTest.createCharacter("1", 5), BattleTest.createCharacter("2", 5), 
+				BattleTest.createCharacter("3", 5), BattleTest.createCharacter("4", 5), BattleTest.createCharacter("5", 5), BattleTest.createCharacter("6", 5)}), Strategy.createRowAssault());
+		assertEquals(720, new TacticSearch(createParty(), full).createAttackOrders().size());
+	}
+
+	@Test
+	public void testSearch() {
+		Formation party = createParty();
+		Encounter opponent = createOpponent();
+		TacticSearch search = new TacticSearch(party, opponent);
+		TacticSearch.Result result = search.search();
+		// no predefined strategy is as good as the custom one
+		assertEquals(StrategyType.CUSTOM, result.getStrategy().getType());
+		for (StrategyType type : new StrategyType[] {StrategyType.ROW, StrategyType.COL, StrategyType.CONCENTRATED})
+			assertTrue(result.compareTo(search.evaluate(Strategy.createStrategy(type))) < 0);
+		// the result can be reproduced
+		BattleSimulation simulation = new BattleSimulation(new Encounter(party, result.getStrategy()), opponent);
+		assertEquals(result.getWinRate() == 1d, simulation.simulate() == Conclusion.WON);
+		assertEquals(result.getDamageTaken(), simulation.getDamageTaken(true));
+		assertEquals(result.getStrategy(), Strategy.parse(result.getStrategy().toSaveString()));
+	}
+
+}
@@ -0,0 +1,78 @@
+package org.abos.sc.core;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.abos.sc.core.UnlockGraph.NodeType;
+import org.abos.sc.core.cards.Rarity;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Sebastian Koch
+ * @version %I%
+ * @since 0.7
+ */
+public class UnlockGraphTest {
+
+	/**
+	 * @throws java.lang.Exception
+	 */
+	@BeforeAll
+	public static void setUpBeforeClass() throws Exception {
+		for (String id : new String[] {"t_a", "t_b", "t_c", "t_d"})
+			new CharacterBase(id, id, "t", new String[] {}, new int[] {10,10,10,10,10,10,10,10},
+					StatsPrimary.STRENGTH, StatsSecondary.CONSTITUTION, Rarity.COMMON, "", true);
+		new FandomBase("t", "Test", "t_region", "t_a", true);
+		new RegionBase("t_region", "Test Region", "t", "t_1", true);
+		new RegionBase("t_lost", "Lost Region", "t", "t_4", true);
+		new StageBase("t_1", "One", "t_region", new String[] {"t_2"}, null, null, "t_a|ROW", true);
+		new StageBase("t_2", "Two", "t_region", new String[] {"t_3", "t_1"}, null, null, "t_b,,t_a|ROW", true);
+		new StageBase("t_3", "Three", "t_region", new String[] {"t_3"}, null, null, "t_c|ROW", true);
+		new StageBase("t_4", "Four", "t_lost", new String[] {"t_unknown"}, null, null, "t_d|ROW", true);
+	}
+
+	/**
+	 * @throws java.lang.Exception
+	 */
+	@AfterAll
+	public static void tearDownAfterClass() throws Exception {
+		StageBase.STAGES.clear();
+		RegionBase.REGIONS.clear();
+		FandomBase.FANDOMS.clear();
+		CharacterBase.CHARACTERS.clear();
+	}
+
+	@Test
+	public void testUnreachable() {
+		UnlockGraph.Analysis analysis = UnlockGraph.build().analyse();
+		assertEquals(Arrays.asList("t_d"), analysis.getUnreachable(NodeType.CHARACTER));
+		assertEquals(Arrays.asList("t_lost"), analysis.getUnreachable(NodeType.REGION));
+		assertEquals(Arrays.asList("t_4"), analysis.getUnreachable(NodeType.STAGE));
+	}
+
+	@Test
+	public void testUnlockPath() {
+		UnlockGraph.Analysis analysis = UnlockGraph.build().analyse();
+		assertEquals(4, analysis.getUnlockDepth(NodeType.CHARACTER, "t_c"));
+		assertEquals(Arrays.asList("FANDOM:t", "STAGE:t_1", "STAGE:t_2", "STAGE:t_3"), analysis.getUnlockPath(NodeType.STAGE, "t_3"));
+		assertTrue(analysis.getUnlockPath(NodeType.STAGE, "t_4").isEmpty());
+	}
+
+	@Test
+	public void testCycles() {
+		List<List<String>> cycles = UnlockGraph.build().analyse().getStageCycles();
+		assertEquals(2, cycles.size());
+		assertTrue(cycles.contains(Arrays.asList("t_3")));
+		assertTrue(cycles.stream().anyMatch(cycle -> cycle.containsAll(Arrays.asList("t_1", "t_2")) && cycle.size() == 2));
+	}
+
+	@Test
+	public void testUnresolved() {
+		assertEquals(Arrays.asList("t_4 -> STAGE:t_unknown"), UnlockGraph.build().getUnresolvedReferences());
+	}
+
+}
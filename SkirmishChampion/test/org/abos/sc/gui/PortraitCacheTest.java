@@ -0,0 +1,85 @@
+package org.abos.sc.gui;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.imageio.ImageIO;
+
+import org.abos.util.gui.ImageAtlas;
+import org.abos.util.gui.ImageCache;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Sebastian Koch
+ * @version %I%
+ * @since 0.7
+ */
+public class PortraitCacheTest {
+
+	protected static Path createFandom(int color) throws Exception {
+		Path fandom = Files.createDirectories(Files.createTempDirectory("portraitCache").resolve("f"));
+		for (String id : new String[] {"a", "b", "c"}) {
+			BufferedImage image = new BufferedImage(8, 8, BufferedImage.TYPE_INT_ARGB);
+			image.setRGB(0, 0, color);
+			ImageIO.write(image, "png", fandom.resolve(id+PortraitCache.EXTENSION).toFile());
+		}
+		assertEquals(1, PortraitCache.buildAtlases(fandom.getParent()));
+		return fandom;
+	}
+
+	@Test
+	public void testAtlasWithinBudget() throws Exception {
+		Path fandom = createFandom(0xFF000000);
+		for (String id : new String[] {"a", "b", "c"})
+			Files.delete(fandom.resolve(id+PortraitCache.EXTENSION)); // only the atlas is left
+		final long budget = 2 * 4 * 4 * ImageCache.BYTES_PER_PIXEL; // two images
+		PortraitCache cache = new PortraitCache(new Dimension(4, 4), budget);
+		assertNotNull(cache.load(fandom.resolve("a.png"), null).get());
+		assertNotNull(cache.getNow(fandom.resolve("a.png")));
+		assertTrue(cache.getNow(fandom.resolve("b.png")) != null || cache.getNow(fandom.resolve("c.png")) != null);
+		assertEquals(budget, cache.getBytes());
+		cache.clear();
+		assertNotNull(cache.load(fandom.resolve("c.png"), null).get()); // the atlas is read again
+		assertTrue(cache.getBytes() <= budget);
+	}
+
+	@Test
+	public void testFullBudgetReadsSingleImages() throws Exception {
+		Path fandom = createFandom(0xFF000000);
+		AtomicInteger atlasReads = new AtomicInteger();
+		PortraitCache cache = new PortraitCache(new Dimension(4, 4), 4 * 4 * ImageCache.BYTES_PER_PIXEL) { // one image
+			@Override
+			protected ImageAtlas loadAtlas(Path directory) {
+				atlasReads.incrementAndGet();
+				return super.loadAtlas(directory);
+			}
+		};
+		for (String id : new String[] {"a", "b", "c", "a", "b"})
+			assertNotNull(cache.load(fandom.resolve(id+PortraitCache.EXTENSION), null).get());
+		assertEquals(1, atlasReads.get());
+	}
+
+	@Test
+	public void testStaleAtlas() throws Exception {
+		Path fandom = createFandom(0xFF000000);
+		assertFalse(PortraitCache.isStale(fandom));
+		Path changed = fandom.resolve("b"+PortraitCache.EXTENSION);
+		BufferedImage image = new BufferedImage(8, 8, BufferedImage.TYPE_INT_ARGB);
+		image.setRGB(0, 0, 0xFFFFFFFF);
+		image.setRGB(1, 1, 0xFFFFFFFF);
+		ImageIO.write(image, "png", changed.toFile());
+		FileTime written = Files.getLastModifiedTime(fandom.resolve(PortraitCache.ATLAS_IMAGE));
+		Files.setLastModifiedTime(changed, FileTime.fromMillis(written.toMillis() + 1000L));
+		assertTrue(PortraitCache.isStale(fandom));
+		PortraitCache cache = new PortraitCache(new Dimension(8, 8), Long.MAX_VALUE);
+		assertEquals(0xFFFFFFFF, cache.load(changed, null).get().getRGB(1, 1));
+		assertNull(cache.getNow(fandom.resolve("a"+PortraitCache.EXTENSION))); // the stale atlas wasn't read
+	}
+
+}
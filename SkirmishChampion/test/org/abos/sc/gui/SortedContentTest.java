@@ -0,0 +1,69 @@
+package org.abos.sc.gui;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.abos.sc.core.BattleTest;
+import org.abos.sc.core.CharacterBase;
+import org.abos.sc.core.Companion;
+import org.abos.sc.core.StatsPrimary;
+import org.abos.util.Registry;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Sebastian Koch
+ * @version %I%
+ * @since 0.7
+ */
+public class SortedContentTest {
+
+	protected static Companion createCompanion(String id, int value) {
+		return new Companion(BattleTest.createCharacterBase(id, value, false));
+	}
+
+	protected static void assertSorted(List<Companion> view, Comparator<Companion> comparator) {
+		for (int i = 1; i < view.size(); i++)
+			assertTrue(comparator.compare(view.get(i-1), view.get(i)) <= 0);
+	}
+
+	@Test
+	public void testRefresh() {
+		Registry<Companion> pool = new Registry<>();
+		for (int i = 0; i < 300; i++)
+			pool.add(createCompanion("s_"+i, (i * 37) % 101));
+		SortedContent<Companion> content = new SortedContent<>(pool);
+		Comparator<Companion> byStrength = CharacterBase.createPrimaryComparator(StatsPrimary.STRENGTH);
+		List<Companion> view = content.getSorted(byStrength);
+		assertEquals(300, view.size());
+		assertSorted(view, byStrength);
+		assertSame(view.get(0), content.getSorted(byStrength).get(0));
+		assertEquals(300, content.getSorted(null).size());
+		// added companions are inserted in place
+		pool.add(createCompanion("s_new", 50));
+		assertEquals(300, content.getSorted(byStrength).size());
+		content.refresh();
+		view = content.getSorted(byStrength);
+		assertEquals(301, view.size());
+		assertSorted(view, byStrength);
+		assertEquals(301, content.getSorted(null).size());
+		// changed companions are sorted again
+		Comparator<Companion> byLevel = Comparator.comparingInt(Companion::getLevel);
+		Companion first = content.getSorted(byLevel).get(0);
+		first.increaseLevel();
+		content.refresh();
+		view = content.getSorted(byLevel);
+		assertSorted(view, byLevel);
+		assertSame(first, view.get(view.size()-1));
+		// removed companions rebuild the views
+		pool.removeById("s_new");
+		content.refresh();
+		assertEquals(300, content.getSorted(byStrength).size());
+		assertFalse(content.contains(createCompanion("s_new", 50)));
+		content.setContent(new ArrayList<>());
+		assertTrue(content.getSorted(byStrength).isEmpty());
+	}
+
+}
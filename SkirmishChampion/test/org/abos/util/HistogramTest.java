@@ -0,0 +1,51 @@
+package org.abos.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Sebastian Koch
+ * @version %I%
+ * @since 0.7
+ */
+public class HistogramTest {
+
+	@Test
+	public void testBuckets() {
+		for (long value : new long[] {0L, 1L, 15L, 16L, 17L, 31L, 32L, 1000L, 123456789L, Long.MAX_VALUE}) {
+			int bucket = Histogram.bucket(value);
+			assertTrue(value <= Histogram.upperBound(bucket));
+			assertTrue(bucket == 0 || Histogram.upperBound(bucket - 1) < value);
+			assertTrue(Histogram.upperBound(bucket) - value <= value / Histogram.SUB_BUCKETS);
+		}
+	}
+
+	@Test
+	public void testPercentiles() {
+		Histogram histogram = new Histogram();
+		assertEquals(0L, histogram.getCount());
+		assertEquals(0L, histogram.getPercentile(0.5d));
+		for (long i = 1; i <= 1000; i++)
+			histogram.record(i);
+		histogram.record(-5L);
+		assertEquals(1001L, histogram.getCount());
+		assertEquals(0L, histogram.getMin());
+		assertEquals(1000L, histogram.getMax());
+		assertEquals(500500d / 1001, histogram.getMean(), 1e-9);
+		assertEquals(0L, histogram.getPercentile(0d));
+		assertEquals(1000L, histogram.getPercentile(1d));
+		long median = histogram.getPercentile(0.5d);
+		assertTrue(500L <= median && median <= 500L + 500L / Histogram.SUB_BUCKETS);
+		assertThrows(IllegalArgumentException.class, () -> histogram.getPercentile(1.5d));
+		Histogram other = new Histogram();
+		other.record(5000L);
+		histogram.add(other);
+		assertEquals(1002L, histogram.getCount());
+		assertEquals(5000L, histogram.getMax());
+		histogram.reset();
+		assertEquals(0L, histogram.getCount());
+		assertEquals("count=0", histogram.toString());
+	}
+
+}
@@ -0,0 +1,39 @@
+package org.abos.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Sebastian Koch
+ * @version %I%
+ * @since 0.7
+ */
+public class StartupProfilerTest {
+
+	@Test
+	public void testPhases() throws InterruptedException {
+		StartupProfiler profiler = new StartupProfiler();
+		assertEquals(-1L, profiler.getTimeToFirstFrame());
+		Thread.sleep(5);
+		long first = profiler.lap("a");
+		assertTrue(first >= 5_000_000L);
+		profiler.lap("b");
+		profiler.lap("a");
+		profiler.timed("c", () -> {}).run();
+		Map<String, Long> phases = profiler.getPhases();
+		assertEquals(List.of("a", "b", "c"), List.copyOf(phases.keySet()));
+		assertTrue(phases.get("a") >= first);
+		long frame = profiler.firstFrame();
+		assertTrue(frame >= first);
+		assertEquals(frame, profiler.firstFrame()); // only the first call counts
+		assertEquals(frame, profiler.getTimeToFirstFrame());
+		assertTrue(profiler.toString().startsWith("a="));
+		assertTrue(profiler.toString().contains("first frame="));
+		assertThrows(NullPointerException.class, () -> profiler.lap(null));
+	}
+
+}
@@ -2,6 +2,10 @@ package org.abos.util;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 import org.abos.util.Utilities;
 import org.junit.jupiter.api.Test;
 
@@ -32,4 +36,21 @@ public class UtilitiesTest {
 		assertThrows(NumberFormatException.class, () -> Integer.parseInt(Integer.toString(Integer.MAX_VALUE)+"0"));
 	}
 
+	@Test
+	public void testJsonString() {
+		StringBuilder s = new StringBuilder();
+		Utilities.iterableToJson(Arrays.asList("a\"b", null, "c\\d\n"), s);
+		assertEquals("[\"a\\\"b\",null,\"c\\\\d\\n\"]", s.toString());
+	}
+
+	@Test
+	public void testGetOrCompute() {
+		ConcurrentMap<String, Integer> cache = new ConcurrentHashMap<>();
+		assertEquals(Integer.valueOf(3), Utilities.getOrCompute(cache, "abc", String::length));
+		assertEquals(Integer.valueOf(3), Utilities.getOrCompute(cache, "abc", key -> { throw new AssertionError("cached value recomputed"); }));
+		cache.put("de", 5);
+		assertEquals(Integer.valueOf(5), Utilities.getOrCompute(cache, "de", String::length));
+		assertThrows(NullPointerException.class, () -> Utilities.getOrCompute(cache, "f", key -> null));
+	}
+
 }
@@ -0,0 +1,66 @@
+package org.abos.util.gui;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.abos.util.ParseException;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Sebastian Koch
+ * @version %I%
+ * @since 0.7
+ */
+public class ImageAtlasTest {
+
+	protected static BufferedImage createImage(int width, int height, int rgb) {
+		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+		for (int x = 0; x < width; x++)
+			for (int y = 0; y < height; y++)
+				image.setRGB(x, y, rgb);
+		return image;
+	}
+
+	protected static void assertImage(ImageAtlas atlas, String id, int width, int height, int rgb) {
+		BufferedImage image = atlas.getImage(id);
+		assertEquals(width, image.getWidth());
+		assertEquals(height, image.getHeight());
+		for (int x = 0; x < width; x++)
+			for (int y = 0; y < height; y++)
+				assertEquals(rgb, image.getRGB(x, y));
+	}
+
+	@Test
+	public void testPackSaveLoad() throws IOException {
+		Map<String, BufferedImage> images = new HashMap<>();
+		for (int i = 0; i < 10; i++)
+			images.put("i"+i, createImage(8, 8, 0xff000000 | (i * 0x111111)));
+		images.put("wide", createImage(20, 4, 0xffff0000));
+		ImageAtlas atlas = ImageAtlas.pack(images);
+		assertEquals(images.keySet(), atlas.getIds());
+		assertTrue(atlas.getImage().getWidth() < 11 * 20); // not a single row
+		for (int i = 0; i < 10; i++)
+			assertImage(atlas, "i"+i, 8, 8, 0xff000000 | (i * 0x111111));
+		assertImage(atlas, "wide", 20, 4, 0xffff0000);
+		assertNull(atlas.getImage("missing"));
+		Path dir = Files.createTempDirectory("imageAtlas");
+		atlas.save(dir.resolve("atlas.png"), dir.resolve("atlas.txt"));
+		ImageAtlas loaded = ImageAtlas.load(dir.resolve("atlas.png"), dir.resolve("atlas.txt"));
+		assertEquals(Set.copyOf(images.keySet()), loaded.getIds());
+		for (int i = 0; i < 10; i++)
+			assertImage(loaded, "i"+i, 8, 8, 0xff000000 | (i * 0x111111));
+		assertImage(loaded, "wide", 20, 4, 0xffff0000);
+		Files.writeString(dir.resolve("broken.txt"), "i0;0;0;1000;8");
+		assertThrows(ParseException.class, () -> ImageAtlas.load(dir.resolve("atlas.png"), dir.resolve("broken.txt")));
+		assertThrows(IllegalArgumentException.class, () -> new ImageAtlas(createImage(4, 4, 0), Map.of("a", new Rectangle(2, 2, 4, 4))));
+	}
+
+}
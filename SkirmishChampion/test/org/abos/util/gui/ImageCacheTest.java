@@ -0,0 +1,62 @@
+package org.abos.util.gui;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutionException;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Sebastian Koch
+ * @version %I%
+ * @since 0.7
+ */
+public class ImageCacheTest {
+
+	protected static Path writeImage(Path dir, String name, int width, int height) throws IOException {
+		Path path = dir.resolve(name);
+		ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", path.toFile());
+		return path;
+	}
+
+	@Test
+	public void testLoad() throws IOException, InterruptedException, ExecutionException {
+		Path dir = Files.createTempDirectory("imageCache");
+		Path a = writeImage(dir, "a.png", 128, 96);
+		Path b = writeImage(dir, "b.png", 16, 16);
+		Path c = writeImage(dir, "c.png", 64, 64);
+		// room for two images of 8x8 pixels
+		ImageCache cache = new ImageCache(new Dimension(8, 8), 2 * 8 * 8 * ImageCache.BYTES_PER_PIXEL, Runnable::run);
+		assertNull(cache.getNow(a));
+		BufferedImage image = cache.load(a, null).get();
+		assertEquals(8, image.getWidth());
+		assertEquals(8, image.getHeight());
+		assertSame(image, cache.getNow(a));
+		assertSame(image, cache.load(a, null).get());
+		// a missing image is replaced by the backup
+		Path missing = dir.resolve("missing.png");
+		assertNotNull(cache.load(missing, b).get());
+		assertNotNull(cache.getNow(missing));
+		assertEquals(cache.getByteBudget(), cache.getBytes());
+		// a is used more recently than missing, so missing is evicted
+		cache.getNow(a);
+		cache.load(c, null).get();
+		assertNotNull(cache.getNow(a));
+		assertNull(cache.getNow(missing));
+		assertNotNull(cache.getNow(c));
+		assertEquals(cache.getByteBudget(), cache.getBytes());
+		// without a backup the load fails
+		assertThrows(ExecutionException.class, () -> cache.load(missing, null).get());
+		assertNull(cache.getNow(missing));
+		cache.clear();
+		assertEquals(0L, cache.getBytes());
+	}
+
+}